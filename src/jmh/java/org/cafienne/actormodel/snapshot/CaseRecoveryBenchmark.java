@@ -0,0 +1,67 @@
+package org.cafienne.actormodel.snapshot;
+
+import org.cafienne.cmmn.actorapi.command.casefile.UpdateCaseFileItem;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.Path;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.cmmn.test.TestUser;
+import org.cafienne.json.ValueMap;
+import org.cafienne.system.BenchmarkCaseSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to recover a case with a long history, with a full replay of the journal and with snapshots.
+ * Each measurement removes the case from memory and then sends it a command, which waits for the recovery.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CaseRecoveryBenchmark {
+    @Param({"false", "true"})
+    public boolean snapshots;
+
+    @Param({"1000", "5000"})
+    public int numberOfUpdates;
+
+    private final String caseInstanceId = "case-recovery-benchmark";
+    private BenchmarkCaseSystem caseSystem;
+    private TestUser user;
+
+    @Setup
+    public void createCase() {
+        System.setProperty("cafienne.actor.snapshot.enabled", String.valueOf(snapshots));
+        System.setProperty("cafienne.actor.snapshot.interval", "1000");
+        caseSystem = new BenchmarkCaseSystem("CaseRecoveryBenchmark");
+        user = TestScript.createTestUser("benchmark");
+        CaseDefinition definition = TestScript.loadCaseDefinition("testdefinition/helloworld.xml");
+        caseSystem.run(TestScript.createCaseCommand(user, caseInstanceId, definition, greeting(0)));
+        Path path = new Path("Greeting");
+        for (int i = 1; i <= numberOfUpdates; i++) {
+            caseSystem.run(new UpdateCaseFileItem(user, caseInstanceId, greeting(i).readMap("Greeting"), path));
+        }
+    }
+
+    private ValueMap greeting(int i) {
+        return new ValueMap("Greeting", new ValueMap("Message", "hello " + i, "To", user.id(), "From", user.id()));
+    }
+
+    @Setup(Level.Invocation)
+    public void unloadCase() throws InterruptedException {
+        caseSystem.unload(caseInstanceId);
+    }
+
+    @TearDown
+    public void terminate() {
+        caseSystem.terminate();
+    }
+
+    @Benchmark
+    public Object recover() {
+        return caseSystem.run(TestScript.createPingCommand(user, caseInstanceId, 0));
+    }
+}
@@ -0,0 +1,88 @@
+package org.cafienne.actormodel.snapshot;
+
+import org.cafienne.actormodel.event.ModelEvent;
+import org.cafienne.actormodel.identity.TenantUser;
+import org.cafienne.cmmn.instance.PlanItemType;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.instance.Transition;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.identity.TestIdentityFactory;
+import org.cafienne.infrastructure.serialization.CafienneSerializer;
+import org.cafienne.json.ValueMap;
+import org.cafienne.querydb.materializer.EventFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the full journal of a case with reading a compacted snapshot plus the events stored after it.
+ * Only the deserialization part of recovery is measured; see {@link CaseRecoveryBenchmark} for the recovery of a running case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RecoveryBenchmark {
+    private static final Transition[] transitions = {Transition.Start, Transition.Suspend, Transition.Resume, Transition.Complete, Transition.Reactivate};
+
+    @Param({"1000", "20000"})
+    public int numberOfEvents;
+
+    @Param({"100"})
+    public int eventsAfterSnapshot;
+
+    private final CafienneSerializer serializer = new CafienneSerializer();
+    private final List<byte[]> journal = new ArrayList<>();
+    private final List<String> manifests = new ArrayList<>();
+    private byte[] snapshot;
+    private String snapshotManifest;
+
+    @Setup
+    public void createJournal() {
+        TenantUser user = TestIdentityFactory.createTenantUser("benchmark");
+        EventFactory eventFactory = new EventFactory("recovery-case", TestScript.loadCaseDefinition("testdefinition/helloworld.xml"), user);
+        CompactedEventLog log = new CompactedEventLog();
+        for (int i = 0; i < numberOfEvents; i++) {
+            ModelEvent event;
+            if (i == 0) {
+                event = eventFactory.createCaseDefinitionApplied(user);
+            } else if (i % 4 == 0) {
+                event = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "update " + i), user);
+            } else if (i % 4 == 1) {
+                event = eventFactory.createCaseModified(Instant.now(), user);
+            } else {
+                event = eventFactory.createPlanItemTransitioned("item-" + (i % 100), PlanItemType.HumanTask, State.Active, State.Available, transitions[i % transitions.length], user);
+            }
+            journal.add(serializer.toBinary(event));
+            manifests.add(serializer.manifest(event));
+            log.add(event);
+            if (i == numberOfEvents - eventsAfterSnapshot - 1) {
+                CompactedEventLogSnapshot compacted = log.createSnapshot();
+                snapshot = serializer.toBinary(compacted);
+                snapshotManifest = serializer.manifest(compacted);
+            }
+        }
+    }
+
+    @Benchmark
+    public void fullReplay(Blackhole blackhole) {
+        for (int i = 0; i < journal.size(); i++) {
+            blackhole.consume(serializer.fromBinary(journal.get(i), manifests.get(i)));
+        }
+    }
+
+    @Benchmark
+    public void snapshotAndTail(Blackhole blackhole) {
+        CompactedEventLogSnapshot recovered = (CompactedEventLogSnapshot) serializer.fromBinary(snapshot, snapshotManifest);
+        recovered.getEvents().forEach(blackhole::consume);
+        for (int i = journal.size() - eventsAfterSnapshot; i < journal.size(); i++) {
+            blackhole.consume(serializer.fromBinary(journal.get(i), manifests.get(i)));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.cafienne.cmmn.expression.spel;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.expression.Expression;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.support.StandardTypeLocator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates an expression like a repetition rule in the way the {@link Evaluator} does, for each SpEL compiler mode,
+ * and with new or shared parts of the evaluation context.
+ * The root object is a plain java object instead of an APIRootObject; the latter needs a running case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SpelEvaluationBenchmark {
+    @Param({"OFF", "MIXED", "IMMEDIATE"})
+    public SpelCompilerMode compilerMode;
+
+    @Param({"false", "true"})
+    public boolean sharedContextParts;
+
+    private final List<PropertyAccessor> propertyAccessors = List.of(new ReflectivePropertyAccessor());
+    private final List<MethodResolver> methodResolvers = List.of(new ReflectiveMethodResolver());
+    private final StandardTypeLocator typeLocator = new StandardTypeLocator(getClass().getClassLoader());
+    private final Root root = new Root(new Task("Review", 3));
+    private Expression expression;
+
+    @Setup
+    public void parseExpression() {
+        SpelExpressionParser parser = new SpelExpressionParser(new SpelParserConfiguration(compilerMode, getClass().getClassLoader()));
+        expression = parser.parseExpression("task.index < 10 && task.name == 'Review'");
+    }
+
+    @Benchmark
+    public Boolean evaluate() {
+        StandardEvaluationContext context = new StandardEvaluationContext(root);
+        if (sharedContextParts) {
+            context.setPropertyAccessors(propertyAccessors);
+            context.setMethodResolvers(methodResolvers);
+            context.setTypeLocator(typeLocator);
+        } else {
+            context.addPropertyAccessor(new ReflectivePropertyAccessor());
+        }
+        return expression.getValue(context, Boolean.class);
+    }
+
+    public static class Root {
+        private final Task task;
+
+        Root(Task task) {
+            this.task = task;
+        }
+
+        public Task getTask() {
+            return task;
+        }
+    }
+
+    public static class Task {
+        private final String name;
+        private final int index;
+
+        Task(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.cafienne.cmmn.expression.xpath;
+
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueList;
+import org.cafienne.json.ValueMap;
+import org.openjdk.jmh.annotations.*;
+import org.xml.sax.InputSource;
+
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathFactory;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluating an XPath constraint as the ExpressionEvaluator does now, with an expression that is compiled once
+ * and a DOM built directly from the Value, with compiling the expression on each evaluation and parsing the context as xml text.
+ * If-parts and item controls do not support XPath in this engine, so the constraint is evaluated directly.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XPathEvaluationBenchmark {
+    private static final String expression = "/Order/amount > 10 and /Order/approved = 'true'";
+
+    private Value<?> order;
+    private String orderXml;
+    private XPathExpression compiled;
+
+    @Setup
+    public void createOrder() throws Exception {
+        ValueList items = new ValueList();
+        for (int i = 0; i < 20; i++) {
+            items.add(new ValueMap("name", "item-" + i, "price", i));
+        }
+        order = new ValueMap("customer", new ValueMap("name", "John"), "amount", 12, "approved", true, "items", items);
+        StringWriter writer = new StringWriter();
+        TransformerFactory.newInstance().newTransformer().transform(new DOMSource(ValueDocument.build("Order", order)), new StreamResult(writer));
+        orderXml = writer.toString();
+        compiled = XPathFactory.newInstance().newXPath().compile(expression);
+    }
+
+    @Benchmark
+    public boolean compiledOnValueDocument() throws Exception {
+        return Boolean.parseBoolean(compiled.evaluate(ValueDocument.build("Order", order)));
+    }
+
+    @Benchmark
+    public boolean compiledPerEvaluationOnXmlText() throws Exception {
+        XPathExpression expr = XPathFactory.newInstance().newXPath().compile(expression);
+        return Boolean.parseBoolean(expr.evaluate(new InputSource(new StringReader(orderXml))));
+    }
+}
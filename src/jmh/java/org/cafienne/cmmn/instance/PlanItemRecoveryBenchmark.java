@@ -0,0 +1,57 @@
+package org.cafienne.cmmn.instance;
+
+import org.cafienne.cmmn.actorapi.command.plan.MakePlanItemTransition;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.cmmn.test.TestUser;
+import org.cafienne.system.BenchmarkCaseSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to recover a case with many plan items. The case has a task that repeats each time it completes,
+ * so every completion adds a plan item to the stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PlanItemRecoveryBenchmark {
+    @Param({"1000", "10000"})
+    public int numberOfPlanItems;
+
+    private final String caseInstanceId = "plan-item-recovery-benchmark";
+    private BenchmarkCaseSystem caseSystem;
+    private TestUser user;
+
+    @Setup
+    public void createCase() {
+        // Recovery must replay all events
+        System.setProperty("cafienne.actor.snapshot.enabled", "false");
+        caseSystem = new BenchmarkCaseSystem("PlanItemRecoveryBenchmark");
+        user = TestScript.createTestUser("benchmark");
+        CaseDefinition definition = TestScript.loadCaseDefinition("testdefinition/benchmark/repeatingtask.xml");
+        caseSystem.run(TestScript.createCaseCommand(user, caseInstanceId, definition));
+        for (int i = 1; i < numberOfPlanItems; i++) {
+            caseSystem.run(new MakePlanItemTransition(user, caseInstanceId, "Task", Transition.Complete));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void unloadCase() throws InterruptedException {
+        caseSystem.unload(caseInstanceId);
+    }
+
+    @TearDown
+    public void terminate() {
+        caseSystem.terminate();
+    }
+
+    @Benchmark
+    public Object recover() {
+        return caseSystem.run(TestScript.createPingCommand(user, caseInstanceId, 0));
+    }
+}
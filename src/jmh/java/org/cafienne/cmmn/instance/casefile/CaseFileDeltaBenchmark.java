@@ -0,0 +1,72 @@
+package org.cafienne.cmmn.instance.casefile;
+
+import org.cafienne.cmmn.actorapi.command.casefile.UpdateCaseFileItem;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.Path;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.cmmn.test.TestUser;
+import org.cafienne.json.ValueMap;
+import org.cafienne.system.BenchmarkCaseSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares full value and delta events for small updates on a large case file item.
+ * The size of the journal is printed during setup, the benchmark measures the time to recover the case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CaseFileDeltaBenchmark {
+    @Param({"false", "true"})
+    public boolean deltaEvents;
+
+    @Param({"1000"})
+    public int numberOfUpdates;
+
+    @Param({"100"})
+    public int numberOfProperties;
+
+    private final String caseInstanceId = "case-file-delta-benchmark";
+    private BenchmarkCaseSystem caseSystem;
+    private TestUser user;
+
+    @Setup
+    public void createCase() {
+        System.setProperty("cafienne.engine.interpreter.case-file-delta-events", String.valueOf(deltaEvents));
+        // Recovery must replay all events
+        System.setProperty("cafienne.actor.snapshot.enabled", "false");
+        caseSystem = new BenchmarkCaseSystem("CaseFileDeltaBenchmark");
+        user = TestScript.createTestUser("benchmark");
+        CaseDefinition definition = TestScript.loadCaseDefinition("testdefinition/helloworld.xml");
+        ValueMap greeting = new ValueMap("Message", "hello", "To", user.id(), "From", user.id());
+        for (int i = 0; i < numberOfProperties; i++) {
+            greeting.plus("Property" + i, "A value that takes some space in the journal, for property " + i);
+        }
+        caseSystem.run(TestScript.createCaseCommand(user, caseInstanceId, definition, new ValueMap("Greeting", greeting)));
+        Path path = new Path("Greeting");
+        for (int i = 1; i <= numberOfUpdates; i++) {
+            caseSystem.run(new UpdateCaseFileItem(user, caseInstanceId, new ValueMap("Message", "update " + i), path));
+        }
+        System.out.println("\nJournal of the case has " + caseSystem.journalBytes(caseInstanceId) + " bytes");
+    }
+
+    @Setup(Level.Invocation)
+    public void unloadCase() throws InterruptedException {
+        caseSystem.unload(caseInstanceId);
+    }
+
+    @TearDown
+    public void terminate() {
+        caseSystem.terminate();
+    }
+
+    @Benchmark
+    public Object recover() {
+        return caseSystem.run(TestScript.createPingCommand(user, caseInstanceId, 0));
+    }
+}
@@ -0,0 +1,59 @@
+package org.cafienne.cmmn.instance.sentry;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the criteria that listen to a new plan item through the index with offering the item to all criteria,
+ * as the sentry network did before it had an index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CriteriaIndexBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int numberOfCriteria;
+
+    private final CriteriaIndex<String> index = new CriteriaIndex<>();
+    private final Map<String, Collection<String>> criteria = new LinkedHashMap<>();
+
+    @Setup
+    public void createCriteria() {
+        for (int i = 0; i < numberOfCriteria; i++) {
+            // A few criteria listen to the same source
+            List<String> keys = List.of("pi_" + i % (numberOfCriteria / 4), "Item" + i % (numberOfCriteria / 4));
+            index.add("criterion-" + i, keys);
+            criteria.put("criterion-" + i, keys);
+        }
+    }
+
+    @Benchmark
+    public List<String> indexed() {
+        int source = ThreadLocalRandom.current().nextInt(numberOfCriteria / 4);
+        return index.candidates("pi_" + source, "Item" + source);
+    }
+
+    @Benchmark
+    public List<String> allCriteria() {
+        int source = ThreadLocalRandom.current().nextInt(numberOfCriteria / 4);
+        String id = "pi_" + source;
+        String name = "Item" + source;
+        List<String> candidates = new ArrayList<>();
+        criteria.forEach((criterion, keys) -> {
+            if (keys.contains(id) || keys.contains(name)) {
+                candidates.add(criterion);
+            }
+        });
+        return candidates;
+    }
+}
@@ -0,0 +1,88 @@
+package org.cafienne.cmmn.instance.sentry;
+
+import org.cafienne.cmmn.actorapi.command.casefile.UpdateCaseFileItem;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.Path;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.cmmn.test.TestUser;
+import org.cafienne.json.ValueMap;
+import org.cafienne.system.BenchmarkCaseSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cases with a case file item that is updated many times, which gives a long transition history for that item.
+ * During setup the heap that is retained per recovered case is printed, the benchmark measures the recovery time of a case.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TransitionHistoryBenchmark {
+    @Param({"20"})
+    public int numberOfCases;
+
+    @Param({"2000"})
+    public int numberOfUpdates;
+
+    private BenchmarkCaseSystem caseSystem;
+    private TestUser user;
+    private String[] caseIds;
+
+    @Setup
+    public void createCases() throws InterruptedException {
+        // Recovery must replay all events
+        System.setProperty("cafienne.actor.snapshot.enabled", "false");
+        caseSystem = new BenchmarkCaseSystem("TransitionHistoryBenchmark");
+        user = TestScript.createTestUser("benchmark");
+        CaseDefinition definition = TestScript.loadCaseDefinition("testdefinition/helloworld.xml");
+        Path path = new Path("Greeting");
+        caseIds = new String[numberOfCases];
+        for (int c = 0; c < numberOfCases; c++) {
+            caseIds[c] = "transition-history-benchmark-" + c;
+            caseSystem.run(TestScript.createCaseCommand(user, caseIds[c], definition, new ValueMap("Greeting", greeting(0))));
+            for (int i = 1; i <= numberOfUpdates; i++) {
+                caseSystem.run(new UpdateCaseFileItem(user, caseIds[c], greeting(i), path));
+            }
+        }
+
+        // Compare the heap with and without the cases in memory; the journal remains in memory in both situations
+        caseSystem.unload(caseIds);
+        long withoutCases = usedHeap();
+        for (String caseId : caseIds) {
+            caseSystem.run(TestScript.createPingCommand(user, caseId, 0));
+        }
+        long withCases = usedHeap();
+        System.out.println("\nRetained heap per recovered case is " + (withCases - withoutCases) / numberOfCases / 1024 + " KB");
+    }
+
+    private ValueMap greeting(int i) {
+        return new ValueMap("Message", "hello " + i, "To", user.id(), "From", user.id());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Setup(Level.Invocation)
+    public void unloadCase() throws InterruptedException {
+        caseSystem.unload(caseIds[0]);
+    }
+
+    @TearDown
+    public void terminate() {
+        caseSystem.terminate();
+    }
+
+    @Benchmark
+    public Object recover() {
+        return caseSystem.run(TestScript.createPingCommand(user, caseIds[0], 0));
+    }
+}
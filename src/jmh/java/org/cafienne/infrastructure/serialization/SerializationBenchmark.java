@@ -0,0 +1,74 @@
+package org.cafienne.infrastructure.serialization;
+
+import org.cafienne.actormodel.identity.TenantUser;
+import org.cafienne.cmmn.instance.PlanItemType;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.instance.Transition;
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.identity.TestIdentityFactory;
+import org.cafienne.json.ValueMap;
+import org.cafienne.querydb.materializer.EventFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading representative events in the JSON and the Smile format.
+ * The average size of the events in each format is printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"JSON", "SMILE"})
+    public SerializationFormat format;
+
+    private CafienneSerializer serializer;
+    private List<CafienneSerializable> events;
+    private byte[][] bytes;
+    private String[] manifests;
+
+    @Setup
+    public void createEvents() {
+        serializer = format == SerializationFormat.SMILE ? new CafienneSmileSerializer() : new CafienneSerializer();
+        TenantUser user = TestIdentityFactory.createTenantUser("benchmark");
+        EventFactory eventFactory = new EventFactory("serialization-case", TestScript.loadCaseDefinition("testdefinition/helloworld.xml"), user);
+        events = List.of(
+                eventFactory.createCaseDefinitionApplied(user),
+                eventFactory.createCaseModified(Instant.now(), user),
+                eventFactory.createPlanItemCreated("task-1", PlanItemType.HumanTask, "ReceiveGreeting", "stage-1", user),
+                eventFactory.createPlanItemTransitioned("task-1", PlanItemType.HumanTask, State.Active, State.Available, Transition.Start, user),
+                eventFactory.createCaseFileEvent("Greeting", new ValueMap("Message", "hello", "From", "benchmark"), CaseFileItemTransition.Create, -1, user)
+        );
+        bytes = new byte[events.size()][];
+        manifests = new String[events.size()];
+        long total = 0;
+        for (int i = 0; i < events.size(); i++) {
+            bytes[i] = serializer.toBinary(events.get(i));
+            manifests[i] = serializer.manifest(events.get(i));
+            total += bytes[i].length;
+        }
+        System.out.println("\nAverage size of the events in " + format + " is " + total / events.size() + " bytes");
+    }
+
+    @Benchmark
+    public void write(Blackhole blackhole) {
+        for (CafienneSerializable event : events) {
+            blackhole.consume(serializer.toBinary(event));
+        }
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) {
+        for (int i = 0; i < bytes.length; i++) {
+            blackhole.consume(serializer.fromBinary(bytes[i], manifests[i]));
+        }
+    }
+}
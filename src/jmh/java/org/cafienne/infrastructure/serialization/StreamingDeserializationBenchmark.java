@@ -0,0 +1,54 @@
+package org.cafienne.infrastructure.serialization;
+
+import org.cafienne.actormodel.identity.TenantUser;
+import org.cafienne.cmmn.actorapi.event.plan.PlanItemTransitioned;
+import org.cafienne.cmmn.instance.PlanItemType;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.instance.Transition;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.identity.TestIdentityFactory;
+import org.cafienne.json.ValueMap;
+import org.cafienne.querydb.materializer.EventFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a PlanItemTransitioned event directly from the parser with reading it through the json tree.
+ * Run with '-prof gc' to also compare the allocations per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamingDeserializationBenchmark {
+    @Param({"JSON", "SMILE"})
+    public SerializationFormat format;
+
+    private final CafienneSerializer serializer = new CafienneSerializer();
+    private byte[] bytes;
+    private String manifest;
+
+    @Setup
+    public void createEvent() {
+        TenantUser user = TestIdentityFactory.createTenantUser("benchmark");
+        EventFactory eventFactory = new EventFactory("streaming-case", TestScript.loadCaseDefinition("testdefinition/helloworld.xml"), user);
+        ValueMap json = eventFactory.createPlanItemTransitioned("task-1", PlanItemType.HumanTask, State.Active, State.Available, Transition.Start, user).rawJson();
+        // Only events with a path can be read in streaming mode
+        PlanItemTransitioned event = new PlanItemTransitioned(json.plus(Fields.path, "Greeting/ReceiveGreeting", Fields.stageId, "stage-1"));
+        bytes = format.toBytes(event);
+        manifest = serializer.manifest(event);
+    }
+
+    @Benchmark
+    public Object streaming() {
+        return serializer.fromBinary(bytes, manifest);
+    }
+
+    @Benchmark
+    public Object tree() throws Exception {
+        return serializer.fromJson(format.parse(bytes), manifest);
+    }
+}
@@ -0,0 +1,59 @@
+package org.cafienne.json;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing a request body while its chunks arrive with collecting all chunks first and then parsing the body,
+ * as HttpJsonReader did before. Run with '-prof gc' to also compare the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StreamingJSONReaderBenchmark {
+    private static final int chunkSize = 8 * 1024;
+
+    @Param({"100", "10000"})
+    public int numberOfItems;
+
+    private final List<byte[]> chunks = new ArrayList<>();
+
+    @Setup
+    public void createBody() {
+        ValueList items = new ValueList();
+        for (int i = 0; i < numberOfItems; i++) {
+            items.add(new ValueMap("id", "item-" + i, "description", "Item number " + i + " of the request", "amount", i, "approved", i % 2 == 0));
+        }
+        byte[] body = new ValueMap("Request", new ValueMap("Items", items)).toString().getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < body.length; offset += chunkSize) {
+            chunks.add(Arrays.copyOfRange(body, offset, Math.min(offset + chunkSize, body.length)));
+        }
+    }
+
+    @Benchmark
+    public Value<?> streaming() throws Exception {
+        StreamingJSONReader reader = new StreamingJSONReader();
+        for (byte[] chunk : chunks) {
+            reader.feed(chunk);
+        }
+        return reader.complete();
+    }
+
+    @Benchmark
+    public Value<?> collected() throws Exception {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (byte[] chunk : chunks) {
+            body.write(chunk);
+        }
+        return JSONReader.parse(body.toByteArray());
+    }
+}
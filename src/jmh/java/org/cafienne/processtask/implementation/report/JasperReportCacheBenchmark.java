@@ -0,0 +1,43 @@
+package org.cafienne.processtask.implementation.report;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares getting a report template from the cache with compiling it, as every report task did before the cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JasperReportCacheBenchmark {
+    private String source;
+
+    @Setup
+    public void readTemplate() throws IOException, JRException {
+        try (InputStream is = getClass().getClassLoader().getResourceAsStream("testdefinition/task/report/CustomersReport.jrxml")) {
+            source = new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        JasperReportCache.get(source);
+    }
+
+    @Benchmark
+    public JasperReport cached() throws JRException {
+        return JasperReportCache.get(source);
+    }
+
+    @Benchmark
+    public JasperReport compiled() throws JRException {
+        return JasperCompileManager.compileReport(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+    }
+}
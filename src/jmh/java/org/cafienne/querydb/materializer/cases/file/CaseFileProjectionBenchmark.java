@@ -0,0 +1,68 @@
+package org.cafienne.querydb.materializer.cases.file;
+
+import org.cafienne.actormodel.identity.TenantUser;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.identity.TestIdentityFactory;
+import org.cafienne.json.JSONReader;
+import org.cafienne.json.ValueMap;
+import org.cafienne.querydb.materializer.EventFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a batch with a single property update on a large case file, when the case file is read and parsed
+ * from its stored json and when it is taken from the {@link CaseFileCache}.
+ * Both include serializing the case file into the CaseFileRecord.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CaseFileProjectionBenchmark {
+    @Param({"100", "10000"})
+    public int numberOfProperties;
+
+    private final CaseFileCache cache = new CaseFileCache(10);
+    private final String caseInstanceId = "case-file-projection-benchmark";
+    private String storedCaseFile;
+    private EventFactory eventFactory;
+    private TenantUser user;
+    private long sequenceNr;
+
+    @Setup
+    public void createCaseFile() {
+        user = TestIdentityFactory.createTenantUser("benchmark");
+        eventFactory = new EventFactory(caseInstanceId, TestScript.loadCaseDefinition("testdefinition/helloworld.xml"), user);
+        ValueMap greeting = new ValueMap("Message", "hello");
+        for (int i = 0; i < numberOfProperties; i++) {
+            greeting.plus("Property" + i, "A value that takes some space in the case file, for property " + i);
+        }
+        ValueMap caseFile = new ValueMap("Greeting", greeting);
+        storedCaseFile = caseFile.toString();
+        cache.checkin(caseInstanceId, caseFile, sequenceNr);
+    }
+
+    private String update(ValueMap caseFile) {
+        CaseFileEventBuffer buffer = new CaseFileEventBuffer();
+        buffer.addEvent(eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "update " + sequenceNr), user));
+        buffer.update(caseFile);
+        return caseFile.toString();
+    }
+
+    @Benchmark
+    public String readFromDatabase() throws Exception {
+        sequenceNr++;
+        return update(JSONReader.parse(storedCaseFile));
+    }
+
+    @Benchmark
+    public String takeFromCache() {
+        ValueMap caseFile = cache.checkout(caseInstanceId, ++sequenceNr).get();
+        String record = update(caseFile);
+        cache.checkin(caseInstanceId, caseFile, sequenceNr);
+        return record;
+    }
+}
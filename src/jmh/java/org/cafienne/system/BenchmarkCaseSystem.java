@@ -0,0 +1,64 @@
+package org.cafienne.system;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.persistence.query.PersistenceQuery;
+import akka.persistence.query.javadsl.CurrentEventsByPersistenceIdQuery;
+import akka.serialization.Serialization;
+import akka.serialization.SerializationExtension;
+import org.cafienne.actormodel.command.ModelCommand;
+import org.cafienne.actormodel.command.TerminateModelActor;
+import org.cafienne.infrastructure.Cafienne;
+import scala.jdk.javaapi.FutureConverters;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * CaseSystem for benchmarks that need running cases, on top of the test configuration.
+ * Configuration can be overridden with system properties, as long as they are set before the configuration is first loaded in the fork.
+ */
+public class BenchmarkCaseSystem {
+    private final CaseSystem caseSystem;
+
+    public BenchmarkCaseSystem(String name) {
+        this.caseSystem = new CaseSystem(ActorSystem.create(name, Cafienne.config().systemConfig()));
+    }
+
+    public CompletableFuture<Object> request(ModelCommand command) {
+        return FutureConverters.asJava(caseSystem.gateway().request(command)).toCompletableFuture();
+    }
+
+    /**
+     * Sends the command and waits for the response
+     */
+    public Object run(ModelCommand command) {
+        return request(command).join();
+    }
+
+    /**
+     * Removes the actors from memory, so that the next command to each of them triggers a recovery.
+     */
+    public void unload(String... actorIds) throws InterruptedException {
+        for (String actorId : actorIds) {
+            caseSystem.gateway().inform(new TerminateModelActor(actorId), ActorRef.noSender());
+        }
+        // Similar to the ForceRecoveryCommand, give the system some time to clean up the actor and the references
+        Thread.sleep(500);
+    }
+
+    /**
+     * Returns the total number of bytes of the events in the journal of the actor, as written by the configured serializer.
+     */
+    public long journalBytes(String persistenceId) {
+        ActorSystem system = caseSystem.system();
+        CurrentEventsByPersistenceIdQuery journal = PersistenceQuery.get(system).getReadJournalFor(CurrentEventsByPersistenceIdQuery.class, Cafienne.config().readJournal());
+        Serialization serialization = SerializationExtension.get(system);
+        return journal.currentEventsByPersistenceId(persistenceId, 0, Long.MAX_VALUE)
+                .runFold(0L, (size, envelope) -> size + serialization.serialize(envelope.event()).get().length, system)
+                .toCompletableFuture().join();
+    }
+
+    public void terminate() {
+        caseSystem.system().terminate();
+    }
+}
@@ -0,0 +1,69 @@
+package org.cafienne.system.router;
+
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.cmmn.test.TestUser;
+import org.cafienne.json.ValueMap;
+import org.cafienne.system.BenchmarkCaseSystem;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of commands per second that the gateway can route to many distinct cases,
+ * with the given number of router partitions. The cases are started during setup, against the test configuration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GatewayBenchmark {
+    private static final int commandsPerInvocation = 1000;
+
+    @Param({"1", "8"})
+    public int partitions;
+
+    @Param({"1000"})
+    public int numberOfCases;
+
+    private BenchmarkCaseSystem caseSystem;
+    private TestUser user;
+    private String[] caseIds;
+
+    @Setup
+    public void startCases() {
+        // Each set of parameters runs in its own fork, so the property is read when the configuration is first loaded
+        System.setProperty("cafienne.actor.routing.partitions", String.valueOf(partitions));
+        caseSystem = new BenchmarkCaseSystem("GatewayBenchmark");
+        user = TestScript.createTestUser("benchmark");
+        CaseDefinition definition = TestScript.loadCaseDefinition("testdefinition/helloworld.xml");
+        ValueMap greeting = new ValueMap("Greeting", new ValueMap("Message", "hello", "To", user.id(), "From", user.id()));
+        caseIds = new String[numberOfCases];
+        CompletableFuture<?>[] started = new CompletableFuture<?>[numberOfCases];
+        for (int i = 0; i < numberOfCases; i++) {
+            caseIds[i] = "gateway-benchmark-" + i;
+            started[i] = caseSystem.request(TestScript.createCaseCommand(user, caseIds[i], definition, greeting.cloneValueNode()));
+        }
+        CompletableFuture.allOf(started).join();
+    }
+
+    @TearDown
+    public void terminate() {
+        caseSystem.terminate();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(commandsPerInvocation)
+    public void commandsToRandomCases() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[commandsPerInvocation];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < commandsPerInvocation; i++) {
+            responses[i] = caseSystem.request(TestScript.createPingCommand(user, caseIds[random.nextInt(caseIds.length)], 0));
+        }
+        CompletableFuture.allOf(responses).join();
+    }
+}
@@ -0,0 +1,68 @@
+package org.cafienne.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the segmented cache with a single synchronized LRU map, as the caches used before, with concurrent readers and writers.
+ * The keys are taken from a range that is larger than the cache, so that there are misses and evictions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+public class SegmentedLRUCacheBenchmark {
+    @Param({"1000"})
+    public int maxSize;
+
+    private SegmentedLRUCache<String, String> segmented;
+    private Map<String, String> synchronizedMap;
+    private String[] keys;
+
+    @Setup
+    public void createCaches() {
+        segmented = new SegmentedLRUCache<>(maxSize);
+        synchronizedMap = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > maxSize;
+            }
+        });
+        keys = new String[maxSize * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "key-" + i;
+        }
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    @Benchmark
+    public String segmented() {
+        String key = randomKey();
+        String value = segmented.get(key);
+        if (value == null) {
+            segmented.put(key, key);
+        }
+        return value;
+    }
+
+    @Benchmark
+    public String synchronizedLinkedHashMap() {
+        String key = randomKey();
+        String value = synchronizedMap.get(key);
+        if (value == null) {
+            synchronizedMap.put(key, key);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,50 @@
+package org.cafienne.authentication
+
+import com.nimbusds.jose.crypto.{RSASSASigner, RSASSAVerifier}
+import com.nimbusds.jose.jwk.RSAKey
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator
+import com.nimbusds.jose.{JWSAlgorithm, JWSHeader}
+import com.nimbusds.jwt.{JWTClaimsSet, SignedJWT}
+import org.openjdk.jmh.annotations._
+
+import java.util.Date
+import java.util.concurrent.TimeUnit
+
+/**
+  * Compares taking the user of a token from the cache with parsing the token and verifying its signature,
+  * which the verifier does for every request without the cache. Fetching the keys is not included.
+  */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+class VerifiedTokenCacheBenchmark {
+  private val key: RSAKey = new RSAKeyGenerator(2048).generate()
+  private val verifier = new RSASSAVerifier(key.toRSAPublicKey)
+  private val cache = new VerifiedTokenCache(1000)
+  private var token: String = _
+
+  @Setup
+  def createToken(): Unit = {
+    val expiresAt = new Date(System.currentTimeMillis() + 3600 * 1000)
+    val claims = new JWTClaimsSet.Builder().subject("benchmark").issuer("benchmark-issuer").expirationTime(expiresAt).build()
+    val jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claims)
+    jwt.sign(new RSASSASigner(key))
+    token = jwt.serialize()
+    cache.put(token, new AuthenticatedUser(token, claims), expiresAt.getTime)
+  }
+
+  @Benchmark
+  def cached(): Option[AuthenticatedUser] = cache.get(token)
+
+  @Benchmark
+  def verified(): AuthenticatedUser = {
+    val jwt = SignedJWT.parse(token)
+    if (!jwt.verify(verifier)) {
+      throw new IllegalStateException("Token signature is invalid")
+    }
+    new AuthenticatedUser(token, jwt.getJWTClaimsSet)
+  }
+}
@@ -17,27 +17,39 @@
 
 package org.cafienne.actormodel;
 
+import akka.actor.ActorRef;
 import akka.actor.PoisonPill;
+import akka.cluster.sharding.ShardRegion;
 import akka.persistence.AbstractPersistentActor;
+import akka.persistence.DeleteSnapshotsFailure;
+import akka.persistence.DeleteSnapshotsSuccess;
 import akka.persistence.JournalProtocol;
+import akka.persistence.SaveSnapshotFailure;
+import akka.persistence.SaveSnapshotSuccess;
 import akka.persistence.SnapshotOffer;
 import akka.persistence.SnapshotProtocol;
+import akka.persistence.SnapshotSelectionCriteria;
 import org.cafienne.actormodel.command.BootstrapMessage;
 import org.cafienne.actormodel.command.ModelCommand;
+import org.cafienne.actormodel.command.TerminateModelActor;
 import org.cafienne.actormodel.event.ActorModified;
 import org.cafienne.actormodel.event.ModelEvent;
 import org.cafienne.actormodel.exception.CommandException;
 import org.cafienne.actormodel.identity.UserIdentity;
 import org.cafienne.actormodel.message.IncomingActorMessage;
+import org.cafienne.actormodel.response.ActorTerminated;
 import org.cafienne.actormodel.response.CommandFailure;
 import org.cafienne.actormodel.response.CommandFailureListener;
 import org.cafienne.actormodel.response.CommandResponseListener;
 import org.cafienne.actormodel.response.ModelResponse;
+import org.cafienne.actormodel.snapshot.CompactedEventLog;
 import org.cafienne.cmmn.instance.debug.DebugInfoAppender;
 import org.cafienne.infrastructure.Cafienne;
 import org.cafienne.infrastructure.CafienneVersion;
+import org.cafienne.infrastructure.config.ModelActorSnapshotConfig;
 import org.cafienne.infrastructure.enginedeveloper.EngineDeveloperConsole;
 import org.cafienne.system.CaseSystem;
+import org.cafienne.system.router.CaseMessageRouter;
 import org.cafienne.system.health.HealthMonitor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -106,10 +118,26 @@ public abstract class ModelActor extends AbstractPersistentActor {
      */
     public final CaseSystem caseSystem;
 
+    /**
+     * Snapshot settings, and the compacted log of events that is stored inside a snapshot.
+     * The log is only filled if the ModelActor supports snapshots and they are enabled in the configuration.
+     */
+    private final ModelActorSnapshotConfig snapshotConfig = Cafienne.config().actor().snapshot();
+    private final CompactedEventLog eventLog = new CompactedEventLog();
+    private final boolean snapshotsEnabled;
+    /**
+     * Flag indicating that the ModelActor runs inside a shard of the cluster, and if so,
+     * the requester that must be informed when the actor is removed from memory.
+     */
+    private final boolean shardedRouting = Cafienne.config().actor().routing().sharded();
+    private ActorRef terminationRequester;
+
     protected ModelActor(CaseSystem caseSystem) {
         this.caseSystem = caseSystem;
-        this.id = self().path().name();
+        // Actor names are URL-encoded by the router, the id and persistence id are not
+        this.id = CaseMessageRouter.actorId(self().path().name());
         this.scheduler = new CaseScheduler(this);
+        this.snapshotsEnabled = supportsSnapshots() && snapshotConfig.enabled();
     }
 
     abstract protected boolean supportsCommand(Object msg);
@@ -120,6 +148,15 @@ public abstract class ModelActor extends AbstractPersistentActor {
         return true;
     }
 
+    /**
+     * Indicates whether the ModelActor can recover from a snapshot of its compacted event log.
+     * This requires that the state of the actor can be built by replaying only the most recent
+     * events for each {@link ModelEvent#compactionKey()}.
+     */
+    protected boolean supportsSnapshots() {
+        return false;
+    }
+
     public CafienneVersion getEngineVersion() {
         return this.engineVersion;
     }
@@ -225,6 +262,56 @@ public abstract class ModelActor extends AbstractPersistentActor {
     }
 
     protected void handleSnapshotProtocolMessage(SnapshotProtocol.Message message) {
+        if (message instanceof SaveSnapshotSuccess) {
+            // Older snapshots are no longer needed. A pending passivation continues when the deletion is confirmed.
+            long sequenceNr = ((SaveSnapshotSuccess) message).metadata().sequenceNr();
+            getLogger().debug("Saved snapshot of " + this + " at sequence number " + sequenceNr);
+            deleteSnapshots(SnapshotSelectionCriteria.create(sequenceNr - 1, Long.MAX_VALUE));
+        } else if (message instanceof SaveSnapshotFailure) {
+            // Not a big issue, recovery will simply replay more events from the journal
+            getLogger().warn("Could not save snapshot of " + this, ((SaveSnapshotFailure) message).cause());
+            continuePassivation();
+        } else if (message instanceof DeleteSnapshotsSuccess) {
+            getLogger().debug("Deleted older snapshots of " + this);
+            continuePassivation();
+        } else if (message instanceof DeleteSnapshotsFailure) {
+            getLogger().warn("Could not delete older snapshots of " + this, ((DeleteSnapshotsFailure) message).cause());
+            continuePassivation();
+        }
+    }
+
+    /**
+     * Adds an event that is persisted or recovered from the journal to the compacted event log
+     */
+    void logEvent(ModelEvent event) {
+        if (snapshotsEnabled) {
+            eventLog.add(event);
+        }
+    }
+
+    /**
+     * Adds an event that is recovered from a snapshot to the compacted event log
+     */
+    void logSnapshotEvent(ModelEvent event) {
+        if (snapshotsEnabled) {
+            eventLog.restore(event);
+        }
+    }
+
+    /**
+     * Saves a snapshot if the configured number of events has been persisted since the previous snapshot.
+     */
+    void saveSnapshotIfNeeded() {
+        if (snapshotsEnabled && eventLog.getEventsSinceLastSnapshot() >= snapshotConfig.interval()) {
+            saveCompactedEventLog();
+        }
+    }
+
+    private void saveCompactedEventLog() {
+        if (getLogger().isDebugEnabled()) {
+            getLogger().debug("Saving snapshot of " + this + " with " + eventLog.size() + " events at sequence number " + lastSequenceNr());
+        }
+        saveSnapshot(eventLog.createSnapshot());
     }
 
     protected void handleJournalProtocolMessage(JournalProtocol.Message message) {
@@ -236,13 +323,65 @@ public abstract class ModelActor extends AbstractPersistentActor {
     }
 
     void takeABreak() {
-        takeABreak("Removing actor " + getClass().getSimpleName() + " " + getId() + " from memory, as it has been idle for " + (Cafienne.config().actor().idlePeriod() / 1000) + " seconds");
+        String msg = "Removing actor " + getClass().getSimpleName() + " " + getId() + " from memory, as it has been idle for " + (Cafienne.config().actor().idlePeriod() / 1000) + " seconds";
+        if (snapshotsEnabled && snapshotConfig.onPassivation() && eventLog.getEventsSinceLastSnapshot() > 0) {
+            // Stay in memory until the snapshot store has handled the snapshot, otherwise the confirmation goes to dead letters
+            pendingPassivation = msg;
+            saveCompactedEventLog();
+        } else {
+            takeABreak(msg);
+        }
+    }
+
+    /**
+     * Message for the passivation that waits for the snapshot store to confirm the snapshot that is saved upon passivation.
+     */
+    private String pendingPassivation = null;
+
+    private void continuePassivation() {
+        if (pendingPassivation != null) {
+            String msg = pendingPassivation;
+            pendingPassivation = null;
+            takeABreak(msg);
+        }
+    }
+
+    /**
+     * A new incoming message means the actor is no longer idle, so it must stay in memory.
+     */
+    void cancelPassivation() {
+        if (pendingPassivation != null) {
+            getLogger().debug("Cancelling passivation of " + this + " because a new message arrived");
+            pendingPassivation = null;
+        }
     }
 
     void takeABreak(String msg) {
         getLogger().debug(msg);
 //        System.out.println(msg);
-        self().tell(PoisonPill.getInstance(), self());
+        if (shardedRouting) {
+            // Let the shard know we're going, so that it can buffer new messages until we've stopped
+            getContext().getParent().tell(new ShardRegion.Passivate(PoisonPill.getInstance()), self());
+        } else {
+            self().tell(PoisonPill.getInstance(), self());
+        }
+    }
+
+    /**
+     * In sharded routing mode, the termination request is sent to the ModelActor itself.
+     * The requester is informed when the actor has stopped.
+     */
+    void handleTerminationRequest(TerminateModelActor request) {
+        terminationRequester = sender();
+        takeABreak("Removing actor " + getClass().getSimpleName() + " " + getId() + " from memory upon termination request");
+    }
+
+    @Override
+    public void postStop() {
+        super.postStop();
+        if (terminationRequester != null) {
+            terminationRequester.tell(new ActorTerminated(getId()), self());
+        }
     }
 
     protected void handleBootstrapMessage(BootstrapMessage message) {
@@ -451,7 +590,7 @@ public abstract class ModelActor extends AbstractPersistentActor {
 
     @Override
     public String toString() {
-        return this.getClass().getSimpleName() + "[" + self().path().name() + "]";
+        return this.getClass().getSimpleName() + "[" + getId() + "]";
     }
 
     /**
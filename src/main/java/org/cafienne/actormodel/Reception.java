@@ -20,6 +20,7 @@ package org.cafienne.actormodel;
 import akka.persistence.JournalProtocol;
 import akka.persistence.SnapshotProtocol;
 import org.cafienne.actormodel.command.ModelCommand;
+import org.cafienne.actormodel.command.TerminateModelActor;
 import org.cafienne.actormodel.event.ModelEvent;
 import org.cafienne.actormodel.exception.InvalidCommandException;
 import org.cafienne.actormodel.message.IncomingActorMessage;
@@ -63,10 +64,14 @@ class Reception {
     void handleMessage(Object message) {
         if (message instanceof IncomingActorMessage) {
             IncomingActorMessage visitor = (IncomingActorMessage) message;
+            actor.cancelPassivation();
             // Responses are always allowed, as they come only when we have requested something
             if (visitor.isResponse() || canPass(visitor.asCommand())) {
                 backoffice.handleVisitor(visitor);
             }
+        } else if (message instanceof TerminateModelActor) {
+            // Only happens in sharded routing mode; in local mode the router stops the actor.
+            actor.handleTerminationRequest((TerminateModelActor) message);
         } else if (message instanceof SnapshotProtocol.Message) {
             // Weirdly enough snapshotting takes a different route than event persistence...
             actor.handleSnapshotProtocolMessage((SnapshotProtocol.Message) message);
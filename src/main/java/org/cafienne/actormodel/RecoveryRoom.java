@@ -22,6 +22,7 @@ import akka.persistence.SnapshotOffer;
 import org.cafienne.actormodel.event.DebugEvent;
 import org.cafienne.actormodel.event.EngineVersionChanged;
 import org.cafienne.actormodel.event.ModelEvent;
+import org.cafienne.actormodel.snapshot.CompactedEventLogSnapshot;
 import org.cafienne.infrastructure.serialization.DeserializationFailure;
 import org.cafienne.infrastructure.serialization.Fields;
 
@@ -43,7 +44,7 @@ class RecoveryRoom {
 
     void handleRecovery(Object msg) {
         // Steps:
-        // 0. Pass snapshots to the model actor
+        // 0. Recover the events inside a compacted event log snapshot, pass other snapshots to the model actor
         // 1. For ModelEvents:
         //  a. Ignore DebugEvent message
         //  b. If supported event, run the recovery handler for it, including necessary bootstrapping
@@ -52,7 +53,12 @@ class RecoveryRoom {
         // 3. Invoke a "hook" method to indicate recovery completion upon RecoveryCompleted (used in TimerService)
         // 4. In all other cases print warn statements and ignore the event.
         if (msg instanceof SnapshotOffer) {
-            actor.handleSnapshot((SnapshotOffer) msg);
+            SnapshotOffer offer = (SnapshotOffer) msg;
+            if (offer.snapshot() instanceof CompactedEventLogSnapshot) {
+                recoverSnapshot((CompactedEventLogSnapshot) offer.snapshot());
+            } else {
+                actor.handleSnapshot(offer);
+            }
         } else if (msg instanceof ModelEvent) {
             ModelEvent event = (ModelEvent) msg;
             actor.setCurrentUser(event.getUser());
@@ -61,6 +67,7 @@ class RecoveryRoom {
             } else if (actor.supportsEvent(event) || event instanceof EngineVersionChanged) {
                 // Step 1b, supported event
                 recoverEvent(event);
+                actor.logEvent(event);
             } else {
                 // Step 1c. Weird: ModelEvents in recovery of other models??
                 reception.reportInvalidRecoveryEvent(event);
@@ -80,6 +87,24 @@ class RecoveryRoom {
         }
     }
 
+    private void recoverSnapshot(CompactedEventLogSnapshot snapshot) {
+        if (actor.getLogger().isDebugEnabled()) {
+            actor.getLogger().debug("Recovering " + actor + " from " + snapshot);
+        }
+        for (Object msg : snapshot.getEvents()) {
+            if (msg instanceof ModelEvent) {
+                ModelEvent event = (ModelEvent) msg;
+                actor.setCurrentUser(event.getUser());
+                recoverEvent(event);
+                actor.logSnapshotEvent(event);
+            } else if (msg instanceof DeserializationFailure) {
+                reception.reportDeserializationFailure((DeserializationFailure) msg);
+            } else {
+                actor.getLogger().warn(actor + " found unknown message of type " + msg.getClass().getName() + " inside snapshot: " + msg);
+            }
+        }
+    }
+
     private void recoverEvent(ModelEvent event) {
         if (event.isBootstrapMessage()) {
             // Set the tenant.
@@ -156,8 +156,12 @@ public class StagingArea {
                     getLogger().debug(actor + " - persisted event [" + actor.lastSequenceNr() + "] of type " + persistedEvent.getClass().getName());
                 }
             }
+            if (persistedEvent instanceof Tagged && ((Tagged) persistedEvent).payload() instanceof ModelEvent) {
+                actor.logEvent((ModelEvent) ((Tagged) persistedEvent).payload());
+            }
             if (persistedEvent == lastTaggedEvent) {
                 actor.reply(response);
+                actor.saveSnapshotIfNeeded();
             }
         });
     }
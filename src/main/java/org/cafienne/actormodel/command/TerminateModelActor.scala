@@ -19,4 +19,10 @@ package org.cafienne.actormodel.command
 
 import org.cafienne.infrastructure.serialization.JacksonSerializable
 
-case class TerminateModelActor(actorId: String) extends JacksonSerializable
+/**
+  * Request to remove a ModelActor from memory. The actorType is the simple class name of the ModelActor (e.g. "Case"),
+  * and is used in sharded routing mode to find the actor. If it is empty, the actor is assumed to be a Case.
+  */
+case class TerminateModelActor(actorId: String, actorType: String = "") extends JacksonSerializable {
+  def this(actorId: String) = this(actorId, "")
+}
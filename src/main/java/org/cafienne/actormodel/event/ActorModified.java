@@ -75,4 +75,9 @@ public abstract class ActorModified<M extends ModelActor> extends BaseModelEvent
         writeField(generator, Fields.lastModified, lastModified);
         writeField(generator, Fields.source, sourceString);
     }
+
+    @Override
+    public String compactionKey() {
+        return getClass().getSimpleName();
+    }
 }
@@ -21,14 +21,16 @@ import com.fasterxml.jackson.core.JsonGenerator;
 import org.cafienne.actormodel.ModelActor;
 import org.cafienne.actormodel.identity.UserIdentity;
 import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.json.JSONParseFailure;
+import org.cafienne.json.JSONReader;
 import org.cafienne.json.ValueMap;
 
 import java.io.IOException;
 import java.time.Instant;
 
 public abstract class BaseModelEvent<M extends ModelActor> implements ModelEvent {
-    private final ValueMap json;
-    
+    private volatile ValueMap json;
+
     // Serializable fields
     private final String actorId;
     public final String tenant;
@@ -52,6 +54,35 @@ public abstract class BaseModelEvent<M extends ModelActor> implements ModelEvent
         this.user = modelEventJson.readObject(Fields.user, UserIdentity::deserialize);
     }
 
+    /**
+     * Constructor for events that are read directly from a JsonParser.
+     * The raw json of such an event is only created when it is asked for.
+     */
+    protected BaseModelEvent(Header header) {
+        this.json = null;
+        this.actorId = header.actorId;
+        this.tenant = header.tenant;
+        this.timestamp = header.timestamp;
+        this.user = header.user;
+    }
+
+    /**
+     * The fields of the {@link Fields#modelEvent} structure, read in streaming mode.
+     */
+    protected static class Header {
+        private final String actorId;
+        private final String tenant;
+        private final Instant timestamp;
+        private final UserIdentity user;
+
+        public Header(ValueMap modelEventJson) {
+            this.actorId = modelEventJson.readString(Fields.actorId);
+            this.tenant = modelEventJson.readString(Fields.tenant);
+            this.timestamp = modelEventJson.readInstant(Fields.timestamp);
+            this.user = modelEventJson.readObject(Fields.user, UserIdentity::deserialize);
+        }
+    }
+
     @Override
     public String tenant() {
         return tenant;
@@ -64,7 +95,23 @@ public abstract class BaseModelEvent<M extends ModelActor> implements ModelEvent
      * @return
      */
     public final ValueMap rawJson() {
-        return this.json;
+        ValueMap json = this.json;
+        if (json == null) {
+            // Event was read in streaming mode; create the json from the content.
+            //  Events can be read from multiple threads (e.g. the history and archive routes), hence the lock.
+            synchronized (this) {
+                json = this.json;
+                if (json == null) {
+                    try {
+                        json = JSONReader.parse(toBytes());
+                    } catch (IOException | JSONParseFailure e) {
+                        throw new RuntimeException("Could not create json for event of type " + getClass().getName(), e);
+                    }
+                    this.json = json;
+                }
+            }
+        }
+        return json;
     }
 
     /**
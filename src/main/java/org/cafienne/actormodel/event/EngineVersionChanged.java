@@ -64,4 +64,9 @@ public class EngineVersionChanged extends BaseModelEvent<ModelActor> {
         super.writeModelEvent(generator);
         super.writeField(generator, Fields.version, version.json());
     }
+
+    @Override
+    public String compactionKey() {
+        return getClass().getSimpleName();
+    }
 }
@@ -44,4 +44,13 @@ public interface ModelEvent extends UserMessage {
     String getDescription();
 
     ValueMap rawJson();
+
+    /**
+     * Events that overwrite a specific part of the actor state can return a key identifying that part.
+     * When the ModelActor stores a snapshot, only the first and the most recent event for each key are kept.
+     * Events that return null are always kept in the snapshot.
+     */
+    default String compactionKey() {
+        return null;
+    }
 }
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.actormodel.snapshot;
+
+import org.cafienne.actormodel.event.DebugEvent;
+import org.cafienne.actormodel.event.ModelEvent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory log of the events of a ModelActor that are still relevant to rebuild its state.
+ * For events that provide a {@link ModelEvent#compactionKey()} only the first and the most recent event with that key are kept,
+ * all other events are always kept. The log is a subsequence of the journal: events are never moved,
+ * so that recovering from the log visits the events in the same order as recovering from the journal.
+ * The log is the content of the {@link CompactedEventLogSnapshot}.
+ */
+public class CompactedEventLog {
+    private final Map<Object, ModelEvent> events = new LinkedHashMap<>();
+    private long uniqueKeyCounter = 0;
+    private int eventsSinceLastSnapshot = 0;
+
+    /**
+     * Add an event that was persisted or recovered from the journal.
+     */
+    public void add(ModelEvent event) {
+        append(event);
+        eventsSinceLastSnapshot++;
+    }
+
+    /**
+     * Add an event that was recovered from a snapshot.
+     */
+    public void restore(ModelEvent event) {
+        append(event);
+    }
+
+    private void append(ModelEvent event) {
+        if (event instanceof DebugEvent) {
+            // Debug events do not contain state
+            return;
+        }
+        String key = event.compactionKey();
+        if (key == null) {
+            events.put(uniqueKeyCounter++, event);
+        } else if (!events.containsKey(key)) {
+            // The first event with the key keeps its position, as recovery may depend on it (e.g. on parts that listen to the first transition)
+            events.put(key, event);
+        } else {
+            // The previous most recent event with this key is dropped, and the new one is added at the end, which is its position in the journal
+            MostRecent mostRecent = new MostRecent(key);
+            events.remove(mostRecent);
+            events.put(mostRecent, event);
+        }
+    }
+
+    /**
+     * Returns the number of events added since the last snapshot was created.
+     */
+    public int getEventsSinceLastSnapshot() {
+        return eventsSinceLastSnapshot;
+    }
+
+    /**
+     * Returns the number of events in the compacted log.
+     */
+    public int size() {
+        return events.size();
+    }
+
+    /**
+     * Returns the events in the log, in the order of the journal.
+     */
+    public List<ModelEvent> getEvents() {
+        return new ArrayList<>(events.values());
+    }
+
+    /**
+     * Creates a snapshot with the current content of the log.
+     */
+    public CompactedEventLogSnapshot createSnapshot() {
+        eventsSinceLastSnapshot = 0;
+        return new CompactedEventLogSnapshot(getEvents());
+    }
+
+    /**
+     * Key for the most recent event with a compaction key, to distinguish it from the first event with that key.
+     */
+    private static class MostRecent {
+        private final String key;
+
+        private MostRecent(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof MostRecent && ((MostRecent) obj).key.equals(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.actormodel.snapshot;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.cafienne.actormodel.event.ModelEvent;
+import org.cafienne.infrastructure.serialization.CafienneSerializer;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.infrastructure.serialization.Manifest;
+import org.cafienne.json.ValueMap;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Snapshot holding the compacted event log of a ModelActor.
+ * Upon recovery the events are fed into the actor in the same way as events from the journal,
+ * and then the events stored after the snapshot are replayed.
+ */
+@Manifest
+public class CompactedEventLogSnapshot implements ModelActorSnapshot {
+    /**
+     * List with the events. Upon deserialization, this may also contain DeserializationFailures.
+     */
+    private final List<Object> events;
+
+    CompactedEventLogSnapshot(List<ModelEvent> events) {
+        this.events = new ArrayList<>(events);
+    }
+
+    public CompactedEventLogSnapshot(ValueMap json) {
+        final CafienneSerializer serializer = new CafienneSerializer();
+        this.events = json.readObjects(Fields.events, event -> serializer.fromJson(event.readMap(Fields.content), event.readString(Fields.manifest)));
+    }
+
+    /**
+     * Returns the events in the snapshot, in the order in which they must be recovered.
+     */
+    public List<Object> getEvents() {
+        return events;
+    }
+
+    @Override
+    public void write(JsonGenerator generator) throws IOException {
+        generator.writeArrayFieldStart(Fields.events.toString());
+        for (Object event : events) {
+            generator.writeStartObject();
+            writeField(generator, Fields.manifest, CafienneSerializer.getManifestString(event));
+            writeField(generator, Fields.content, (ModelEvent) event);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " with " + events.size() + " events";
+    }
+}
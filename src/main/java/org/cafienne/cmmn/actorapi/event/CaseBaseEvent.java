@@ -33,6 +33,10 @@ public abstract class CaseBaseEvent extends BaseModelEvent<Case> implements Case
         super(json);
     }
 
+    protected CaseBaseEvent(Header header) {
+        super(header);
+    }
+
     protected void writeCaseEvent(JsonGenerator generator) throws IOException {
         super.writeModelEvent(generator);
     }
@@ -46,4 +46,9 @@ public class DebugEnabled extends CaseBaseEvent {
     public void write(JsonGenerator generator) throws IOException {
         super.writeCaseEvent(generator);
     }
+
+    @Override
+    public String compactionKey() {
+        return "DebugMode";
+    }
 }
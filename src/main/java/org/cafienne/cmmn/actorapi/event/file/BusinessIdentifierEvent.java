@@ -63,4 +63,9 @@ public abstract class BusinessIdentifierEvent extends CaseFileEvent {
         writeField(generator, Fields.name, name);
         writeField(generator, Fields.type, type);
     }
+
+    @Override
+    public String compactionKey() {
+        return "BusinessIdentifier:" + path + ":" + name;
+    }
 }
@@ -80,4 +80,9 @@ public class CaseFileItemChildRemoved extends CaseFileItemTransitioned {
         super.write(generator);
         writeField(generator, Fields.childPath, childPath);
     }
+
+    @Override
+    public String compactionKey() {
+        return null;
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.actorapi.event.file;
+
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.instance.casefile.CaseFileItem;
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition;
+import org.cafienne.infrastructure.serialization.Manifest;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueMap;
+
+/**
+ * Event caused by an update of a CaseFileItem that only holds the properties that have changed.
+ * The new value of the CaseFileItem is the current value merged with the changed properties.
+ * Older versions of the engine write a {@link CaseFileItemUpdated} holding the full new value instead.
+ */
+@Manifest
+public class CaseFileItemPropertiesUpdated extends CaseFileItemTransitioned {
+    public CaseFileItemPropertiesUpdated(CaseFileItem item, ValueMap changedProperties) {
+        super(item, State.Available, CaseFileItemTransition.Update, changedProperties);
+    }
+
+    public CaseFileItemPropertiesUpdated(ValueMap json) {
+        super(json);
+    }
+
+    /**
+     * Returns a new value in which the changed properties are merged into the current value.
+     * Only the changed properties are copied; the properties that did not change are shared with the current value,
+     * which is replaced by the new value. The value inside this event is never shared, so that it stays
+     * the same when the new value is changed later on.
+     */
+    @Override
+    public Value<?> getNewValue(Value<?> currentValue) {
+        return merge(currentValue, getValue());
+    }
+
+    private static Value<?> merge(Value<?> currentValue, Value<?> changes) {
+        if (currentValue == null || !currentValue.isMap() || !changes.isMap()) {
+            if (currentValue != null && currentValue.isList() && changes.isList()) {
+                // Lists merge element by element, just like Value.merge() does
+                return currentValue.cloneValueNode().merge(changes.cloneValueNode());
+            }
+            return changes.cloneValueNode();
+        }
+        ValueMap newValue = new ValueMap();
+        newValue.getValue().putAll(currentValue.asMap().getValue());
+        changes.asMap().getValue().forEach((propertyName, change) -> newValue.put(propertyName, merge(newValue.get(propertyName), change)));
+        return newValue;
+    }
+
+    /**
+     * The changes only make sense on top of the preceding events of the item, so they are always kept when compacting the event log.
+     */
+    @Override
+    public String compactionKey() {
+        return null;
+    }
+}
@@ -101,6 +101,17 @@ public class CaseFileItemTransitioned extends CaseFileEvent implements StandardE
         return value;
     }
 
+    /**
+     * Returns the value the case file item gets by this event, given its current value.
+     * By default this is the value inside the event; events that hold only changes merge those into the current value.
+     *
+     * @param currentValue
+     * @return
+     */
+    public Value<?> getNewValue(Value<?> currentValue) {
+        return value;
+    }
+
     @Override
     protected void updateState(CaseFileItem item) {
         item.publishTransition(this);
@@ -128,4 +139,10 @@ public class CaseFileItemTransitioned extends CaseFileEvent implements StandardE
         writeField(generator, Fields.value, value);
         writeField(generator, Fields.state, state);
     }
+
+    @Override
+    public String compactionKey() {
+        // Array elements may shift position, so those events are always kept
+        return getIndex() < 0 ? "CaseFileItem:" + path + ":" + transition : null;
+    }
 }
@@ -63,6 +63,19 @@ public abstract class CasePlanEvent extends CaseBaseEvent {
         this.index = readIndex(path, json);
     }
 
+    /**
+     * Constructor for events that are read in streaming mode. Requires the path to be available.
+     */
+    protected CasePlanEvent(Header header, String planItemId, String stageId, Path path, PlanItemType type) {
+        super(header);
+        this.planItemId = planItemId;
+        this.stageId = stageId == null ? "" : stageId;
+        this.path = path;
+        this.type = type;
+        this.planItem = null;
+        this.index = readIndex(path, null);
+    }
+
     private int readIndex(Path path, ValueMap json) {
         if (path.isEmpty()) {
             // This is older version of events. Path is not available, but a separate 'planitem' json containing the index.
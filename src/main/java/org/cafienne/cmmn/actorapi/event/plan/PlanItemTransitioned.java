@@ -18,12 +18,17 @@
 package org.cafienne.cmmn.actorapi.event.plan;
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import org.cafienne.cmmn.instance.Path;
 import org.cafienne.cmmn.instance.PlanItem;
+import org.cafienne.cmmn.instance.PlanItemType;
 import org.cafienne.cmmn.instance.State;
 import org.cafienne.cmmn.instance.Transition;
 import org.cafienne.cmmn.instance.sentry.StandardEvent;
 import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.infrastructure.serialization.Manifest;
+import org.cafienne.infrastructure.serialization.StreamingReader;
+import org.cafienne.json.JSONParseFailure;
 import org.cafienne.json.ValueMap;
 
 import java.io.IOException;
@@ -48,6 +53,48 @@ public class PlanItemTransitioned extends CasePlanEvent implements StandardEvent
         this.transition = json.readEnum(Fields.transition, Transition.class);
     }
 
+    private PlanItemTransitioned(Header header, String planItemId, String stageId, Path path, PlanItemType type, State currentState, State historyState, Transition transition) {
+        super(header, planItemId, stageId, path, type);
+        this.currentState = currentState;
+        this.historyState = historyState;
+        this.transition = transition;
+    }
+
+    /**
+     * Reads the event directly from the parser, without creating the json tree. This is the most frequent event during recovery.
+     * Returns null for older events that do not have a path.
+     */
+    public static PlanItemTransitioned deserialize(JsonParser parser) throws IOException, JSONParseFailure {
+        if (!StreamingReader.startObject(parser)) {
+            return null;
+        }
+        Header header = null;
+        String planItemId = null;
+        String stageId = "";
+        String path = "";
+        PlanItemType type = null;
+        State currentState = null;
+        State historyState = null;
+        Transition transition = null;
+        for (Fields field = StreamingReader.nextKnownField(parser); field != null; field = StreamingReader.nextKnownField(parser)) {
+            switch (field) {
+                case modelEvent: header = new Header(StreamingReader.readMap(parser)); break;
+                case planItemId: planItemId = StreamingReader.readString(parser); break;
+                case stageId: stageId = StreamingReader.readString(parser); break;
+                case path: path = StreamingReader.readString(parser); break;
+                case type: type = StreamingReader.readEnum(parser, PlanItemType.class); break;
+                case currentState: currentState = StreamingReader.readEnum(parser, State.class); break;
+                case historyState: historyState = StreamingReader.readEnum(parser, State.class); break;
+                case transition: transition = StreamingReader.readEnum(parser, Transition.class); break;
+                default: StreamingReader.skip(parser);
+            }
+        }
+        if (header == null || path == null || path.isEmpty()) {
+            return null;
+        }
+        return new PlanItemTransitioned(header, planItemId, stageId, Path.untrimmed(path), type, currentState, historyState, transition);
+    }
+
     @Override
     public PlanItem<?> getSource() {
         return getPlanItem();
@@ -117,4 +164,9 @@ public class PlanItemTransitioned extends CasePlanEvent implements StandardEvent
     protected void updatePlanItemState(PlanItem<?> planItem) {
         planItem.publishTransition(this);
     }
+
+    @Override
+    public String compactionKey() {
+        return getClass().getSimpleName() + ":" + getPlanItemId() + ":" + transition;
+    }
 }
@@ -58,4 +58,9 @@ public class RepetitionRuleEvaluated extends CasePlanEvent {
         writeCasePlanEvent(generator);
         writeField(generator, Fields.isRepeating, this.isRepeating);
     }
+
+    @Override
+    public String compactionKey() {
+        return getClass().getSimpleName() + ":" + getPlanItemId();
+    }
 }
@@ -58,4 +58,9 @@ public class RequiredRuleEvaluated extends CasePlanEvent {
         writeCasePlanEvent(generator);
         writeField(generator, Fields.isRequired, this.isRequired);
     }
+
+    @Override
+    public String compactionKey() {
+        return getClass().getSimpleName() + ":" + getPlanItemId();
+    }
 }
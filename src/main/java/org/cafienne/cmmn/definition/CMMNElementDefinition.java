@@ -17,12 +17,12 @@
 
 package org.cafienne.cmmn.definition;
 
+import org.cafienne.infrastructure.Cafienne;
 import org.cafienne.infrastructure.serialization.CafienneSerializer;
 import org.cafienne.infrastructure.serialization.DeserializationError;
 import org.cafienne.infrastructure.serialization.Fields;
 import org.cafienne.json.ValueMap;
 import org.cafienne.processtask.definition.ProcessDefinition;
-import org.cafienne.util.XMLHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
@@ -89,8 +89,18 @@ public abstract class CMMNElementDefinition extends XMLElementDefinition {
     public static <T extends CMMNElementDefinition> T fromJSON(String sourceClassName, ValueMap json, Class<T> tClass) {
         String guid = json.readString(Fields.elementId);
         String source = json.readString(Fields.source);
+        String sourceHash = json.readString(Fields.sourceHash);
         try {
-            DefinitionsDocument def = new DefinitionsDocument(XMLHelper.loadXML(source));
+            final DefinitionsDocument def;
+            if (source == null || source.isEmpty()) {
+                // Only a reference to the source is available; it must be present in the cache or in the source store.
+                def = DefinitionsDocumentCache.load(sourceHash);
+                if (def == null) {
+                    throw new DeserializationError("Cannot find the definitions document with hash " + sourceHash + " while deserializing an instance of " + sourceClassName);
+                }
+            } else {
+                def = DefinitionsDocumentCache.get(source, sourceHash);
+            }
             T element = def.getElement(guid, tClass);
             return element;
         } catch (InvalidDefinitionException e) {
@@ -112,8 +122,13 @@ public abstract class CMMNElementDefinition extends XMLElementDefinition {
         if (identifier == null || identifier.isEmpty()) {
             identifier = this.getName();
         }
-        String source = getModelDefinition().getDefinitionsDocument().getSource();
-        ValueMap json = new ValueMap(Fields.elementId, identifier, Fields.source, source);
+        DefinitionsDocument document = getModelDefinition().getDefinitionsDocument();
+        String sourceHash = DefinitionsDocumentCache.register(document);
+        ValueMap json = new ValueMap(Fields.elementId, identifier, Fields.sourceHash, sourceHash);
+        // If the source cannot be stored durably, it is added inline, as without it the json cannot be read after a restart
+        if (!Cafienne.config().repository().storeSourceReference() || !DefinitionsDocumentCache.storeSource(document)) {
+            json.plus(Fields.source, document.getSource());
+        }
         return json;
     }
 }
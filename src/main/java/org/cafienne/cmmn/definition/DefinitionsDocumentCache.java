@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.definition;
+
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.util.Hash;
+import org.cafienne.util.SegmentedLRUCache;
+import org.cafienne.util.XMLHelper;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+
+/**
+ * Process wide cache of parsed {@link DefinitionsDocument}s, keyed by a hash of their source.
+ * Events and commands carrying a definition refer to the same source over and over again (e.g. during recovery
+ * of many cases of the same model), and with this cache that source is parsed only once.
+ * The cache has a bounded size, see {@link SegmentedLRUCache} for the eviction policy.
+ */
+public class DefinitionsDocumentCache {
+    private final static SegmentedLRUCache<String, DefinitionsDocument> documents = new SegmentedLRUCache<>(Cafienne.config().repository().documentCacheSize());
+    private final static DefinitionsSourceStore sourceStore = new DefinitionsSourceStore(Cafienne.config().repository().sourceLocation());
+
+    /**
+     * Returns the parsed document for the source, parsing it only if it is not yet in the cache.
+     *
+     * @param source The XML source of the definitions document
+     * @param sourceHash Optional hash of the source, if it is already known; if null it will be calculated.
+     */
+    public static DefinitionsDocument get(String source, String sourceHash) throws InvalidDefinitionException, IOException, ParserConfigurationException, SAXException {
+        String key = sourceHash == null || sourceHash.isEmpty() ? Hash.sha256(source) : sourceHash;
+        DefinitionsDocument document = get(key);
+        if (document == null) {
+            // If two threads parse the same source simultaneously, the last one wins.
+            document = new DefinitionsDocument(XMLHelper.loadXML(source));
+            documents.put(key, document);
+        }
+        return document;
+    }
+
+    /**
+     * Returns the document with the given hash, or null if it is not in the cache.
+     */
+    public static DefinitionsDocument get(String sourceHash) {
+        return documents.get(sourceHash);
+    }
+
+    /**
+     * Returns the document with the given hash from the cache, or otherwise parses it from the source store.
+     * Returns null if the source is neither in the cache nor in the source store.
+     */
+    public static DefinitionsDocument load(String sourceHash) throws InvalidDefinitionException, IOException, ParserConfigurationException, SAXException {
+        DefinitionsDocument document = get(sourceHash);
+        if (document == null) {
+            String source = sourceStore.load(sourceHash);
+            if (source != null) {
+                document = get(source, sourceHash);
+            }
+        }
+        return document;
+    }
+
+    /**
+     * Stores the source of the document in the source store, so that it can be loaded with only its hash.
+     * Returns false if the source could not be stored.
+     */
+    public static boolean storeSource(DefinitionsDocument document) {
+        return sourceStore.store(register(document), document.getSource());
+    }
+
+    /**
+     * Adds the document to the cache (e.g. when it is being serialized), and returns the hash of its source.
+     */
+    public static String register(DefinitionsDocument document) {
+        String key = document.getSourceHash();
+        documents.putIfAbsent(key, document);
+        return key;
+    }
+
+    /**
+     * Removes all documents from the cache. Documents with a stored source can still be loaded afterwards.
+     */
+    static void clear() {
+        documents.clear();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.definition;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Durable storage of the sources of definitions documents, in a directory with one file per source hash.
+ * It is used when definitions are serialized with only a reference to their source,
+ * so that such events can still be read after a restart of the engine, or on another node sharing the same directory.
+ */
+class DefinitionsSourceStore {
+    private final static Logger logger = LoggerFactory.getLogger(DefinitionsSourceStore.class);
+    private final Path location;
+
+    DefinitionsSourceStore(String location) {
+        this.location = Paths.get(location);
+    }
+
+    /**
+     * Stores the source, unless it is already present. Returns false if the source could not be stored.
+     */
+    boolean store(String sourceHash, String source) {
+        Path file = fileOf(sourceHash);
+        if (Files.exists(file)) {
+            return true;
+        }
+        try {
+            Files.createDirectories(location);
+            // Write to a temporary file first, so that readers never find a partially written source
+            Path tempFile = Files.createTempFile(location, sourceHash, ".tmp");
+            Files.writeString(tempFile, source, StandardCharsets.UTF_8);
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (IOException e) {
+            logger.warn("Could not store the definitions source with hash " + sourceHash + " in " + location.toAbsolutePath(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the source with the given hash, or null if it is not stored.
+     */
+    String load(String sourceHash) throws IOException {
+        Path file = fileOf(sourceHash);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private Path fileOf(String sourceHash) {
+        return location.resolve(sourceHash + ".xml");
+    }
+}
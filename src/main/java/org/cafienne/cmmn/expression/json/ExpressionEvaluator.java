@@ -19,6 +19,7 @@ package org.cafienne.cmmn.expression.json;
 
 import com.jayway.jsonpath.Configuration;
 import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.InvalidPathException;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.JsonPathException;
 import org.cafienne.actormodel.ModelActor;
@@ -42,20 +43,42 @@ import org.slf4j.LoggerFactory;
 
 public class ExpressionEvaluator implements CMMNExpressionEvaluator {
     private final static Logger logger = LoggerFactory.getLogger(ExpressionEvaluator.class);
+    /**
+     * JsonPath configuration that navigates directly over our own Value structures
+     */
+    final static Configuration configuration = Configuration.builder().jsonProvider(new ValueJsonProvider()).mappingProvider(new ValueMappingProvider()).build();
     private final String jsonPath;
+    private final JsonPath compiledPath;
     private final ExpressionDefinition definition;
 
     public ExpressionEvaluator(ExpressionDefinition expressionDefinition) {
         jsonPath = expressionDefinition.getBody();
         definition = expressionDefinition;
+        compiledPath = compile(jsonPath);
+    }
+
+    /**
+     * Compiles the path once for all evaluations. If the path is invalid, it is compiled again upon evaluation,
+     * so that the failure is handled there in the same way as any other path exception.
+     */
+    private static JsonPath compile(String jsonPath) {
+        try {
+            return JsonPath.compile(jsonPath);
+        } catch (InvalidPathException | IllegalArgumentException invalidPath) {
+            return null;
+        }
+    }
+
+    private Object read(Object document) {
+        JsonPath path = compiledPath != null ? compiledPath : JsonPath.compile(jsonPath);
+        return path.read(document, configuration);
     }
 
     public boolean evaluateConstraint(Case caseInstance, Object contextObject, String ruleTypeDescription) {
         caseInstance.addDebugInfo(() -> "Now evaluating the expression " + jsonPath);
-        String json = String.valueOf(contextObject);
-        Object document = Configuration.defaultConfiguration().jsonProvider().parse(json);
+        Object document = contextObject instanceof Value ? contextObject : configuration.jsonProvider().parse(String.valueOf(contextObject));
 
-        boolean value = Boolean.parseBoolean(JsonPath.read(document, jsonPath));
+        boolean value = Boolean.parseBoolean(String.valueOf(configuration.jsonProvider().unwrap(read(document))));
 
         return value;
     }
@@ -86,19 +109,17 @@ public class ExpressionEvaluator implements CMMNExpressionEvaluator {
         // Announce we're doing this
         caseInstance.addDebugInfo(() -> "Evaluating expression " + jsonPath +" on ", value);
 
-        // Convert the Value<?> to String, because there is no ValueMap implementation for JsonPath (yet)
-        String json = String.valueOf(value);
-
         // Also check if the value is simply empty (can typically happen when a StringValue object was created with an empty string
-        if (json.trim().isEmpty()) {
+        if (value.isPrimitive() && String.valueOf(value).trim().isEmpty()) {
             // Just can't read from an empty string
             caseInstance.addDebugInfo(() -> "Skipping the json path evaluation of expression "+jsonPath+", because input value is empty; returning Value.NULL");
             return Value.NULL;
         }
 
         try {
-            Object result = JsonPath.read(json, jsonPath);
-            Value<?> output = Value.convert(result); // Typically a ValueMap or a ValueList
+            // The path navigates directly over the Value; only the result is copied, so that it does not share structure with the input
+            Object result = read(value.isPrimitive() ? configuration.jsonProvider().parse(String.valueOf(value)) : value);
+            Value<?> output = Value.convert(result).cloneValueNode(); // Typically a ValueMap or a ValueList
             // JsonPath returns single element results sometimes in an array; then we'll return that value instead.
             if (output.isList()) {
                 if (output.asList().size() == 1) {
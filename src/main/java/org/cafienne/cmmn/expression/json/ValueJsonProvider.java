@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.expression.json;
+
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.spi.json.AbstractJsonProvider;
+import org.cafienne.json.JSONParseFailure;
+import org.cafienne.json.JSONReader;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueList;
+import org.cafienne.json.ValueMap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+
+/**
+ * JsonProvider that lets JsonPath navigate directly over {@link ValueMap} and {@link ValueList} structures,
+ * so that a Value need not be serialized into a json string and parsed again for each evaluation.
+ */
+public class ValueJsonProvider extends AbstractJsonProvider {
+    @Override
+    public Object parse(String json) throws InvalidJsonException {
+        try {
+            return JSONReader.parse(json);
+        } catch (IOException | JSONParseFailure e) {
+            throw new InvalidJsonException(e);
+        }
+    }
+
+    @Override
+    public Object parse(InputStream jsonStream, String charset) throws InvalidJsonException {
+        try {
+            return JSONReader.parse(jsonStream);
+        } catch (IOException | JSONParseFailure e) {
+            throw new InvalidJsonException(e);
+        }
+    }
+
+    @Override
+    public String toJson(Object obj) {
+        return String.valueOf(obj);
+    }
+
+    @Override
+    public Object createArray() {
+        return new ValueList();
+    }
+
+    @Override
+    public Object createMap() {
+        return new ValueMap();
+    }
+
+    @Override
+    public boolean isArray(Object obj) {
+        return obj instanceof ValueList || super.isArray(obj);
+    }
+
+    @Override
+    public boolean isMap(Object obj) {
+        return obj instanceof ValueMap || super.isMap(obj);
+    }
+
+    @Override
+    public Object getArrayIndex(Object obj, int idx) {
+        if (obj instanceof ValueList) {
+            return ((ValueList) obj).get(idx);
+        }
+        return super.getArrayIndex(obj, idx);
+    }
+
+    @Override
+    public void setArrayIndex(Object array, int index, Object newValue) {
+        if (array instanceof ValueList) {
+            ValueList list = (ValueList) array;
+            if (index == list.size()) {
+                list.add(Value.convert(newValue));
+            } else {
+                list.set(index, Value.convert(newValue));
+            }
+        } else {
+            super.setArrayIndex(array, index, newValue);
+        }
+    }
+
+    @Override
+    public Object getMapValue(Object obj, String key) {
+        if (obj instanceof ValueMap) {
+            Value<?> value = ((ValueMap) obj).getValue().get(key);
+            return value == null ? UNDEFINED : value;
+        }
+        return super.getMapValue(obj, key);
+    }
+
+    @Override
+    public void setProperty(Object obj, Object key, Object value) {
+        if (obj instanceof ValueMap) {
+            ((ValueMap) obj).put(String.valueOf(key), Value.convert(value));
+        } else if (obj instanceof ValueList) {
+            setArrayIndex(obj, Integer.parseInt(String.valueOf(key)), value);
+        } else {
+            super.setProperty(obj, key, value);
+        }
+    }
+
+    @Override
+    public void removeProperty(Object obj, Object key) {
+        if (obj instanceof ValueMap) {
+            ((ValueMap) obj).getValue().remove(String.valueOf(key));
+        } else if (obj instanceof ValueList) {
+            ((ValueList) obj).remove(Integer.parseInt(String.valueOf(key)));
+        } else {
+            super.removeProperty(obj, key);
+        }
+    }
+
+    @Override
+    public Collection<String> getPropertyKeys(Object obj) {
+        if (obj instanceof ValueMap) {
+            return ((ValueMap) obj).getValue().keySet();
+        }
+        return super.getPropertyKeys(obj);
+    }
+
+    @Override
+    public int length(Object obj) {
+        if (obj instanceof ValueList) {
+            return ((ValueList) obj).size();
+        } else if (obj instanceof ValueMap) {
+            return ((ValueMap) obj).getValue().size();
+        } else if (obj instanceof Value && ((Value<?>) obj).getValue() instanceof String) {
+            return ((String) ((Value<?>) obj).getValue()).length();
+        }
+        return super.length(obj);
+    }
+
+    @Override
+    public Iterable<?> toIterable(Object obj) {
+        if (obj instanceof ValueList) {
+            return ((ValueList) obj).getValue();
+        }
+        return super.toIterable(obj);
+    }
+
+    /**
+     * Returns the plain java value of primitive values (e.g. for comparisons inside filter expressions).
+     * Values that have no json counterpart (e.g. an Instant) are returned as the string they have in json.
+     */
+    @Override
+    public Object unwrap(Object obj) {
+        if (obj instanceof Value && ((Value<?>) obj).isPrimitive()) {
+            Object value = ((Value<?>) obj).getValue();
+            if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean) {
+                return value;
+            }
+            return String.valueOf(value);
+        }
+        return obj;
+    }
+}
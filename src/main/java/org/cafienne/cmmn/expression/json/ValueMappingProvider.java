@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.expression.json;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.TypeRef;
+import com.jayway.jsonpath.spi.mapper.MappingException;
+import com.jayway.jsonpath.spi.mapper.MappingProvider;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueList;
+import org.cafienne.json.ValueMap;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MappingProvider that goes with the {@link ValueJsonProvider}. JsonPath uses it inside filter expressions
+ * (e.g. <code>$.items[?(@.tags contains 'x')]</code>) to turn the {@link ValueList} and {@link ValueMap} structures
+ * into plain java lists and maps.
+ */
+public class ValueMappingProvider implements MappingProvider {
+    @Override
+    public <T> T map(Object source, Class<T> targetType, Configuration configuration) {
+        if (source == null) {
+            return null;
+        }
+        if (Value.class.isAssignableFrom(targetType)) {
+            Value<?> value = Value.convert(source);
+            if (targetType.isInstance(value)) {
+                return targetType.cast(value);
+            }
+        }
+        Object plain = toJava(source, configuration);
+        if (targetType.isInstance(plain)) {
+            return targetType.cast(plain);
+        }
+        if (targetType == String.class) {
+            return targetType.cast(String.valueOf(plain));
+        }
+        throw new MappingException("Cannot map " + source.getClass().getName() + " to " + targetType.getName());
+    }
+
+    /**
+     * Maps on the raw class of the type reference. Type arguments are not used to convert the elements,
+     * e.g. a List&lt;String&gt; is filled with the plain java values inside the list.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T map(Object source, TypeRef<T> targetType, Configuration configuration) {
+        Type type = targetType.getType();
+        if (type instanceof Class) {
+            return map(source, (Class<T>) type, configuration);
+        } else if (type instanceof ParameterizedType && ((ParameterizedType) type).getRawType() instanceof Class) {
+            return (T) map(source, (Class<?>) ((ParameterizedType) type).getRawType(), configuration);
+        }
+        throw new MappingException("Cannot map " + (source == null ? "null" : source.getClass().getName()) + " to type " + type.getTypeName() + ", as it has no raw class");
+    }
+
+    private Object toJava(Object source, Configuration configuration) {
+        if (source instanceof ValueList) {
+            List<Object> list = new ArrayList<>();
+            ((ValueList) source).getValue().forEach(item -> list.add(toJava(item, configuration)));
+            return list;
+        } else if (source instanceof ValueMap) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            ((ValueMap) source).getValue().forEach((key, item) -> map.put(key, toJava(item, configuration)));
+            return map;
+        } else {
+            return configuration.jsonProvider().unwrap(source);
+        }
+    }
+}
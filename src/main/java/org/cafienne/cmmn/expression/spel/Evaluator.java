@@ -20,20 +20,41 @@ package org.cafienne.cmmn.expression.spel;
 import org.cafienne.cmmn.definition.CMMNElementDefinition;
 import org.cafienne.cmmn.expression.InvalidExpressionException;
 import org.cafienne.cmmn.expression.spel.api.APIRootObject;
+import org.cafienne.infrastructure.Cafienne;
 import org.springframework.expression.EvaluationException;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.expression.spel.support.StandardTypeLocator;
+
+import java.util.List;
 
 public class Evaluator {
-    private final ExpressionParser parser;
+    /**
+     * Parser is thread safe and shared across all expressions. Depending on the configured compiler mode,
+     * the parsed expressions compile themselves into byte code after they have been evaluated a number of times.
+     */
+    private final static ExpressionParser parser = new SpelExpressionParser(new SpelParserConfiguration(Cafienne.config().engine().interpreter().spelCompilerMode(), Evaluator.class.getClassLoader()));
+    /**
+     * The accessors and resolvers of the evaluation context hold no state of the evaluation itself (only caches of reflection data),
+     * hence they are shared across evaluations instead of being created for each new evaluation context.
+     * Our property reader comes before the reflective one, similar to StandardEvaluationContext.addPropertyAccessor.
+     */
+    private final static List<PropertyAccessor> propertyAccessors = List.of(new SpelReadableRecognizer(), new ReflectivePropertyAccessor());
+    private final static List<MethodResolver> methodResolvers = List.of(new ReflectiveMethodResolver());
+    private final static StandardTypeLocator typeLocator = new StandardTypeLocator(Evaluator.class.getClassLoader());
+
     private final Expression expression;
     private final String source;
     private final CMMNElementDefinition definition;
 
     public Evaluator(CMMNElementDefinition definition, String source) {
-        this.parser = new SpelExpressionParser();
         this.definition = definition;
         this.source = source;
         this.expression = parseExpression();
@@ -66,8 +87,9 @@ public class Evaluator {
         // System.out.println("Now evaluating the expression " + definition.getBody());
         StandardEvaluationContext context = new StandardEvaluationContext(rootObject);
         // The property reader can dynamically resolve properties that belong to the ModelActor context.
-        SpelReadableRecognizer spelPropertyReader = new SpelReadableRecognizer(rootObject.getActor());
-        context.addPropertyAccessor(spelPropertyReader);
+        context.setPropertyAccessors(propertyAccessors);
+        context.setMethodResolvers(methodResolvers);
+        context.setTypeLocator(typeLocator);
 
         return returnValue(rootObject, () -> expression.getValue(context));
     }
@@ -18,6 +18,7 @@
 package org.cafienne.cmmn.expression.spel;
 
 import org.cafienne.actormodel.ModelActor;
+import org.cafienne.cmmn.expression.spel.api.APIRootObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.expression.AccessException;
@@ -27,14 +28,14 @@ import org.springframework.expression.TypedValue;
 
 /**
  * Hook for Spel through which we can read Cafienne specific API properties in expressions.
+ * The recognizer holds no state, and is shared across evaluations; debug information is added
+ * to the ModelActor of the root object of the evaluation context.
  */
 public class SpelReadableRecognizer implements PropertyAccessor {
     private final static Logger logger = LoggerFactory.getLogger(SpelReadableRecognizer.class);
 
-    public final ModelActor model;
-
-    public SpelReadableRecognizer(ModelActor model) {
-        this.model = model;
+    private ModelActor getModel(EvaluationContext context) {
+        return ((APIRootObject<?>) context.getRootObject().getValue()).getActor();
     }
 
     @Override
@@ -47,7 +48,8 @@ public class SpelReadableRecognizer implements PropertyAccessor {
     }
 
     @Override
-    public TypedValue read(EvaluationContext arg0, Object object, String propertyName) {
+    public TypedValue read(EvaluationContext context, Object object, String propertyName) {
+        ModelActor model = getModel(context);
         if (object instanceof SpelReadable) {
             // Read the value
             Object value = ((SpelReadable) object).read(propertyName);
@@ -34,23 +34,23 @@ import org.cafienne.json.Value;
 import org.cafienne.util.XMLHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
-import org.xml.sax.InputSource;
 
 import javax.xml.namespace.NamespaceContext;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
 import java.time.Duration;
 import java.time.format.DateTimeParseException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.WeakHashMap;
 
 public class ExpressionEvaluator implements CMMNExpressionEvaluator {
     private final static Logger logger = LoggerFactory.getLogger(ExpressionEvaluator.class);
@@ -58,14 +58,17 @@ public class ExpressionEvaluator implements CMMNExpressionEvaluator {
     private final String xpathExpression;
     private final ExpressionDefinition definition;
     private final Map<String, String> prefixes = new HashMap<>();
+    private final NamespaceContext namespaceContext;
+    /**
+     * XPathExpression is not thread safe, hence each thread compiles the expression once and then keeps on using it.
+     * The expressions are kept weakly, so that they are dropped together with the definition of the expression.
+     */
+    private final static ThreadLocal<Map<ExpressionEvaluator, XPathExpression>> compiledExpressions = ThreadLocal.withInitial(WeakHashMap::new);
+    private final static ThreadLocal<XPathFactory> factories = ThreadLocal.withInitial(XPathFactory::newInstance);
 
     public ExpressionEvaluator(ExpressionDefinition expressionDefinition) {
         xpathExpression = expressionDefinition.getBody();
         definition = expressionDefinition;
-    }
-
-    private boolean evaluateConstraint(Object contextObject, String ruleTypeDescription) {
-        logger.debug("Now evaluating the expression " + definition.getBody());
         // TODO: figure out a place for the namespaces and how to resolve them.
         Collection<Element> namespaceElements = XMLHelper.getChildrenWithTagName(definition.getElement(), "namespace");
         for (Element namespaceElement : namespaceElements) {
@@ -73,44 +76,52 @@ public class ExpressionEvaluator implements CMMNExpressionEvaluator {
             String uri = namespaceElement.getAttribute("uri");
             prefixes.put(prefix, uri);
         }
+        namespaceContext = createNamespaceContext(prefixes);
+    }
+
+    /**
+     * Note: created in a static method, so that the compiled expression does not refer back to
+     * the evaluator, which is the (weak) key of the compiled expressions.
+     */
+    private static NamespaceContext createNamespaceContext(Map<String, String> prefixes) {
+        return new NamespaceContext() {
+            @Override
+            public Iterator<String> getPrefixes(String namespaceURI) {
+                return prefixes.values().iterator();
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                return "";
+            }
+
+            @Override
+            public String getNamespaceURI(String prefix) {
+                return prefixes.get(prefix);
+            }
+        };
+    }
 
+    private XPathExpression compile() {
         Element documentElement = definition.getElement();
         if (logger.isDebugEnabled()) {
             logElementNamespaces(documentElement);
         }
-
         try {
-            XPathFactory xPathfactory = XPathFactory.newInstance();
-            XPath xpath = xPathfactory.newXPath();
-            xpath.setNamespaceContext(new NamespaceContext() {
-
-                @Override
-                public Iterator<String> getPrefixes(String namespaceURI) {
-                    logger.debug("Gettting prefixes for uri " + namespaceURI);
-
-                    return prefixes.values().iterator();
-                }
-
-                @Override
-                public String getPrefix(String namespaceURI) {
-                    logger.debug("Gettting prefix for uri " + namespaceURI);
-
-                    return "";
-                }
-
-                @Override
-                public String getNamespaceURI(String prefix) {
-                    logger.debug("Gettting uri for prefix " + prefix + ", it is: " + prefixes.get(prefix));
-
-                    return prefixes.get(prefix);
-                }
-            });
-            XPathExpression expr = xpath.compile(xpathExpression);
-            String output = String.valueOf(contextObject);
-            InputStream inputStream = new ByteArrayInputStream(output.getBytes());
-            InputSource is = new InputSource(inputStream);
+            XPath xpath = factories.get().newXPath();
+            xpath.setNamespaceContext(namespaceContext);
+            return xpath.compile(xpathExpression);
+        } catch (XPathExpressionException e) {
+            throw new CommandException("Cannot compile XPath expression", e);
+        }
+    }
 
-            return Boolean.parseBoolean(expr.evaluate(is));
+    private boolean evaluateConstraint(String rootName, Value<?> contextObject, String ruleTypeDescription) {
+        logger.debug("Now evaluating the expression " + definition.getBody());
+        XPathExpression expr = compiledExpressions.get().computeIfAbsent(this, ExpressionEvaluator::compile);
+        try {
+            Document document = ValueDocument.build(rootName, contextObject);
+            return Boolean.parseBoolean(expr.evaluate(document));
         } catch (Exception allKindsOfException) {
             throw new CommandException("Cannot evaluate XPath expression", allKindsOfException);
         }
@@ -143,12 +154,12 @@ public class ExpressionEvaluator implements CMMNExpressionEvaluator {
     @Override
     public Value<?> evaluateInputParameterTransformation(Case caseInstance, TaskInputParameter from, ParameterDefinition to, Task<?> task) {
         // TODO Auto-generated method stub
-        return new BooleanValue(evaluateConstraint(from, "x"));
+        return new BooleanValue(evaluateConstraint(from.getName(), from.getValue(), "x"));
     }
 
     @Override
     public Value<?> evaluateOutputParameterTransformation(Case caseInstance, Value<?> value, ParameterDefinition rawOutputParameterDefinition, ParameterDefinition targetOutputParameterDefinition, Task<?> task) {
-        return new BooleanValue(evaluateConstraint(value, "x"));
+        return new BooleanValue(evaluateConstraint(rawOutputParameterDefinition.getName(), value, "x"));
     }
 
     @Override
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.expression.xpath;
+
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueList;
+import org.cafienne.json.ValueMap;
+import org.cafienne.util.XMLHelper;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+
+/**
+ * Builds a DOM document directly from a {@link Value}, so that XPath expressions can be evaluated on it
+ * without first serializing the value into text and parsing it again.
+ * A ValueMap becomes an element with a child element for each property, a list inside a map becomes a repeated
+ * element with the name of the property, and the elements of a list at top level become "item" elements.
+ * Other values become text content, in the same way as {@link Value#dumpMemoryStateToXML(Element)} writes them;
+ * null values become empty elements.
+ * String values holding an xml document are parsed as xml, including their namespaces.
+ * The generated elements have no namespace; they are created namespace aware, so that XPath functions like local-name() work on them.
+ */
+class ValueDocument {
+    private final static ThreadLocal<DocumentBuilder> builders = ThreadLocal.withInitial(() -> {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            return factory.newDocumentBuilder();
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException("Cannot create a DocumentBuilder", e);
+        }
+    });
+
+    /**
+     * Creates a document with the value inside a root element with the given name.
+     */
+    static Document build(String rootName, Value<?> value) throws IOException, ParserConfigurationException, SAXException {
+        if (value.isPrimitive() && value.getValue() instanceof String && ((String) value.getValue()).trim().startsWith("<")) {
+            return XMLHelper.loadXML((String) value.getValue());
+        }
+        Document document = builders.get().newDocument();
+        Element root = document.createElementNS(null, elementName(rootName));
+        document.appendChild(root);
+        append(document, root, value);
+        return document;
+    }
+
+    private static void append(Document document, Element element, Value<?> value) {
+        if (value.isMap()) {
+            ValueMap map = value.asMap();
+            map.getValue().forEach((name, child) -> {
+                if (child.isList()) {
+                    // Each element of the list becomes a separate child element with the name of the property
+                    for (Value<?> item : child.asList().getValue()) {
+                        appendChild(document, element, name, item);
+                    }
+                } else {
+                    appendChild(document, element, name, child);
+                }
+            });
+        } else if (value.isList()) {
+            ValueList list = value.asList();
+            for (Value<?> item : list.getValue()) {
+                appendChild(document, element, "item", item);
+            }
+        } else if (value != Value.NULL && value.getValue() != null) {
+            value.dumpMemoryStateToXML(element);
+        }
+    }
+
+    private static void appendChild(Document document, Element parent, String name, Value<?> value) {
+        Element child = document.createElementNS(null, elementName(name));
+        parent.appendChild(child);
+        append(document, child, value);
+    }
+
+    /**
+     * Replaces characters that are not allowed in an xml element name with an underscore.
+     */
+    private static String elementName(String name) {
+        if (name == null || name.isEmpty()) {
+            return "_";
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            boolean valid = Character.isLetter(c) || c == '_' || (i > 0 && (Character.isDigit(c) || c == '-' || c == '.'));
+            sb.append(valid ? c : '_');
+        }
+        return sb.toString();
+    }
+}
@@ -52,6 +52,8 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 public class Case extends ModelActor {
 
@@ -64,7 +66,7 @@ public class Case extends ModelActor {
     /**
      * List of plan items in the case.
      */
-    private final Collection<PlanItem<?>> planItems = new ArrayList<>();
+    private final PlanItemRegistry planItems = new PlanItemRegistry();
     /**
      * Pointer to the case file instance of the case.
      */
@@ -119,6 +121,11 @@ public class Case extends ModelActor {
         return msg instanceof CaseEvent;
     }
 
+    @Override
+    protected boolean supportsSnapshots() {
+        return true;
+    }
+
     @Override
     protected Logger getLogger() {
         return logger;
@@ -152,6 +159,13 @@ public class Case extends ModelActor {
         planItems.add(planItem);
     }
 
+    /**
+     * Internal engine method to update the plan item registry after the item definition of a plan item has been migrated
+     */
+    void migratedPlanItem(PlanItem<?> planItem, ItemDefinition previousItemDefinition) {
+        planItems.migrated(planItem, previousItemDefinition);
+    }
+
     /**
      * Helper method to dump the state of the case into an XML document.
      *
@@ -203,7 +217,7 @@ public class Case extends ModelActor {
      * @return
      */
     public <T extends PlanItem<?>> T getPlanItemById(String id) {
-        return (T) planItems.stream().filter(p -> p.getId().equals(id)).findFirst().orElse(null);
+        return (T) planItems.get(id);
     }
 
     /**
@@ -214,13 +228,8 @@ public class Case extends ModelActor {
      * @return
      */
     public PlanItem<?> getPlanItemByName(String name) {
-        PlanItem<?> lastWithThisName = null;
-        for (PlanItem<?> planItem : planItems) {
-            if (planItem.getName().equals(name)) {
-                lastWithThisName = planItem;
-            }
-        }
-        return lastWithThisName;
+        List<PlanItem<?>> withThisName = planItems.withName(name);
+        return withThisName.isEmpty() ? null : withThisName.get(withThisName.size() - 1);
     }
 
     /**
@@ -229,7 +238,7 @@ public class Case extends ModelActor {
      * @return
      */
     public Collection<PlanItem<?>> getPlanItems() {
-        return planItems;
+        return planItems.values();
     }
 
     /**
@@ -242,15 +251,22 @@ public class Case extends ModelActor {
      * @return
      */
     public Collection<PlanItem<?>> getPlanItems(String identifier) {
-        ArrayList<PlanItem<?>> list = new ArrayList<>();
-        for (PlanItem<?> planItem : getPlanItems()) {
-            if (planItem.getName().equals(identifier) || planItem.getId().equals(identifier)) {
-                list.add(0, planItem);
-            }
-        }
+        List<PlanItem<?>> list = planItems.withIdentifier(identifier);
+        Collections.reverse(list);
         return list;
     }
 
+    /**
+     * Returns the plan items whose item definition has the same id or the same name as the given item definition,
+     * in the order in which they were created.
+     *
+     * @param itemDefinition
+     * @return
+     */
+    public Collection<PlanItem<?>> getPlanItemsWithSimilarDefinition(ItemDefinition itemDefinition) {
+        return planItems.withDefinitionIdentifiers(itemDefinition.getId(), itemDefinition.getName());
+    }
+
     /**
      * Returns the sentries currently instantiated within this case
      *
@@ -243,6 +243,11 @@ public abstract class PlanItem<T extends PlanItemDefinitionDefinition> extends C
     private void setItemDefinition(ItemDefinition newItemDefinition) {
         this.previousItemDefinition = this.itemDefinition;
         this.itemDefinition = newItemDefinition;
+        // Keep the plan item indices of case and stage in sync with the new definition
+        getCaseInstance().migratedPlanItem(this, previousItemDefinition);
+        if (getStage() != null) {
+            getStage().migratedChild(this, previousItemDefinition);
+        }
     }
 
     public ItemDefinition getPreviousItemDefinition() {
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.instance;
+
+import org.cafienne.cmmn.definition.ItemDefinition;
+
+import java.util.*;
+
+/**
+ * Registry of all plan items inside a case, indexed on plan item id, on name
+ * and on the id of the item definition, in the order in which the plan items were created.
+ */
+class PlanItemRegistry {
+    private final Map<String, PlanItem<?>> planItems = new LinkedHashMap<>();
+    private final Map<String, List<PlanItem<?>>> byName = new HashMap<>();
+    private final Map<String, List<PlanItem<?>>> byDefinitionId = new HashMap<>();
+    private final Map<PlanItem<?>, Long> registrationOrder = new HashMap<>();
+    private final Collection<PlanItem<?>> values = Collections.unmodifiableCollection(planItems.values());
+    private long sequence = 0;
+
+    void add(PlanItem<?> planItem) {
+        planItems.put(planItem.getId(), planItem);
+        registrationOrder.put(planItem, sequence++);
+        index(planItem, planItem.getItemDefinition());
+    }
+
+    void remove(PlanItem<?> planItem) {
+        if (planItems.remove(planItem.getId(), planItem)) {
+            registrationOrder.remove(planItem);
+            unindex(planItem, planItem.getItemDefinition());
+        }
+    }
+
+    /**
+     * Update the indices after the item definition of the plan item has been migrated.
+     */
+    void migrated(PlanItem<?> planItem, ItemDefinition previousItemDefinition) {
+        if (registrationOrder.containsKey(planItem)) {
+            unindex(planItem, previousItemDefinition);
+            index(planItem, planItem.getItemDefinition());
+        }
+    }
+
+    PlanItem<?> get(String id) {
+        return planItems.get(id);
+    }
+
+    /**
+     * Returns all plan items, in the order in which they were created
+     */
+    Collection<PlanItem<?>> values() {
+        return values;
+    }
+
+    /**
+     * Returns the plan items with the specified name, in the order in which they were created
+     */
+    List<PlanItem<?>> withName(String name) {
+        return byName.getOrDefault(name, Collections.emptyList());
+    }
+
+    /**
+     * Returns the plan items whose item definition has the specified id or name, in the order in which they were created
+     */
+    List<PlanItem<?>> withDefinitionIdentifiers(String definitionId, String name) {
+        return union(byDefinitionId.getOrDefault(definitionId, Collections.emptyList()), withName(name));
+    }
+
+    /**
+     * Returns the plan items that have either the identifier as their id or as their name, in the order in which they were created
+     */
+    List<PlanItem<?>> withIdentifier(String identifier) {
+        PlanItem<?> item = planItems.get(identifier);
+        return union(item == null ? Collections.emptyList() : Collections.singletonList(item), withName(identifier));
+    }
+
+    private List<PlanItem<?>> union(List<PlanItem<?>> left, List<PlanItem<?>> right) {
+        if (left.isEmpty() || left == right) {
+            return new ArrayList<>(right);
+        }
+        if (right.isEmpty()) {
+            return new ArrayList<>(left);
+        }
+        Set<PlanItem<?>> union = new HashSet<>(left);
+        union.addAll(right);
+        List<PlanItem<?>> list = new ArrayList<>(union);
+        list.sort(Comparator.comparingLong(registrationOrder::get));
+        return list;
+    }
+
+    private void index(PlanItem<?> planItem, ItemDefinition itemDefinition) {
+        insert(byName.computeIfAbsent(itemDefinition.getName(), name -> new ArrayList<>()), planItem);
+        insert(byDefinitionId.computeIfAbsent(itemDefinition.getId(), id -> new ArrayList<>()), planItem);
+    }
+
+    /**
+     * Adds the plan item to the list, keeping the list in the order of creation (plan items that are migrated may be older than the last one in the list)
+     */
+    private void insert(List<PlanItem<?>> items, PlanItem<?> planItem) {
+        long order = registrationOrder.get(planItem);
+        int position = items.size();
+        while (position > 0 && registrationOrder.get(items.get(position - 1)) > order) {
+            position--;
+        }
+        items.add(position, planItem);
+    }
+
+    private void unindex(PlanItem<?> planItem, ItemDefinition itemDefinition) {
+        remove(byName, itemDefinition.getName(), planItem);
+        remove(byDefinitionId, itemDefinition.getId(), planItem);
+    }
+
+    private void remove(Map<String, List<PlanItem<?>>> index, String key, PlanItem<?> planItem) {
+        List<PlanItem<?>> items = index.get(key);
+        if (items != null) {
+            items.remove(planItem);
+            if (items.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+}
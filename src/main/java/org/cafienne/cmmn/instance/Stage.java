@@ -26,14 +26,16 @@ import org.cafienne.infrastructure.Cafienne;
 import org.cafienne.util.Guid;
 import org.w3c.dom.Element;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 public class Stage<T extends StageDefinition> extends TaskStage<T> {
-    private final Collection<PlanItem<?>> planItems = new ArrayList<>();
+    private final Collection<PlanItem<?>> planItems = new LinkedHashSet<>();
+    /**
+     * Index of the children on their item definition, to determine the index of new repeat and discretionary items
+     */
+    private final Map<ItemDefinition, Siblings> siblings = new HashMap<>();
     private final static boolean usePureCHMMFaultHandling = Cafienne.config().engine().interpreter().usePureCMMNFaultHandling();
 
     public Stage(String id, int index, ItemDefinition itemDefinition, T definition, Stage<?> parent, Case caseInstance) {
@@ -46,12 +48,45 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
 
     void register(PlanItem<?> child) {
         if (getCaseInstance().recoveryRunning() && child.getIndex() > 0) {
-            planItems.stream().filter(p -> p.getDefinition().equals(child.getDefinition()) && p.getIndex() + 1 == child.getIndex()).forEach(leftSibling -> {
-                // Recovering repeated plan items should no longer connect their entry criteria to the sentry network
-                leftSibling.getEntryCriteria().stopListening();
+            siblings.forEach((itemDefinition, items) -> {
+                if (itemDefinition.getPlanItemDefinition().equals(child.getDefinition())) {
+                    items.withIndex(child.getIndex() - 1).forEach(leftSibling -> {
+                        // Recovering repeated plan items should no longer connect their entry criteria to the sentry network
+                        leftSibling.getEntryCriteria().stopListening();
+                    });
+                }
             });
         }
         planItems.add(child);
+        siblings.computeIfAbsent(child.getItemDefinition(), d -> new Siblings()).add(child);
+    }
+
+    /**
+     * Update the sibling index after the item definition of the child has been migrated
+     */
+    void migratedChild(PlanItem<?> child, ItemDefinition previousItemDefinition) {
+        if (planItems.contains(child)) {
+            removeSibling(child, previousItemDefinition);
+            siblings.computeIfAbsent(child.getItemDefinition(), d -> new Siblings()).add(child);
+        }
+    }
+
+    private void removeSibling(PlanItem<?> child, ItemDefinition itemDefinition) {
+        Siblings items = siblings.get(itemDefinition);
+        if (items != null) {
+            items.remove(child);
+            if (items.size() == 0) {
+                siblings.remove(itemDefinition);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of children with the item definition
+     */
+    private int countSiblings(ItemDefinition itemDefinition) {
+        Siblings items = siblings.get(itemDefinition);
+        return items == null ? 0 : items.size();
     }
 
     public Collection<PlanItem<?>> getPlanItems() {
@@ -64,7 +99,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
      */
     void planChild(DiscretionaryItem discretionaryItem, String planItemId) {
         // Determine index by iterating sibling plan items (i.e., those that have the same item definition).
-        int index = Long.valueOf(this.planItems.stream().filter(item -> item.getItemDefinition().equals(discretionaryItem.getDefinition())).count()).intValue();
+        int index = countSiblings(discretionaryItem.getDefinition());
         addChild(discretionaryItem.getDefinition(), planItemId, index, true);
     }
 
@@ -80,7 +115,7 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
         // Make sure we have a proper next index, by counting the number of existing plan items in this stage with the same definition
         //  An alternative was to do (this.index + 1) but actually it can happen that multiple items are active simultaneously
         //  and in that case, when completing an earlier one of those it may lead to a duplicate index if we apply only +1
-        int nextIndex = (int) getPlanItems().stream().map(PlanItem::getItemDefinition).filter(sibling -> sibling.equals(itemDefinition)).count();
+        int nextIndex = countSiblings(itemDefinition);
         // Create a new plan item
         addDebugInfo(() -> child + ": creating repeat item with index " + nextIndex + " and id " + repeatItemId);
         return addChild(itemDefinition, repeatItemId, nextIndex, true);
@@ -444,5 +479,37 @@ public class Stage<T extends StageDefinition> extends TaskStage<T> {
 
     void removeDroppedPlanItem(PlanItem<?> item) {
         planItems.remove(item);
+        removeSibling(item, item.getItemDefinition());
+    }
+
+    /**
+     * Children with the same item definition, indexed on their index.
+     */
+    private static class Siblings {
+        private final Map<Integer, List<PlanItem<?>>> byIndex = new HashMap<>();
+        private int size = 0;
+
+        void add(PlanItem<?> item) {
+            byIndex.computeIfAbsent(item.getIndex(), i -> new ArrayList<>(1)).add(item);
+            size++;
+        }
+
+        void remove(PlanItem<?> item) {
+            List<PlanItem<?>> items = byIndex.get(item.getIndex());
+            if (items != null && items.remove(item)) {
+                size--;
+                if (items.isEmpty()) {
+                    byIndex.remove(item.getIndex());
+                }
+            }
+        }
+
+        List<PlanItem<?>> withIndex(int index) {
+            return byIndex.getOrDefault(index, Collections.emptyList());
+        }
+
+        int size() {
+            return size;
+        }
     }
 }
@@ -29,6 +29,7 @@ import org.cafienne.cmmn.instance.Path;
 import org.cafienne.cmmn.instance.State;
 import org.cafienne.cmmn.instance.sentry.CaseFileItemOnPart;
 import org.cafienne.cmmn.instance.sentry.TransitionGenerator;
+import org.cafienne.infrastructure.Cafienne;
 import org.cafienne.json.Value;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
@@ -39,6 +40,7 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 public class CaseFileItem extends CaseFileItemCollection<CaseFileItemDefinition> implements TransitionGenerator<CaseFileItemTransitioned> {
+    private final static boolean useDeltaEvents = Cafienne.config().engine().interpreter().caseFileDeltaEvents();
     /**
      * History of events on this item
      */
@@ -191,7 +193,7 @@ public class CaseFileItem extends CaseFileItemCollection<CaseFileItemDefinition>
         item.setState(event.getState());
         item.indexInArray = event.getIndex();
         item.lastTransition = event.getTransition();
-        item.setValue(event.getValue());
+        item.setValue(event.getNewValue(item.getValue()));
     }
 
     public void publishTransition(BusinessIdentifierEvent event) {
@@ -358,8 +360,13 @@ public class CaseFileItem extends CaseFileItemCollection<CaseFileItemDefinition>
         // Only make a transition if there are changed properties.
         if (!updatedProperties.getValue().isEmpty()) {
             addDebugInfo(() -> "Update on CaseFileItem[" + getPath() + "] contains changes in properties " + updatedProperties.getValue().keySet().stream().map(p -> "'" + p + "'").collect(Collectors.joining(", ")));
-            Value<?> newValue = value.cloneValueNode().merge(updatedProperties);
-            addCaseFileEvent(new CaseFileItemUpdated(this, newValue));
+            if (useDeltaEvents) {
+                // Only store the changed properties, instead of a full copy of the new value
+                addCaseFileEvent(new CaseFileItemPropertiesUpdated(this, updatedProperties));
+            } else {
+                Value<?> newValue = value.cloneValueNode().merge(updatedProperties);
+                addCaseFileEvent(new CaseFileItemUpdated(this, newValue));
+            }
         } else {
             addDebugInfo(() -> "Update on CaseFileItem[" + getPath() + "] has no property changes");
         }
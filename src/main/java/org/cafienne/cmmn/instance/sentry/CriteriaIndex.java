@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.cmmn.instance.sentry;
+
+import java.util.*;
+
+/**
+ * Index of criteria on the identifiers (id and name) of the source definitions of their on parts.
+ * Candidates are always returned in the order in which the criteria were added to the index,
+ * also after a criterion has been re-indexed.
+ */
+class CriteriaIndex<C> {
+    private final Map<C, Long> sequences = new HashMap<>();
+    private final Map<C, Collection<String>> keysByCriterion = new HashMap<>();
+    private final Map<String, Set<C>> index = new HashMap<>();
+    private long sequence = 0;
+
+    /**
+     * Add the criterion under the keys. If the criterion was already added, it is re-indexed under the new keys,
+     * but keeps its position.
+     */
+    void add(C criterion, Collection<String> keys) {
+        sequences.computeIfAbsent(criterion, c -> sequence++);
+        removeKeys(criterion);
+        Collection<String> criterionKeys = new HashSet<>();
+        for (String key : keys) {
+            if (key != null && criterionKeys.add(key)) {
+                index.computeIfAbsent(key, k -> new HashSet<>()).add(criterion);
+            }
+        }
+        keysByCriterion.put(criterion, criterionKeys);
+    }
+
+    void remove(C criterion) {
+        removeKeys(criterion);
+        sequences.remove(criterion);
+    }
+
+    private void removeKeys(C criterion) {
+        Collection<String> keys = keysByCriterion.remove(criterion);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            Set<C> indexed = index.get(key);
+            if (indexed != null) {
+                indexed.remove(criterion);
+                if (indexed.isEmpty()) {
+                    index.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the criteria that are indexed under any of the keys, in the order in which they were added.
+     */
+    List<C> candidates(String... keys) {
+        Set<C> union = new HashSet<>();
+        for (String key : keys) {
+            if (key != null) {
+                union.addAll(index.getOrDefault(key, Collections.emptySet()));
+            }
+        }
+        List<C> list = new ArrayList<>(union);
+        list.sort(Comparator.comparingLong(sequences::get));
+        return list;
+    }
+}
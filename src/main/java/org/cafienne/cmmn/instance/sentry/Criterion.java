@@ -64,6 +64,13 @@ public abstract class Criterion<D extends CriterionDefinition> extends CMMNEleme
         onParts.forEach(OnPart::connectToCase);
     }
 
+    /**
+     * The on parts of this criterion, used by the sentry network to index the criterion on the sources of its on parts.
+     */
+    Collection<OnPart<?, ?, ?>> getOnParts() {
+        return onParts;
+    }
+
     public PlanItem<?> getTarget() {
         return listener.item;
     }
@@ -220,6 +227,8 @@ public abstract class Criterion<D extends CriterionDefinition> extends CMMNEleme
                 migratePlanItemOnPart((PlanItemOnPart) onPart, newDefinition, skipLogic);
             }
         });
+        // The sources of the on parts may have changed with the new definition
+        getCaseInstance().getSentryNetwork().reindex(this);
         addDebugInfo(() -> " - migrated " + this);
     }
 
@@ -24,13 +24,13 @@ import org.cafienne.cmmn.instance.casefile.CaseFileItem;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
 
-import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.stream.Collectors;
 
 public abstract class OnPart<T extends OnPartDefinition, E extends StandardEvent<?, ?>, I extends TransitionGenerator<E>> extends CMMNElement<T> {
     protected final Criterion<?> criterion;
-    protected Collection<I> connectedItems = new ArrayList<>();
+    protected Collection<I> connectedItems = new LinkedHashSet<>();
 
     protected OnPart(Criterion<?> criterion, T definition) {
         super(criterion, definition);
@@ -24,8 +24,6 @@ import org.cafienne.cmmn.instance.Transition;
 import org.cafienne.json.ValueMap;
 import org.w3c.dom.Element;
 
-import java.util.ArrayList;
-
 public class PlanItemOnPart extends OnPart<PlanItemOnPartDefinition, PlanItemTransitioned, PlanItem<?>> {
     private boolean isActive;
     private Criterion<?> relatedExitCriterion;
@@ -71,8 +69,8 @@ public class PlanItemOnPart extends OnPart<PlanItemOnPartDefinition, PlanItemTra
 
     @Override
     void connectToCase() {
-        // Try to connect with all plan items in the case
-        for (PlanItem<?> item : new ArrayList<>(getCaseInstance().getPlanItems())) {
+        // Try to connect with all plan items in the case that have a definition with the same id or name as our source
+        for (PlanItem<?> item : getCaseInstance().getPlanItemsWithSimilarDefinition(getDefinition().getSourceDefinition())) {
             establishPotentialConnection(item);
         }
     }
@@ -17,28 +17,33 @@
 
 package org.cafienne.cmmn.instance.sentry;
 
+import org.cafienne.cmmn.definition.DefinitionElement;
 import org.cafienne.cmmn.definition.sentry.ExitCriterionDefinition;
 import org.cafienne.cmmn.instance.PlanItem;
 import org.cafienne.cmmn.instance.casefile.CaseFileItem;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.*;
 
 /**
  * Wrapper class for the collection of all sentries inside the case instance.
+ * The criteria are indexed on the identifiers (id and name) of the source definitions of their on parts,
+ * so that a new plan item or case file item is only offered to the criteria that may listen to it.
  */
 public class SentryNetwork {
     private final TransitionCallStack callStack = new TransitionCallStack();
     /**
-     * List of sentries active within the case.
+     * List of sentries active within the case, in the order in which they were added.
      */
-    private final Collection<Criterion<?>> criteria = new ArrayList<>();
+    private final Set<Criterion<?>> criteria = new LinkedHashSet<>();
+    private final CriteriaIndex<Criterion<?>> planItemIndex = new CriteriaIndex<>();
+    private final CriteriaIndex<Criterion<?>> caseFileItemIndex = new CriteriaIndex<>();
+    private final Map<PlanItem<?>, Collection<Criterion<?>>> criteriaByTarget = new HashMap<>();
 
     /**
      * Connect a new {@link CaseFileItem} to the network
      */
     public void connect(CaseFileItem item) {
-        for (Criterion<?> criterion : criteria) {
+        for (Criterion<?> criterion : candidates(caseFileItemIndex, item.getDefinition())) {
             criterion.establishPotentialConnection(item);
         }
     }
@@ -47,15 +52,15 @@ public class SentryNetwork {
      * Disconnect the item from the network (typically when the case file item is lost in migration)
      */
     public void disconnect(CaseFileItem item) {
-        criteria.forEach(criterion -> criterion.removeConnection(item));
+        new ArrayList<>(criteria).forEach(criterion -> criterion.removeConnection(item));
     }
 
     /**
      * Connect a new {@link PlanItem} to the network
      */
     public void connect(PlanItem<?> item) {
-        // Visit each existing criterion in the network and inform them about the new plan item.
-        for (Criterion<?> criterion : criteria) {
+        // Visit each existing criterion in the network that listens to the definition of the new plan item.
+        for (Criterion<?> criterion : candidates(planItemIndex, item.getItemDefinition())) {
             criterion.establishPotentialConnection(item);
         }
     }
@@ -65,7 +70,8 @@ public class SentryNetwork {
      * Disconnect the item from the network (typically when the plan item is lost in migration)
      */
     public void disconnect(PlanItem<?> item) {
-        criteria.forEach(criterion -> criterion.removeConnection(item));
+        // Note: during migration the definition of the item may have changed, so visit all criteria to be sure.
+        new ArrayList<>(criteria).forEach(criterion -> criterion.removeConnection(item));
     }
 
     /**
@@ -73,13 +79,59 @@ public class SentryNetwork {
      */
     void add(Criterion<?> criterion) {
         criteria.add(criterion);
+        index(criterion);
+        criteriaByTarget.computeIfAbsent(criterion.getTarget(), item -> new ArrayList<>()).add(criterion);
     }
 
     /**
      * Remove a criterion from the network
      */
     void remove(Criterion<?> criterion) {
-        this.criteria.remove(criterion);
+        if (criteria.remove(criterion)) {
+            planItemIndex.remove(criterion);
+            caseFileItemIndex.remove(criterion);
+        }
+        Collection<Criterion<?>> targetCriteria = criteriaByTarget.get(criterion.getTarget());
+        if (targetCriteria != null) {
+            targetCriteria.remove(criterion);
+            if (targetCriteria.isEmpty()) {
+                criteriaByTarget.remove(criterion.getTarget());
+            }
+        }
+    }
+
+    /**
+     * Update the index for the criterion, e.g. after the definitions of its on parts have been migrated.
+     */
+    void reindex(Criterion<?> criterion) {
+        if (criteria.contains(criterion)) {
+            index(criterion);
+        }
+    }
+
+    private void index(Criterion<?> criterion) {
+        Collection<String> planItemKeys = new ArrayList<>();
+        Collection<String> caseFileItemKeys = new ArrayList<>();
+        for (OnPart<?, ?, ?> onPart : criterion.getOnParts()) {
+            DefinitionElement source = onPart.getDefinition().getSourceDefinition();
+            if (onPart instanceof PlanItemOnPart) {
+                planItemKeys.add(source.getId());
+                planItemKeys.add(source.getName());
+            } else if (onPart instanceof CaseFileItemOnPart) {
+                caseFileItemKeys.add(source.getId());
+                caseFileItemKeys.add(source.getName());
+            }
+        }
+        planItemIndex.add(criterion, planItemKeys);
+        caseFileItemIndex.add(criterion, caseFileItemKeys);
+    }
+
+    /**
+     * Returns the criteria that have an on part with a source definition that has the same id or name as the definition,
+     * in the order in which they were added to the network.
+     */
+    private List<Criterion<?>> candidates(CriteriaIndex<Criterion<?>> index, DefinitionElement definition) {
+        return index.candidates(definition.getId(), definition.getName());
     }
 
     @Override
@@ -95,12 +147,10 @@ public class SentryNetwork {
      * @return The related criterion, or null if it is not found.
      */
     Criterion<?> findRelatedExitCriterion(PlanItem<?> item, ExitCriterionDefinition definition) {
-       for (Criterion<?> criterion : criteria) {
-           if (criterion.getDefinition().equals(definition)) {
-                if (criterion.getTarget() == item) {
-                        return criterion;
-                }
-           }
+        for (Criterion<?> criterion : criteriaByTarget.getOrDefault(item, Collections.emptyList())) {
+            if (criterion.getDefinition().equals(definition)) {
+                return criterion;
+            }
         }
         // Pretty weird, not sure what to do here. Probably we need to make it such that when the
         // exit criterion is created, it will also connect to those entry criteria that relate to it.
@@ -21,11 +21,20 @@ import org.cafienne.cmmn.instance.Stage;
 import org.cafienne.cmmn.instance.debug.DebugInfoAppender;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class TransitionPublisher<E extends StandardEvent<?, ?>, I extends TransitionGenerator<E>, P extends OnPart<?, E, I>> {
     protected final I item;
-    private final List<E> transitions = new ArrayList<>();
+    /**
+     * Compact history of the transitions of the item: only the most recent event of each type of transition is kept,
+     * ordered from old to new, along with the very first event.
+     * This is sufficient to bring on parts that connect during recovery into the same state as when they would have seen all events.
+     */
+    private final Map<Enum<?>, E> latestTransitions = new LinkedHashMap<>();
+    private E firstTransition;
+    private E lastTransition;
     private final List<P> connectedEntryCriteria = new ArrayList<>();
     private final List<P> connectedExitCriteria = new ArrayList<>();
 
@@ -47,11 +56,21 @@ public class TransitionPublisher<E extends StandardEvent<?, ?>, I extends Transi
     }
 
     public void addEvent(E event) {
-        transitions.add(0, event);
+        addTransition(event);
         updateItemState(event);
         informSentryNetwork(event);
     }
 
+    private void addTransition(E event) {
+        if (firstTransition == null) {
+            firstTransition = event;
+        }
+        lastTransition = event;
+        // Remove and put again, so that the transition type moves to the end of the map
+        latestTransitions.remove(event.getTransition());
+        latestTransitions.put(event.getTransition(), event);
+    }
+
     protected void updateItemState(E event) {
         item.updateStandardEvent(event);
     }
@@ -77,13 +96,21 @@ public class TransitionPublisher<E extends StandardEvent<?, ?>, I extends Transi
         if (onPart.getCaseInstance().recoveryFinished()) {
             // We only inform the first item of a transition that happened "in the past".
             //  Repetition items only need to react to new events. This check avoids potential endless recursion.
-            if (onPart.getCriterion().getTarget().getIndex() == 0 && !transitions.isEmpty()) {
-                onPart.inform(item, transitions.get(0));
+            if (onPart.getCriterion().getTarget().getIndex() == 0 && lastTransition != null) {
+                onPart.inform(item, lastTransition);
             }
         } else {
-            // During recovery, we inform all on parts about our most recent event,
-            // so that the sentry network is in the right state after recovery.
-            transitions.forEach(event -> onPart.inform(item, event));
+            // During recovery, we inform all on parts about our events, from new to old,
+            //  so that the sentry network is in the right state after recovery.
+            //  The state of the on part is determined by the last event it is informed about (the very first transition),
+            //  so informing about the latest event of each transition type gives the same outcome as informing about all events.
+            List<E> events = new ArrayList<>(latestTransitions.values());
+            for (int i = events.size() - 1; i >= 0; i--) {
+                onPart.inform(item, events.get(i));
+            }
+            if (firstTransition != null && (events.isEmpty() || events.get(0) != firstTransition)) {
+                onPart.inform(item, firstTransition);
+            }
         }
     }
 
@@ -22,8 +22,8 @@ import org.cafienne.actormodel.exception.AuthorizationException;
 import org.cafienne.actormodel.identity.UserIdentity;
 import org.cafienne.cmmn.definition.DefinitionsDocument;
 import org.cafienne.cmmn.definition.InvalidDefinitionException;
-import org.cafienne.cmmn.repository.file.SimpleLRUCache;
 import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.util.SegmentedLRUCache;
 import org.cafienne.util.XMLHelper;
 import org.xml.sax.SAXException;
 
@@ -31,10 +31,9 @@ import javax.xml.parsers.ParserConfigurationException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 public class StartCaseDefinitionProvider implements DefinitionProvider {
-    private final Map<String, DefinitionsDocument> cache = new SimpleLRUCache(Cafienne.config().repository().cacheSize());
+    private final SegmentedLRUCache<String, DefinitionsDocument> cache = new SegmentedLRUCache<>(Cafienne.config().repository().cacheSize());
     private final static String AUTHORIZED_TENANT_ROLES = "authorized-tenant-roles";
     private final List<String> authorizedTenantRoles;
 
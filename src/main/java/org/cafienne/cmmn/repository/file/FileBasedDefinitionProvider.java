@@ -24,6 +24,7 @@ import org.cafienne.cmmn.repository.DefinitionProvider;
 import org.cafienne.cmmn.repository.MissingDefinitionException;
 import org.cafienne.cmmn.repository.WriteDefinitionException;
 import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.util.SegmentedLRUCache;
 import org.cafienne.util.XMLHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,7 +37,7 @@ import java.util.*;
 
 public class FileBasedDefinitionProvider implements DefinitionProvider {
     private final static Logger logger = LoggerFactory.getLogger(FileBasedDefinitionProvider.class);
-    private final Map<String, FileBasedDefinition> cache = new SimpleLRUCache(Cafienne.config().repository().cacheSize());
+    private final SegmentedLRUCache<String, FileBasedDefinition> cache = new SegmentedLRUCache<>(Cafienne.config().repository().cacheSize());
     private String deployDirectory = null;
     private final String EXTENSION = ".xml";
 
@@ -17,9 +17,7 @@
 
 package org.cafienne.infrastructure.serialization;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
-import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import org.cafienne.cmmn.definition.CMMNElementDefinition;
 import org.cafienne.cmmn.instance.Path;
 import org.cafienne.json.CafienneJson;
@@ -27,7 +25,6 @@ import org.cafienne.json.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.Collection;
@@ -36,24 +33,11 @@ public interface CafienneSerializable {
     Logger logger = LoggerFactory.getLogger(CafienneSerializer.class);
 
     default byte[] toBytes() {
-        JsonFactory factory = new JsonFactory();
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        try {
-            JsonGenerator generator = factory.createGenerator(baos);
-            generator.setPrettyPrinter(new DefaultPrettyPrinter());
-            this.writeThisObject(generator);
-            generator.close();
-        } catch (IOException e) {
-            throw new RuntimeException("Failure in serialization of an object with type " + this.getClass().getName() + "\n" + e.getMessage(), e);
-        } catch (Throwable t) {
-            logger.error("Failed to serialize an object of type " + this.getClass().getName(), t);
-            throw t;
-        }
-        return baos.toByteArray();
+        return SerializationFormat.JSON.toBytes(this);
     }
 
     default String asString() {
-        return new String(toBytes());
+        return new String(SerializationFormat.JSON.toBytes(this, true));
     }
 
     /**
@@ -19,12 +19,13 @@ package org.cafienne.infrastructure.serialization;
 
 import akka.actor.ExtendedActorSystem;
 import akka.serialization.SerializerWithStringManifest;
+import com.fasterxml.jackson.core.JsonParser;
 import org.cafienne.infrastructure.serialization.serializers.CommandSerializers;
 import org.cafienne.infrastructure.serialization.serializers.EventSerializers;
 import org.cafienne.infrastructure.serialization.serializers.ResponseSerializers;
+import org.cafienne.infrastructure.serialization.serializers.SnapshotSerializers;
 import org.cafienne.infrastructure.serialization.serializers.StorageSerializers;
 import org.cafienne.json.JSONParseFailure;
-import org.cafienne.json.JSONReader;
 import org.cafienne.json.ValueMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -50,6 +51,7 @@ public class CafienneSerializer extends SerializerWithStringManifest {
         CommandSerializers.register();
         ResponseSerializers.register();
         StorageSerializers.register();
+        SnapshotSerializers.register();
     }
 
     static ManifestWrapper getManifest(String manifestString) {
@@ -57,7 +59,14 @@ public class CafienneSerializer extends SerializerWithStringManifest {
     }
 
     public static <CS extends CafienneSerializable>void addManifestWrapper(Class<CS> eventClass, ValueMapDeserializer<CS> deserializer) {
-        ManifestWrapper manifest = new ManifestWrapper(eventClass, deserializer);
+        addManifestWrapper(eventClass, deserializer, null);
+    }
+
+    /**
+     * Register a manifest that can also be deserialized directly from a JsonParser, when the content has the current manifest version.
+     */
+    public static <CS extends CafienneSerializable>void addManifestWrapper(Class<CS> eventClass, ValueMapDeserializer<CS> deserializer, JsonParserDeserializer<CS> streamingDeserializer) {
+        ManifestWrapper manifest = new ManifestWrapper(eventClass, deserializer, streamingDeserializer);
         manifestsByClass.put(manifest.eventClass, manifest);
         // Now register manifest strings of all versions, starting from the current
         for (String manifestString : manifest.manifestsByVersion) {
@@ -128,7 +137,28 @@ public class CafienneSerializer extends SerializerWithStringManifest {
 
     @Override
     public Object fromBinary(byte[] eventBlob, String manifestString) {
-        return deserialize(manifestString, () -> JSONReader.parse(eventBlob), () -> eventBlob);
+        ManifestWrapper manifest = getManifest(manifestString);
+        if (manifest != null && manifest.streamingDeserializer != null && manifest.current.equals(manifestString)) {
+            // No migrations needed, so we can read the object without creating the json tree.
+            Object object = deserializeStreaming(manifest, eventBlob);
+            if (object != null) {
+                return object;
+            }
+        }
+        // Both formats can be read, independent of the format this serializer writes, so that older JSON rows remain readable
+        return deserialize(manifestString, () -> SerializationFormat.of(eventBlob).parse(eventBlob), () -> eventBlob);
+    }
+
+    private Object deserializeStreaming(ManifestWrapper manifest, byte[] eventBlob) {
+        try (JsonParser parser = SerializationFormat.of(eventBlob).createParser(eventBlob)) {
+            return manifest.streamingDeserializer.deserialize(parser);
+        } catch (Exception e) {
+            // Just fall back to the regular deserialization; that will report the failure if it is structural.
+            if (logger.isDebugEnabled()) {
+                logger.debug("Could not read " + manifest + " in streaming mode, falling back to json tree", e);
+            }
+            return null;
+        }
     }
 
     @Override
@@ -136,6 +166,13 @@ public class CafienneSerializer extends SerializerWithStringManifest {
         return IDENTIFIER;
     }
 
+    /**
+     * Returns the format in which this serializer writes objects
+     */
+    protected SerializationFormat format() {
+        return SerializationFormat.JSON;
+    }
+
     @Override
     public String manifest(Object o) {
         return getManifestString(o);
@@ -145,7 +182,7 @@ public class CafienneSerializer extends SerializerWithStringManifest {
     public byte[] toBinary(Object o) {
         if (o instanceof CafienneSerializable) {
             CafienneSerializable target = (CafienneSerializable) o;
-            return target.toBytes();
+            return format().toBytes(target);
         }
         throw new RuntimeException("The Akka Case Object Serializer can only serialize objects implementing CafienneSerializable");
     }
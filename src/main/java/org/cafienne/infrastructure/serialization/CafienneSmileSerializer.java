@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.serialization;
+
+import akka.actor.ExtendedActorSystem;
+
+/**
+ * Variant of the {@link CafienneSerializer} that writes objects in the compact Smile format.
+ * It has its own serializer identifier, so that the journal knows which serializer wrote a row.
+ * Both serializers can read JSON and Smile content, hence switching between them keeps existing events readable.
+ */
+public class CafienneSmileSerializer extends CafienneSerializer {
+    /**
+     * The unique identifier for the CafienneSmileSerializer (value is <code>52944</code>)
+     */
+    public static final int IDENTIFIER = 52944;
+
+    public CafienneSmileSerializer() {
+    }
+
+    public CafienneSmileSerializer(ExtendedActorSystem system) {
+        super(system);
+    }
+
+    @Override
+    public int identifier() {
+        return IDENTIFIER;
+    }
+
+    @Override
+    protected SerializationFormat format() {
+        return SerializationFormat.SMILE;
+    }
+}
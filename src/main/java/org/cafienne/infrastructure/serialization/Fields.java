@@ -113,6 +113,7 @@ public enum Fields {
     role,
     elementId,
     source,
+    sourceHash,
     script,
     waitTime,
     assignee,
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.serialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.cafienne.json.JSONParseFailure;
+
+import java.io.IOException;
+
+/**
+ * Optional deserializer that reads an object directly from a {@link JsonParser}, without first creating the json tree.
+ * It is only used for content that has the current version of the manifest; older versions go through the migrators
+ * and the {@link ValueMapDeserializer}.
+ *
+ * @param <T>
+ */
+@FunctionalInterface
+public interface JsonParserDeserializer<T extends CafienneSerializable> {
+    /**
+     * Read the object from the parser.
+     * Returns null if the content cannot be read in a streaming manner (e.g. because it has an older structure),
+     * in which case the {@link ValueMapDeserializer} is used instead.
+     */
+    T deserialize(JsonParser parser) throws IOException, JSONParseFailure;
+}
@@ -45,6 +45,10 @@ public class ManifestWrapper {
      * The deserializer that goes with the manifest.
      */
     public final ValueMapDeserializer<?> deserializer;
+    /**
+     * Optional deserializer that reads directly from a JsonParser; may be null.
+     */
+    public final JsonParserDeserializer<?> streamingDeserializer;
     /**
      * Raw manifest string (e.g. <code>"CaseDefinitionApplied"</code>) <i>without</i> version information.
      */
@@ -67,6 +71,10 @@ public class ManifestWrapper {
     public final String[] manifestsByVersion;
 
     public ManifestWrapper(Class<?> eventClass, ValueMapDeserializer<?> deserializer) {
+        this(eventClass, deserializer, null);
+    }
+
+    public ManifestWrapper(Class<?> eventClass, ValueMapDeserializer<?> deserializer, JsonParserDeserializer<?> streamingDeserializer) {
         if (eventClass == null) {
             throw new NullPointerException("Cannot create a ManifestWrapper without an event class");
         }
@@ -75,6 +83,7 @@ public class ManifestWrapper {
         }
         this.eventClass = eventClass;
         this.deserializer = deserializer;
+        this.streamingDeserializer = streamingDeserializer;
         this.manifest = eventClass.getAnnotation(Manifest.class);
         if (manifest == null) {
             throw new RuntimeException("The ManifestWrapper for " + eventClass.getName() + " must have an annotation of type "+Manifest.class.getName());
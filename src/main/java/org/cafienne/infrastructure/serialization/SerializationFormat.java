@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.serialization;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.cafienne.json.JSONParseFailure;
+import org.cafienne.json.JSONReader;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * The binary formats in which {@link CafienneSerializable} objects can be stored.
+ * Each format holds a single, thread safe, factory that is shared across all serializations.
+ */
+public enum SerializationFormat {
+    /**
+     * Plain JSON, the original format. Readable for humans.
+     */
+    JSON(new JsonFactory()),
+    /**
+     * Smile, the binary JSON format of Jackson. Same data model, but more compact and faster to read and write.
+     */
+    SMILE(new SmileFactory());
+
+    private final static Logger logger = LoggerFactory.getLogger(SerializationFormat.class);
+
+    /**
+     * Smile content always starts with the header ':)\n'
+     */
+    private final static byte[] SMILE_HEADER = {':', ')', '\n'};
+
+    private final JsonFactory factory;
+
+    SerializationFormat(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the format of the bytes; this is either Smile (if the bytes start with the Smile header) or JSON.
+     */
+    public static SerializationFormat of(byte[] bytes) {
+        if (bytes.length >= SMILE_HEADER.length && bytes[0] == SMILE_HEADER[0] && bytes[1] == SMILE_HEADER[1] && bytes[2] == SMILE_HEADER[2]) {
+            return SMILE;
+        }
+        return JSON;
+    }
+
+    /**
+     * Serializes the object in this format
+     */
+    public byte[] toBytes(CafienneSerializable object) {
+        return toBytes(object, false);
+    }
+
+    /**
+     * Serializes the object in this format, optionally with indentation (only applicable to the JSON format).
+     */
+    public byte[] toBytes(CafienneSerializable object, boolean pretty) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            JsonGenerator generator = factory.createGenerator(baos);
+            if (pretty) {
+                generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            }
+            object.writeThisObject(generator);
+            generator.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Failure in serialization of an object with type " + object.getClass().getName() + "\n" + e.getMessage(), e);
+        } catch (Throwable t) {
+            logger.error("Failed to serialize an object of type " + object.getClass().getName(), t);
+            throw t;
+        }
+        return baos.toByteArray();
+    }
+
+    /**
+     * Creates a parser for the bytes in this format
+     */
+    public JsonParser createParser(byte[] bytes) throws IOException {
+        return factory.createParser(bytes);
+    }
+
+    /**
+     * Parses the bytes in this format into a json structure
+     */
+    public ValueMap parse(byte[] bytes) throws IOException, JSONParseFailure {
+        if (this == JSON) {
+            // JSONReader has a more lenient parser configuration
+            return JSONReader.parse(bytes);
+        }
+        Value<?> value = JSONReader.read(factory.createParser(bytes), null);
+        if (value instanceof ValueMap) {
+            return (ValueMap) value;
+        }
+        throw new DeserializationError("Expected a json object, but found " + (value == null ? "nothing" : value.getClass().getSimpleName()));
+    }
+}
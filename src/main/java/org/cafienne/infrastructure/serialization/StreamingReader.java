@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.serialization;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.cafienne.json.JSONParseFailure;
+import org.cafienne.json.JSONReader;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueMap;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Helper methods for a {@link JsonParserDeserializer} to read field values from a {@link JsonParser}.
+ * The methods expect the parser to be positioned on the value of the field.
+ */
+public class StreamingReader {
+    private final static Map<String, Fields> knownFields = new HashMap<>();
+
+    static {
+        for (Fields field : Fields.values()) {
+            knownFields.put(field.toString(), field);
+        }
+    }
+
+    /**
+     * Moves the parser to the start of the object, and returns false if the content is not a json object.
+     */
+    public static boolean startObject(JsonParser parser) throws IOException {
+        return parser.nextToken() == JsonToken.START_OBJECT;
+    }
+
+    /**
+     * Moves the parser to the value of the next field, and returns the name of the field,
+     * or null if the end of the object is reached.
+     */
+    public static String nextField(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.FIELD_NAME) {
+            return null;
+        }
+        String fieldName = parser.getCurrentName();
+        parser.nextToken();
+        return fieldName;
+    }
+
+    /**
+     * Moves the parser to the value of the next field that is one of the {@link Fields}, and returns that field,
+     * or null if the end of the object is reached. Values of fields with other names are skipped.
+     */
+    public static Fields nextKnownField(JsonParser parser) throws IOException {
+        for (String fieldName = nextField(parser); fieldName != null; fieldName = nextField(parser)) {
+            Fields field = knownFields.get(fieldName);
+            if (field != null) {
+                return field;
+            }
+            skip(parser);
+        }
+        return null;
+    }
+
+    public static String readString(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+    }
+
+    public static <E extends Enum<E>> E readEnum(JsonParser parser, Class<E> enumClass) throws IOException {
+        String value = readString(parser);
+        return value == null ? null : Enum.valueOf(enumClass, value);
+    }
+
+    /**
+     * Reads the (typically small) object at the current position as a json tree
+     */
+    public static ValueMap readMap(JsonParser parser) throws IOException, JSONParseFailure {
+        Value<?> value = JSONReader.read(parser, null);
+        return value instanceof ValueMap ? (ValueMap) value : new ValueMap();
+    }
+
+    /**
+     * Skips the value of a field that is not relevant to the reader
+     */
+    public static void skip(JsonParser parser) throws IOException {
+        parser.skipChildren();
+    }
+}
@@ -125,6 +125,7 @@ public class CommandSerializers {
         CafienneSerializer.addManifestWrapper(SuspendProcess.class, SuspendProcess::new);
         CafienneSerializer.addManifestWrapper(TerminateProcess.class, TerminateProcess::new);
         CafienneSerializer.addManifestWrapper(MigrateProcessDefinition.class, MigrateProcessDefinition::new);
+        CafienneSerializer.addManifestWrapper(CompleteAsyncOperation.class, CompleteAsyncOperation::new);
     }
 
     private static void addTenantCommands() {
@@ -119,7 +119,7 @@ public class EventSerializers {
 
     private static void registerCasePlanEvents() {
         CafienneSerializer.addManifestWrapper(PlanItemCreated.class, PlanItemCreated::new);
-        CafienneSerializer.addManifestWrapper(PlanItemTransitioned.class, PlanItemTransitioned::new);
+        CafienneSerializer.addManifestWrapper(PlanItemTransitioned.class, PlanItemTransitioned::new, PlanItemTransitioned::deserialize);
         CafienneSerializer.addManifestWrapper(PlanItemMigrated.class, PlanItemMigrated::new);
         CafienneSerializer.addManifestWrapper(PlanItemDropped.class, PlanItemDropped::new);
         CafienneSerializer.addManifestWrapper(RepetitionRuleEvaluated.class, RepetitionRuleEvaluated::new);
@@ -141,6 +141,7 @@ public class EventSerializers {
     private static void registerCaseFileEvents() {
         CafienneSerializer.addManifestWrapper(CaseFileItemCreated.class, CaseFileItemCreated::new);
         CafienneSerializer.addManifestWrapper(CaseFileItemUpdated.class, CaseFileItemUpdated::new);
+        CafienneSerializer.addManifestWrapper(CaseFileItemPropertiesUpdated.class, CaseFileItemPropertiesUpdated::new);
         CafienneSerializer.addManifestWrapper(CaseFileItemReplaced.class, CaseFileItemReplaced::new);
         CafienneSerializer.addManifestWrapper(CaseFileItemDeleted.class, CaseFileItemDeleted::new);
         CafienneSerializer.addManifestWrapper(CaseFileItemChildRemoved.class, CaseFileItemChildRemoved::new);
@@ -181,6 +182,7 @@ public class EventSerializers {
         CafienneSerializer.addManifestWrapper(ProcessTerminated.class, ProcessTerminated::new);
         CafienneSerializer.addManifestWrapper(ProcessModified.class, ProcessModified::new);
         CafienneSerializer.addManifestWrapper(ProcessDefinitionMigrated.class, ProcessDefinitionMigrated::new);
+        CafienneSerializer.addManifestWrapper(AsyncOperationStarted.class, AsyncOperationStarted::new);
     }
 
     private static void registerTenantEvents() {
@@ -30,7 +30,7 @@ import java.io.InputStream;
  */
 public class JSONReader {
 
-    private static JsonFactory getJSONFactory() {
+    static JsonFactory getJSONFactory() {
         JsonFactory factory = new JsonFactory();
         factory.configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true);
         factory.configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true);
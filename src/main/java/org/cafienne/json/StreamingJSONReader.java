@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Parses json that arrives in chunks (e.g. the body of an http request) into a {@link Value}.
+ * The chunks are fed into a non-blocking parser, and the value is built up while the tokens come in,
+ * so that the full document need not be kept in memory as bytes or string before it is parsed.
+ * Only the first json value in the content is returned, similar to {@link JSONReader}.
+ */
+public class StreamingJSONReader {
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    /**
+     * Maps and lists that are being parsed, the innermost on top.
+     */
+    private final Deque<Container> containers = new ArrayDeque<>();
+    private String fieldName;
+    private Value<?> result;
+
+    public StreamingJSONReader() throws IOException {
+        this.parser = JSONReader.getJSONFactory().createNonBlockingByteArrayParser();
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Parses the next chunk of the json content
+     */
+    public void feed(byte[] bytes) throws IOException {
+        feed(bytes, 0, bytes.length);
+    }
+
+    public void feed(byte[] bytes, int offset, int end) throws IOException {
+        feeder.feedInput(bytes, offset, end);
+        readTokens();
+    }
+
+    /**
+     * Indicates that all content has been fed, and returns the parsed value.
+     * Returns null if there is no json content at all (e.g. an empty request body), just like {@link JSONReader#parse(String)}.
+     */
+    public <T extends Value<?>> T complete() throws IOException, JSONParseFailure {
+        feeder.endOfInput();
+        readTokens();
+        parser.close();
+        if (result == null && !containers.isEmpty()) {
+            throw new JSONParseFailure("Json content ended before the document was complete");
+        }
+        return (T) result;
+    }
+
+    private void readTokens() throws IOException {
+        JsonToken token = parser.nextToken();
+        // NOT_AVAILABLE means the parser needs more input
+        while (token != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT:
+                    open(new ValueMap());
+                    break;
+                case START_ARRAY:
+                    open(new ValueList());
+                    break;
+                case END_OBJECT:
+                case END_ARRAY:
+                    Container container = containers.pop();
+                    fieldName = container.fieldName;
+                    add(container.value);
+                    break;
+                case FIELD_NAME:
+                    fieldName = parser.getCurrentName();
+                    break;
+                case VALUE_STRING:
+                    add(new StringValue(parser.getText()));
+                    break;
+                case VALUE_NUMBER_INT:
+                    add(new LongValue(parser.getLongValue()));
+                    break;
+                case VALUE_NUMBER_FLOAT:
+                    add(new DoubleValue(parser.getDoubleValue()));
+                    break;
+                case VALUE_TRUE:
+                    add(new BooleanValue(true));
+                    break;
+                case VALUE_FALSE:
+                    add(new BooleanValue(false));
+                    break;
+                case VALUE_NULL:
+                    add(Value.NULL);
+                    break;
+                case VALUE_EMBEDDED_OBJECT:
+                    add(new BinaryValue(parser.getBinaryValue()));
+                    break;
+                default:
+                    break;
+            }
+            token = parser.nextToken();
+        }
+    }
+
+    private void open(Value<?> value) {
+        // Remember the field name, as the value is added to its parent only when it is complete
+        containers.push(new Container(value, fieldName));
+        fieldName = null;
+    }
+
+    private void add(Value<?> value) {
+        Container parent = containers.peek();
+        if (parent == null) {
+            if (result == null) {
+                result = value;
+            }
+        } else if (parent.value instanceof ValueList) {
+            ((ValueList) parent.value).add(value);
+        } else {
+            ((ValueMap) parent.value).put(fieldName, value);
+            fieldName = null;
+        }
+    }
+
+    private static class Container {
+        private final Value<?> value;
+        private final String fieldName;
+
+        private Container(Value<?> value, String fieldName) {
+            this.value = value;
+            this.fieldName = fieldName;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.actorapi.command;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.cafienne.actormodel.exception.InvalidCommandException;
+import org.cafienne.actormodel.identity.UserIdentity;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.infrastructure.serialization.Manifest;
+import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.implementation.AsyncSubProcess;
+import org.cafienne.processtask.implementation.SubProcess;
+import org.cafienne.processtask.instance.ProcessTaskActor;
+
+import java.io.IOException;
+
+/**
+ * Delivers the outcome of an operation that a process task runs outside of the actor (an HTTP call, sending a mail, filling a report)
+ * back to the process task that started it.
+ */
+@Manifest
+public class CompleteAsyncOperation extends ProcessCommand {
+    private final String operationId;
+    private final ValueMap outcome;
+
+    public CompleteAsyncOperation(UserIdentity user, String id, String operationId, ValueMap outcome) {
+        super(user, id);
+        this.operationId = operationId;
+        this.outcome = outcome;
+    }
+
+    public CompleteAsyncOperation(ValueMap json) {
+        super(json);
+        this.operationId = json.readString(Fields.identifier);
+        this.outcome = json.readMap(Fields.response);
+    }
+
+    @Override
+    public void validate(ProcessTaskActor processTaskActor) throws InvalidCommandException {
+        if (!(processTaskActor.getImplementation() instanceof AsyncSubProcess)) {
+            throw new InvalidCommandException("Process task " + processTaskActor.getName() + " does not run asynchronous operations");
+        }
+    }
+
+    @Override
+    public void process(ProcessTaskActor processTaskActor) {
+        // No response is sent, since the command is sent by the operation itself and not by another actor
+        process(processTaskActor, processTaskActor.getImplementation());
+    }
+
+    @Override
+    protected void process(ProcessTaskActor processTaskActor, SubProcess<?> implementation) {
+        ((AsyncSubProcess<?>) implementation).completeOperation(operationId, outcome);
+    }
+
+    @Override
+    public void write(JsonGenerator generator) throws IOException {
+        super.writeModelCommand(generator);
+        writeField(generator, Fields.identifier, operationId);
+        writeField(generator, Fields.response, outcome);
+    }
+}
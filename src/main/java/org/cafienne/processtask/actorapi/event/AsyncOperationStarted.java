@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.actorapi.event;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.infrastructure.serialization.Manifest;
+import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.instance.ProcessTaskActor;
+
+import java.io.IOException;
+
+/**
+ * Event indicating that the process task started an operation outside of the actor (e.g. an HTTP call),
+ * of which the outcome will come back in a {@link org.cafienne.processtask.actorapi.command.CompleteAsyncOperation} command.
+ * It makes the pending operation survive recovery of the process task.
+ */
+@Manifest
+public class AsyncOperationStarted extends BaseProcessEvent {
+    public final String operationId;
+
+    public AsyncOperationStarted(ProcessTaskActor actor, String operationId) {
+        super(actor);
+        this.operationId = operationId;
+    }
+
+    public AsyncOperationStarted(ValueMap json) {
+        super(json);
+        this.operationId = json.readString(Fields.identifier);
+    }
+
+    @Override
+    public void updateState(ProcessTaskActor actor) {
+        actor.updateState(this);
+    }
+
+    @Override
+    public void write(JsonGenerator generator) throws IOException {
+        super.write(generator);
+        writeField(generator, Fields.identifier, operationId);
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation;
+
+import akka.actor.ActorRef;
+import org.cafienne.actormodel.identity.UserIdentity;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.actorapi.command.CompleteAsyncOperation;
+import org.cafienne.processtask.actorapi.event.AsyncOperationStarted;
+import org.cafienne.processtask.definition.SubProcessDefinition;
+import org.cafienne.processtask.instance.ProcessTaskActor;
+import org.cafienne.system.CaseSystem;
+import org.cafienne.util.Guid;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Base class for sub processes that run an operation outside of the process task actor (e.g. on a thread pool or an asynchronous client).
+ * The start of the operation is stored in an {@link AsyncOperationStarted} event. The outcome comes back in a
+ * {@link CompleteAsyncOperation} command, which is passed to {@link #handleOutcome(ValueMap)} if the operation is still pending.
+ * An outcome holding an "error" field (and optionally an "exception") indicates a failure of the operation.
+ * <p>
+ * If the process task recovers with a pending operation that is not running in this JVM (e.g. because the engine
+ * crashed while the operation was running), the outcome will never come, and the operation is completed with an error.
+ */
+public abstract class AsyncSubProcess<T extends SubProcessDefinition> extends SubProcess<T> {
+    /**
+     * Operations that are running in this JVM, and of which the outcome has not yet been handled.
+     */
+    private final static Set<String> runningOperations = ConcurrentHashMap.newKeySet();
+    private String pendingOperationId;
+    private UserIdentity operationUser;
+
+    protected AsyncSubProcess(ProcessTaskActor processTask, T processDefinition) {
+        super(processTask, processDefinition);
+    }
+
+    /**
+     * Starts a new operation. The returned callback must be invoked with the outcome of the operation;
+     * it can be invoked from any thread.
+     */
+    protected Consumer<ValueMap> startOperation() {
+        String operationId = new Guid().toString();
+        processTaskActor.addEvent(new AsyncOperationStarted(processTaskActor, operationId));
+        runningOperations.add(operationId);
+        // Read the information needed to send the outcome back to the actor, as the callback runs on another thread
+        CaseSystem caseSystem = processTaskActor.caseSystem;
+        UserIdentity user = processTaskActor.getCurrentUser();
+        String actorId = processTaskActor.getId();
+        return outcome -> caseSystem.gateway().inform(new CompleteAsyncOperation(user, actorId, operationId, outcome), ActorRef.noSender());
+    }
+
+    /**
+     * Registers the operation as pending; invoked both when the operation starts and during recovery.
+     */
+    public void operationStarted(AsyncOperationStarted event) {
+        pendingOperationId = event.operationId;
+        operationUser = event.getUser();
+    }
+
+    /**
+     * Handles the outcome of an operation; outcomes of operations that are no longer pending are ignored.
+     */
+    public void completeOperation(String operationId, ValueMap outcome) {
+        runningOperations.remove(operationId);
+        if (!operationId.equals(pendingOperationId)) {
+            processTaskActor.addDebugInfo(() -> "Ignoring outcome of operation " + operationId + ", since that operation is no longer pending");
+            return;
+        }
+        pendingOperationId = null;
+        handleOutcome(outcome);
+    }
+
+    /**
+     * Handles the outcome of the pending operation.
+     */
+    protected abstract void handleOutcome(ValueMap outcome);
+
+    /**
+     * Forgets about the pending operation, so that its outcome will be ignored. Invoked when the process ends.
+     */
+    public void cancelOperation() {
+        if (pendingOperationId != null) {
+            runningOperations.remove(pendingOperationId);
+            pendingOperationId = null;
+        }
+    }
+
+    /**
+     * Completes a pending operation with an error if it is not running in this JVM, as its outcome will never come.
+     */
+    public void recoveryCompleted() {
+        if (pendingOperationId != null && !runningOperations.contains(pendingOperationId)) {
+            String message = "The outcome of operation " + pendingOperationId + " was lost, since the process task recovered while the operation was running";
+            ValueMap outcome = new ValueMap("error", message, "exception", Value.convert(new IllegalStateException(message)));
+            processTaskActor.caseSystem.gateway().inform(new CompleteAsyncOperation(operationUser, processTaskActor.getId(), pendingOperationId, outcome), ActorRef.noSender());
+        }
+    }
+
+    /**
+     * Raises a fault with the error in the outcome, if it has one.
+     *
+     * @return true if the outcome has an error
+     */
+    protected boolean raiseFaultOnError(ValueMap outcome) {
+        if (outcome.has("error")) {
+            setFault(outcome.get("exception"));
+            raiseFault(outcome.get("error").toString());
+            return true;
+        }
+        return false;
+    }
+}
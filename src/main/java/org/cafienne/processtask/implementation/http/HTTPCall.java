@@ -17,7 +17,9 @@
 
 package org.cafienne.processtask.implementation.http;
 
-import org.cafienne.processtask.implementation.SubProcess;
+import org.cafienne.json.ValueMap;
+import org.cafienne.processtask.actorapi.command.CompleteAsyncOperation;
+import org.cafienne.processtask.implementation.AsyncSubProcess;
 import org.cafienne.processtask.instance.ProcessTaskActor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,14 +28,17 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.net.http.HttpRequest;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
 
-public class HTTPCall extends SubProcess<HTTPCallDefinition> {
+public class HTTPCall extends AsyncSubProcess<HTTPCallDefinition> {
     private final static Logger logger = LoggerFactory.getLogger(HTTPCall.class);
 
-    private final Result result = new Result(this);
+    private Result result = new Result(this);
 
     public HTTPCall(ProcessTaskActor processTask, HTTPCallDefinition definition) {
         super(processTask, definition);
@@ -46,7 +51,14 @@ public class HTTPCall extends SubProcess<HTTPCallDefinition> {
 
     @Override
     public void start() {
-        boolean successful = runCall();
+        if (HTTPCallClient.isEnabled()) {
+            startAsyncCall();
+        } else {
+            handleOutcome(runCall());
+        }
+    }
+
+    private void handleOutcome(boolean successful) {
         // Print debug information
         processTaskActor.addDebugInfo(result::getDebugInfo);
         // Set raw output parameters
@@ -60,6 +72,51 @@ public class HTTPCall extends SubProcess<HTTPCallDefinition> {
         }
     }
 
+    /**
+     * Sends the request with the non-blocking client. The response is sent back to the process task actor
+     * in a {@link CompleteAsyncOperation} command, which invokes {@link #handleOutcome(ValueMap)}.
+     */
+    private void startAsyncCall() {
+        // Start with a clean result, in case of reactivation
+        result = new Result(this);
+        // Bind any parameters in the URL, any content and the http method to the input parameters of this task.
+        URL targetURL = getDefinition().getURL().resolveURL(processTaskActor);
+        result.setTargetURL(targetURL);
+        String requestMethod = getDefinition().getMethod().resolve(processTaskActor);
+        result.setRequestMethod(requestMethod);
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        getDefinition().getHeaders(processTaskActor).forEach(header -> headers.put(header.getName(), header.getValue()));
+        result.setRequestHeaders(headers);
+
+        HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+        if (requestMethod.equalsIgnoreCase("POST") || requestMethod.equalsIgnoreCase("PUT")) {
+            String requestPayload = getDefinition().getContent().resolve(processTaskActor).toString();
+            result.setRequestPayload(requestPayload);
+            if (requestPayload.trim().length() > 0) {
+                body = HttpRequest.BodyPublishers.ofString(requestPayload);
+            }
+        }
+
+        HttpRequest request;
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(targetURL.toURI()).timeout(HTTPCallClient.requestTimeout());
+            headers.forEach(builder::header);
+            request = builder.method(requestMethod, body).build();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            handleOutcome(result.handleFailure("Could not create a request for " + requestMethod + " " + targetURL, e));
+            return;
+        }
+
+        Consumer<ValueMap> callback = startOperation();
+        HTTPCallClient.send(request, (response, failure) -> callback.accept(Result.asyncResponseToJSON(response, failure)));
+    }
+
+    @Override
+    protected void handleOutcome(ValueMap response) {
+        handleOutcome(result.readAsyncResponse(response));
+    }
+
     private boolean runCall() {
         // Bind any parameters in the URL, any content and the http method to the input parameters of this task.
         URL targetURL = getDefinition().getURL().resolveURL(processTaskActor);
@@ -177,6 +234,8 @@ public class HTTPCall extends SubProcess<HTTPCallDefinition> {
 
     @Override
     public void terminate() {
+        // Responses of a call that is still running will be ignored
+        cancelOperation();
     }
 
     @Override
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.http;
+
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.infrastructure.config.engine.HttpCallConfig;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Non-blocking client shared by all HTTP process tasks.
+ * The underlying {@link HttpClient} keeps a pool of connections, and this class limits the number
+ * of requests that are sent to the same host at the same time; additional requests wait in a queue.
+ */
+class HTTPCallClient {
+    private final static HttpCallConfig config = Cafienne.config().engine().httpCall();
+    private final static HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofMillis(config.connectTimeout().toMillis()))
+            .build();
+    private final static Duration requestTimeout = Duration.ofMillis(config.requestTimeout().toMillis());
+    private final static Map<String, HostLimit> hosts = new ConcurrentHashMap<>();
+
+    static boolean isEnabled() {
+        return config.async();
+    }
+
+    static Duration requestTimeout() {
+        return requestTimeout;
+    }
+
+    /**
+     * Sends the request, and invokes the callback with either the response or the failure.
+     * Note that the callback is invoked on a thread of the http client, and not on the thread of the caller.
+     */
+    static void send(HttpRequest request, BiConsumer<HttpResponse<String>, Throwable> callback) {
+        String host = request.uri().getScheme() + "://" + request.uri().getAuthority();
+        HostLimit limit = hosts.computeIfAbsent(host, h -> new HostLimit(config.maxConnectionsPerHost()));
+        limit.submit(() -> {
+            try {
+                client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, failure) -> {
+                    limit.release();
+                    callback.accept(response, failure);
+                });
+            } catch (Throwable failure) {
+                limit.release();
+                callback.accept(null, failure);
+            }
+        });
+    }
+
+    /**
+     * Number of requests running and waiting for the host
+     */
+    static int load(String host) {
+        HostLimit limit = hosts.get(host);
+        return limit == null ? 0 : limit.load();
+    }
+
+    private static class HostLimit {
+        private final int maxRunning;
+        private int running = 0;
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+
+        private HostLimit(int maxRunning) {
+            this.maxRunning = maxRunning;
+        }
+
+        void submit(Runnable request) {
+            synchronized (this) {
+                if (running >= maxRunning) {
+                    waiting.add(request);
+                    return;
+                }
+                running++;
+            }
+            request.run();
+        }
+
+        void release() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            // The permit of the released request is handed over to the next one.
+            //  Start it asynchronously, to avoid deep recursion when requests complete immediately.
+            CompletableFuture.runAsync(next);
+        }
+
+        synchronized int load() {
+            return running + waiting.size();
+        }
+    }
+}
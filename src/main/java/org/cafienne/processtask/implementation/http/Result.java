@@ -17,13 +17,15 @@
 
 package org.cafienne.processtask.implementation.http;
 
+import akka.http.javadsl.model.StatusCode;
+import akka.http.javadsl.model.StatusCodes;
 import org.cafienne.json.*;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.net.http.HttpResponse;
+import java.util.*;
+import java.util.concurrent.CompletionException;
 
 class Result {
     private URL targetURL;
@@ -76,6 +78,7 @@ class Result {
 
     String errorDescription = "";
     Throwable cause;
+    Value<?> causeValue;
 
     boolean handleFailure(String description, Throwable cause) {
         this.cause = cause;
@@ -102,11 +105,55 @@ class Result {
     Value<?> getException() {
         if (cause != null) {
             return Value.convert(cause);
+        } else if (causeValue != null) {
+            return causeValue;
         } else {
             return new ValueMap("description", getErrorDescription(), "response", getResponseDebugInfo());
         }
     }
 
+    /**
+     * Converts the outcome of an asynchronous call into json, so that it can be sent to the process task actor.
+     */
+    static ValueMap asyncResponseToJSON(HttpResponse<String> response, Throwable failure) {
+        if (failure != null) {
+            // Failures of the CompletableFuture of the client come wrapped in a CompletionException
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+            return new ValueMap("error", "Failed to get a response from the target url", "exception", Value.convert(cause));
+        }
+        ValueMap headers = new ValueMap();
+        response.headers().map().forEach((headerName, headerValue) -> headers.plus(headerName, headerValue));
+        String reason = StatusCodes.lookup(response.statusCode()).map(StatusCode::reason).orElse("");
+        String payload = response.body() == null ? "" : response.body();
+        return new ValueMap("code", response.statusCode(), "message", reason, "headers", headers, "payload", payload);
+    }
+
+    /**
+     * Reads the json created in {@link #asyncResponseToJSON(HttpResponse, Throwable)}
+     *
+     * @return false if the response has an error or if the status code is out of the 200 range
+     */
+    boolean readAsyncResponse(ValueMap json) {
+        if (json.has("error")) {
+            causeValue = json.get("exception");
+            return handleFailure(json.get("error").toString());
+        }
+        setResponseCode(((Number) json.get("code").getValue()).intValue());
+        setResponseMessage(json.get("message").toString());
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        json.with("headers").getValue().forEach((name, values) -> {
+            List<String> list = new ArrayList<>();
+            values.asList().getValue().forEach(value -> list.add(value.toString()));
+            headers.put(name, list);
+        });
+        setResponseHeaders(headers);
+        setResponsePayload(json.get("payload").toString());
+        if (isOutOf200Range()) {
+            return handleFailure("Status code " + getCode() + " is interpreted as a failure");
+        }
+        return true;
+    }
+
     ValueMap toJSON() {
         ValueMap responseJson = new ValueMap();
 
@@ -25,15 +25,16 @@ import jakarta.mail.internet.MimeMultipart;
 import org.cafienne.json.Value;
 import org.cafienne.json.ValueList;
 import org.cafienne.json.ValueMap;
-import org.cafienne.processtask.implementation.SubProcess;
+import org.cafienne.processtask.actorapi.command.CompleteAsyncOperation;
+import org.cafienne.processtask.implementation.AsyncSubProcess;
 import org.cafienne.processtask.implementation.mail.definition.AddressDefinition;
 import org.cafienne.processtask.instance.ProcessTaskActor;
 
 import java.util.List;
-import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-public class Mail extends SubProcess<MailDefinition> {
+public class Mail extends AsyncSubProcess<MailDefinition> {
     private ValueMap input;
     private List<MailAddress> from;
     private List<MailAddress> replyTo;
@@ -54,7 +55,6 @@ public class Mail extends SubProcess<MailDefinition> {
     }
 
     private Session mailSession;
-    private Transport transport;
 
     public String getSubject() {
         return subject;
@@ -84,42 +84,18 @@ public class Mail extends SubProcess<MailDefinition> {
         return list.stream().map(MailAddress::getAddress).toArray(InternetAddress[]::new);
     }
 
-    private void connectMailServer() throws MessagingException {
-        processTaskActor.addDebugInfo(() -> "Connecting to mail server");
-        long now = System.currentTimeMillis();
-
-        Properties mailServerProperties = getDefinition().getMailProperties();
-        String userName = mailServerProperties.get("authentication.user").toString();
-        String password = mailServerProperties.get("authentication.password").toString();
-        mailSession = Session.getInstance(mailServerProperties, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(userName, password);
-            }
-        });
-
-        transport = mailSession.getTransport();
-        transport.connect();
-        long done = System.currentTimeMillis();
-//        System.out.println("Connect took " + (done - now) + " milliseconds");
-        processTaskActor.addDebugInfo(() -> "Connect to mail server took " + (done - now) + " milliseconds");
-    }
-
-    private void disconnectMailServer() throws MessagingException {
-        long now = System.currentTimeMillis();
-        transport.close();
-        long done = System.currentTimeMillis();
-        processTaskActor.addDebugInfo(() -> "Disconnecting from mail server took " + (done - now) + " milliseconds");
-    }
-
     @Override
     public void start() {
         input = processTaskActor.getMappedInputParameters();
 
+        MailTransportPool pool = MailTransportPool.get(getDefinition().getMailProperties());
+        mailSession = pool.getSession();
+        boolean async = MailTransportPool.isAsync();
+
         // Setup email message and recipients
+        MimeMessage mailMessage;
+        Address[] recipients;
         try {
-            connectMailServer();
-
             // Read email addresses (can be both statically defined or dynamically taken from input parameters)
             from = resolveAddress(getDefinition().getFrom(), "from");
             replyTo = resolveAddress(getDefinition().getReplyTo(), "replyTo");
@@ -129,8 +105,8 @@ public class Mail extends SubProcess<MailDefinition> {
             subject = resolveSubject();
 
 
-            // Create a mail session and message to fill.
-            MimeMessage mailMessage = new MimeMessage(mailSession);
+            // Create a message to fill.
+            mailMessage = new MimeMessage(mailSession);
 
             // First validate the recipient list.
             try {
@@ -186,15 +162,14 @@ public class Mail extends SubProcess<MailDefinition> {
             // Finally, set the multipart content of the mail
             mailMessage.setContent(multipart);
 
-            processTaskActor.addDebugInfo(() -> "Sending message to mail server");
-            long now = System.currentTimeMillis();
-            Address[] recipients = mailMessage.getAllRecipients();
-            transport.sendMessage(mailMessage, recipients);
-            long done = System.currentTimeMillis();
-//            System.out.println("Completed sending email in " + (done - now) + " milliseconds");
-
-            processTaskActor.addDebugInfo(() -> "Completed sending email in " + (done - now) + " milliseconds");
-            disconnectMailServer();
+            recipients = mailMessage.getAllRecipients();
+            if (!async) {
+                processTaskActor.addDebugInfo(() -> "Sending message to mail server");
+                long now = System.currentTimeMillis();
+                pool.send(mailMessage, recipients);
+                long done = System.currentTimeMillis();
+                processTaskActor.addDebugInfo(() -> "Completed sending email in " + (done - now) + " milliseconds");
+            }
         } catch (AddressException aex) {
             raiseFault("Invalid email address in from and/or replyTo", aex);
             return;
@@ -203,8 +178,40 @@ public class Mail extends SubProcess<MailDefinition> {
             return;
         }
 
-        // Set processTaskActor to completed
-        raiseComplete();
+        if (async) {
+            sendAsync(pool, mailMessage, recipients);
+        } else {
+            // Set processTaskActor to completed
+            raiseComplete();
+        }
+    }
+
+    /**
+     * Sends the message on the mail thread pool. The outcome is sent back to the process task actor
+     * in a {@link CompleteAsyncOperation} command, which invokes {@link #handleOutcome(ValueMap)}.
+     */
+    private void sendAsync(MailTransportPool pool, MimeMessage mailMessage, Address[] recipients) {
+        Consumer<ValueMap> callback = startOperation();
+        processTaskActor.addDebugInfo(() -> "Sending message to mail server");
+        MailTransportPool.executor().execute(() -> {
+            ValueMap outcome;
+            long now = System.currentTimeMillis();
+            try {
+                pool.send(mailMessage, recipients);
+                outcome = new ValueMap("duration", System.currentTimeMillis() - now);
+            } catch (Throwable failure) {
+                outcome = new ValueMap("error", "Failed to send email message", "exception", Value.convert(failure));
+            }
+            callback.accept(outcome);
+        });
+    }
+
+    @Override
+    protected void handleOutcome(ValueMap outcome) {
+        if (!raiseFaultOnError(outcome)) {
+            processTaskActor.addDebugInfo(() -> "Completed sending email in " + outcome.get("duration") + " milliseconds");
+            raiseComplete();
+        }
     }
 
     @Override
@@ -213,6 +220,8 @@ public class Mail extends SubProcess<MailDefinition> {
 
     @Override
     public void terminate() {
+        // The outcome of a mail that is still being sent will be ignored
+        cancelOperation();
     }
 
     @Override
@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.mail;
+
+import jakarta.mail.*;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.infrastructure.config.engine.MailTransportConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of connections to a mail server. The connections are kept open after a mail has been sent,
+ * and re-used for the next mail. Connections are checked before they are re-used, and opened again if the
+ * mail server has closed them, or if they have not been used for the configured idle timeout.
+ * There is one pool per mail server (protocol, host, port and user), with a maximum number of connections.
+ * Connections that stay idle for longer than the idle timeout are closed in the background.
+ */
+class MailTransportPool {
+    private final static Logger logger = LoggerFactory.getLogger(MailTransportPool.class);
+    private final static MailTransportConfig config = Cafienne.config().engine().mailTransport();
+    private final static Map<String, MailTransportPool> pools = new ConcurrentHashMap<>();
+    private static ExecutorService executor;
+    private static ScheduledExecutorService evictor;
+
+    private final Properties mailServerProperties;
+    private final Session session;
+    private final int maxSize;
+    private final long idleTimeout;
+    private final Deque<PooledTransport> idle = new ArrayDeque<>();
+    private int open = 0;
+    private boolean closed = false;
+
+    MailTransportPool(Properties mailServerProperties, int maxSize, long idleTimeout) {
+        this.mailServerProperties = mailServerProperties;
+        String userName = String.valueOf(mailServerProperties.getOrDefault("authentication.user", ""));
+        String password = String.valueOf(mailServerProperties.getOrDefault("authentication.password", ""));
+        this.session = Session.getInstance(mailServerProperties, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(userName, password);
+            }
+        });
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * Returns the pool for the mail server configuration. If the configuration of the mail server
+     * has changed (e.g. a new password), the existing pool is closed and replaced.
+     */
+    static MailTransportPool get(Properties mailServerProperties) {
+        startEvictor();
+        return pools.compute(poolKey(mailServerProperties), (key, existing) -> {
+            if (existing != null) {
+                if (existing.mailServerProperties.equals(mailServerProperties)) {
+                    return existing;
+                }
+                existing.close();
+            }
+            return new MailTransportPool(mailServerProperties, config.poolSize(), config.idleTimeout().toMillis());
+        });
+    }
+
+    /**
+     * Pools are identified by the mail server and the user that connects to it; the password is deliberately not part of the key.
+     */
+    static String poolKey(Properties mailServerProperties) {
+        String protocol = mailServerProperties.getProperty("mail.transport.protocol", "smtp");
+        String host = mailServerProperties.getProperty("mail." + protocol + ".host", mailServerProperties.getProperty("mail.host", ""));
+        String port = mailServerProperties.getProperty("mail." + protocol + ".port", mailServerProperties.getProperty("mail.port", ""));
+        String user = mailServerProperties.getProperty("authentication.user", "");
+        return protocol + "://" + user + "@" + host + ":" + port;
+    }
+
+    /**
+     * Closes the connections of all pools; invoked when the JVM shuts down.
+     */
+    static void closeAll() {
+        pools.values().forEach(MailTransportPool::close);
+        pools.clear();
+    }
+
+    /**
+     * Starts the background task that closes connections which are idle for longer than the idle timeout.
+     */
+    private static synchronized void startEvictor() {
+        if (evictor == null) {
+            evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "cafienne-mail-evictor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = Math.max(1000, config.idleTimeout().toMillis());
+            evictor.scheduleWithFixedDelay(() -> pools.values().forEach(MailTransportPool::evictIdle), interval, interval, TimeUnit.MILLISECONDS);
+            Runtime.getRuntime().addShutdownHook(new Thread(MailTransportPool::closeAll, "cafienne-mail-shutdown"));
+        }
+    }
+
+    static boolean isAsync() {
+        return config.async();
+    }
+
+    /**
+     * Dedicated thread pool to send mails, so that sending does not run on the threads of the actor system.
+     */
+    static synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "cafienne-mail-sender-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            executor = Executors.newFixedThreadPool(config.poolSize(), threadFactory);
+        }
+        return executor;
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    /**
+     * Sends the message over one of the connections in the pool. Waits for a connection if they are all in use.
+     */
+    void send(Message message, Address[] recipients) throws MessagingException {
+        PooledTransport transport = borrow();
+        boolean successful = false;
+        try {
+            transport.transport.sendMessage(message, recipients);
+            successful = true;
+        } finally {
+            giveBack(transport, successful);
+        }
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport transport;
+        synchronized (this) {
+            while (idle.isEmpty() && open >= maxSize) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new MessagingException("Interrupted while waiting for a connection to the mail server", e);
+                }
+            }
+            transport = idle.pollFirst();
+            if (transport == null) {
+                open++;
+            }
+        }
+
+        if (transport != null) {
+            if (transport.isUsable()) {
+                return transport;
+            }
+            // Connection is closed by the server or was idle for too long; open it again.
+            transport.close();
+        }
+
+        try {
+            Transport newTransport = session.getTransport();
+            newTransport.connect();
+            return new PooledTransport(newTransport);
+        } catch (MessagingException | RuntimeException e) {
+            release();
+            throw e;
+        }
+    }
+
+    private void giveBack(PooledTransport transport, boolean successful) {
+        if (successful) {
+            transport.lastUsed = System.currentTimeMillis();
+            synchronized (this) {
+                if (!closed) {
+                    idle.addFirst(transport);
+                    notify();
+                    return;
+                }
+            }
+            // The pool is closed, so the connection is no longer kept
+            transport.close();
+            release();
+        } else {
+            // After a failure we do not know the state of the connection, so better open a new one next time
+            transport.close();
+            release();
+        }
+    }
+
+    private synchronized void release() {
+        open--;
+        notify();
+    }
+
+    /**
+     * Closes the connections that have not been used for the idle timeout.
+     */
+    void evictIdle() {
+        List<PooledTransport> expired = new ArrayList<>();
+        synchronized (this) {
+            // Most recently used connections are at the head, so the expired ones are at the tail
+            for (Iterator<PooledTransport> connections = idle.descendingIterator(); connections.hasNext(); ) {
+                PooledTransport transport = connections.next();
+                if (!transport.isExpired()) {
+                    break;
+                }
+                connections.remove();
+                expired.add(transport);
+            }
+            open -= expired.size();
+            if (!expired.isEmpty()) {
+                notifyAll();
+            }
+        }
+        expired.forEach(PooledTransport::close);
+    }
+
+    /**
+     * Closes the idle connections; connections that are in use are closed when they are given back.
+     */
+    void close() {
+        List<PooledTransport> connections;
+        synchronized (this) {
+            closed = true;
+            connections = new ArrayList<>(idle);
+            idle.clear();
+            open -= connections.size();
+            notifyAll();
+        }
+        connections.forEach(PooledTransport::close);
+    }
+
+    synchronized int openConnections() {
+        return open;
+    }
+
+    private class PooledTransport {
+        private final Transport transport;
+        private long lastUsed = System.currentTimeMillis();
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() - lastUsed >= idleTimeout;
+        }
+
+        private boolean isUsable() {
+            // Note: isConnected sends a NOOP to the server to check that the connection is still alive.
+            return !isExpired() && transport.isConnected();
+        }
+
+        private void close() {
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                logger.debug("Failure while closing connection to mail server", e);
+            }
+        }
+    }
+}
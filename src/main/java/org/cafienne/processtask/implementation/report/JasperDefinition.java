@@ -18,7 +18,6 @@
 package org.cafienne.processtask.implementation.report;
 
 import net.sf.jasperreports.engine.JRException;
-import net.sf.jasperreports.engine.JasperCompileManager;
 import net.sf.jasperreports.engine.JasperReport;
 import org.cafienne.cmmn.definition.CMMNElementDefinition;
 import org.cafienne.cmmn.definition.ModelDefinition;
@@ -27,10 +26,6 @@ import org.cafienne.json.Value;
 import org.cafienne.util.XMLHelper;
 import org.w3c.dom.Element;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-
 public class JasperDefinition extends CMMNElementDefinition {
     final static String JASPER_XML_TAG = "jasperReport";
 
@@ -56,36 +51,46 @@ public class JasperDefinition extends CMMNElementDefinition {
                 jasperDefinition = XMLHelper.printXMLNode(jasperXml);
             }
             try {
-                preCompiledReport = compile(jasperDefinition);
+                preCompiledReport = JasperReportCache.get(jasperDefinition);
             } catch (JRException jre) {
                 getModelDefinition().fatalError("Cannot compile the Jasper report definition", jre);
             }
         }
     }
 
-    public JasperReport createInstance(PDFReport owner) throws JRException, MissingParameterException {
+    /**
+     * Returns the JRXML of the report, which is either in the definition itself or in the input parameters of the task.
+     */
+    String getSource(PDFReport owner) throws MissingParameterException {
         if (isStatic) {
-            return preCompiledReport;
+            return jasperDefinition;
         } else {
             Value<?> parameterValue = owner.getInputParameters().get(name);
             if (parameterValue instanceof StringValue) {
-                return compile(((StringValue) parameterValue).getValue());
+                return ((StringValue) parameterValue).getValue();
             } else {
                 throw new MissingParameterException(this + " cannot be found in the task input parameters");
             }
         }
     }
 
+    /**
+     * Returns the compiled report for the source that was read with {@link #getSource(PDFReport)}.
+     * Dynamic sources are compiled only if they are not yet in the {@link JasperReportCache}.
+     */
+    JasperReport compile(String source) throws JRException {
+        if (isStatic) {
+            return preCompiledReport;
+        } else {
+            return JasperReportCache.get(source);
+        }
+    }
+
     @Override
     public String toString() {
         return "Report definition '" + name + "'";
     }
 
-    private JasperReport compile(String xml) throws JRException {
-        InputStream is = new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8));
-        return JasperCompileManager.compileReport(is);
-    }
-
     @Override
     public boolean equalsWith(Object object) {
         return notYetImplemented();
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.processtask.implementation.report;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import org.cafienne.infrastructure.Cafienne;
+import org.cafienne.infrastructure.config.engine.PDFReportConfig;
+import org.cafienne.util.Hash;
+import org.cafienne.util.SegmentedLRUCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process wide cache of compiled {@link JasperReport}s, keyed by a hash of their JRXML source.
+ * Compiling a report template is expensive, and the same template is typically used by many report tasks.
+ * The cache has a bounded size, see {@link SegmentedLRUCache} for the eviction policy.
+ * Also holds the thread pool on which reports are filled.
+ */
+class JasperReportCache {
+    private final static PDFReportConfig config = Cafienne.config().engine().pdfReport();
+    private final static SegmentedLRUCache<String, JasperReport> reports = new SegmentedLRUCache<>(config.cacheSize());
+    private static ExecutorService executor;
+
+    /**
+     * Returns the compiled report for the source, compiling it only if it is not yet in the cache.
+     */
+    static JasperReport get(String source) throws JRException {
+        String key = Hash.sha256(source);
+        JasperReport report = reports.get(key);
+        if (report == null) {
+            // If two threads compile the same source simultaneously, the last one wins.
+            report = compile(source);
+            reports.put(key, report);
+        }
+        return report;
+    }
+
+    private static JasperReport compile(String source) throws JRException {
+        InputStream is = new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8));
+        return JasperCompileManager.compileReport(is);
+    }
+
+    static boolean isAsync() {
+        return config.async();
+    }
+
+    /**
+     * Dedicated thread pool to fill reports, so that filling does not run on the threads of the actor system.
+     */
+    static synchronized ExecutorService executor() {
+        if (executor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "cafienne-report-filler-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            executor = Executors.newFixedThreadPool(config.fillThreads(), threadFactory);
+        }
+        return executor;
+    }
+}
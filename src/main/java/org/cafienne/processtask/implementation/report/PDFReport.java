@@ -20,18 +20,21 @@ package org.cafienne.processtask.implementation.report;
 import net.sf.jasperreports.engine.*;
 import net.sf.jasperreports.engine.query.JsonQueryExecuterFactory;
 import org.cafienne.json.StringValue;
+import org.cafienne.json.Value;
 import org.cafienne.json.ValueMap;
-import org.cafienne.processtask.definition.SubProcessDefinition;
-import org.cafienne.processtask.implementation.SubProcess;
+import org.cafienne.processtask.actorapi.command.CompleteAsyncOperation;
+import org.cafienne.processtask.implementation.AsyncSubProcess;
 import org.cafienne.processtask.instance.ProcessTaskActor;
 
 import java.io.ByteArrayOutputStream;
 import java.util.Base64;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
 
-public class PDFReport extends SubProcess<PDFReportDefinition> {
+public class PDFReport extends AsyncSubProcess<PDFReportDefinition> {
 
     final static String REPORT_DATA_TAG = "reportData";
 
@@ -55,6 +58,8 @@ public class PDFReport extends SubProcess<PDFReportDefinition> {
 
     @Override
     public void terminate() {
+        // The outcome of a report that is still being filled will be ignored
+        cancelOperation();
     }
 
     @Override
@@ -62,46 +67,110 @@ public class PDFReport extends SubProcess<PDFReportDefinition> {
     }
 
     private void generateReport() {
+        // Read the report sources and data from the input parameters; this must happen on the thread of the actor
+        Map<String, Object> jasperParameters = new HashMap<>();
+        Map<JasperSubReportDefinition, String> subReportSources = new LinkedHashMap<>();
+        String reportSource;
         try {
-            long start = System.currentTimeMillis();
-
-            Map<String, Object> jasperParameters = new HashMap<>();
             jasperParameters.put(JsonQueryExecuterFactory.JSON_INPUT_STREAM, getDefinition().createDataStream(this));
             jasperParameters.put(JsonQueryExecuterFactory.JSON_DATE_PATTERN, "yyyy-MM-dd");
             jasperParameters.put(JsonQueryExecuterFactory.JSON_NUMBER_PATTERN, "#,##0.##");
             jasperParameters.put(JsonQueryExecuterFactory.JSON_LOCALE, Locale.ENGLISH);
             jasperParameters.put(JRParameter.REPORT_LOCALE, Locale.US);
 
-            getDefinition().getSubReportDefinitions().forEach(subReport -> {
-                String subReportName = subReport.getSubReportName();
-                try {
-                    JasperReport subReportje = subReport.createInstance(this);
-                    jasperParameters.put(subReportName, subReportje);
-                } catch (JRException e) {
-                    raiseFault("Could not compile parameter " + subReportName + " into report definition", e);
-                    return;
-                } catch (IllegalArgumentException iae) {
-                    raiseFault(iae.getMessage(), iae);
-                    return;
-                }
-            });
-
-            JasperReport jReport = getDefinition().getReportDefinition().createInstance(this);
-            JasperPrint jPrint = JasperFillManager.fillReport(jReport, jasperParameters);
-
-            ByteArrayOutputStream reportOutput = new ByteArrayOutputStream();
-            JasperExportManager.exportReportToPdfStream(jPrint, reportOutput);
-
-            String encodedOutput = Base64.getEncoder().encodeToString(reportOutput.toByteArray());
-            setRawOutputParameter(PDFReportDefinition.PDF_REPORT_DATA, new StringValue(encodedOutput));
+            for (JasperSubReportDefinition subReport : getDefinition().getSubReportDefinitions()) {
+                subReportSources.put(subReport, subReport.getSource(this));
+            }
+            reportSource = getDefinition().getReportDefinition().getSource(this);
+        } catch (MissingParameterException mpe) {
+            raiseFault("Missing parameter", mpe);
+            return;
+        }
+
+        if (JasperReportCache.isAsync()) {
+            fillAsync(jasperParameters, subReportSources, reportSource);
+            return;
+        }
 
+        try {
+            long start = System.currentTimeMillis();
+            String encodedOutput = fill(getDefinition(), jasperParameters, subReportSources, reportSource);
+            setRawOutputParameter(PDFReportDefinition.PDF_REPORT_DATA, new StringValue(encodedOutput));
             processTaskActor.addDebugInfo(() -> "PDF Report - Filling time : " + (System.currentTimeMillis() - start));
             raiseComplete();
+        } catch (JRException | RuntimeException e) {
+            raiseFault(faultMessage(e), e);
+        }
+    }
 
-        } catch (JRException e) {
-            raiseFault("Error while generating pdf report", e);
-        } catch (MissingParameterException mpe) {
-            raiseFault("Missing parameter", mpe);
+    /**
+     * Returns the description of the fault to raise when generating the report failed.
+     */
+    private static String faultMessage(Throwable failure) {
+        if (failure instanceof SubReportCompilationException || failure instanceof IllegalArgumentException) {
+            return failure.getMessage();
+        }
+        return "Error while generating pdf report";
+    }
+
+    /**
+     * Raised when one of the sub reports cannot be compiled into the report definition.
+     */
+    private static class SubReportCompilationException extends JRException {
+        SubReportCompilationException(String subReportName, Throwable cause) {
+            super("Could not compile parameter " + subReportName + " into report definition", cause);
+        }
+    }
+
+    /**
+     * Compiles (or takes from the cache) the reports, fills them and returns the base64 encoded pdf document.
+     * Does not touch the state of the process task, so that it can run outside of the actor.
+     */
+    private static String fill(PDFReportDefinition definition, Map<String, Object> jasperParameters, Map<JasperSubReportDefinition, String> subReportSources, String reportSource) throws JRException {
+        for (Map.Entry<JasperSubReportDefinition, String> subReport : subReportSources.entrySet()) {
+            String subReportName = subReport.getKey().getSubReportName();
+            try {
+                jasperParameters.put(subReportName, subReport.getKey().compile(subReport.getValue()));
+            } catch (JRException e) {
+                throw new SubReportCompilationException(subReportName, e);
+            }
+        }
+
+        JasperReport jReport = definition.getReportDefinition().compile(reportSource);
+        JasperPrint jPrint = JasperFillManager.fillReport(jReport, jasperParameters);
+
+        ByteArrayOutputStream reportOutput = new ByteArrayOutputStream();
+        JasperExportManager.exportReportToPdfStream(jPrint, reportOutput);
+
+        return Base64.getEncoder().encodeToString(reportOutput.toByteArray());
+    }
+
+    /**
+     * Fills the report on the report thread pool. The outcome is sent back to the process task actor
+     * in a {@link CompleteAsyncOperation} command, which invokes {@link #handleOutcome(ValueMap)}.
+     */
+    private void fillAsync(Map<String, Object> jasperParameters, Map<JasperSubReportDefinition, String> subReportSources, String reportSource) {
+        PDFReportDefinition definition = getDefinition();
+        Consumer<ValueMap> callback = startOperation();
+        JasperReportCache.executor().execute(() -> {
+            ValueMap outcome;
+            long start = System.currentTimeMillis();
+            try {
+                String encodedOutput = fill(definition, jasperParameters, subReportSources, reportSource);
+                outcome = new ValueMap(PDFReportDefinition.PDF_REPORT_DATA, encodedOutput, "duration", System.currentTimeMillis() - start);
+            } catch (Throwable failure) {
+                outcome = new ValueMap("error", faultMessage(failure), "exception", Value.convert(failure));
+            }
+            callback.accept(outcome);
+        });
+    }
+
+    @Override
+    protected void handleOutcome(ValueMap outcome) {
+        if (!raiseFaultOnError(outcome)) {
+            setRawOutputParameter(PDFReportDefinition.PDF_REPORT_DATA, outcome.get(PDFReportDefinition.PDF_REPORT_DATA));
+            processTaskActor.addDebugInfo(() -> "PDF Report - Filling time : " + outcome.get("duration"));
+            raiseComplete();
         }
     }
 
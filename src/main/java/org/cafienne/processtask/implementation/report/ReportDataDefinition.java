@@ -27,7 +27,7 @@ import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
 public class ReportDataDefinition extends CMMNElementDefinition {
-    static InputStream EMPTY_STREAM = new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8));
+    private final static byte[] EMPTY_DATA = "{}".getBytes(StandardCharsets.UTF_8);
     private final String name;
 
     public ReportDataDefinition(Element element, ModelDefinition modelDefinition, CMMNElementDefinition parentElement) {
@@ -44,7 +44,7 @@ public class ReportDataDefinition extends CMMNElementDefinition {
 
         if (this.name.isEmpty()) {
             // Just return an empty data stream; apparently data is not needed for this report.
-            return EMPTY_STREAM;
+            return emptyStream();
         }
 
         if (!report.getInputParameters().has(name)) {
@@ -57,6 +57,13 @@ public class ReportDataDefinition extends CMMNElementDefinition {
         return new ByteArrayInputStream(jsonData.toString().getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Returns a new stream with an empty json object; streams are consumed by filling a report, so they cannot be shared.
+     */
+    static InputStream emptyStream() {
+        return new ByteArrayInputStream(EMPTY_DATA);
+    }
+
     @Override
     public boolean equalsWith(Object object) {
         return notYetImplemented();
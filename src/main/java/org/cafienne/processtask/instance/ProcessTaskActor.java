@@ -26,6 +26,7 @@ import org.cafienne.json.ValueMap;
 import org.cafienne.processtask.actorapi.command.*;
 import org.cafienne.processtask.actorapi.event.*;
 import org.cafienne.processtask.definition.ProcessDefinition;
+import org.cafienne.processtask.implementation.AsyncSubProcess;
 import org.cafienne.processtask.implementation.SubProcess;
 import org.cafienne.system.CaseSystem;
 import org.slf4j.Logger;
@@ -56,6 +57,11 @@ public class ProcessTaskActor extends ModelActor {
         return msg instanceof ProcessEvent;
     }
 
+    @Override
+    protected boolean supportsSnapshots() {
+        return true;
+    }
+
     public ProcessDefinition getDefinition() {
         return definition;
     }
@@ -125,13 +131,35 @@ public class ProcessTaskActor extends ModelActor {
     }
 
     public void updateState(ProcessTerminated event) {
+        cancelAsyncOperation();
         if (! recoveryRunning()) {
             addDebugInfo(() -> "Terminating process " + getName());
             getImplementation().terminate();
         }
     }
 
+    public void updateState(AsyncOperationStarted event) {
+        if (taskImplementation instanceof AsyncSubProcess) {
+            ((AsyncSubProcess<?>) taskImplementation).operationStarted(event);
+        }
+    }
+
+    private void cancelAsyncOperation() {
+        if (taskImplementation instanceof AsyncSubProcess) {
+            ((AsyncSubProcess<?>) taskImplementation).cancelOperation();
+        }
+    }
+
+    @Override
+    protected void recoveryCompleted() {
+        super.recoveryCompleted();
+        if (taskImplementation instanceof AsyncSubProcess) {
+            ((AsyncSubProcess<?>) taskImplementation).recoveryCompleted();
+        }
+    }
+
     public void updateState(ProcessCompleted event) {
+        cancelAsyncOperation();
         this.outputParameters = event.output;
         addDebugInfo(() -> "Completing process task " + name + " of process type " + getImplementation().getClass().getName() + " with output:", outputParameters);
         if (recoveryFinished()) {
@@ -145,6 +173,7 @@ public class ProcessTaskActor extends ModelActor {
     }
 
     public void updateState(ProcessFailed event) {
+        cancelAsyncOperation();
         outputParameters = event.output;
         informParent(new FailTask(this, outputParameters), failure -> {
             logger.error("Could not complete process task " + getId() + " " + name + " in parent, due to:\n" + failure);
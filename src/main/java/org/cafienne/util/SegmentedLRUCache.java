@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Thread safe cache with a bounded size, that can be used concurrently from many threads.
+ * <p>
+ * The cache is split into segments by the hash of the key, each with its own lock, so that threads
+ * accessing different keys seldom wait for each other. Within a segment, entries are evicted with the
+ * segmented LRU policy: new entries go into a probation area, and only move to the protected area
+ * when they are read again. Entries that are used only once (e.g. during a scan) are therefore evicted
+ * before entries that are used frequently.
+ * <p>
+ * Entries can have a time to live, after which they are no longer returned. The cache keeps
+ * hit, miss, eviction and expiration counts, available through {@link #statistics()}.
+ * A cache with a maximum size of 0 or less does not store anything.
+ */
+public class SegmentedLRUCache<K, V> {
+    private final static Logger logger = LoggerFactory.getLogger(SegmentedLRUCache.class);
+    private final static int MAX_SEGMENTS = 16;
+    private final static int MIN_SEGMENT_SIZE = 32;
+
+    private final int maxSize;
+    private final long defaultTimeToLive;
+    private final LongSupplier clock;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    public SegmentedLRUCache(int maxSize) {
+        this(maxSize, Duration.ZERO);
+    }
+
+    /**
+     * Creates a cache in which entries expire after the default time to live; a zero duration means they do not expire.
+     */
+    public SegmentedLRUCache(int maxSize, Duration defaultTimeToLive) {
+        this(maxSize, defaultTimeToLive, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a cache that uses the clock (in milliseconds) to determine whether entries have expired.
+     */
+    @SuppressWarnings("unchecked")
+    public SegmentedLRUCache(int maxSize, Duration defaultTimeToLive, LongSupplier clock) {
+        this.maxSize = Math.max(maxSize, 0);
+        this.defaultTimeToLive = defaultTimeToLive.toMillis();
+        this.clock = clock;
+        // Use a power of two for the number of segments, with a minimum number of entries per segment
+        int numSegments = 1;
+        while (numSegments < MAX_SEGMENTS && numSegments * 2 * MIN_SEGMENT_SIZE <= this.maxSize) {
+            numSegments *= 2;
+        }
+        this.segments = (Segment[]) new SegmentedLRUCache.Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            int segmentSize = this.maxSize / numSegments + (i < this.maxSize % numSegments ? 1 : 0);
+            segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Returns the value for the key, or null if it is not in the cache or if it has expired.
+     */
+    public V get(K key) {
+        V value = segmentFor(key).get(key, clock.getAsLong());
+        if (value == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Puts the value in the cache, with the default time to live.
+     * Returns the previous value of the key, if it was present.
+     */
+    public V put(K key, V value) {
+        return put(key, value, defaultTimeToLive);
+    }
+
+    /**
+     * Puts the value in the cache, and lets it expire after the time to live; a zero duration means it does not expire.
+     * Returns the previous value of the key, if it was present.
+     */
+    public V put(K key, V value, Duration timeToLive) {
+        return put(key, value, timeToLive.toMillis());
+    }
+
+    private V put(K key, V value, long timeToLive) {
+        Objects.requireNonNull(value, "Cannot put null values in the cache");
+        if (maxSize == 0) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        return segmentFor(key).put(key, value, expiresAt(now, timeToLive), now);
+    }
+
+    /**
+     * Puts the value in the cache with the default time to live, unless the key is already present (and not expired).
+     * Returns the value that was already present, or null if the new value has been put.
+     */
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value, "Cannot put null values in the cache");
+        if (maxSize == 0) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        return segmentFor(key).putIfAbsent(key, value, expiresAt(now, defaultTimeToLive), now);
+    }
+
+    private static long expiresAt(long now, long timeToLive) {
+        return timeToLive > 0 ? now + timeToLive : Long.MAX_VALUE;
+    }
+
+    /**
+     * Removes the key from the cache, and returns its value if it was present and not expired.
+     */
+    public V remove(K key) {
+        return segmentFor(key).remove(key, clock.getAsLong());
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * Number of entries in the cache, including those that have expired but have not yet been cleaned up.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public Statistics statistics() {
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), size());
+    }
+
+    private Segment segmentFor(K key) {
+        int hash = Objects.requireNonNull(key, "Cannot use null keys in the cache").hashCode();
+        // Spread the higher bits of the hash, as the number of segments is small
+        hash ^= (hash >>> 16);
+        return segments[hash & (segments.length - 1)];
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean hasExpired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    private class Segment {
+        private final int maxSize;
+        private final int maxProtectedSize;
+        // Both areas have their least recently used entry first
+        private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+        private final LinkedHashMap<K, Entry<V>> protectedArea = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Segment(int maxSize) {
+            this.maxSize = maxSize;
+            this.maxProtectedSize = maxSize * 4 / 5;
+        }
+
+        private synchronized V get(K key, long now) {
+            Entry<V> entry = protectedArea.get(key);
+            if (entry == null) {
+                entry = probation.remove(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.hasExpired(now)) {
+                    expirations.increment();
+                    return null;
+                }
+                // Second use of the entry, move it to the protected area
+                protectedArea.put(key, entry);
+                demoteProtectedOverflow(now);
+                return entry.value;
+            }
+            if (entry.hasExpired(now)) {
+                protectedArea.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return entry.value;
+        }
+
+        private synchronized V put(K key, V value, long expiresAt, long now) {
+            Entry<V> newEntry = new Entry<>(value, expiresAt);
+            Entry<V> previous = protectedArea.get(key);
+            if (previous != null) {
+                protectedArea.put(key, newEntry);
+            } else {
+                previous = probation.put(key, newEntry);
+                evictOverflow(now);
+            }
+            if (previous != null && previous.hasExpired(now)) {
+                expirations.increment();
+                return null;
+            }
+            return previous == null ? null : previous.value;
+        }
+
+        private synchronized V putIfAbsent(K key, V value, long expiresAt, long now) {
+            Entry<V> existing = protectedArea.containsKey(key) ? protectedArea.get(key) : probation.get(key);
+            if (existing != null && !existing.hasExpired(now)) {
+                return existing.value;
+            }
+            put(key, value, expiresAt, now);
+            return null;
+        }
+
+        private synchronized V remove(K key, long now) {
+            Entry<V> entry = protectedArea.remove(key);
+            if (entry == null) {
+                entry = probation.remove(key);
+            }
+            return entry == null || entry.hasExpired(now) ? null : entry.value;
+        }
+
+        private synchronized void clear() {
+            probation.clear();
+            protectedArea.clear();
+        }
+
+        private synchronized int size() {
+            return probation.size() + protectedArea.size();
+        }
+
+        /**
+         * Moves least recently used entries from the protected area back into probation, if the protected area is full.
+         * Expired entries are dropped instead of moved.
+         */
+        private void demoteProtectedOverflow(long now) {
+            Iterator<Map.Entry<K, Entry<V>>> iterator = protectedArea.entrySet().iterator();
+            while (protectedArea.size() > maxProtectedSize && iterator.hasNext()) {
+                Map.Entry<K, Entry<V>> eldest = iterator.next();
+                iterator.remove();
+                if (eldest.getValue().hasExpired(now)) {
+                    expirations.increment();
+                } else {
+                    probation.put(eldest.getKey(), eldest.getValue());
+                }
+            }
+        }
+
+        /**
+         * Evicts the least recently used entries from probation while the segment is full.
+         * Expired entries at the head of the protected area are removed first, so that they do not push out live entries.
+         * Each step removes one entry, so a put only removes as many entries as needed (plus expired ones, that are removed only once).
+         */
+        private void evictOverflow(long now) {
+            while (size() > maxSize) {
+                Map.Entry<K, Entry<V>> eldestProtected = eldest(protectedArea);
+                if (eldestProtected != null && eldestProtected.getValue().hasExpired(now)) {
+                    protectedArea.remove(eldestProtected.getKey());
+                    expirations.increment();
+                    continue;
+                }
+                Map.Entry<K, Entry<V>> eldest = eldest(probation);
+                if (eldest == null) {
+                    // Cannot happen, as the protected area is smaller than the segment; but never loop endlessly
+                    eldest = eldestProtected;
+                    protectedArea.remove(eldest.getKey());
+                } else {
+                    probation.remove(eldest.getKey());
+                }
+                if (eldest.getValue().hasExpired(now)) {
+                    expirations.increment();
+                } else {
+                    evictions.increment();
+                    if (logger.isDebugEnabled()) {
+                        // Printing that we remove from the cache, just to inform that the cache size may not be large enough.
+                        logger.debug("Removing " + eldest.getKey() + " from the cache, since max cache size " + SegmentedLRUCache.this.maxSize + " has been reached.");
+                    }
+                }
+            }
+        }
+
+        private Map.Entry<K, Entry<V>> eldest(LinkedHashMap<K, Entry<V>> area) {
+            Iterator<Map.Entry<K, Entry<V>>> iterator = area.entrySet().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    /**
+     * Snapshot of the counters of the cache
+     */
+    public static class Statistics {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final long expirations;
+        public final int size;
+
+        private Statistics(long hits, long misses, long evictions, long expirations, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.size = size;
+        }
+
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "size " + size + ", hits " + hits + ", misses " + misses + ", evictions " + evictions + ", expirations " + expirations;
+        }
+    }
+}
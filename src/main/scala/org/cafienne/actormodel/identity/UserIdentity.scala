@@ -18,10 +18,10 @@
 package org.cafienne.actormodel.identity
 
 import org.cafienne.authentication.AuthenticatedUser
-import org.cafienne.cmmn.repository.file.SimpleLRUCache
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.infrastructure.serialization.{DeserializationError, Fields}
 import org.cafienne.json.{CafienneJson, Value, ValueMap}
+import org.cafienne.util.SegmentedLRUCache
 
 trait UserIdentity extends CafienneJson {
   val id: String
@@ -46,7 +46,7 @@ trait UserIdentity extends CafienneJson {
 }
 
 object UserIdentity {
-  private val tokens = new SimpleLRUCache[String, String](Cafienne.config.api.security.tokenCacheSize)
+  private val tokens = new SegmentedLRUCache[String, String](Cafienne.config.api.security.tokenCacheSize)
 
   def cacheUserToken(user: AuthenticatedUser): Unit = {
     tokens.put(user.id, user.token)
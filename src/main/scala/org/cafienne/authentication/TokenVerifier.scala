@@ -22,6 +22,8 @@ import com.nimbusds.jose.proc.{BadJOSEException, SecurityContext}
 import com.nimbusds.jwt.JWTClaimsSet
 import com.nimbusds.jwt.proc.{BadJWTException, ConfigurableJWTProcessor, DefaultJWTClaimsVerifier, DefaultJWTProcessor}
 import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.actormodel.identity.UserIdentity
+import org.cafienne.infrastructure.Cafienne
 import org.cafienne.system.health.HealthMonitor
 
 import java.text.ParseException
@@ -31,7 +33,14 @@ trait TokenVerifier[T] {
   def verifyToken(token: String): Future[T]
 }
 
-class JwtTokenVerifier()(implicit ec: ExecutionContext) extends TokenVerifier[AuthenticatedUser] with LazyLogging {
+object JwtTokenVerifier {
+  /**
+    * Tokens that have been verified, shared by all verifiers
+    */
+  lazy val cache: VerifiedTokenCache = new VerifiedTokenCache(Cafienne.config.api.security.verifiedTokenCacheSize)
+}
+
+class JwtTokenVerifier(tokenCache: VerifiedTokenCache = JwtTokenVerifier.cache)(implicit ec: ExecutionContext) extends TokenVerifier[AuthenticatedUser] with LazyLogging {
   import java.util
 
   val jwtProcessor: ConfigurableJWTProcessor[SecurityContext] = new DefaultJWTProcessor()
@@ -52,7 +61,17 @@ class JwtTokenVerifier()(implicit ec: ExecutionContext) extends TokenVerifier[Au
     )
   )
 
-  override def verifyToken(token: String): Future[AuthenticatedUser] = Future {
+  override def verifyToken(token: String): Future[AuthenticatedUser] = {
+    tokenCache.get(token) match {
+      case Some(user) =>
+        // Keep the user token registration up to date, as if the token was verified again
+        UserIdentity.cacheUserToken(user)
+        Future.successful(user)
+      case None => Future(verify(token))
+    }
+  }
+
+  private def verify(token: String): AuthenticatedUser = {
     var claimsSet: Option[JWTClaimsSet] = None
     if (token.isEmpty) {
       throw MissingTokenException
@@ -64,7 +83,9 @@ class JwtTokenVerifier()(implicit ec: ExecutionContext) extends TokenVerifier[Au
       claimsSet.fold(throw new TokenVerificationException("Unable to create claimSet for " + token))(
         cS => {
           HealthMonitor.idp.isOK()
-          new AuthenticatedUser(token, cS)
+          val user = new AuthenticatedUser(token, cS)
+          tokenCache.put(token, user, cS.getExpirationTime.getTime)
+          user
         }
       )
     } catch {
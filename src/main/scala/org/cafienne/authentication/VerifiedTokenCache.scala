@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.authentication
+
+import org.cafienne.util.{Hash, SegmentedLRUCache}
+
+import java.time.Duration
+
+/**
+  * Bounded cache of users whose token has been verified, keyed by a hash of the token.
+  * A user is taken from the cache until the expiration time of the token; after that, the token is verified again
+  * (and then rejected by the verifier).
+  * If the cache grows beyond the maximum size, the least recently used tokens are removed, see [[SegmentedLRUCache]].
+  */
+class VerifiedTokenCache(val maxSize: Int, clock: () => Long = () => System.currentTimeMillis()) {
+  private val entries = new SegmentedLRUCache[String, AuthenticatedUser](maxSize, Duration.ZERO, () => clock())
+
+  def enabled: Boolean = maxSize > 0
+
+  def size: Int = entries.size
+
+  /**
+    * Returns the user of the token, if the token has been verified before and has not yet expired
+    */
+  def get(token: String): Option[AuthenticatedUser] = {
+    if (enabled) {
+      Option(entries.get(Hash.sha256(token)))
+    } else {
+      None
+    }
+  }
+
+  /**
+    * Adds the user of a verified token, that expires at the given moment (in milliseconds since the epoch)
+    */
+  def put(token: String, user: AuthenticatedUser, expiresAt: Long): Unit = {
+    val timeToLive = expiresAt - clock()
+    if (enabled && timeToLive > 0) {
+      entries.put(Hash.sha256(token), user, Duration.ofMillis(timeToLive))
+    }
+  }
+}
@@ -19,16 +19,37 @@ package org.cafienne.infrastructure.akkahttp
 
 import akka.http.scaladsl.model._
 import akka.http.scaladsl.unmarshalling.Unmarshaller
-import org.cafienne.json.{JSONReader, Value, ValueList, ValueMap}
+import akka.http.scaladsl.unmarshalling.Unmarshaller.UnsupportedContentTypeException
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.json.{StreamingJSONReader, Value, ValueList, ValueMap}
+
+import scala.concurrent.Future
 
 /**
-  * This file contains unmarshallers for various types of Value[_] objects
+  * This file contains unmarshallers for various types of Value[_] objects.
+  * The chunks of the request entity are parsed while they come in, instead of first collecting the full entity into a string.
+  * The parser reads the bytes as UTF-8, which is the only encoding that json allows; entities with another charset are rejected.
+  * An empty entity gives null, as it did when the entity was parsed as a string.
   */
 object HttpJsonReader {
+  private lazy val maxJsonSize: Long = Cafienne.config.api.maxJsonSize
+
+  private def streamingUnmarshaller[V <: Value[_]](valueType: Class[V]): Unmarshaller[HttpEntity, V] = Unmarshaller.withMaterializer[HttpEntity, V](implicit ec => implicit mat => entity => {
+    entity.contentType.charsetOption match {
+      case Some(charset) if charset != HttpCharsets.`UTF-8` =>
+        Future.failed(UnsupportedContentTypeException(Set(ContentTypeRange(ContentTypes.`application/json`)), Some(entity.contentType)))
+      case _ =>
+        val reader = new StreamingJSONReader()
+        // Entities larger than the maximum size make the stream fail, which akka http responds to with 413 Payload Too Large
+        entity.withSizeLimit(maxJsonSize).dataBytes
+          .runForeach(chunk => reader.feed(chunk.toArray))
+          .map(_ => valueType.cast(reader.complete[Value[_]]()))
+    }
+  }).forContentTypes(ContentTypes.`application/json`)
 
-  implicit val ValueUnmarshaller: Unmarshaller[HttpEntity, Value[_]] = Unmarshaller.stringUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(JSONReader.parse(_).asInstanceOf[Value[_]])
+  implicit val ValueUnmarshaller: Unmarshaller[HttpEntity, Value[_]] = streamingUnmarshaller(classOf[Value[_]])
 
-  implicit val ValueMapUnmarshaller: Unmarshaller[HttpEntity, ValueMap] = Unmarshaller.stringUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(JSONReader.parse(_).asInstanceOf[ValueMap])
+  implicit val ValueMapUnmarshaller: Unmarshaller[HttpEntity, ValueMap] = streamingUnmarshaller(classOf[ValueMap])
 
-  implicit val ValueListUnmarshaller: Unmarshaller[HttpEntity, ValueList] = Unmarshaller.stringUnmarshaller.forContentTypes(ContentTypes.`application/json`).map(JSONReader.parse(_).asInstanceOf[ValueList])
+  implicit val ValueListUnmarshaller: Unmarshaller[HttpEntity, ValueList] = streamingUnmarshaller(classOf[ValueList])
 }
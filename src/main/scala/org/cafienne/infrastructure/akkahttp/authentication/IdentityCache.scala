@@ -19,21 +19,20 @@ package org.cafienne.infrastructure.akkahttp.authentication
 
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.identity.{PlatformUser, UserIdentity}
-import org.cafienne.cmmn.repository.file.SimpleLRUCache
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.querydb.query.{TenantQueriesImpl, UserQueries}
 import org.cafienne.querydb.record.TenantRecord
 import org.cafienne.service.akkahttp.LastModifiedHeader
+import org.cafienne.util.SegmentedLRUCache
 
 import scala.concurrent.{ExecutionContext, Future}
 
 class IdentityCache(implicit val ec: ExecutionContext) extends IdentityProvider with LazyLogging {
   val userQueries: UserQueries = new TenantQueriesImpl
 
-  // TODO: this should be a most recently used cache
-  // TODO: check for multithreading issues now that event materializer can clear.
-  private val cache = new SimpleLRUCache[String, PlatformUser](Cafienne.config.api.security.identityCacheSize)
-  private val tenantCache = new SimpleLRUCache[String, TenantRecord](Cafienne.config.api.security.identityCacheSize)
+  // Both caches are accessed concurrently from the request handling, and cleared from the event materializer
+  private val cache = new SegmentedLRUCache[String, PlatformUser](Cafienne.config.api.security.identityCacheSize)
+  private val tenantCache = new SegmentedLRUCache[String, TenantRecord](Cafienne.config.api.security.identityCacheSize)
 
   override def getPlatformUser(user: UserIdentity, tenantLastModified: LastModifiedHeader): Future[PlatformUser] = {
     tenantLastModified.available.flatMap(_ => executeUserQuery(user))
@@ -17,10 +17,13 @@
 
 package org.cafienne.infrastructure.akkahttp.route
 
+import akka.NotUsed
 import akka.http.scaladsl.model.HttpMethods._
 import akka.http.scaladsl.model._
 import akka.http.scaladsl.server.Directives._
 import akka.http.scaladsl.server._
+import akka.stream.scaladsl.Source
+import akka.util.ByteString
 import ch.megard.akka.http.cors.scaladsl.model.HttpHeaderRange
 import ch.megard.akka.http.cors.scaladsl.settings.CorsSettings
 import com.typesafe.scalalogging.LazyLogging
@@ -115,6 +118,15 @@ trait CaseServiceRoute extends LazyLogging {
 
   def completeJson(statusCode: StatusCode, v: Value[_]) = complete(statusCode, HttpEntity(ContentTypes.`application/json`, v.toString))
 
+  /**
+    * Responds with a json array whose elements are written in chunks while the source produces them.
+    * Note that failures of the source after the response has started will abort the response.
+    */
+  def completeJsonStream(source: Source[Value[_], NotUsed]): Route = {
+    val chunks = source.map(value => ByteString(value.toString)).intersperse(ByteString("["), ByteString(","), ByteString("]"))
+    complete(StatusCodes.OK, HttpEntity(ContentTypes.`application/json`, chunks))
+  }
+
   def completeXML(n: Node, statusCode: StatusCode = StatusCodes.OK): Route = complete(statusCode, HttpEntity(ContentTypes.`text/xml(UTF-8)`, XMLHelper.printXMLNode(n)))
 
   private var concatenatedSubRoutes: Option[Route] = None
@@ -47,4 +47,14 @@ class ModelActorConfig(val parent: CafienneConfig) extends ChildConfigReader {
     // Note: for now, we can better take this from model-actor config, but we should also read the old option
     readBoolean("debug", parent.readBoolean("debug", default = false))
   }
-}
\ No newline at end of file
+
+  /**
+    * Returns configuration options for storing ModelActor snapshots
+    */
+  lazy val snapshot: ModelActorSnapshotConfig = new ModelActorSnapshotConfig(this)
+
+  /**
+    * Returns configuration options on how messages are routed to the ModelActors
+    */
+  lazy val routing: ModelActorRoutingConfig = new ModelActorRoutingConfig(this)
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+class ModelActorRoutingConfig(val parent: ModelActorConfig) extends ChildConfigReader {
+  def path = "routing"
+
+  /**
+    * Routing mode, either "local" (default) or "sharded".
+    */
+  lazy val mode: String = {
+    val mode = readString("mode", "local").toLowerCase
+    if (!Seq("local", "sharded").contains(mode)) {
+      fail(s"Invalid routing mode '$mode' in $this; expecting one of 'local' or 'sharded'")
+    }
+    logger.info(s"ModelActors are routed in $mode mode")
+    mode
+  }
+
+  /**
+    * If true, ModelActors are distributed across the nodes of the cluster through Akka Cluster Sharding
+    */
+  lazy val sharded: Boolean = mode == "sharded"
+
+  /**
+    * Number of router actors per type of ModelActor, only applicable in local mode.
+    * Messages are distributed across the routers based on the hash of the actor id.
+    */
+  lazy val partitions: Int = {
+    val partitions = readInt("partitions", 1)
+    if (partitions <= 0) {
+      fail(s"Number of partitions in $this must be a positive number, found $partitions")
+    }
+    partitions
+  }
+
+  /**
+    * Number of shards per type of ModelActor, only applicable in sharded mode.
+    * Should be a factor ten higher than the planned maximum number of nodes.
+    */
+  lazy val numberOfShards: Int = {
+    val shards = readInt("number-of-shards", 100)
+    if (shards <= 0) {
+      fail(s"Number of shards in $this must be a positive number, found $shards")
+    }
+    shards
+  }
+}
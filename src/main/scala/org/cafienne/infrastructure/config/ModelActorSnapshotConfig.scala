@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+class ModelActorSnapshotConfig(val parent: ModelActorConfig) extends ChildConfigReader {
+  def path = "snapshot"
+
+  /**
+    * Whether Case and ProcessTask actors store snapshots of their (compacted) event log.
+    * Requires an akka snapshot-store plugin to be configured.
+    */
+  lazy val enabled: Boolean = {
+    val enabled = readBoolean("enabled", default = false)
+    if (enabled) {
+      logger.info("ModelActor snapshots are enabled; a snapshot is saved every " + interval + " events" + (if (onPassivation) " and when the actor is removed from memory" else ""))
+    }
+    enabled
+  }
+
+  /**
+    * Number of events after which a new snapshot is saved.
+    */
+  lazy val interval: Int = {
+    val interval = readInt("interval", 1000)
+    if (interval <= 0) {
+      fail(s"Snapshot interval must be a positive number (found $this.interval = $interval)")
+    }
+    interval
+  }
+
+  /**
+    * Whether to save a snapshot when the actor is removed from memory after the idle period,
+    * so that the next wake-up only needs to recover from the snapshot.
+    */
+  lazy val onPassivation: Boolean = readBoolean("on-passivation", default = true)
+}
@@ -29,7 +29,11 @@ class QueryDBConfig(val parent: CafienneConfig) extends MandatoryConfig {
   override val msg = "Cafienne Query Database is not configured. Check local.conf for 'cafienne.query-db' settings"
 
   lazy val restartSettings: RestartSettings = new RestartConfig(this).settings
+  lazy val groupCommit: GroupCommitConfig = new GroupCommitConfig(this)
   lazy val debug: Boolean = readBoolean("debug", default = false)
+  lazy val partitions: Int = Math.max(1, readInt("partitions", 1))
+  lazy val caseFileCacheSize: Int = readInt("case-file-cache.size", 0)
+  lazy val throughputReportInterval: FiniteDuration = readDuration("throughput-report-interval", FiniteDuration(0, TimeUnit.SECONDS))
   lazy val readJournal: String = {
     val foundJournal = readString("read-journal")
     logger.warn(s"Obtaining read-journal settings from 'cafienne.querydb.read-journal' = $foundJournal is deprecated; please place these settings in 'cafienne.read-journal' instead")
@@ -48,4 +52,21 @@ class RestartConfig(val parent: QueryDBConfig) extends ChildConfigReader {
   lazy val maxRestartsWithin: FiniteDuration = readDuration("max-restarts-within", FiniteDuration(5, TimeUnit.MINUTES))
 
   lazy val settings: RestartSettings = RestartSettings(minBackoff, maxBackoff, randomFactor).withMaxRestarts(maxRestarts, maxRestartsWithin)
-}
\ No newline at end of file
+}
+class GroupCommitConfig(val parent: QueryDBConfig) extends ChildConfigReader {
+  def path = "group-commit"
+
+  /**
+    * Maximum number of batches committed in one database transaction. Group commit is disabled if this is 1.
+    * Note that no more batches than the number of partitions are consumed at the same time.
+    */
+  lazy val maxBatches: Int = Math.max(1, readInt("max-batches", 1))
+  /**
+    * Maximum time a committing batch waits for other batches to join the transaction
+    */
+  lazy val maxDelay: FiniteDuration = {
+    // Note: not using readDuration, since that has a precision of seconds
+    if (config.hasPath("max-delay")) FiniteDuration(config.getDuration("max-delay").toMillis, TimeUnit.MILLISECONDS)
+    else FiniteDuration(10, TimeUnit.MILLISECONDS)
+  }
+}
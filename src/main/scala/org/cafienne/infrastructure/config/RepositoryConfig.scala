@@ -36,6 +36,25 @@ class RepositoryConfig(val parent: CafienneConfig) extends MandatoryConfig {
     config.getString("location")
   }
 
+  /**
+    * Number of parsed definitions documents that are kept in memory, to avoid parsing the same
+    * definition source again for each event or command that carries it.
+    */
+  lazy val documentCacheSize: Int = readInt("document-cache.size", 100)
+
+  /**
+    * If true, definitions are serialized with only a hash of their source, instead of the full source.
+    * This requires that each reader of the events has the definition in its document cache.
+    * Events holding the full source remain readable in both settings.
+    */
+  lazy val storeSourceReference: Boolean = readBoolean("document-cache.store-source-reference", default = false)
+
+  /**
+    * Directory in which the sources of definitions are stored when only a reference to them is serialized,
+    * so that they can be found again after a restart of the engine.
+    */
+  lazy val sourceLocation: String = readString("document-cache.source-location", "./definition-sources")
+
   lazy val cacheSize: Int = {
     if (config.hasPath("cache.size")) config.getInt("cache.size")
     100
@@ -36,4 +36,11 @@ class ApiConfig(val parent: CafienneConfig) extends MandatoryConfig {
   }
 
   lazy val security: SecurityConfig = new SecurityConfig(this)
+
+  /**
+    * Maximum size in bytes of json request bodies
+    */
+  lazy val maxJsonSize: Long = {
+    if (config.hasPath("max-json-size")) config.getBytes("max-json-size") else 8L * 1024 * 1024
+  }
 }
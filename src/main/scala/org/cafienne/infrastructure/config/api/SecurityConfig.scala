@@ -45,4 +45,15 @@ class SecurityConfig(val parent: ApiConfig) extends MandatoryConfig {
     }
     size
   }
+
+  lazy val verifiedTokenCacheSize: Int = {
+    val key = "verified-token.cache.size"
+    val size = readInt(key, 1000)
+    if (size <= 0) {
+      logger.info("Caching of verified tokens is disabled")
+    } else {
+      logger.info("Running with Verified Token Cache of size " + size)
+    }
+    size
+  }
 }
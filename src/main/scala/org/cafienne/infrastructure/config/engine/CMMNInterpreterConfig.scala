@@ -18,6 +18,7 @@
 package org.cafienne.infrastructure.config.engine
 
 import org.cafienne.infrastructure.config.util.ChildConfigReader
+import org.springframework.expression.spel.SpelCompilerMode
 
 class CMMNInterpreterConfig(val parent: EngineConfig) extends ChildConfigReader {
   def path = "interpreter"
@@ -30,4 +31,23 @@ class CMMNInterpreterConfig(val parent: EngineConfig) extends ChildConfigReader
 
     setting
   }
+
+  /**
+    * Whether updates of case file items are stored as events holding only the changed properties.
+    * Only enable this when no older versions of the engine need to read the events.
+    */
+  val caseFileDeltaEvents: Boolean = readBoolean("case-file-delta-events", default = false)
+
+  /**
+    * Compiler mode for SpEL expressions (off, mixed or immediate). In mixed and immediate mode, expressions that are evaluated
+    * often are compiled into byte code; mixed mode falls back to interpretation if a compiled expression fails.
+    */
+  lazy val spelCompilerMode: SpelCompilerMode = {
+    val mode = readString("spel-compiler-mode", "off")
+    try {
+      SpelCompilerMode.valueOf(mode.toUpperCase)
+    } catch {
+      case _: IllegalArgumentException => fail(s"Invalid value '$mode' for $this.spel-compiler-mode; expecting off, mixed or immediate")
+    }
+  }
 }
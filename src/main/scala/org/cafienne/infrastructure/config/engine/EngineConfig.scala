@@ -33,6 +33,21 @@ class EngineConfig(val parent: CafienneConfig) extends ChildConfigReader {
     */
   lazy val mailService = new MailServiceConfig(this)
 
+  /**
+    * Config property for settings of the connections to the mail service
+    */
+  lazy val mailTransport = new MailTransportConfig(this)
+
+  /**
+    * Config property for settings of the client that runs HTTP process tasks
+    */
+  lazy val httpCall = new HttpCallConfig(this)
+
+  /**
+    * Config property for settings of compiling and filling the reports of PDFReport process tasks
+    */
+  lazy val pdfReport = new PDFReportConfig(this)
+
   lazy val storage: StorageConfig = new StorageConfig(this)
 
   val interpreter = new CMMNInterpreterConfig(this)
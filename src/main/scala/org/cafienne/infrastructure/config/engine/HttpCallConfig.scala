@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config.engine
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+import java.util.concurrent.TimeUnit
+import scala.concurrent.duration.FiniteDuration
+
+class HttpCallConfig(val parent: EngineConfig) extends ChildConfigReader {
+  def path = "http-call"
+
+  /**
+    * If true, HTTP process tasks send their request with a non-blocking client,
+    * and the response is delivered back to the process task actor as a message.
+    */
+  lazy val async: Boolean = readBoolean("async", default = true)
+
+  /**
+    * Maximum time to wait for a connection to the target host
+    */
+  lazy val connectTimeout: FiniteDuration = readDuration("connect-timeout", FiniteDuration(10, TimeUnit.SECONDS))
+
+  /**
+    * Maximum time to wait for the response of the target host
+    */
+  lazy val requestTimeout: FiniteDuration = readDuration("request-timeout", FiniteDuration(60, TimeUnit.SECONDS))
+
+  /**
+    * Maximum number of requests that are sent to the same host at the same time, other requests wait in a queue.
+    */
+  lazy val maxConnectionsPerHost: Int = {
+    val max = readInt("max-connections-per-host", 32)
+    if (max < 1) {
+      fail(s"The max-connections-per-host of http-call must be at least 1, but found $max")
+    }
+    max
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config.engine
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+import java.util.concurrent.TimeUnit
+import scala.concurrent.duration.FiniteDuration
+
+class MailTransportConfig(val parent: EngineConfig) extends ChildConfigReader {
+  def path = "mail-transport"
+
+  /**
+    * If true, mails are sent on a dedicated thread pool,
+    * and the outcome is delivered back to the process task actor as a message.
+    */
+  lazy val async: Boolean = readBoolean("async", default = true)
+
+  /**
+    * Maximum number of connections to the same mail server; this is also the number of threads that send mails
+    */
+  lazy val poolSize: Int = {
+    val size = readInt("pool-size", 4)
+    if (size < 1) {
+      fail(s"The pool-size of mail-transport must be at least 1, but found $size")
+    }
+    size
+  }
+
+  /**
+    * Connections that have not been used for this period are closed and opened again upon the next mail
+    */
+  lazy val idleTimeout: FiniteDuration = readDuration("idle-timeout", FiniteDuration(60, TimeUnit.SECONDS))
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.infrastructure.config.engine
+
+import org.cafienne.infrastructure.config.util.ChildConfigReader
+
+class PDFReportConfig(val parent: EngineConfig) extends ChildConfigReader {
+  def path = "pdf-report"
+
+  /**
+    * If true, reports are filled on a dedicated thread pool,
+    * and the outcome is delivered back to the process task actor as a message.
+    */
+  lazy val async: Boolean = readBoolean("async", default = true)
+
+  /**
+    * Number of threads that fill reports
+    */
+  lazy val fillThreads: Int = {
+    val threads = readInt("fill-threads", 4)
+    if (threads < 1) {
+      fail(s"The fill-threads of pdf-report must be at least 1, but found $threads")
+    }
+    threads
+  }
+
+  /**
+    * Number of compiled report templates that are kept in memory. The cache is disabled if size is 0.
+    */
+  lazy val cacheSize: Int = readInt("cache-size", 100)
+}
@@ -56,4 +56,39 @@ class TimerServiceConfig(val parent: EngineConfig) extends ChildConfigReader {
     }
     interval
   }
-}
\ No newline at end of file
+
+  /**
+    * Timers of the window are kept in a timing wheel that moves ahead once per tick.
+    * Timers are raised at most one tick after their moment.
+    */
+  lazy val tick: FiniteDuration = {
+    val tick = if (config.hasPath("tick")) FiniteDuration(config.getDuration("tick").toMillis, TimeUnit.MILLISECONDS) else FiniteDuration(100, TimeUnit.MILLISECONDS)
+    if (tick.toMillis < 1) {
+      fail(s"Timer service tick must be at least 1 millisecond, but found $tick")
+    }
+    tick
+  }
+
+  /**
+    * Number of ticks in one revolution of the timing wheel
+    */
+  lazy val wheelSize: Int = readPositiveInt("wheel-size", 512)
+
+  /**
+    * Number of timers that are read in one query when loading the next window from storage
+    */
+  lazy val pageSize: Int = readPositiveInt("page-size", 1000)
+
+  /**
+    * Maximum number of timers that are being raised in their cases at the same time
+    */
+  lazy val maxParallelism: Int = readPositiveInt("max-parallelism", 16)
+
+  private def readPositiveInt(path: String, default: Int): Int = {
+    val value = readInt(path, default)
+    if (value < 1) {
+      fail(s"Timer service $path must be at least 1, but found $value")
+    }
+    value
+  }
+}
@@ -30,16 +30,15 @@ trait InstanceEventSource extends ReadJournalProvider with ModelEventFilter with
     * Query to retrieve the events as Source.
     * Defaults to journal.currentEventsByPersistenceId, overrides can alternatively use journal.eventsByTag
     * for a livestream.
-    * @param offset
-    * @return
+    * The sequence numbers restrict the query to a window of the events; both bounds are inclusive.
     */
-  def query(actorId: String): Source[EventEnvelope, NotUsed] = journal().currentEventsByPersistenceId(actorId, 0L, Long.MaxValue)
+  def query(actorId: String, fromSequenceNr: Long = 0L, toSequenceNr: Long = Long.MaxValue): Source[EventEnvelope, NotUsed] = journal().currentEventsByPersistenceId(actorId, fromSequenceNr, toSequenceNr)
 
   /**
     * Composes the Source
     */
-  def events(actorId: String): Source[ModelEventEnvelope, NotUsed] =
-    query(actorId)
+  def events(actorId: String, fromSequenceNr: Long = 0L, toSequenceNr: Long = Long.MaxValue): Source[ModelEventEnvelope, NotUsed] =
+    query(actorId, fromSequenceNr, toSequenceNr)
       .filter(validateModelEvents) // Only interested in ModelEvents, but we log errors if it is an unexpected event or deserialization issue
       .map(ModelEventEnvelope) // Construct a simple wrapper that understands we're dealing with ModelEvents
 }
@@ -24,6 +24,7 @@ case class ModelEventEnvelope(envelope: EventEnvelope) {
   lazy val offset: Offset = envelope.offset
   lazy val persistenceId: String = envelope.persistenceId
   lazy val sequenceNr: Long = envelope.sequenceNr
+  lazy val timestamp: Long = envelope.timestamp
   lazy val event: ModelEvent = envelope.event.asInstanceOf[ModelEvent]
 }
 
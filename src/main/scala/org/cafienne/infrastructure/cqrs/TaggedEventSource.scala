@@ -69,12 +69,19 @@ trait TaggedEventSource extends ReadJournalProvider with ModelEventFilter with L
         //  consuming that were consumed already successfully before the source had to be restarted.
         getOffset.map { offset: Offset =>
           logger.warn(s"Starting to read '$tag' events from offset " + offset)
+          sourceStarted(offset)
           query(offset)
         }
       })
     }
   }
 
+  /**
+    * Invoked each time the source (re)starts reading events from the given offset.
+    * Events read before the restart that have not yet been handled will be read again from this offset onwards.
+    */
+  def sourceStarted(offset: Offset): Unit = {}
+
   /**
     * Identity function that has side-effect to indicate a healthy read journal
     */
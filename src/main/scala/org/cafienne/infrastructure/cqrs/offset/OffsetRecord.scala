@@ -63,6 +63,21 @@ case class OffsetRecord(name: String, offsetType: String, offsetValue: String, t
       }
     }
   }
+
+  /**
+    * Returns true if the offset of this record lies before the offset of the other record.
+    * Offsets of different types cannot be compared, and are never considered to lie before each other.
+    *
+    * @param other
+    * @return
+    */
+  def isBefore(other: OffsetRecord): Boolean = {
+    (asOffset(), other.asOffset()) match {
+      case (sequence: Sequence, otherSequence: Sequence) => sequence.compare(otherSequence) < 0
+      case (uuid: TimeBasedUUID, otherUuid: TimeBasedUUID) => uuid.compare(otherUuid) < 0
+      case _ => false
+    }
+  }
 }
 
 object OffsetRecord {
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer
+
+import akka.persistence.query.Offset
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.json.{CafienneJson, Value, ValueMap}
+
+import scala.collection.mutable
+
+/**
+  * Keeps track of the batches that are consumed in parallel by a [[QueryDBEventSink]],
+  * in the order in which they were read from the journal.
+  * The offset that can be stored for the sink is the offset of the last batch for which all
+  * preceding batches have been committed to the query db (the "low watermark").
+  * This ensures that upon a restart no batch is skipped, even when batches of different
+  * model actors commit in a different order than the one in which they were read.
+  *
+  * @param startOffset The offset from which the sink started reading events
+  * @param partitions  The number of partitions in which batches are consumed
+  */
+class OffsetWatermark(startOffset: Offset, val partitions: Int) extends LazyLogging {
+  // Batches in the order of arrival, with a flag whether the batch has been committed
+  private val pending = new mutable.LinkedHashMap[QueryDBEventBatch, Boolean]()
+  private var committed: Offset = startOffset
+  private val partitionLags: Array[PartitionLag] = Array.tabulate(partitions)(i => PartitionLag(i))
+
+  /**
+    * Returns the partition in which batches of the given persistence id are consumed.
+    */
+  def partitionOf(persistenceId: String): Int = Math.floorMod(persistenceId.hashCode, partitions)
+
+  /**
+    * Register a batch that has been read from the journal and is about to be consumed
+    */
+  def register(batch: QueryDBEventBatch): Unit = synchronized {
+    pending.put(batch, false)
+    partitionLags(partitionOf(batch.persistenceId)).pendingBatches += 1
+  }
+
+  /**
+    * Returns the offset that can be stored in the transaction of the batch.
+    * That is the offset of the batch itself if all batches before it have been committed,
+    * or otherwise the offset of the last batch that has an uninterrupted line of committed predecessors.
+    * The batch itself is not yet marked as committed, because its transaction may still fail.
+    */
+  def committableOffset(batch: QueryDBEventBatch): Offset = synchronized {
+    var offset = committed
+    val iterator = pending.iterator
+    var continue = true
+    while (continue && iterator.hasNext) {
+      val (next, isCommitted) = iterator.next()
+      if (isCommitted || (next eq batch)) {
+        offset = next.events.last.offset
+      } else {
+        continue = false
+      }
+    }
+    offset
+  }
+
+  /**
+    * Marks the batch as committed, and moves the watermark forward as far as possible.
+    */
+  def completed(batch: QueryDBEventBatch): Unit = synchronized {
+    val lag = partitionLags(partitionOf(batch.persistenceId))
+    if (pending.contains(batch)) {
+      pending.put(batch, true)
+      while (pending.nonEmpty && pending.head._2) {
+        committed = pending.head._1.events.last.offset
+        pending.remove(pending.head._1)
+      }
+      lag.pendingBatches -= 1
+    }
+    lag.committedBatches += 1
+    lag.lagMillis = System.currentTimeMillis() - batch.events.last.timestamp
+    logger.whenDebugEnabled(logger.debug(s"Partition ${lag.partition}: lag ${lag.lagMillis}ms, ${lag.pendingBatches} pending batches; ${pending.size} batches above watermark $committed"))
+  }
+
+  /**
+    * Drops all pending batches and continues from the given offset, as the source restarted reading from that offset.
+    * Batches that were dropped may still complete, but they no longer influence the watermark.
+    */
+  def restart(offset: Offset): Unit = synchronized {
+    if (pending.nonEmpty) {
+      logger.warn(s"Dropping ${pending.size} pending batches above watermark $committed, continuing from offset $offset")
+    }
+    pending.clear()
+    committed = offset
+    partitionLags.foreach(_.pendingBatches = 0)
+  }
+
+  /**
+    * Current lag metrics per partition
+    */
+  def lags: Seq[PartitionLag] = synchronized {
+    partitionLags.map(_.copy()).toSeq
+  }
+
+  /**
+    * Number of batches that are read but not yet below the watermark
+    */
+  def size: Int = synchronized(pending.size)
+}
+
+/**
+  * Lag metrics of a single partition of a [[QueryDBEventSink]]
+  *
+  * @param partition        Number of the partition
+  * @param pendingBatches   Number of batches that are read from the journal and not yet committed
+  * @param committedBatches Number of batches committed since the sink started
+  * @param lagMillis        Time between the creation of the last committed event and its commit in the query db
+  */
+case class PartitionLag(partition: Int, var pendingBatches: Int = 0, var committedBatches: Long = 0, var lagMillis: Long = 0) extends CafienneJson {
+  override def toValue: Value[_] = new ValueMap("partition", Integer.valueOf(partition), "pending-batches", Integer.valueOf(pendingBatches), "committed-batches", java.lang.Long.valueOf(committedBatches), "lag-ms", java.lang.Long.valueOf(lagMillis))
+}
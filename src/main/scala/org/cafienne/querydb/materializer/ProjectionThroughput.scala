@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer
+
+import com.typesafe.scalalogging.LazyLogging
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+  * Counts the batches and events that a [[QueryDBEventSink]] has written to the query db,
+  * and logs the throughput (and the lag of each partition) once per report interval.
+  *
+  * @param sinkName Name of the sink in the log
+  * @param interval Report interval, reporting is disabled if it is 0
+  * @param lags     Lag metrics per partition, empty if the sink does not consume in partitions
+  */
+class ProjectionThroughput(sinkName: String, interval: FiniteDuration, lags: () => Seq[PartitionLag] = () => Seq()) extends LazyLogging {
+  private var totalBatches: Long = 0
+  private var totalEvents: Long = 0
+  private var intervalBatches: Long = 0
+  private var intervalEvents: Long = 0
+  private var intervalStart: Long = System.currentTimeMillis()
+
+  def batches: Long = synchronized(totalBatches)
+
+  def events: Long = synchronized(totalEvents)
+
+  /**
+    * Register that the batch has been committed
+    */
+  def committed(batch: QueryDBEventBatch): Unit = synchronized {
+    totalBatches += 1
+    totalEvents += batch.events.size
+    intervalBatches += 1
+    intervalEvents += batch.events.size
+    val now = System.currentTimeMillis()
+    val elapsed = now - intervalStart
+    if (interval.toMillis > 0 && elapsed >= interval.toMillis) {
+      logger.info(f"$sinkName wrote $intervalBatches batches with $intervalEvents events in ${elapsed / 1000.0}%.1f seconds (${intervalBatches * 1000.0 / elapsed}%.1f batches/s, ${intervalEvents * 1000.0 / elapsed}%.1f events/s)$lagReport")
+      intervalBatches = 0
+      intervalEvents = 0
+      intervalStart = now
+    }
+  }
+
+  /**
+    * Summary of the lag per partition, to be appended to the throughput report
+    */
+  def lagReport: String = {
+    val partitionLags = lags()
+    if (partitionLags.isEmpty) ""
+    else partitionLags.map(lag => s"${lag.partition}: ${lag.lagMillis}ms, ${lag.pendingBatches} pending").mkString("; lag per partition [", ", ", "]")
+  }
+}
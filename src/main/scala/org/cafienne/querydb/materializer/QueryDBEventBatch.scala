@@ -18,6 +18,7 @@
 package org.cafienne.querydb.materializer
 
 import akka.Done
+import akka.persistence.query.Offset
 import org.cafienne.actormodel.event.CommitEvent
 import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
 import org.cafienne.infrastructure.cqrs.batch.EventBatch
@@ -26,6 +27,18 @@ import scala.concurrent.Future
 
 trait QueryDBEventBatch extends EventBatch {
 
+  /**
+    * Set by the sink when batches are consumed in parallel partitions
+    */
+  private[materializer] var watermark: Option[OffsetWatermark] = None
+
+  /**
+    * Returns the offset to be stored along with the commit of the batch.
+    * When batches are consumed in parallel, this is the watermark below which all batches have been committed,
+    * otherwise it is simply the offset of the last event in the batch.
+    */
+  def offsetToCommit(envelope: ModelEventEnvelope): Offset = watermark.fold(envelope.offset)(_.committableOffset(this))
+
   def handleEvent(envelope: ModelEventEnvelope): Future[Done]
 
   def commit(envelope: ModelEventEnvelope, transactionEvent: CommitEvent): Future[Done]
@@ -17,11 +17,16 @@
 
 package org.cafienne.querydb.materializer
 
+import akka.Done
+import akka.persistence.query.Offset
 import akka.stream.scaladsl.Sink
 import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.infrastructure.Cafienne
 import org.cafienne.infrastructure.cqrs.batch.EventBatchSource
+import org.cafienne.json.Value
 import org.cafienne.system.health.HealthMonitor
 
+import scala.concurrent.Future
 import scala.util.{Failure, Success}
 
 trait QueryDBEventSink extends EventBatchSource[QueryDBEventBatch] with LazyLogging {
@@ -31,13 +36,65 @@ trait QueryDBEventSink extends EventBatchSource[QueryDBEventBatch] with LazyLogg
     * Start reading and processing events
     */
   def start(): Unit = {
+    val partitions = Cafienne.config.queryDB.partitions
+    val consumption = if (partitions > 1) consumePartitioned(partitions) else consumeSequentially()
+    consumption.onComplete {
+      case Success(_) => //
+      case Failure(ex) => reportUnhealthy(ex)
+    }
+  }
+
+  /**
+    * Number of batches and events written by this sink
+    */
+  lazy val throughput: ProjectionThroughput = new ProjectionThroughput(getClass.getSimpleName, Cafienne.config.queryDB.throughputReportInterval, () => partitionLags)
+
+  /**
+    * Tracks the offset below which all batches have been committed; only available when consuming in partitions
+    */
+  @volatile var watermark: Option[OffsetWatermark] = None
+
+  /**
+    * Lag metrics per partition; empty when batches are consumed sequentially
+    */
+  def partitionLags: Seq[PartitionLag] = watermark.fold(Seq[PartitionLag]())(_.lags)
+
+  /**
+    * When the source restarts, batches that are still pending will be read again,
+    * so the watermark starts over from the offset of the restart.
+    */
+  override def sourceStarted(offset: Offset): Unit = watermark.foreach(_.restart(offset))
+
+  private def consumeSequentially(): Future[Done] = {
     batches
-      .mapAsync(1)(_.consume()) // Now handle the batch (would be better if that is done through a real Sink, not yet sure how to achieve that - make EventBatch extend Sink???)
+      .mapAsync(1)(batch => batch.consume().map(_ => throughput.committed(batch))) // Now handle the batch (would be better if that is done through a real Sink, not yet sure how to achieve that - make EventBatch extend Sink???)
       .runWith(Sink.ignore)
-      .onComplete {
-        case Success(_) => //
-        case Failure(ex) => reportUnhealthy(ex)
-      }
+  }
+
+  /**
+    * Consumes batches of different model actors in parallel, by partitioning them on their persistence id.
+    * Batches of the same model actor are always in the same partition and are consumed one after the other.
+    */
+  private def consumePartitioned(partitions: Int): Future[Done] = {
+    getOffset.flatMap { startOffset =>
+      val tracker = new OffsetWatermark(startOffset, partitions)
+      watermark = Some(tracker)
+      // Show the lag of the partitions in the health report of the query db
+      HealthMonitor.queryDB.addDetail(s"${getClass.getSimpleName}-partitions", () => Value.convert(tracker.lags))
+      batches
+        .map { batch =>
+          batch.watermark = watermark
+          tracker.register(batch)
+          batch
+        }
+        .groupBy(partitions, batch => tracker.partitionOf(batch.persistenceId))
+        .mapAsync(1)(batch => batch.consume().map { _ =>
+          tracker.completed(batch)
+          throughput.committed(batch)
+        })
+        .mergeSubstreams
+        .runWith(Sink.ignore)
+    }
   }
 
   def reportUnhealthy(throwable: Throwable): Unit = {
@@ -76,13 +76,16 @@ class CaseEventBatch(val sink: CaseEventSink, override val persistenceId: String
     caseFileProjection.prepareCommit()
     casePlanProjection.prepareCommit(caseModified)
     // Update the offset storage with the latest & greatest offset we handled
-    dBTransaction.upsert(createOffsetRecord(envelope.offset))
+    dBTransaction.upsert(createOffsetRecord(offsetToCommit(envelope)))
 
     // Commit and then inform the last modified registration
-    dBTransaction.commit().andThen(_ => CaseReader.lastModifiedRegistration.handle(caseModified))
+    dBTransaction.commit().andThen(result => {
+      if (result.isSuccess) caseFileProjection.afterCommit()
+      CaseReader.lastModifiedRegistration.handle(caseModified)
+    })
   }
 
   private def updateUserIds(event: CaseAppliedPlatformUpdate, envelope: ModelEventEnvelope): Future[Done] = {
-    dBTransaction.updateCaseUserInformation(event.getCaseInstanceId, event.newUserInformation.info, createOffsetRecord(envelope.offset))
+    dBTransaction.updateCaseUserInformation(event.getCaseInstanceId, event.newUserInformation.info, createOffsetRecord(offsetToCommit(envelope)))
   }
 }
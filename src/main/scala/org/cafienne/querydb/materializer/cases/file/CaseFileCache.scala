@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.cases.file
+
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.json.ValueMap
+import org.cafienne.util.SegmentedLRUCache
+
+/**
+  * Keeps the case files of recently updated cases in memory, so that the next batch of case file events
+  * on the same case need not read and parse the full case file json from the query db.
+  *
+  * A case file is taken out of the cache when a batch starts updating it, and is only put back after
+  * the batch has been committed, along with the sequence number of the last event in that batch.
+  * The cached case file is only used if the next batch of the case starts right after that event,
+  * so that a failed commit, or a batch that is projected elsewhere in the meantime, never leads to a stale case file.
+  */
+class CaseFileCache(size: Int) {
+  private val cache = new SegmentedLRUCache[String, CachedCaseFile](size)
+
+  def enabled: Boolean = size > 0
+
+  /**
+    * Takes the case file of the case out of the cache, if it is present and up to date with the event before the given sequence number
+    */
+  def checkout(caseInstanceId: String, firstSequenceNr: Long): Option[ValueMap] = {
+    if (enabled) Option(cache.remove(caseInstanceId)).filter(_.lastSequenceNr == firstSequenceNr - 1).map(_.caseFile)
+    else None
+  }
+
+  /**
+    * Puts the committed case file into the cache
+    */
+  def checkin(caseInstanceId: String, caseFile: ValueMap, lastSequenceNr: Long): Unit = {
+    if (enabled) cache.put(caseInstanceId, CachedCaseFile(caseFile, lastSequenceNr))
+  }
+
+  /**
+    * Keeps the cached case file valid after a committed batch that did not change it
+    */
+  def skip(caseInstanceId: String, firstSequenceNr: Long, lastSequenceNr: Long): Unit = {
+    if (enabled) Option(cache.get(caseInstanceId)).filter(_.lastSequenceNr == firstSequenceNr - 1).foreach(cached => cache.put(caseInstanceId, cached.copy(lastSequenceNr = lastSequenceNr)))
+  }
+}
+
+object CaseFileCache extends CaseFileCache(Cafienne.config.queryDB.caseFileCacheSize)
+
+case class CachedCaseFile(caseFile: ValueMap, lastSequenceNr: Long)
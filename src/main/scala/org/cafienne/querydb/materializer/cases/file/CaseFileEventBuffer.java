@@ -18,6 +18,7 @@
 package org.cafienne.querydb.materializer.cases.file;
 
 import org.cafienne.cmmn.actorapi.event.file.CaseFileItemChildRemoved;
+import org.cafienne.cmmn.actorapi.event.file.CaseFileItemPropertiesUpdated;
 import org.cafienne.cmmn.actorapi.event.file.CaseFileItemTransitioned;
 import org.cafienne.cmmn.instance.Path;
 import org.cafienne.json.ValueMap;
@@ -47,6 +48,8 @@ class CaseFileEventBuffer {
      * e.g. replace event on /RootItem and on /RootItem/Child1, /RootItem/Child2 have full required
      * info inside the event for /RootItem.
      * Only special case is for RemoveChild, as that has parent and child path in itself.
+     * Note that a CaseFileItemPropertiesUpdated event only holds changed properties and not the children,
+     * so that event neither overrides earlier nor later events on child paths.
      * @param newEvent
      */
     void addEvent(CaseFileItemTransitioned newEvent) {
@@ -61,19 +64,21 @@ class CaseFileEventBuffer {
         for (int i = 0; i < events.size(); i++) {
             CaseFileItemTransitioned current = events.get(i);
             Path currentPath = current.getPath();
-            if (currentPath.hasChild(newPath)) {
+            if (!(current instanceof CaseFileItemPropertiesUpdated) && currentPath.hasChild(newPath)) {
 //                System.out.println("Event[" + i + "] on path " + currentPath + " overrides new event on path " + newPath);
                 return;
             }
         }
         // Apparently the new event has a top-level path; start removing all existing events that are under the new event.
         // Reversely go through our array to avoid strange index behavior
-        for (int i = events.size() - 1 ; i >= 0 ; i--) {
-            CaseFileItemTransitioned current = events.get(i);
-            Path currentPath = current.getPath();
-            if (newPath.hasChild(currentPath)) {
-//                System.out.println("Event[" + i + "] on path " + currentPath + " is overridden with new event on path " + newPath);
-                events.remove(i);
+        if (!(newEvent instanceof CaseFileItemPropertiesUpdated)) {
+            for (int i = events.size() - 1; i >= 0; i--) {
+                CaseFileItemTransitioned current = events.get(i);
+                Path currentPath = current.getPath();
+                if (newPath.hasChild(currentPath)) {
+//                    System.out.println("Event[" + i + "] on path " + currentPath + " is overridden with new event on path " + newPath);
+                    events.remove(i);
+                }
             }
         }
 //        System.out.println("Buffering case file event " + event);
@@ -36,7 +36,7 @@ object CaseFileMerger extends LazyLogging {
       event.getTransition match { // Matching on transition instead of event class, because classes only introduced in 1.1.9
         case CaseFileItemTransition.Delete => arrayValue.set(itemIndex, Value.NULL)
         case CaseFileItemTransition.Replace => arrayValue.set(itemIndex, itemValue)
-        case CaseFileItemTransition.Update => arrayValue.set(itemIndex, itemValue)
+        case CaseFileItemTransition.Update => arrayValue.set(itemIndex, event.getNewValue(arrayValue.get(itemIndex)))
         case CaseFileItemTransition.Create => arrayValue.size > itemIndex match {
           case true => arrayValue.set(itemIndex, itemValue)
           case false => arrayValue.add(itemValue)
@@ -51,7 +51,7 @@ object CaseFileMerger extends LazyLogging {
       event.getTransition match { // Matching on transition instead of event class, because classes only introduced in 1.1.9
         case CaseFileItemTransition.Delete => parentValue.getValue.put(itemName, Value.NULL)
         case CaseFileItemTransition.Replace => parentValue.put(itemName, itemValue)
-        case CaseFileItemTransition.Update => parentValue.put(itemName, itemValue)
+        case CaseFileItemTransition.Update => parentValue.put(itemName, event.getNewValue(parentValue.get(itemName)))
         case CaseFileItemTransition.Create => parentValue.put(itemName, itemValue)
         case CaseFileItemTransition.RemoveChild => {
           val myValue = if (path.isEmpty) {
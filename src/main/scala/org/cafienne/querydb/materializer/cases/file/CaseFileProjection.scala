@@ -35,8 +35,12 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
   private val businessIdentifiers = scala.collection.mutable.Set[CaseBusinessIdentifierRecord]()
   private val bufferedCaseFileEvents = new CaseFileEventBuffer()
   private var caseFile: Option[ValueMap] = None
+  private var caseFileChanged = false
 
-  def handleCaseCreation(): Unit = setCaseFile(new ValueMap()) // Always create an empty case file
+  def handleCaseCreation(): Unit = {
+    setCaseFile(new ValueMap()) // Always create an empty case file
+    caseFileChanged = true
+  }
 
   def handleCaseFileEvent(event: CaseFileEvent): Future[Done] = {
     event match {
@@ -59,12 +63,14 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
 
   private def handleCaseFileItemEvent(event: CaseFileItemTransitioned): Future[Done] = {
     bufferedCaseFileEvents.addEvent(event)
+    caseFileChanged = true
     // Fetch the existing case file data, so that we can apply the events to it later on
     getCaseFile(caseInstanceId).map(_ => Done)
   }
 
   private def handleCaseFileMigration(event: CaseFileItemMigrated): Future[Done] = {
     // Fetch the existing case file data, and then change the existing path to which the event is pointing into the new one
+    caseFileChanged = true
     getCaseFile(caseInstanceId).map(json => {
       val parent = event.formerPath.resolveParent(json)
       parent.put(event.path.name, parent.get(event.formerPath.name))
@@ -75,6 +81,7 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
 
   private def handleCaseFileDropped(event: CaseFileItemDropped): Future[Done] = {
     // Fetch the existing case file data, and then change the existing path to which the event is pointing into the new one
+    caseFileChanged = true
     getCaseFile(caseInstanceId).map(json => {
       val parent = event.path.resolveParent(json)
       parent.getValue.remove(event.path.name)
@@ -88,6 +95,10 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
   }
 
   private def getCaseFile(caseInstanceId: String): Future[ValueMap] = {
+    if (this.caseFile.isEmpty) {
+      // Try to take it from the cache, otherwise read and parse it from the database
+      CaseFileCache.checkout(caseInstanceId, batch.events.head.sequenceNr).foreach(setCaseFile)
+    }
     if (this.caseFile.isEmpty) {
       logger.whenDebugEnabled(logger.debug("Retrieving casefile caseInstanceId={} from database", caseInstanceId))
       dBTransaction.getCaseFile(caseInstanceId).map {
@@ -100,11 +111,19 @@ class CaseFileProjection(batch: CaseEventBatch)(implicit val executionContext: E
   }
 
   def prepareCommit(): Unit = {
-    // Update case file and identifiers
-    this.caseFile.map(getUpdatedCaseFile).foreach(caseFile => dBTransaction.upsert(caseFile))
+    // Update case file (only if the case was created or events changed it) and identifiers
+    this.caseFile.filter(_ => caseFileChanged).map(getUpdatedCaseFile).foreach(caseFile => dBTransaction.upsert(caseFile))
     this.businessIdentifiers.toSeq.foreach(item => dBTransaction.upsert(item))
   }
 
+  /**
+    * Invoked after the batch has been committed; keeps the case file in memory for the next batch of this case.
+    */
+  def afterCommit(): Unit = {
+    val lastSequenceNr = batch.events.last.sequenceNr
+    this.caseFile.fold(CaseFileCache.skip(caseInstanceId, batch.events.head.sequenceNr, lastSequenceNr))(CaseFileCache.checkin(caseInstanceId, _, lastSequenceNr))
+  }
+
   /**
     * Depending on the presence of CaseFileEvents this will add a new CaseFileRecord
     */
@@ -57,7 +57,7 @@ class ConsentGroupEventBatch(val sink: ConsentGroupEventSink, override val persi
     groupProjection.prepareCommit()
     memberProjection.prepareCommit()
     // Update the offset of the last event handled in this projection
-    dBTransaction.upsert(OffsetRecord(ConsentGroupEventSink.offsetName, envelope.offset))
+    dBTransaction.upsert(OffsetRecord(ConsentGroupEventSink.offsetName, offsetToCommit(envelope)))
     // Commit and then inform the last modified registration
     dBTransaction.commit().andThen(_ => {
       memberProjection.affectedUserIds.foreach(sink.caseSystem.userCache.clear)
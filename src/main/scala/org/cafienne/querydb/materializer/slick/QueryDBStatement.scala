@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.slick
+
+import slick.dbio.DBIO
+import slick.lifted.Query
+
+import scala.collection.mutable.ListBuffer
+
+/**
+  * Statement that is collected in a [[SlickQueryDBTransaction]], and executed upon commit.
+  */
+sealed trait QueryDBStatement
+
+/**
+  * Any database action, e.g. a delete or an update
+  */
+case class SingleStatement(action: DBIO[_]) extends QueryDBStatement
+
+/**
+  * A series of consecutive insertOrUpdate statements on the same table.
+  * These can be executed in a single JDBC batch.
+  *
+  * @param query      Table to upsert the records in
+  * @param recordType Class of the records, identifies the table
+  */
+class Upserts[R](val query: Query[_, R, Seq], val recordType: Class[_]) extends QueryDBStatement {
+  val records: ListBuffer[R] = ListBuffer[R]()
+
+  /**
+    * Adds the records of the other upserts if they are on the same table, and returns whether that was the case.
+    */
+  def merge(other: QueryDBStatement): Boolean = other match {
+    case upserts: Upserts[_] if upserts.recordType == recordType =>
+      records ++= upserts.records.asInstanceOf[ListBuffer[R]]
+      true
+    case _ => false
+  }
+
+  def copy(): Upserts[R] = {
+    val copy = new Upserts[R](query, recordType)
+    copy.records ++= records
+    copy
+  }
+}
+
+object QueryDBStatement {
+  /**
+    * Merges consecutive upserts on the same table, keeping the order of all statements intact.
+    */
+  def merge(statements: Seq[QueryDBStatement]): Seq[QueryDBStatement] = {
+    val merged = ListBuffer[QueryDBStatement]()
+    statements.foreach { statement =>
+      merged.lastOption match {
+        case Some(last: Upserts[_]) if last.merge(statement) => // Records are added to the previous upserts
+        case _ => statement match {
+          case upserts: Upserts[_] => merged += upserts.copy() // Copy, so that merging does not change the original
+          case other => merged += other
+        }
+      }
+    }
+    merged.toSeq
+  }
+}
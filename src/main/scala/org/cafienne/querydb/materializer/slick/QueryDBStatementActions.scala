@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.slick
+
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+import org.cafienne.infrastructure.jdbc.cqrs.OffsetStoreTables
+import org.cafienne.querydb.schema.QueryDBSchema
+import slick.jdbc.JdbcCapabilities
+
+import scala.concurrent.ExecutionContext
+
+/**
+  * Converts collected [[QueryDBStatement]]s and offsets into database actions.
+  * Used both by a [[SlickQueryDBTransaction]] committing its own statements and by [[SlickGroupCommit]] committing those of a group of batches.
+  */
+trait QueryDBStatementActions extends QueryDBSchema with OffsetStoreTables {
+
+  import dbConfig.profile.api._
+
+  implicit val ec: ExecutionContext = db.ioExecutionContext // TODO: Is this the best execution context to pick?
+
+  private lazy val batchUpserts: Boolean = dbConfig.profile.capabilities.contains(JdbcCapabilities.insertOrUpdate)
+
+  /**
+    * Returns a single transaction that runs the statements and then writes the offsets.
+    */
+  def toTransaction(statements: Seq[QueryDBStatement], offsets: Seq[OffsetRecord]): DBIO[_] = {
+    DBIO.sequence(toActions(statements) ++ offsets.flatMap(addOffsetRecord)).transactionally
+  }
+
+  /**
+    * Converts the statements into database actions. If the database supports it natively, upserts on the same table
+    * are combined into a single batched insertOrUpdateAll.
+    */
+  def toActions(statements: Seq[QueryDBStatement]): Seq[DBIO[_]] = statements.map {
+    case statement: SingleStatement => statement.action
+    case upserts: Upserts[_] => toAction(upserts)
+  }
+
+  private def toAction[R](upserts: Upserts[R]): DBIO[_] = {
+    if (batchUpserts && upserts.records.size > 1) {
+      upserts.query.insertOrUpdateAll(upserts.records)
+    } else {
+      DBIO.sequence(upserts.records.toSeq.map(record => upserts.query.insertOrUpdate(record)))
+    }
+  }
+
+  /**
+    * Writes the offset, unless the stored offset is already further. Batches that are consumed in parallel
+    * may commit in a different order than the one in which their offsets were determined,
+    * and that must not move the stored offset backwards.
+    * The stored record is read with a lock, so that concurrent transactions on the same offset name wait for each other.
+    */
+  def addOffsetRecord(offset: OffsetRecord): Seq[DBIO[_]] = {
+    val offsetTable = TableQuery[OffsetStoreTable]
+    Seq(offsetTable.filter(_.name === offset.name).forUpdate.result.headOption.flatMap {
+      case Some(stored) if offset.isBefore(stored) => DBIO.successful(0)
+      case _ => offsetTable.insertOrUpdate(offset)
+    })
+  }
+}
@@ -31,25 +31,25 @@ class SlickCaseTransaction extends SlickQueryDBTransaction with CaseStorageTrans
 
   import dbConfig.profile.api._
 
-  override def upsert(record: CaseRecord): Unit = addStatement(TableQuery[CaseInstanceTable].insertOrUpdate(record))
+  override def upsert(record: CaseRecord): Unit = addUpsert(TableQuery[CaseInstanceTable], record)
 
-  override def upsert(record: CaseDefinitionRecord): Unit = addStatement(TableQuery[CaseInstanceDefinitionTable].insertOrUpdate(record))
+  override def upsert(record: CaseDefinitionRecord): Unit = addUpsert(TableQuery[CaseInstanceDefinitionTable], record)
 
-  override def upsert(record: TaskRecord): Unit = addStatement(TableQuery[TaskTable].insertOrUpdate(record))
+  override def upsert(record: TaskRecord): Unit = addUpsert(TableQuery[TaskTable], record)
 
-  override def upsert(record: PlanItemRecord): Unit = addStatement(TableQuery[PlanItemTable].insertOrUpdate(record))
+  override def upsert(record: PlanItemRecord): Unit = addUpsert(TableQuery[PlanItemTable], record)
 
-  override def upsert(record: CaseFileRecord): Unit = addStatement(TableQuery[CaseFileTable].insertOrUpdate(record))
+  override def upsert(record: CaseFileRecord): Unit = addUpsert(TableQuery[CaseFileTable], record)
 
-  override def upsert(record: CaseBusinessIdentifierRecord): Unit = addStatement(TableQuery[CaseBusinessIdentifierTable].insertOrUpdate(record))
+  override def upsert(record: CaseBusinessIdentifierRecord): Unit = addUpsert(TableQuery[CaseBusinessIdentifierTable], record)
 
-  override def upsert(record: CaseRoleRecord): Unit = addStatement(TableQuery[CaseInstanceRoleTable].insertOrUpdate(record))
+  override def upsert(record: CaseRoleRecord): Unit = addUpsert(TableQuery[CaseInstanceRoleTable], record)
 
-  override def upsert(record: CaseTeamUserRecord): Unit = addStatement(TableQuery[CaseInstanceTeamUserTable].insertOrUpdate(record))
+  override def upsert(record: CaseTeamUserRecord): Unit = addUpsert(TableQuery[CaseInstanceTeamUserTable], record)
 
-  override def upsert(record: CaseTeamTenantRoleRecord): Unit = addStatement(TableQuery[CaseInstanceTeamTenantRoleTable].insertOrUpdate(record))
+  override def upsert(record: CaseTeamTenantRoleRecord): Unit = addUpsert(TableQuery[CaseInstanceTeamTenantRoleTable], record)
 
-  override def upsert(record: CaseTeamGroupRecord): Unit = addStatement(TableQuery[CaseInstanceTeamGroupTable].insertOrUpdate(record))
+  override def upsert(record: CaseTeamGroupRecord): Unit = addUpsert(TableQuery[CaseInstanceTeamGroupTable], record)
 
   override def delete(record: CaseTeamUserRecord): Unit = addStatement(
     TableQuery[CaseInstanceTeamUserTable]
@@ -24,9 +24,9 @@ class SlickConsentGroupTransaction extends SlickQueryDBTransaction with ConsentG
 
   import dbConfig.profile.api._
 
-  override def upsert(record: ConsentGroupRecord): Unit = addStatement(TableQuery[ConsentGroupTable].insertOrUpdate(record))
+  override def upsert(record: ConsentGroupRecord): Unit = addUpsert(TableQuery[ConsentGroupTable], record)
 
-  override def upsert(record: ConsentGroupMemberRecord): Unit = addStatement(TableQuery[ConsentGroupMemberTable].insertOrUpdate(record))
+  override def upsert(record: ConsentGroupMemberRecord): Unit = addUpsert(TableQuery[ConsentGroupMemberTable], record)
 
   override def delete(record: ConsentGroupMemberRecord): Unit = addStatement(TableQuery[ConsentGroupMemberTable].filter(_.group === record.group).filter(_.userId === record.userId).filter(_.role === record.role).delete)
 
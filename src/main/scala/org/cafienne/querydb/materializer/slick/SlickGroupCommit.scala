@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.querydb.materializer.slick
+
+import akka.Done
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+
+import java.util.concurrent.{Executors, ScheduledFuture, TimeUnit}
+import scala.collection.mutable.ListBuffer
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{Future, Promise}
+import scala.util.{Failure, Success}
+
+/**
+  * Collects the statements of committing batches (of different model actors) and
+  * runs them together in a single database transaction, with a single upsert per offset name.
+  * A group is committed when it holds the maximum number of batches,
+  * or when the maximum delay has passed since the first batch was submitted.
+  * If the transaction of a group fails, each batch of the group is committed in its own transaction,
+  * so that a failing batch does not make the other batches fail.
+  *
+  * Note that batches of the same model actor never end up in the same group, since the sink waits for the commit of a batch
+  * before it starts handling the next batch of the same model actor.
+  *
+  * @param maxBatches Maximum number of batches in one transaction
+  * @param maxDelay   Maximum time a committing batch waits for other batches to join the transaction
+  */
+class SlickGroupCommit(val maxBatches: Int, maxDelay: FiniteDuration) extends QueryDBStatementActions with LazyLogging {
+
+  /**
+    * Group commit only has effect when batches are consumed in parallel partitions
+    */
+  lazy val enabled: Boolean = maxBatches > 1
+
+  private lazy val scheduler = Executors.newSingleThreadScheduledExecutor(runnable => {
+    val thread = new Thread(runnable, "cafienne-querydb-group-commit")
+    thread.setDaemon(true)
+    thread
+  })
+
+  private case class PendingCommit(statements: Seq[QueryDBStatement], offset: Option[OffsetRecord], promise: Promise[Done] = Promise[Done]())
+
+  private val pending = ListBuffer[PendingCommit]()
+  private var flushTimer: Option[ScheduledFuture[_]] = None
+
+  private var transactions: Long = 0
+  private var batches: Long = 0
+
+  /**
+    * Add the statements of a batch to the current group. The future completes when the batch has been committed.
+    */
+  def submit(statements: Seq[QueryDBStatement], offset: Option[OffsetRecord]): Future[Done] = {
+    val commit = PendingCommit(statements, offset)
+    val group = synchronized {
+      pending += commit
+      if (pending.size >= maxBatches) {
+        takeGroup()
+      } else {
+        if (flushTimer.isEmpty) {
+          flushTimer = Some(scheduler.schedule((() => flush()): Runnable, maxDelay.toMillis, TimeUnit.MILLISECONDS))
+        }
+        Seq()
+      }
+    }
+    run(group)
+    commit.promise.future
+  }
+
+  private def flush(): Unit = run(synchronized(takeGroup()))
+
+  private def takeGroup(): Seq[PendingCommit] = {
+    flushTimer.foreach(_.cancel(false))
+    flushTimer = None
+    val group = pending.toSeq
+    pending.clear()
+    group
+  }
+
+  private def run(group: Seq[PendingCommit]): Unit = {
+    if (group.size == 1) {
+      runSeparately(group.head)
+    } else if (group.nonEmpty) {
+      val statements = QueryDBStatement.merge(group.flatMap(_.statements))
+      val transaction = toTransaction(statements, SlickGroupCommit.highestOffsets(group.flatMap(_.offset)))
+
+      db.run(transaction).onComplete {
+        case Success(_) =>
+          val average = registerCommit(group.size)
+          logger.whenDebugEnabled(logger.debug(s"Committed ${group.size} batches with ${statements.size} statements in one transaction (on average $average batches per transaction)"))
+          group.foreach(_.promise.success(Done))
+        case Failure(failure) =>
+          logger.warn(s"Failed to commit ${group.size} batches in one transaction, committing them one by one: ${failure.getMessage}")
+          group.foreach(runSeparately)
+      }
+    }
+  }
+
+  private def runSeparately(commit: PendingCommit): Unit = {
+    val transaction = toTransaction(commit.statements, commit.offset.toSeq)
+    db.run(transaction).onComplete {
+      case Success(_) =>
+        registerCommit(1)
+        commit.promise.success(Done)
+      case Failure(failure) => commit.promise.failure(failure)
+    }
+  }
+
+  private def registerCommit(groupSize: Int): Long = synchronized {
+    transactions += 1
+    batches += groupSize
+    batches / transactions
+  }
+}
+
+object SlickGroupCommit extends SlickGroupCommit(
+  Math.min(Cafienne.config.queryDB.groupCommit.maxBatches, Cafienne.config.queryDB.partitions),
+  Cafienne.config.queryDB.groupCommit.maxDelay) {
+
+  /**
+    * Returns the highest offset per offset name. Batches may be added to a group in a different order
+    * than the order of their offsets, so the last offset of a name is not necessarily the highest one.
+    */
+  def highestOffsets(offsets: Seq[OffsetRecord]): Seq[OffsetRecord] = {
+    offsets.groupBy(_.name).values.map(_.reduce((first, second) => if (first.isBefore(second)) second else first)).toSeq
+  }
+}
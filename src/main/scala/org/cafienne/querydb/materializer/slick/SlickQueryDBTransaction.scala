@@ -20,14 +20,12 @@ package org.cafienne.querydb.materializer.slick
 import akka.Done
 import org.cafienne.cmmn.actorapi.command.platform.NewUserInformation
 import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
-import org.cafienne.infrastructure.jdbc.cqrs.OffsetStoreTables
 import org.cafienne.querydb.materializer.QueryDBTransaction
-import org.cafienne.querydb.schema.QueryDBSchema
 import org.cafienne.querydb.schema.table.{CaseTables, ConsentGroupTables, TaskTables, TenantTables}
 
 import scala.collection.mutable
 import scala.collection.mutable.ListBuffer
-import scala.concurrent.{ExecutionContext, Future}
+import scala.concurrent.Future
 
 class SlickQueryDBTransaction
   extends QueryDBTransaction
@@ -42,30 +40,47 @@ class SlickQueryDBTransaction
 
   implicit val ec: ExecutionContext = db.ioExecutionContext // TODO: Is this the best execution context to pick?
 
-  val dbStatements: mutable.ListBuffer[DBIO[_]] = ListBuffer[DBIO[_]]()
+  val dbStatements: mutable.ListBuffer[QueryDBStatement] = ListBuffer[QueryDBStatement]()
+  var offsetRecord: Option[OffsetRecord] = None
 
-  def addStatement(action: dbConfig.profile.api.DBIO[_]): Unit = dbStatements += action
+  def addStatement(action: dbConfig.profile.api.DBIO[_]): Unit = dbStatements += SingleStatement(action)
 
-  override def upsert(record: OffsetRecord): Unit = addStatement(TableQuery[OffsetStoreTable].insertOrUpdate(record))
+  /**
+    * Adds an insertOrUpdate of the record. Consecutive upserts on the same table are executed in one JDBC batch.
+    */
+  def addUpsert[R](table: Query[_, R, Seq], record: R): Unit = {
+    dbStatements.lastOption match {
+      case Some(upserts: Upserts[_]) if upserts.recordType == record.getClass => upserts.asInstanceOf[Upserts[R]].records += record
+      case _ =>
+        val upserts = new Upserts[R](table, record.getClass)
+        upserts.records += record
+        dbStatements += upserts
+    }
+  }
+
+  /**
+    * The offset record is written as the last statement of the transaction.
+    */
+  override def upsert(record: OffsetRecord): Unit = offsetRecord = Some(record)
 
   def commit(): Future[Done] = {
     val transaction = dbStatements.toSeq
+    val offset = offsetRecord
     // Clear statement buffer (the "transaction")
     dbStatements.clear()
+    offsetRecord = None
 
-    // Run the actions
-    db.run(DBIO.sequence(transaction).transactionally).map { _ => Done }
+    if (SlickGroupCommit.enabled) {
+      // Let the statements be committed together with those of other batches
+      SlickGroupCommit.submit(transaction, offset)
+    } else {
+      // Run the actions
+      db.run(toTransaction(transaction, offset.toSeq)).map { _ => Done }
+    }
   }
 
   def convertUserUpdate(info: Seq[NewUserInformation]): Set[(String, Set[String])] = {
     val newUserIds: Set[String] = info.map(_.newUserId).toSet
     newUserIds.map(newUserId => (newUserId, info.filter(_.newUserId == newUserId).map(_.existingUserId).toSet))
   }
-
-  //  var nr = 0L
-  def addOffsetRecord(offset: OffsetRecord): Seq[DBIO[_]] = {
-    //    println(s"$nr: Updating $offsetName to $offset")
-    //    nr += 1
-    Seq(TableQuery[OffsetStoreTable].insertOrUpdate(offset))
-  }
 }
@@ -30,9 +30,9 @@ class SlickTenantTransaction extends SlickQueryDBTransaction with TenantStorageT
 
   import dbConfig.profile.api._
 
-  override def upsert(record: TenantRecord): Unit = addStatement(TableQuery[TenantTable].insertOrUpdate(record))
+  override def upsert(record: TenantRecord): Unit = addUpsert(TableQuery[TenantTable], record)
 
-  override def upsert(record: UserRoleRecord): Unit = addStatement(TableQuery[UserRoleTable].insertOrUpdate(record))
+  override def upsert(record: UserRoleRecord): Unit = addUpsert(TableQuery[UserRoleTable], record)
 
   override def delete(record: UserRoleRecord): Unit = {
     addStatement(TableQuery[UserRoleTable]
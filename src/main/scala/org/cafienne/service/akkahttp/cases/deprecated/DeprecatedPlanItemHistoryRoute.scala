@@ -35,8 +35,8 @@ class DeprecatedPlanItemHistoryRoute(override val caseSystem: CaseSystem) extend
           logger.warn(s"Old: /${caseEvents.caseInstanceId}/planitems/$planItemId/history")
           logger.warn(s"New: /${caseEvents.caseInstanceId}/history/planitems/$planItemId")
 
-          onComplete(caseEvents.planitemHistory(planItemId)) {
-            case Success(value) => completeJson(value)
+          onComplete(caseEvents.planitemHistorySource(planItemId)) {
+            case Success(records) => completeJsonStream(records.map(_.toValue))
             case Failure(t) => handleFailure(t)
           }
         }
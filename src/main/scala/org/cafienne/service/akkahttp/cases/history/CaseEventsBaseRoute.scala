@@ -17,9 +17,10 @@
 
 package org.cafienne.service.akkahttp.cases.history
 
+import akka.NotUsed
 import akka.actor.ActorSystem
 import akka.http.scaladsl.server.Route
-import akka.stream.scaladsl.Sink
+import akka.stream.scaladsl.{Sink, Source}
 import org.cafienne.cmmn.actorapi.event.plan.CasePlanEvent
 import org.cafienne.infrastructure.cqrs.{InstanceEventSource, ModelEventEnvelope}
 import org.cafienne.querydb.query.exception.PlanItemSearchFailure
@@ -43,45 +44,60 @@ trait CaseEventsBaseRoute extends CasesRoute {
     override def system: ActorSystem = caseSystem.system
 
     /**
-      * Returns the events as a sequence. Note: do not override this along with overriding the query to make it a livestream,
-      * because then the seq never closes.
+      * Returns the events of the case within the (inclusive) window of sequence numbers.
+      * The events are read from the journal while the consumer of the source asks for them.
       */
-    def eventList(): Future[Seq[ModelEventEnvelope]] = {
+    def eventSource(from: Long = 0L, to: Long = Long.MaxValue): Source[ModelEventEnvelope, NotUsed] = {
       // This code assumes checking for presence of events is done in the route on the query db tables.
-      events(caseInstanceId).runWith(Sink.seq[ModelEventEnvelope])
+      events(caseInstanceId, from, to)
     }
 
-    def allCasePlanEvents(): Future[Seq[ModelEventEnvelope]] = {
-      eventList().map(_.filter(_.event.isInstanceOf[CasePlanEvent]))
+    /**
+      * Returns the events of the case within the window as a source, once the first event has been read.
+      * The future fails if the events cannot be read, so that a route can respond with 404 before it starts streaming.
+      */
+    def startedEventSource(from: Long = 0L, to: Long = Long.MaxValue): Future[Source[ModelEventEnvelope, NotUsed]] = {
+      eventSource(from, to).prefixAndTail(1).runWith(Sink.head).map {
+        case (first, tail) => Source(first).concat(tail)
+      }
     }
 
-    def planitemEvents(planItemId: String): Future[Seq[ModelEventEnvelope]] = {
-      allCasePlanEvents().map(_.filter(_.event.asInstanceOf[CasePlanEvent].planItemId == planItemId))
+    /**
+      * Returns the events as a sequence. Note: do not override this along with overriding the query to make it a livestream,
+      * because then the seq never closes.
+      */
+    def eventList(): Future[Seq[ModelEventEnvelope]] = {
+      eventSource().runWith(Sink.seq[ModelEventEnvelope])
     }
 
-    def casePlanHistory(): Future[Seq[PlanItemHistory]] = {
-      allCasePlanEvents().map(envelopes => {
-        val planItemIdentifiers: Set[String] = envelopes.map(_.event.asInstanceOf[CasePlanEvent].planItemId).toSet
-        planItemIdentifiers.map(id => {
-          asHistory(id, envelopes.filter(_.event.asInstanceOf[CasePlanEvent].planItemId == id))
-        }).toSeq
+    def planitemEventSource(planItemId: String, from: Long = 0L, to: Long = Long.MaxValue): Source[ModelEventEnvelope, NotUsed] = {
+      eventSource(from, to).filter(_.event match {
+        case event: CasePlanEvent => event.planItemId == planItemId
+        case _ => false
       })
     }
 
-    def planitemHistory(planItemId: String): Future[PlanItemHistory] = {
-      planitemEvents(planItemId).map(events => asHistory(planItemId, events))
+    /**
+      * Returns the history of the plan items in the case as a source. See [[PlanItemHistoryMerger.casePlanHistory]]
+      */
+    def casePlanHistory(from: Long = 0L, to: Long = Long.MaxValue): Source[PlanItemHistory, NotUsed] = {
+      PlanItemHistoryMerger.casePlanHistory(eventSource(from, _), to)
     }
 
-    def asHistory(planItemId: String, events: Seq[ModelEventEnvelope]): PlanItemHistory = {
-      if (events.isEmpty) throw PlanItemSearchFailure(planItemId)
-      val historyRecords: Seq[PlanItemHistoryRecord] = events.map(PlanItemHistoryMerger.mapModelEventEnvelope).filter(_.isDefined).map(_.get)
-      var index = 0
-      historyRecords.map(item => {
-        val sequenced = item.copy(id = s"${planItemId}_$index", sequenceNr = index)
-        index += 1
-        sequenced
-      })
-      PlanItemHistory(historyRecords)
+    /**
+      * Returns the history records of the plan item as a source.
+      * The future fails with a PlanItemSearchFailure if the plan item has no events in the window,
+      * so that a route can respond with 404 before it starts streaming.
+      */
+    def planitemHistorySource(planItemId: String, from: Long = 0L, to: Long = Long.MaxValue): Future[Source[PlanItemHistoryRecord, NotUsed]] = {
+      planitemEventSource(planItemId, from, to).prefixAndTail(1).runWith(Sink.head).map {
+        case (Seq(), _) => throw PlanItemSearchFailure(planItemId)
+        case (first, tail) => Source(first).concat(tail).via(PlanItemHistoryMerger.historyFlow)
+      }
+    }
+
+    def planitemHistory(planItemId: String): Future[PlanItemHistory] = {
+      planitemHistorySource(planItemId).flatMap(_.runWith(Sink.seq)).map(records => PlanItemHistory(records))
     }
   }
 }
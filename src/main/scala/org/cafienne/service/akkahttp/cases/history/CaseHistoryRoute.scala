@@ -24,7 +24,6 @@ import io.swagger.v3.oas.annotations.media.Schema
 import io.swagger.v3.oas.annotations.responses.ApiResponse
 import io.swagger.v3.oas.annotations.security.SecurityRequirement
 import io.swagger.v3.oas.annotations.{Operation, Parameter}
-import org.cafienne.json.Value
 import org.cafienne.service.akkahttp.Headers
 import org.cafienne.service.akkahttp.debug.ModelEventsReader
 import org.cafienne.system.CaseSystem
@@ -48,6 +47,8 @@ class CaseHistoryRoute(override val caseSystem: CaseSystem) extends CaseEventsBa
     parameters = Array(
       new Parameter(name = "caseInstanceId", description = "Unique id of the case instance", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String]), required = true),
       new Parameter(name = Headers.CASE_LAST_MODIFIED, description = "Get after events have been processed", in = ParameterIn.HEADER, schema = new Schema(implementation = classOf[String]), required = false),
+      new Parameter(name = "from", description = "Sequence number of the first event to read (defaults to 0)", in = ParameterIn.QUERY, schema = new Schema(implementation = classOf[Long]), required = false),
+      new Parameter(name = "to", description = "Sequence number of the last event to read (defaults to Long.MaxValue)", in = ParameterIn.QUERY, schema = new Schema(implementation = classOf[Long]), required = false),
     ),
     responses = Array(
       new ApiResponse(description = "Plan items found", responseCode = "200"),
@@ -58,9 +59,11 @@ class CaseHistoryRoute(override val caseSystem: CaseSystem) extends CaseEventsBa
   def getCaseEvents: Route = get {
     caseEventsSubRoute { caseEvents =>
       path("history" / "events") {
-        onComplete(caseEvents.eventList()) {
-          case Success(events) => completeJson(Value.convert(events.map(_.event.rawJson())))
-          case Failure(err) => complete(StatusCodes.NotFound, err)
+        parameters("from".?(0L), "to".?(Long.MaxValue)) { (from: Long, to: Long) =>
+          onComplete(caseEvents.startedEventSource(from, to)) {
+            case Success(events) => completeJsonStream(events.map(_.event.rawJson()))
+            case Failure(err) => complete(StatusCodes.NotFound, err)
+          }
         }
       }
     }
@@ -75,6 +78,8 @@ class CaseHistoryRoute(override val caseSystem: CaseSystem) extends CaseEventsBa
     parameters = Array(
       new Parameter(name = "caseInstanceId", description = "Unique id of the case instance", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String]), required = true),
       new Parameter(name = Headers.CASE_LAST_MODIFIED, description = "Get after events have been processed", in = ParameterIn.HEADER, schema = new Schema(implementation = classOf[String]), required = false),
+      new Parameter(name = "from", description = "Sequence number of the first event to read (defaults to 0)", in = ParameterIn.QUERY, schema = new Schema(implementation = classOf[Long]), required = false),
+      new Parameter(name = "to", description = "Sequence number of the last event to read (defaults to Long.MaxValue)", in = ParameterIn.QUERY, schema = new Schema(implementation = classOf[Long]), required = false),
     ),
     responses = Array(
       new ApiResponse(description = "Plan items found", responseCode = "200"),
@@ -85,9 +90,8 @@ class CaseHistoryRoute(override val caseSystem: CaseSystem) extends CaseEventsBa
   def getPlanHistory: Route = get {
     caseEventsSubRoute { caseEvents =>
       path("history" / "planitems") {
-        onComplete(caseEvents.casePlanHistory()) {
-          case Success(items) => completeJson(Value.convert(items.map(_.toValue)))
-          case Failure(t) => handleFailure(t)
+        parameters("from".?(0L), "to".?(Long.MaxValue)) { (from: Long, to: Long) =>
+          completeJsonStream(caseEvents.casePlanHistory(from, to).map(_.toValue))
         }
       }
     }
@@ -102,6 +106,8 @@ class CaseHistoryRoute(override val caseSystem: CaseSystem) extends CaseEventsBa
     parameters = Array(
       new Parameter(name = "caseInstanceId", description = "Unique id of the case instance", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String]), required = true),
       new Parameter(name = "planItemId", description = "Unique id of the plan item (cannot be the plan item name, must be the id)", in = ParameterIn.PATH, schema = new Schema(implementation = classOf[String]), required = true),
+      new Parameter(name = "from", description = "Sequence number of the first event to read (defaults to 0)", in = ParameterIn.QUERY, schema = new Schema(implementation = classOf[Long]), required = false),
+      new Parameter(name = "to", description = "Sequence number of the last event to read (defaults to Long.MaxValue)", in = ParameterIn.QUERY, schema = new Schema(implementation = classOf[Long]), required = false),
     ),
     responses = Array(
       new ApiResponse(description = "Plan item found", responseCode = "200"),
@@ -112,9 +118,11 @@ class CaseHistoryRoute(override val caseSystem: CaseSystem) extends CaseEventsBa
   def getPlanItemHistory: Route = get {
     caseEventsSubRoute { caseEvents =>
       path("history" / "planitems" / Segment) { planItemId =>
-        onComplete(caseEvents.planitemHistory(planItemId)) {
-          case Success(value) => completeJson(value)
-          case Failure(t) => handleFailure(t)
+        parameters("from".?(0L), "to".?(Long.MaxValue)) { (from: Long, to: Long) =>
+          onComplete(caseEvents.planitemHistorySource(planItemId, from, to)) {
+            case Success(records) => completeJsonStream(records.map(_.toValue))
+            case Failure(t) => handleFailure(t)
+          }
         }
       }
     }
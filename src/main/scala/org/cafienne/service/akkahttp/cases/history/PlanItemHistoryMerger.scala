@@ -17,13 +17,82 @@
 
 package org.cafienne.service.akkahttp.cases.history
 
+import akka.NotUsed
+import akka.stream.scaladsl.{Flow, Source}
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.cmmn.actorapi.event.migration.PlanItemMigrated
 import org.cafienne.cmmn.actorapi.event.plan._
 import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
 import org.cafienne.querydb.record.PlanItemHistoryRecord
 
+import scala.collection.mutable
+
 object PlanItemHistoryMerger extends LazyLogging {
+  /**
+    * Flow that converts the case plan events into history records one at a time, so that
+    * the events of a case never have to be in memory all at once.
+    * Each record gets the sequence number of the event in the journal, which can be used as cursor.
+    */
+  def historyFlow: Flow[ModelEventEnvelope, PlanItemHistoryRecord, NotUsed] = {
+    Flow[ModelEventEnvelope]
+      .filter(_.event.isInstanceOf[CasePlanEvent])
+      .map(envelope => mapModelEventEnvelope(envelope).map(_.copy(sequenceNr = envelope.sequenceNr)))
+      .collect { case Some(record) => record }
+  }
+
+  /**
+    * Source with the history of each plan item in the case.
+    * The events are read once to find the sequence number of the last event of each plan item, and once more to build the histories.
+    * A history is emitted as soon as the last event of its plan item has passed, so that only the history records
+    * of plan items that are still in progress are in memory. Plan items are therefore emitted in the order of their last event.
+    * The second read stops at the last event of the first read, so that both reads see the same events, even if the case changes in between.
+    *
+    * @param events Function that creates a new source of the events of the case, up to and including the given sequence number
+    * @param to     Sequence number of the last event to read
+    */
+  def casePlanHistory(events: Long => Source[ModelEventEnvelope, NotUsed], to: Long = Long.MaxValue): Source[PlanItemHistory, NotUsed] = {
+    events(to)
+      .fold(new LastPlanItemEvents)(_.add(_))
+      .flatMapConcat(lastEvents => {
+        if (lastEvents.isEmpty) Source.empty
+        else events(lastEvents.maxSequenceNr).statefulMapConcat(() => {
+          val histories = mutable.HashMap[String, mutable.ArrayBuffer[PlanItemHistoryRecord]]()
+          envelope => envelope.event match {
+            case event: CasePlanEvent =>
+              val records = histories.getOrElseUpdate(event.planItemId, mutable.ArrayBuffer())
+              mapEventToHistory(event).foreach(record => records += record.copy(sequenceNr = envelope.sequenceNr))
+              if (lastEvents.isLast(event.planItemId, envelope.sequenceNr)) {
+                histories.remove(event.planItemId).map(records => PlanItemHistory(records.toSeq)).toList
+              } else {
+                Nil
+              }
+            case _ => Nil // Not a plan item event
+          }
+        })
+      })
+  }
+
+  /**
+    * Keeps track of the sequence number of the last event of each plan item, and of the last event that was read
+    */
+  class LastPlanItemEvents {
+    private val lastSequenceNrs = mutable.HashMap[String, Long]()
+    var maxSequenceNr: Long = 0L
+
+    def add(envelope: ModelEventEnvelope): LastPlanItemEvents = {
+      envelope.event match {
+        case event: CasePlanEvent => lastSequenceNrs.put(event.planItemId, envelope.sequenceNr)
+        case _ => // Not a plan item event
+      }
+      maxSequenceNr = Math.max(maxSequenceNr, envelope.sequenceNr)
+      this
+    }
+
+    def isEmpty: Boolean = lastSequenceNrs.isEmpty
+
+    def isLast(planItemId: String, sequenceNr: Long): Boolean = lastSequenceNrs.get(planItemId).contains(sequenceNr)
+  }
+
   def mapModelEventEnvelope(evt: ModelEventEnvelope): Option[PlanItemHistoryRecord] = {
     mapEventToHistory(evt.event.asInstanceOf[CasePlanEvent])
   }
@@ -56,7 +56,7 @@ trait StorageActorSupervisor extends Actor with LazyLogging {
     * Upon successful termination, the followup action will be triggered.
     */
   def terminateModelActor(metadata: ActorMetadata, followUpAction: => Unit = {}): Unit = {
-    caseSystem.gateway.request(TerminateModelActor(metadata.actorId)).onComplete{
+    caseSystem.gateway.request(TerminateModelActor(metadata.actorId, metadata.actorType)).onComplete{
       case Success(value) => followUpAction
       case Failure(exception) => logger.warn(s"Failure upon termination of model actor $metadata", exception)
     }
@@ -28,16 +28,20 @@ class ArchiveNode(val metadata: ActorMetadata, val actor: RootArchiver) extends
 
   def hasArchive: Boolean = eventsOfType(classOf[ArchiveCreated]).nonEmpty && actor.getChildren(this).forall(_.hasArchive)
 
-  def archive: Archive = {
+  /**
+    * Returns the archives of this node and its offspring, each without children, along with their number of children.
+    * The archives are in depth first order, so that they can be written one by one into the storage,
+    * without creating the archive tree as a whole.
+    */
+  def archives: Seq[(Archive, Int)] = {
     if (!hasArchive) {
       val exception = new Exception(s"$this is requesting archive when there is not yet an archive. That's a bug :(")
       logger.warn("Running stacktrace printer on unexpected code path", exception)
-      null
+      Seq()
     } else {
-      val archive = getEvent(classOf[ArchiveCreated]).archive
       // Note: we may want to preserve child ordering
-      val childArchives = actor.getChildren(this).map(_.archive)
-      archive.copy(children = childArchives)
+      val children = actor.getChildren(this)
+      (getEvent(classOf[ArchiveCreated]).archive, children.size) +: children.flatMap(_.archives)
     }
   }
 
@@ -38,7 +38,11 @@ class RootArchiveNode(metadata: ActorMetadata, actor: RootArchiver) extends Arch
         implicit val ec: ExecutionContext = actor.caseSystem.system.dispatcher
 
         val storage: Storage = Cafienne.config.engine.storage.archive.plugin
-        storage.store(archive).map(_ => actor.self ! ArchiveStored(metadata))
+        // Collect the archives here, as the writing happens outside of the actor
+        val nodes = archives
+        storage.store(metadata, writer => nodes.foreach {
+          case (archive, numberOfChildren) => writer.writeNode(archive.metadata, archive.events, numberOfChildren)
+        }).map(_ => actor.self ! ArchiveStored(metadata))
         startedExporting = true
       }
     } else {
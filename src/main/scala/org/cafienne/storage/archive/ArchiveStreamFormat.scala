@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.cafienne.storage.archive
+
+import com.fasterxml.jackson.core.io.SerializedString
+import com.fasterxml.jackson.core.{JsonFactory, JsonGenerator, JsonParser}
+import org.cafienne.infrastructure.serialization.Fields
+import org.cafienne.json.{JSONReader, ValueList, ValueMap}
+import org.cafienne.storage.actormodel.ActorMetadata
+import org.cafienne.storage.archival.Archive
+
+import java.io.{IOException, InputStream, OutputStream}
+
+/**
+  * Writes and reads an archive as newline delimited json, with one record per line.
+  * Each archive in the tree is written as a header record holding the metadata and the number of events and children,
+  * followed by one record per event, followed by the archives of the children (depth first).
+  * This avoids rendering (or parsing) the whole archive as a single json string.
+  * The archives can be written node by node, and can be read node by node (or only the structure of the tree),
+  * so that the archive tree need not be in memory as a whole.
+  */
+object ArchiveStreamFormat {
+  private val factory = new JsonFactory()
+
+  /**
+    * Writes archives into the stream, one node at a time. The nodes must be written depth first.
+    */
+  class ArchiveWriter private[ArchiveStreamFormat](generator: JsonGenerator) {
+    def writeNode(metadata: ActorMetadata, events: ValueList, numberOfChildren: Int): Unit = {
+      new ValueMap(Fields.metadata, metadata, Fields.events, Integer.valueOf(events.size), Fields.children, Integer.valueOf(numberOfChildren)).print(generator)
+      events.forEach(_.print(generator))
+    }
+
+    def write(archive: Archive): Unit = {
+      writeNode(archive.metadata, archive.events, archive.children.size)
+      archive.children.foreach(write)
+    }
+  }
+
+  /**
+    * Write the archive to the stream. The stream is closed afterwards.
+    */
+  def write(archive: Archive, out: OutputStream): Unit = write(out)(_.write(archive))
+
+  /**
+    * Write the content to the stream, node by node. The stream is closed afterwards.
+    */
+  def write(out: OutputStream)(content: ArchiveWriter => Unit): Unit = {
+    val generator = factory.createGenerator(out)
+    generator.setRootValueSeparator(new SerializedString("\n"))
+    try {
+      content(new ArchiveWriter(generator))
+      generator.writeRaw('\n')
+    } finally {
+      generator.close()
+    }
+  }
+
+  /**
+    * Read an archive that has been written with this format from the stream. The stream is closed afterwards.
+    */
+  def read(in: InputStream): Archive = withParser(in)(readArchive(_, withEvents = true))
+
+  /**
+    * Read the tree of archives from the stream, without their events. The stream is closed afterwards.
+    */
+  def readStructure(in: InputStream): Archive = withParser(in)(readArchive(_, withEvents = false))
+
+  /**
+    * Read the archives of all nodes (each without its children) from the stream in one pass, in the order in which they were written,
+    * and hand each one to the consumer as soon as its events are read. The stream is closed afterwards.
+    * Fails if the stream is corrupt or ends before all nodes of the tree are read.
+    */
+  def readNodes(in: InputStream)(consumer: Archive => Unit): Unit = withParser(in)(parser => {
+    // The root node is expected, and each header announces the number of children that follow it
+    var expectedNodes = 1L
+    while (expectedNodes > 0) {
+      if (parser.nextToken() == null) {
+        throw new IOException(s"Archive ended while $expectedNodes more nodes were expected")
+      }
+      val header = readHeader(parser)
+      consumer(Archive(ActorMetadata.deserializeMetadata(header), readEvents(parser, header, withEvents = true)))
+      expectedNodes += header.readLong(Fields.children) - 1
+    }
+  })
+
+  private def withParser[T](in: InputStream)(reader: JsonParser => T): T = {
+    val parser = factory.createParser(in)
+    try {
+      reader(parser)
+    } finally {
+      parser.close()
+    }
+  }
+
+  private def readArchive(parser: JsonParser, withEvents: Boolean): Archive = {
+    nextRecord(parser)
+    val header = readHeader(parser)
+    val events = readEvents(parser, header, withEvents)
+    val children = (0L until header.readLong(Fields.children)).map(_ => readArchive(parser, withEvents))
+    Archive(ActorMetadata.deserializeMetadata(header), events, children)
+  }
+
+  private def readHeader(parser: JsonParser): ValueMap = {
+    JSONReader.read(parser, null) match {
+      case header: ValueMap => header
+      case other => throw new IOException(s"Expected an archive header, but found json content of type ${other.getClass.getSimpleName}")
+    }
+  }
+
+  /**
+    * Reads the events that follow the header, or skips them (without building their json) if they are not needed
+    */
+  private def readEvents(parser: JsonParser, header: ValueMap, withEvents: Boolean): ValueList = {
+    val events = new ValueList
+    for (_ <- 0L until header.readLong(Fields.events)) {
+      nextRecord(parser)
+      if (withEvents) {
+        events.add(JSONReader.read(parser, null))
+      } else {
+        parser.skipChildren()
+      }
+    }
+    events
+  }
+
+  private def nextRecord(parser: JsonParser): Unit = {
+    if (parser.nextToken() == null) {
+      throw new IOException("Archive ended before all records were read")
+    }
+  }
+}
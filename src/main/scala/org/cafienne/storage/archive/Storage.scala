@@ -18,13 +18,40 @@
 package org.cafienne.storage.archive
 
 import akka.Done
+import org.cafienne.json.ValueList
 import org.cafienne.storage.actormodel.ActorMetadata
 import org.cafienne.storage.archival.Archive
+import org.cafienne.storage.archive.ArchiveStreamFormat.ArchiveWriter
 
-import scala.concurrent.Future
+import scala.concurrent.{ExecutionContext, Future}
 
 trait Storage {
-  def store(archive: Archive): Future[Done]
+  /**
+    * Store the archive of the root actor. The content writes the archives of the actor and its offspring node by node,
+    * so that the archive tree need not be created as a whole.
+    */
+  def store(metadata: ActorMetadata, content: ArchiveWriter => Unit): Future[Done]
+
+  def store(archive: Archive): Future[Done] = store(archive.metadata, _.write(archive))
 
   def retrieve(metadata: ActorMetadata): Future[Archive]
+
+  /**
+    * Retrieve the tree of archives of the root actor and its offspring, without their events.
+    */
+  def retrieveStructure(metadata: ActorMetadata): Future[Archive] = retrieve(metadata).map(withoutEvents)(ExecutionContext.parasitic)
+
+  protected def withoutEvents(archive: Archive): Archive = Archive(archive.metadata, new ValueList, archive.children.map(withoutEvents))
+
+  /**
+    * Retrieve the archives of the root actor and its offspring (each without children) in one pass, depth first,
+    * handing each node to the consumer as soon as it is read. The future fails if not all nodes can be read.
+    */
+  def retrieveNodes(root: ActorMetadata)(consumer: Archive => Unit): Future[Done] = retrieve(root).map(visitNodes(_, consumer))(ExecutionContext.parasitic)
+
+  protected def visitNodes(archive: Archive, consumer: Archive => Unit): Done = {
+    consumer(archive.copy(children = Seq()))
+    archive.children.foreach(visitNodes(_, consumer))
+    Done
+  }
 }
@@ -20,34 +20,99 @@ package org.cafienne.storage.archive.file
 import akka.Done
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.infrastructure.config.engine.FileStorageConfig
+import org.cafienne.json.{JSONReader, ValueMap}
 import org.cafienne.storage.actormodel.ActorMetadata
 import org.cafienne.storage.archival.Archive
-import org.cafienne.storage.archive.Storage
-import org.cafienne.json.{JSONReader, ValueMap}
+import org.cafienne.storage.archive.ArchiveStreamFormat.ArchiveWriter
+import org.cafienne.storage.archive.{ArchiveStreamFormat, Storage}
+import org.cafienne.util.SegmentedLRUCache
 
-import java.io.{File, FileInputStream, FileWriter}
-import scala.concurrent.Future
+import java.io.{BufferedInputStream, File, InputStream}
+import java.nio.channels.{Channels, FileChannel}
+import java.nio.file.StandardOpenOption.{CREATE, READ, TRUNCATE_EXISTING, WRITE}
+import java.nio.file.{Files, StandardCopyOption}
+import java.time.Duration
+import java.util.zip.{GZIPInputStream, GZIPOutputStream}
+import scala.concurrent.{ExecutionContext, Future}
+import scala.util.Try
 
-class FileBasedStorage(val config: FileStorageConfig) extends Storage with LazyLogging {
-  val directory: File = config.directory
+class FileBasedStorage(val directory: File) extends Storage with LazyLogging {
+  def this(config: FileStorageConfig) = this(config.directory)
 
-  override def store(archive: Archive): Future[Done] = {
-    val file = getFile(archive.metadata)
-    val writer = new FileWriter(file, true)
-    writer.write(archive.toString())
-    writer.close()
+  private val bufferSize = 64 * 1024
+  private val parsedLegacyArchives = new SegmentedLRUCache[String, Archive](16, Duration.ofMinutes(5))
+
+  /**
+    * Writes the archive as gzipped newline delimited json (see [[ArchiveStreamFormat]]).
+    * The content is written into a temporary file that replaces the archive file when it is complete.
+    */
+  override def store(metadata: ActorMetadata, content: ArchiveWriter => Unit): Future[Done] = Future.fromTry(Try {
+    val file = getFile(metadata)
+    val tempFile = new File(file.getAbsolutePath + ".tmp")
+    val out = Channels.newOutputStream(FileChannel.open(tempFile.toPath, CREATE, WRITE, TRUNCATE_EXISTING))
+    try {
+      ArchiveStreamFormat.write(new GZIPOutputStream(out, bufferSize))(content)
+    } catch {
+      case failure: Throwable =>
+        out.close()
+        Files.deleteIfExists(tempFile.toPath)
+        throw failure
+    }
+    Files.move(tempFile.toPath, file.toPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
     logger.whenDebugEnabled(logger.debug(s"Wrote archive to disk: ${file.getName}"))
-    Future.successful(Done)
-  }
+    Done
+  })
+
+  def getFile(metadata: ActorMetadata): File = getFile(metadata, "ndjson.gz")
 
-  def getFile(metadata: ActorMetadata): File = {
-    val fileName = s"${File.separator}archive-${metadata.actorType.toLowerCase()}-${metadata.actorId}.json"
+  /**
+    * File with the archive in the format of previous versions, which is one json object.
+    */
+  def getLegacyFile(metadata: ActorMetadata): File = getFile(metadata, "json")
+
+  private def getFile(metadata: ActorMetadata, extension: String): File = {
+    val fileName = s"${File.separator}archive-${metadata.actorType.toLowerCase()}-${metadata.actorId}.$extension"
     new File(directory.getAbsolutePath + fileName)
   }
 
   override def retrieve(metadata: ActorMetadata): Future[Archive] = {
-    val file = getFile(metadata)
-    val json = JSONReader.parse(new FileInputStream(file)).asInstanceOf[ValueMap]
-    Future.successful(Archive.deserialize(json))
+    if (getFile(metadata).exists()) Future.fromTry(Try(readStream(metadata)(ArchiveStreamFormat.read)))
+    else retrieveLegacy(metadata)
   }
+
+  override def retrieveStructure(metadata: ActorMetadata): Future[Archive] = {
+    if (getFile(metadata).exists()) Future.fromTry(Try(readStream(metadata)(ArchiveStreamFormat.readStructure)))
+    else retrieveLegacy(metadata).map(archive => {
+      // A legacy file is parsed as a whole, so keep it for the retrieval of the nodes that typically follows
+      parsedLegacyArchives.put(metadata.path, archive)
+      withoutEvents(archive)
+    })(ExecutionContext.parasitic)
+  }
+
+  override def retrieveNodes(root: ActorMetadata)(consumer: Archive => Unit): Future[Done] = {
+    if (getFile(root).exists()) Future.fromTry(Try(readStream(root)(ArchiveStreamFormat.readNodes(_)(consumer))).map(_ => Done))
+    else super.retrieveNodes(root)(consumer) // Takes the legacy archive that was parsed for the structure, or reads the legacy file
+  }
+
+  private def readStream[T](metadata: ActorMetadata)(reader: InputStream => T): T = {
+    val in = Channels.newInputStream(FileChannel.open(getFile(metadata).toPath, READ))
+    try {
+      reader(new GZIPInputStream(in, bufferSize))
+    } finally {
+      in.close()
+    }
+  }
+
+  /**
+    * Archives written by previous versions are stored as one json object.
+    * If the archive has just been parsed for its structure, that parsed archive is returned instead.
+    */
+  private def retrieveLegacy(metadata: ActorMetadata): Future[Archive] = Option(parsedLegacyArchives.remove(metadata.path)).fold(Future.fromTry(Try {
+    val inputStream = new BufferedInputStream(Files.newInputStream(getLegacyFile(metadata).toPath), bufferSize)
+    try {
+      Archive.deserialize(JSONReader.parse(inputStream).asInstanceOf[ValueMap])
+    } finally {
+      inputStream.close()
+    }
+  }))(Future.successful)
 }
@@ -17,13 +17,17 @@
 
 package org.cafienne.storage.restore
 
+import akka.actor.NoSerializationVerificationNeeded
+import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.storage.actormodel.{ActorMetadata, OffspringNode}
 import org.cafienne.storage.archival.Archive
 import org.cafienne.storage.restore.command.RestoreArchive
 
-class RestoreNode(val metadata: ActorMetadata, val actor: RootRestorer) extends OffspringNode {
+class RestoreNode(val metadata: ActorMetadata, val actor: RootRestorer) extends OffspringNode with LazyLogging {
   override def createStorageCommand: Any = RestoreArchive(metadata, archive)
   var archive: Archive = _
+  private var awaitingEvents = false
+  private var retrievedEvents = false
 
   private def parentCompleted: Boolean = actor.getParent(this).fold(true)(_.hasCompleted)
 
@@ -32,4 +36,36 @@ class RestoreNode(val metadata: ActorMetadata, val actor: RootRestorer) extends
       startStorageProcess()
     }
   }
+
+  /**
+    * The archive retrieved by the root holds only the structure of the tree.
+    * The events of all nodes are read by the root in a single pass over the storage; this node is restored once its events have arrived.
+    * Note: archives retrieved by previous versions already hold the events of all nodes.
+    */
+  override def startStorageProcess(): Unit = {
+    if (archive != null && archive.events.isEmpty && !retrievedEvents) {
+      awaitingEvents = true
+      actor.retrieveNodeEvents()
+    } else {
+      super.startStorageProcess()
+    }
+  }
+
+  def eventsRetrieved(nodeArchive: Archive): Unit = {
+    archive = nodeArchive
+    retrievedEvents = true
+    if (awaitingEvents) {
+      startStorageProcess()
+    }
+  }
 }
+
+/**
+  * Message to the RootRestorer with the events of a node that have been read from the storage
+  */
+case class NodeArchiveRetrieved(archive: Archive) extends NoSerializationVerificationNeeded
+
+/**
+  * Message to the RootRestorer that the events of the nodes could not be read from the storage
+  */
+case class NodeArchiveRetrievalFailed(throwable: Throwable) extends NoSerializationVerificationNeeded
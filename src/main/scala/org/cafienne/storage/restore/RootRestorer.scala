@@ -28,6 +28,7 @@ import org.cafienne.storage.restore.command.RestoreActorData
 import org.cafienne.storage.restore.event.{ArchiveRetrieved, RestoreRequested, RestoreStarted}
 import org.cafienne.storage.restore.response.ArchiveNotFound
 import org.cafienne.system.CaseSystem
+import org.cafienne.system.health.HealthMonitor
 
 import scala.concurrent.ExecutionContext
 import scala.util.{Failure, Success}
@@ -52,7 +53,8 @@ class RootRestorer(caseSystem: CaseSystem, metadata: ActorMetadata) extends Root
     }
 
     try {
-      storage.retrieve(command.metadata).onComplete {
+      // Only the structure is retrieved here; the events of each node are retrieved when that node is restored
+      storage.retrieveStructure(command.metadata).onComplete {
         case Success(archive) =>
           self ! ArchiveRetrieved(command.metadata, archive)
           senderRef ! RestoreStarted(metadata)
@@ -63,6 +65,44 @@ class RootRestorer(caseSystem: CaseSystem, metadata: ActorMetadata) extends Root
     }
   }
 
+  private var retrievingNodeEvents = false
+
+  /**
+    * Reads the events of all nodes from the storage in a single pass, and hands them to the nodes as they are read.
+    * If the archive cannot be read completely, the restore fails.
+    */
+  def retrieveNodeEvents(): Unit = {
+    if (!retrievingNodeEvents) {
+      retrievingNodeEvents = true
+      implicit val ec: ExecutionContext = caseSystem.system.dispatcher
+      val storage: Storage = Cafienne.config.engine.storage.archive.plugin
+      val restorer = self
+      try {
+        storage.retrieveNodes(metadata)(node => restorer ! NodeArchiveRetrieved(node)).onComplete {
+          case Success(_) => // All nodes have been handed over
+          case Failure(throwable) => restorer ! NodeArchiveRetrievalFailed(throwable)
+        }
+      } catch {
+        case throwable: Throwable => restorer ! NodeArchiveRetrievalFailed(throwable)
+      }
+    }
+  }
+
+  private def nodeEventsRetrieved(nodeArchive: Archive): Unit = {
+    // Nodes that were restored before a restart of the restore need not be restored again
+    nodes.get(nodeArchive.metadata.actorId).filterNot(_.hasCompleted).foreach(_.eventsRetrieved(nodeArchive))
+  }
+
+  /**
+    * The restore cannot continue without the events. The restorer stops, and the storage service is reported as failed.
+    * The restore is retried when the storage service is started again.
+    */
+  private def failRestore(throwable: Throwable): Unit = {
+    logger.error(s"Cannot retrieve the events of the nodes in the archive of $metadata; stopping the restore", throwable)
+    HealthMonitor.storageService.hasFailed(throwable)
+    context.stop(self)
+  }
+
   override def addEvent(event: StorageEvent): Unit = {
     super.addEvent(event)
     event match {
@@ -73,6 +113,8 @@ class RootRestorer(caseSystem: CaseSystem, metadata: ActorMetadata) extends Root
 
   override def receiveIncomingMessage(message: Any): Unit = message match {
     case command: RestoreActorData => initiateRestore(command)
+    case retrieved: NodeArchiveRetrieved => nodeEventsRetrieved(retrieved.archive)
+    case failure: NodeArchiveRetrievalFailed => failRestore(failure.throwable)
     case other => super.receiveIncomingMessage(other)
   }
 
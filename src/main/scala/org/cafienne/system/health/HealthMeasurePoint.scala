@@ -18,14 +18,22 @@
 package org.cafienne.system.health
 
 import com.typesafe.scalalogging.LazyLogging
-import org.cafienne.json.ValueMap
+import org.cafienne.json.{Value, ValueMap}
 
 import java.time.Instant
+import scala.collection.mutable
 
 class HealthMeasurePoint(val key: String, val isCritical: Boolean) extends LazyLogging {
   private var healthy = true
   private var description = key + " is healthy "
   private var changed: Instant = _
+  private val details = mutable.LinkedHashMap[String, () => Value[_]]()
+
+  /**
+    * Add information that is rendered along with the status of the measure point, e.g. progress metrics.
+    * The information is obtained each time the health is reported.
+    */
+  def addDetail(name: String, detail: () => Value[_]): Unit = details.synchronized(details.put(name, detail))
 
   def unhealthy(): Boolean = !healthy
 
@@ -63,6 +71,7 @@ class HealthMeasurePoint(val key: String, val isCritical: Boolean) extends LazyL
     if (changed != null) {
       json.plus("changed-at", changed)
     }
+    details.synchronized(details.foreach { case (name, detail) => json.put(name, detail()) })
     json
   }
 }
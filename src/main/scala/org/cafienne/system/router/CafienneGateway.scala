@@ -19,24 +19,50 @@ package org.cafienne.system.router
 
 import akka.actor.{Actor, ActorRef, ActorSystem, Props}
 import akka.util.Timeout
+import org.cafienne.actormodel.ModelActor
+import org.cafienne.actormodel.command.{ModelCommand, TerminateModelActor}
 import org.cafienne.cmmn.actorapi.command.CaseCommand
+import org.cafienne.cmmn.instance.Case
+import org.cafienne.consentgroup.ConsentGroupActor
 import org.cafienne.consentgroup.actorapi.command.ConsentGroupCommand
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.processtask.actorapi.command.ProcessCommand
+import org.cafienne.processtask.instance.ProcessTaskActor
 import org.cafienne.system.CaseSystem
+import org.cafienne.tenant.TenantActor
 import org.cafienne.tenant.actorapi.command.TenantCommand
 
 import scala.concurrent.Future
 
 class CafienneGateway(caseSystem: CaseSystem) {
   private val system: ActorSystem = caseSystem.system
+  private val routing = Cafienne.config.actor.routing
   private val terminationRequests = collection.concurrent.TrieMap[String, ActorRef]()
   private val actors = collection.concurrent.TrieMap[String, ActorRef]()
-  private val caseService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "cases")
-  private val processTaskService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "process-tasks")
-  private val tenantService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "tenants")
-  private val consentGroupService = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "consent-groups")
-  private val defaultRouterService: ActorRef = system.actorOf(Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests), "default-router")
+  private val caseService = createRouters(classOf[Case], "cases")
+  private val processTaskService = createRouters(classOf[ProcessTaskActor], "process-tasks")
+  private val tenantService = createRouters(classOf[TenantActor], "tenants")
+  private val consentGroupService = createRouters(classOf[ConsentGroupActor], "consent-groups")
+  // Other types of commands are always handled locally, and by a single router
+  private val defaultRouterService: ActorRef = createLocalRouter("default-router", "default-router")
+  // Termination requests in sharded mode must not start the entity, so they do not go through the shard region
+  private lazy val terminationRouter: ActorRef = system.actorOf(Props.create(classOf[ShardedTerminationRouter]), "termination-router")
+
+  /**
+    * Returns either the shard region or the local router partitions for the type of ModelActor
+    */
+  private def createRouters(actorClass: Class[_ <: ModelActor], name: String): Seq[ActorRef] = {
+    if (routing.sharded) {
+      Seq(ShardedRouter.startRegion(caseSystem, actorClass, routing.numberOfShards))
+    } else {
+      // The first partition keeps the original name, so that existing deployment configurations still apply
+      (0 until routing.partitions).map(partition => createLocalRouter(if (partition == 0) name else s"$name-$partition", name))
+    }
+  }
+
+  private def createLocalRouter(name: String, deployedAs: String): ActorRef = {
+    system.actorOf(LocalRouter.props(system, caseSystem, actors, terminationRequests, name, deployedAs), name)
+  }
 
   def request(message: Any): Future[Any] = {
     import akka.pattern.ask
@@ -51,11 +77,33 @@ class CafienneGateway(caseSystem: CaseSystem) {
 
   private def getRouter(message: Any): ActorRef = {
     message match {
+      case command: ModelCommand if !routing.sharded && actors.contains(command.actorId) =>
+        // Fast path: the actor is already in memory, so we can send the message directly to it instead of through the router
+        actors.getOrElse(command.actorId, selectPartition(command.actorId, getRouters(command)))
+      case command: CaseCommand => selectPartition(command.actorId, caseService)
+      case command: ProcessCommand => selectPartition(command.actorId, processTaskService)
+      case command: TenantCommand => selectPartition(command.actorId, tenantService)
+      case command: ConsentGroupCommand => selectPartition(command.actorId, consentGroupService)
+      case _: TerminateModelActor if routing.sharded => terminationRouter
+      case _ => defaultRouterService
+    }
+  }
+
+  private def getRouters(command: ModelCommand): Seq[ActorRef] = {
+    command match {
       case _: CaseCommand => caseService
       case _: ProcessCommand => processTaskService
       case _: TenantCommand => tenantService
       case _: ConsentGroupCommand => consentGroupService
-      case _ => defaultRouterService
+      case _ => Seq(defaultRouterService)
     }
   }
+
+  /**
+    * Select the router for the actor id; the same actor id always goes to the same router.
+    */
+  private def selectPartition(actorId: String, routers: Seq[ActorRef]): ActorRef = {
+    if (routers.size == 1) routers.head
+    else routers(math.abs(actorId.hashCode % routers.size))
+  }
 }
@@ -17,10 +17,16 @@
 
 package org.cafienne.system.router
 
-import akka.actor.{Actor, Terminated}
+import akka.actor.{Actor, Props, Terminated}
+import akka.util.ByteString
 import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.actormodel.ModelActor
 import org.cafienne.actormodel.command.{ModelCommand, TerminateModelActor}
 import org.cafienne.infrastructure.serialization.DeserializationFailure
+import org.cafienne.processtask.instance.ProcessTaskActor
+import org.cafienne.system.CaseSystem
+
+import java.net.{URLDecoder, URLEncoder}
 
 /**
   * Base class for routing model commands into the case system
@@ -51,3 +57,35 @@ abstract class CaseMessageRouter extends Actor with LazyLogging {
     logger.debug("Message:\n", value)
   }
 }
+
+object CaseMessageRouter {
+  val PROCESS_TASK_DISPATCHER = "akka.actor.processtask-dispatcher"
+
+  /**
+    * Props to create a ModelActor of the given class, both in local and in sharded mode
+    */
+  def modelActorProps(caseSystem: CaseSystem, actorClass: Class[_ <: ModelActor]): Props = {
+    withDispatcher(Props.create(actorClass, caseSystem), actorClass)
+  }
+
+  /**
+    * Name of the ModelActor with the given actor id. Akka Cluster Sharding URL-encodes the entity id into the name of the entity,
+    * and the LocalRouter does the same, so that actor ids that are not valid actor names can be used in both modes.
+    */
+  def actorName(actorId: String): String = URLEncoder.encode(actorId, ByteString.UTF_8)
+
+  /**
+    * Returns the actor id of a ModelActor from the name of the actor, both in local and in sharded mode.
+    * The actor id is also the persistence id, so it must not depend on the encoding of the actor name.
+    */
+  def actorId(actorName: String): String = URLDecoder.decode(actorName, ByteString.UTF_8)
+
+  /**
+    * Process tasks run on their own dispatcher. This is set on the Props rather than in the deployment configuration,
+    * because the router partitions have a different name for each partition, and deployment paths do not support such wildcards.
+    */
+  def withDispatcher(props: Props, actorClass: Class[_]): Props = {
+    if (actorClass == classOf[ProcessTaskActor]) props.withDispatcher(PROCESS_TASK_DISPATCHER)
+    else props
+  }
+}
@@ -17,7 +17,7 @@
 
 package org.cafienne.system.router
 
-import akka.actor.{ActorRef, Props, Terminated}
+import akka.actor.{ActorRef, ActorSystem, Props, Terminated}
 import org.cafienne.actormodel.command.{ModelCommand, TerminateModelActor}
 import org.cafienne.actormodel.response.ActorTerminated
 import org.cafienne.system.CaseSystem
@@ -47,7 +47,7 @@ class LocalRouter(caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef],
     */
   private def createActorRef(m: ModelCommand): ActorRef = {
     // Note: we create the ModelActor as a child to our context
-    val ref = context.actorOf(Props.create(m.actorClass, caseSystem), m.actorId)
+    val ref = context.actorOf(CaseMessageRouter.modelActorProps(caseSystem, m.actorClass), CaseMessageRouter.actorName(m.actorId))
     // Also start watching the lifecycle of the model actor
     context.watch(ref)
     ref
@@ -72,7 +72,7 @@ class LocalRouter(caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef],
     * @return
     */
   override def removeActorRef(t: Terminated): Unit = {
-    val actorId = t.actor.path.name
+    val actorId = CaseMessageRouter.actorId(t.actor.path.name)
     logger.whenDebugEnabled(logger.debug("ModelActor[" + actorId + "] has been terminated. Removing routing reference"))
     if (actors.remove(actorId).isEmpty) {
       logger.warn("Received a Termination message for actor " + actorId + ", but it was not registered in the LocalRoutingService. Termination message is ignored")
@@ -80,3 +80,16 @@ class LocalRouter(caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef],
     terminationRequests.remove(actorId).foreach(requester => requester ! ActorTerminated(actorId))
   }
 }
+
+object LocalRouter {
+  /**
+    * Props for a router partition. Additional partitions get a name with the partition number as suffix;
+    * they take the mailbox from the deployment configuration of the first partition, since deployment paths do not support such wildcards.
+    */
+  def props(system: ActorSystem, caseSystem: CaseSystem, actors: mutable.Map[String, ActorRef], terminationRequests: mutable.Map[String, ActorRef], name: String, deployedAs: String): Props = {
+    val props = Props.create(classOf[LocalRouter], caseSystem, actors, terminationRequests)
+    val mailbox = s"""akka.actor.deployment."/$deployedAs".mailbox"""
+    if (name != deployedAs && system.settings.config.hasPath(mailbox)) props.withMailbox(system.settings.config.getString(mailbox))
+    else props
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.system.router
+
+import akka.actor.{Actor, ActorIdentity, ActorPath, ActorRef, Identify, RootActorPath}
+import akka.cluster.Cluster
+import akka.cluster.sharding.{ClusterSharding, ClusterShardingSettings, ShardRegion}
+import akka.pattern.ask
+import akka.util.{ByteString, Timeout}
+import com.typesafe.scalalogging.LazyLogging
+import org.cafienne.actormodel.ModelActor
+import org.cafienne.actormodel.command.{ModelCommand, TerminateModelActor}
+import org.cafienne.actormodel.response.ActorTerminated
+import org.cafienne.consentgroup.ConsentGroupActor
+import org.cafienne.infrastructure.Cafienne
+import org.cafienne.processtask.instance.ProcessTaskActor
+import org.cafienne.system.CaseSystem
+import org.cafienne.tenant.TenantActor
+
+import java.net.URLEncoder
+import scala.concurrent.Future
+
+/**
+  * Router for akka messages sent in a clustered CaseSystem.
+  * Each type of ModelActor gets a ShardRegion, which distributes the actors across the nodes of the cluster, based on their actor id.
+  * The cluster sharding takes care of rebalancing shards when nodes join or leave the cluster.
+  * Passivation is done by the ModelActor itself, after it has been idle for the configured idle-period.
+  */
+object ShardedRouter extends LazyLogging {
+  /**
+    * Starts the ShardRegion for the type of ModelActor on this node, and returns the region to send the messages to.
+    */
+  def startRegion(caseSystem: CaseSystem, actorClass: Class[_ <: ModelActor], numberOfShards: Int): ActorRef = {
+    val system = caseSystem.system
+    val typeName = actorClass.getSimpleName
+    logger.info(s"Starting case system in sharded mode, opening shard region for $typeName with $numberOfShards shards")
+
+    // Note: termination requests do not go through the shard region, as that would start the entity; see ShardedTerminationRouter
+    val extractEntityId: ShardRegion.ExtractEntityId = {
+      case command: ModelCommand => (command.actorId, command)
+    }
+
+    val extractShardId: ShardRegion.ExtractShardId = {
+      case command: ModelCommand => shardId(command.actorId, numberOfShards)
+      case ShardRegion.StartEntity(id) => shardId(id, numberOfShards)
+    }
+
+    ClusterSharding(system).start(
+      typeName = typeName,
+      entityProps = CaseMessageRouter.modelActorProps(caseSystem, actorClass),
+      // ModelActors passivate themselves after the cafienne.actor.idle-period
+      settings = ClusterShardingSettings(system).withNoPassivationStrategy(),
+      extractEntityId = extractEntityId,
+      extractShardId = extractShardId)
+  }
+
+  private[router] def shardId(actorId: String, numberOfShards: Int): String = {
+    (math.abs(actorId.hashCode % numberOfShards)).toString
+  }
+
+  /**
+    * Returns the name of the shard region for the actor type in a termination request; defaults to Case
+    */
+  private[router] def typeName(actorType: String): String = {
+    Seq(classOf[ProcessTaskActor], classOf[TenantActor], classOf[ConsentGroupActor]).map(_.getSimpleName).find(_ == actorType).getOrElse("Case")
+  }
+
+  /**
+    * Path of the entity on the given cluster node, as created by Akka Cluster Sharding
+    */
+  private[router] def entityPath(root: RootActorPath, typeName: String, actorId: String, numberOfShards: Int): ActorPath = {
+    def encode(name: String): String = URLEncoder.encode(name, ByteString.UTF_8)
+    root / "system" / "sharding" / encode(typeName) / encode(shardId(actorId, numberOfShards)) / encode(actorId)
+  }
+}
+
+/**
+  * Handles termination requests in sharded mode. Sending the request through the shard region would start the entity
+  * (and recover it) only to stop it again. Instead, the entity is looked up on each node of the cluster;
+  * if it is running, the request is sent to it directly, so that it passivates through its shard.
+  * Otherwise the requester is informed immediately that the actor is not in memory.
+  */
+class ShardedTerminationRouter extends Actor with LazyLogging {
+  import context.dispatcher
+  private implicit val timeout: Timeout = Cafienne.config.actor.askTimout
+  private val numberOfShards = Cafienne.config.actor.routing.numberOfShards
+
+  override def receive: Receive = {
+    case kill: TerminateModelActor =>
+      val requester = sender()
+      val typeName = ShardedRouter.typeName(kill.actorType)
+      val lookups = Cluster(context.system).state.members.toSeq.map(member => {
+        val path = ShardedRouter.entityPath(RootActorPath(member.address), typeName, kill.actorId, numberOfShards)
+        context.actorSelection(path).ask(Identify(kill.actorId)).mapTo[ActorIdentity].map(_.ref).recover { case _ => None }
+      })
+      Future.sequence(lookups).map(_.flatten.headOption).foreach {
+        case Some(entity) =>
+          logger.info(s"Sending termination request to running actor ${kill.actorId}")
+          entity.tell(kill, requester)
+        case None => requester ! ActorTerminated(kill.actorId)
+      }
+    case other => logger.warn(s"ShardedTerminationRouter received an unknown message of type ${other.getClass.getName}")
+  }
+}
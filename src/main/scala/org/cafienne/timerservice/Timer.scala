@@ -27,3 +27,10 @@ case class Timer(caseInstanceId: String, timerId: String, moment: Instant, userI
   override def toString: String = s"[$timerId - $moment]"
 }
 
+object Timer {
+  /**
+    * Timers are ordered on their moment, and on their id if they have the same moment.
+    * This is the order in which timers are read page by page from storage.
+    */
+  implicit val ordering: Ordering[Timer] = Ordering.by[Timer, (Long, Int, String)](timer => (timer.moment.getEpochSecond, timer.moment.getNano, timer.timerId))
+}
@@ -17,40 +17,44 @@
 
 package org.cafienne.timerservice
 
-import akka.actor.{Cancellable, Scheduler}
+import akka.Done
+import akka.actor.Scheduler
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.actormodel.response.{CommandFailure, ModelResponse}
 import org.cafienne.cmmn.actorapi.command.plan.eventlistener.RaiseEvent
 
-import java.util.concurrent.TimeUnit
-import scala.concurrent.ExecutionContext.Implicits.global
-import scala.concurrent.duration.{Duration, FiniteDuration}
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future, Promise}
 
-class TimerJob(val timerService: TimerService, val timer: Timer, val scheduler: Scheduler) extends Runnable with LazyLogging {
+class TimerJob(val timerService: TimerService, val timer: Timer) extends LazyLogging {
   val command = new RaiseEvent(timer.user, timer.caseInstanceId, timer.timerId)
-  val millis: Long = timer.moment.toEpochMilli
-  val delay: Long = millis - System.currentTimeMillis
+  private val outcome = Promise[Done]()
 
-  val duration: FiniteDuration = Duration.create(delay, TimeUnit.MILLISECONDS)
-  logger.whenDebugEnabled(logger.debug(s"Scheduling to run timer request ${timer.timerId} in ${duration.length / 1000}.${duration.length % 1000} seconds from now (at ${timer.moment})"))
-  val schedule: Cancellable = scheduler.scheduleOnce(duration, this)
-
-  def run(): Unit = {
+  /**
+    * Raises the timer in the case. The future completes when the case has responded,
+    * or when the timeout has passed without a response.
+    */
+  def run(scheduler: Scheduler, timeout: FiniteDuration)(implicit ec: ExecutionContext): Future[Done] = {
     logger.whenDebugEnabled(logger.debug(s"Raising timer in case ${timer.caseInstanceId} for timer ${timer.timerId} on behalf of user ${timer.userId}"))
+    val timeoutTask = scheduler.scheduleOnce(timeout) {
+      if (outcome.trySuccess(Done)) {
+        logger.warn(s"Did not receive a response from case ${timer.caseInstanceId} on timer $timer within $timeout")
+      }
+    }
+    outcome.future.onComplete(_ => timeoutTask.cancel())
     timerService.askModel(command, handleFailingCaseInvocation, handleCaseInvocation)
-  }
-
-  def cancel(): Boolean = {
-    schedule.cancel()
+    outcome.future
   }
 
   def handleFailingCaseInvocation(failure: CommandFailure): Unit = {
     // TODO: we can also update the timer state in the storage???
     logger.warn(s"Could not trigger timer $timer in case ${timer.caseInstanceId}:" + failure.toJson)
+    outcome.trySuccess(Done)
   }
 
   def handleCaseInvocation(response: ModelResponse): Unit = {
     // TODO: we can also delete the timer here, or update a state for that timer in the store
     logger.whenDebugEnabled(logger.debug(s"Successfully invoked timer $timer in case ${timer.caseInstanceId}"))
+    outcome.trySuccess(Done)
   }
 }
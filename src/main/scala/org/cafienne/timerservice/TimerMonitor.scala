@@ -23,6 +23,7 @@ import akka.persistence.query.Offset
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.cmmn.actorapi.event.plan.eventlistener.TimerSet
 import org.cafienne.infrastructure.Cafienne
+import org.cafienne.infrastructure.config.engine.TimerServiceConfig
 import org.cafienne.system.health.HealthMonitor
 
 import scala.collection.mutable
@@ -30,10 +31,15 @@ import scala.concurrent.duration.FiniteDuration
 import scala.concurrent.{ExecutionContext, Future}
 
 class TimerMonitor(val timerService: TimerService) extends LazyLogging {
-  private val activeTimers: mutable.Map[String, TimerJob] = mutable.Map()
+  private val config: TimerServiceConfig = Cafienne.config.engine.timerService
   implicit val dispatcher: ExecutionContext = timerService.caseSystem.system.dispatcher
   val scheduler: Scheduler = timerService.caseSystem.system.scheduler
+  val wheel = new TimingWheel(config.tick.toMillis, config.wheelSize)
   val reader = new TimerStorageReader(this)
+  private val askTimeout: FiniteDuration = Cafienne.config.actor.askTimout.duration
+  // Timers that have expired and wait for one of the max-parallelism slots to be raised
+  private val expired = mutable.Queue[Timer]()
+  private var running: Int = 0
 
   def start(): Unit = {
     // Start off with immediately getting first set of timers from storage ...
@@ -41,12 +47,46 @@ class TimerMonitor(val timerService: TimerService) extends LazyLogging {
     reader.loadNextWindow
 
     // ... and then schedule the reader to repeat itself at the configured interval
-    val interval: FiniteDuration = Cafienne.config.engine.timerService.interval
+    val interval: FiniteDuration = config.interval
     scheduler.scheduleAtFixedRate(interval, interval)(reader)
+
+    // Move the timing wheel ahead every tick, and raise the timers that have expired
+    scheduler.scheduleWithFixedDelay(config.tick, config.tick)(() => advance())
+  }
+
+  private def advance(): Unit = {
+    try {
+      val timers = wheel.advance(System.currentTimeMillis())
+      if (timers.nonEmpty) {
+        expired.synchronized(expired.addAll(timers))
+        raiseExpiredTimers()
+      }
+    } catch {
+      // Catch everything, as an exception would stop the scheduler from moving the wheel ahead
+      case t: Throwable => logger.error("Failure while moving the timing wheel ahead", t)
+    }
+  }
+
+  /**
+    * Raises expired timers as long as less than max-parallelism timers await the response of their case
+    */
+  private def raiseExpiredTimers(): Unit = {
+    val jobs = expired.synchronized {
+      val jobs = mutable.ListBuffer[TimerJob]()
+      while (running < config.maxParallelism && expired.nonEmpty) {
+        jobs += new TimerJob(timerService, expired.dequeue())
+        running += 1
+      }
+      jobs
+    }
+    jobs.foreach(job => job.run(scheduler, askTimeout).onComplete(_ => {
+      expired.synchronized(running -= 1)
+      raiseExpiredTimers()
+    }))
   }
 
   def removeTimer(timerId: String, offset: Option[Offset]): Future[Done] = {
-    activeTimers.remove(timerId).map(schedule => schedule.cancel())
+    wheel.remove(timerId)
     runStorage(timerService.storage.removeTimer(timerId, offset))
   }
 
@@ -72,6 +112,8 @@ class TimerMonitor(val timerService: TimerService) extends LazyLogging {
   }
 
   def scheduleTimer(timer: Timer): Unit = {
-    activeTimers.getOrElseUpdate(timer.timerId, new TimerJob(timerService, timer, scheduler))
+    if (wheel.add(timer)) {
+      logger.whenDebugEnabled(logger.debug(s"Scheduling timer ${timer.timerId} to be raised at ${timer.moment}"))
+    }
   }
 }
@@ -17,6 +17,8 @@
 
 package org.cafienne.timerservice
 
+import akka.Done
+import akka.actor.ActorSystem
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.infrastructure.Cafienne
 import org.cafienne.system.health.HealthMonitor
@@ -27,30 +29,45 @@ import scala.concurrent.duration.FiniteDuration
 import scala.concurrent.{ExecutionContext, Future}
 
 class TimerStorageReader(schedule: TimerMonitor) extends Runnable with LazyLogging {
-  implicit val dispatcher: ExecutionContext = schedule.timerService.caseSystem.system.dispatcher
+  implicit val system: ActorSystem = schedule.timerService.caseSystem.system
+  implicit val dispatcher: ExecutionContext = system.dispatcher
   private val storage: TimerStore = schedule.timerService.storage
   private val window: FiniteDuration = Cafienne.config.engine.timerService.window
-  private var activeWindow: Long = -1
+  private val pageSize: Int = Cafienne.config.engine.timerService.pageSize
+  @volatile private var activeWindow: Long = -1
 
   override def run(): Unit = loadNextWindow
 
-  def loadNextWindow: Future[Unit] = {
+  /**
+    * Streams the timers of the next window page by page from storage into the timing wheel,
+    * so that a large number of timers need not be held in memory at once before they are scheduled.
+    */
+  def loadNextWindow: Future[Done] = {
     val nextWindow = Instant.now().plusMillis(window.toMillis)
     activeWindow = nextWindow.toEpochMilli
     logger.whenDebugEnabled(logger.debug(s"Reading timers from TimerStore for next $window (setting active window to $nextWindow)"))
 
-    val timers = {
-      try {
-        val result = storage.getTimers(nextWindow)
-        HealthMonitor.timerService.isOK()
-        result
-      } catch {
-        case t: Throwable =>
-          HealthMonitor.timerService.hasFailed(t)
-          Future.successful(Seq())
-      }
+    try {
+      storage.streamTimers(nextWindow, pageSize)
+        .runFold(0)((count, timer) => {
+          schedule.scheduleTimer(timer)
+          count + 1
+        })
+        .map(count => {
+          HealthMonitor.timerService.isOK()
+          logger.whenDebugEnabled(logger.debug(s"Loaded $count timers from TimerStore for the window until $nextWindow"))
+          Done
+        })
+        .recover {
+          case t: Throwable =>
+            HealthMonitor.timerService.hasFailed(t)
+            Done
+        }
+    } catch {
+      case t: Throwable =>
+        HealthMonitor.timerService.hasFailed(t)
+        Future.successful(Done)
     }
-    timers.map(_.foreach(schedule.scheduleTimer))
   }
 
   def fitsActiveWindow(timer: Timer): Boolean = {
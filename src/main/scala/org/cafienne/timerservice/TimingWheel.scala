@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.timerservice
+
+import java.util
+import java.util.concurrent.{ConcurrentHashMap, ConcurrentLinkedQueue}
+import scala.collection.mutable.ListBuffer
+
+/**
+  * Hashed timing wheel that holds the timers of the active window in memory.
+  * The wheel has a fixed number of buckets, each covering one tick. A timer is put in the bucket of the tick
+  * in which it must be raised; timers that lie more than one revolution ahead stay in that bucket
+  * until the wheel passes it in the right revolution.
+  *
+  * Timers can be added and removed from any thread. The timer ids are kept in a concurrent map, and the timers themselves
+  * are handed over through concurrent queues to the thread that advances the wheel, which is the only one touching the buckets.
+  * Timers that have been raised remain known by their id until they are removed, so that loading the next window
+  * from storage does not raise them again.
+  */
+class TimingWheel(val tickMillis: Long, val wheelSize: Int, startMillis: Long = System.currentTimeMillis()) {
+  private class Entry(val timer: Timer) {
+    val tick: Long = timer.moment.toEpochMilli / tickMillis
+    // Index of the bucket holding the entry, -1 if it is not (or no longer) in a bucket
+    var bucket: Int = -1
+  }
+
+  private val entries = new ConcurrentHashMap[String, Entry]()
+  private val buckets: Array[util.HashSet[Entry]] = Array.fill(wheelSize)(new util.HashSet[Entry]())
+  private val added = new ConcurrentLinkedQueue[Entry]()
+  private val removed = new ConcurrentLinkedQueue[Entry]()
+  // The first tick that has not yet been passed by the wheel
+  private var currentTick: Long = startMillis / tickMillis
+
+  /**
+    * Adds the timer to the wheel, unless a timer with the same id is already present.
+    * Returns true if the timer has been added.
+    */
+  def add(timer: Timer): Boolean = {
+    val entry = new Entry(timer)
+    if (entries.putIfAbsent(timer.timerId, entry) == null) {
+      added.add(entry)
+      true
+    } else {
+      false
+    }
+  }
+
+  /**
+    * Removes the timer from the wheel. Returns true if the timer was present.
+    */
+  def remove(timerId: String): Boolean = {
+    val entry = entries.remove(timerId)
+    if (entry != null) {
+      removed.add(entry)
+      true
+    } else {
+      false
+    }
+  }
+
+  def contains(timerId: String): Boolean = entries.containsKey(timerId)
+
+  /**
+    * Number of timers known to the wheel, including those that have been raised but not yet removed
+    */
+  def size: Int = entries.size
+
+  /**
+    * Moves the wheel ahead until the given moment, and returns the timers that have expired in the ticks that passed.
+    * A timer expires when the tick holding its moment has passed, hence at most one tick late.
+    */
+  def advance(nowMillis: Long): Seq[Timer] = synchronized {
+    drainRemoved()
+    drainAdded()
+    val expired = ListBuffer[Timer]()
+    val nowTick = nowMillis / tickMillis
+    while (currentTick < nowTick) {
+      val iterator = buckets(bucketOf(currentTick)).iterator()
+      while (iterator.hasNext) {
+        val entry = iterator.next()
+        if (entry.tick <= currentTick) {
+          iterator.remove()
+          entry.bucket = -1
+          // Skip timers that have been removed after the last drain
+          if (entries.get(entry.timer.timerId) eq entry) {
+            expired += entry.timer
+          }
+        }
+      }
+      currentTick += 1
+    }
+    expired.toSeq
+  }
+
+  private def bucketOf(tick: Long): Int = (tick % wheelSize).toInt
+
+  private def drainAdded(): Unit = {
+    var entry = added.poll()
+    while (entry != null) {
+      // Skip timers that have been removed again in the meantime
+      if (entries.get(entry.timer.timerId) eq entry) {
+        // Timers whose moment lies in a tick that has already passed are put in the current tick
+        entry.bucket = bucketOf(Math.max(entry.tick, currentTick))
+        buckets(entry.bucket).add(entry)
+      }
+      entry = added.poll()
+    }
+  }
+
+  private def drainRemoved(): Unit = {
+    var entry = removed.poll()
+    while (entry != null) {
+      if (entry.bucket >= 0) {
+        buckets(entry.bucket).remove(entry)
+        entry.bucket = -1
+      }
+      entry = removed.poll()
+    }
+  }
+}
@@ -17,8 +17,9 @@
 
 package org.cafienne.timerservice.persistence
 
-import akka.Done
 import akka.persistence.query.Offset
+import akka.stream.scaladsl.Source
+import akka.{Done, NotUsed}
 import com.typesafe.scalalogging.LazyLogging
 import org.cafienne.timerservice.Timer
 
@@ -39,6 +40,30 @@ trait TimerStore extends LazyLogging {
 
   def getTimers(window: Instant): Future[Seq[Timer]]
 
+  /**
+    * Returns pageSize timers of the window, ordered by Timer.ordering, that come after the given timer
+    * (or from the start if no timer is given). Only the last page holds fewer timers; a store may return more if that makes paging simpler.
+    * The default implementation reads all timers of the window and then takes the page out of it;
+    * stores should override it with a query that reads only the page.
+    */
+  def getTimers(window: Instant, after: Option[Timer], pageSize: Int): Future[Seq[Timer]] = {
+    getTimers(window).map(timers => timers.filter(timer => after.forall(Timer.ordering.gt(timer, _))).sorted.take(pageSize))
+  }
+
+  /**
+    * Streams the timers of the window, reading them page by page.
+    */
+  def streamTimers(window: Instant, pageSize: Int): Source[Timer, NotUsed] = {
+    // The state holds the last timer of the previous page, or None if the previous page was the last one
+    Source.unfoldAsync[Option[Option[Timer]], Seq[Timer]](Some(None)) {
+      case None => Future.successful(None)
+      case Some(after) => getTimers(window, after, pageSize).map(page => {
+        val next = if (page.size < pageSize) None else Some(page.lastOption)
+        Some((next, page))
+      })
+    }.mapConcat(identity)
+  }
+
   def storeTimer(job: Timer, offset: Option[Offset]): Future[Done]
 
   def removeTimer(timerId: String, offset: Option[Offset]): Future[Done]
@@ -17,10 +17,11 @@
 
 package org.cafienne.timerservice.persistence.cassandra
 
-import akka.Done
 import akka.persistence.cassandra.query.scaladsl.CassandraReadJournal
 import akka.persistence.query.{Offset, TimeBasedUUID}
+import akka.stream.scaladsl.Source
 import akka.util.Timeout
+import akka.{Done, NotUsed}
 import com.datastax.oss.driver.api.core.`type`.DataTypes
 import com.datastax.oss.driver.api.core.cql._
 import com.datastax.oss.driver.api.querybuilder.QueryBuilder.literal
@@ -52,25 +53,39 @@ class CassandraTimerStore(readJournal: CassandraReadJournal) extends TimerStore
 
   override def getTimers(window: Instant): Future[Seq[Timer]] = {
     logger.whenDebugEnabled(logger.debug(s"Reading existing timers from Cassandra database for window $window"))
-    val select = QueryBuilder.selectFrom(keyspace, timerTable).all().whereColumn("moment").isLessThan(literal(window)).allowFiltering().build()
-    readJournal.session.selectAll(select).map(rows => {
+    readJournal.session.selectAll(selectTimers(window)).map(rows => {
       logger.whenDebugEnabled(logger.debug("Found " + rows.length + " timers"))
-      rows.map(row => {
-        val timerId = row.getString("timerid")
-        val caseInstanceId = row.getString("caseinstanceid")
-        val tenant = row.getString("tenant")
-        val userId = row.getString("user")
-        val moment = row.getInstant("moment")
-        if (timerId == null || caseInstanceId == null || tenant == null || userId == null || moment == null) {
-          logger.error(s"Cassandra database table contains an invalid record ($timerId, $caseInstanceId, $tenant, $userId, $moment). Record will be ignored")
-          null
-        } else {
-          Timer(caseInstanceId, timerId, moment, userId)
-        }
-      }).filter(_ != null) // Filter out the records that have missing column information
+      rows.flatMap(toTimer) // Filter out the records that have missing column information
     })
   }
 
+  /**
+    * Cassandra cannot order the timers on their moment, so instead of reading pages with separate queries,
+    * the rows are streamed using the paging of the driver.
+    */
+  override def streamTimers(window: Instant, pageSize: Int): Source[Timer, NotUsed] = {
+    logger.whenDebugEnabled(logger.debug(s"Streaming existing timers from Cassandra database for window $window in pages of $pageSize"))
+    readJournal.session.select(selectTimers(window).setPageSize(pageSize)).mapConcat(row => toTimer(row).toList)
+  }
+
+  private def selectTimers(window: Instant): SimpleStatement = {
+    QueryBuilder.selectFrom(keyspace, timerTable).all().whereColumn("moment").isLessThan(literal(window)).allowFiltering().build()
+  }
+
+  private def toTimer(row: Row): Option[Timer] = {
+    val timerId = row.getString("timerid")
+    val caseInstanceId = row.getString("caseinstanceid")
+    val tenant = row.getString("tenant")
+    val userId = row.getString("user")
+    val moment = row.getInstant("moment")
+    if (timerId == null || caseInstanceId == null || tenant == null || userId == null || moment == null) {
+      logger.error(s"Cassandra database table contains an invalid record ($timerId, $caseInstanceId, $tenant, $userId, $moment). Record will be ignored")
+      None
+    } else {
+      Some(Timer(caseInstanceId, timerId, moment, userId))
+    }
+  }
+
   override def storeTimer(job: Timer, offset: Option[Offset]): Future[Done] = {
     logger.whenDebugEnabled(logger.debug("Storing timer into Cassandra timer table " + job))
     val batch = BatchStatement.builder(BatchType.LOGGED).addStatement(getInsertStatement(job))
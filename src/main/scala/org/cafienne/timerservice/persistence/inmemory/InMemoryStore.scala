@@ -24,11 +24,15 @@ import org.cafienne.timerservice.Timer
 import org.cafienne.timerservice.persistence.TimerStore
 
 import java.time.Instant
-import scala.collection.mutable
+import java.util.concurrent.ConcurrentSkipListSet
+import scala.collection.concurrent.TrieMap
 import scala.concurrent.Future
+import scala.jdk.CollectionConverters._
 
 class InMemoryStore extends TimerStore with LazyLogging {
-  val timers = new mutable.HashMap[String, Timer]()
+  val timers = new TrieMap[String, Timer]()
+  // Timers sorted on their moment, to read the timers of a window page by page
+  private val index = new ConcurrentSkipListSet[Timer](Timer.ordering)
 
   override def getOffset: Future[Offset] = Future.successful(Offset.noOffset)
 
@@ -36,19 +40,31 @@ class InMemoryStore extends TimerStore with LazyLogging {
     Future.successful(timers.values.filter(_.moment.toEpochMilli <= window.toEpochMilli).toSeq)
   }
 
+  override def getTimers(window: Instant, after: Option[Timer], pageSize: Int): Future[Seq[Timer]] = {
+    val remaining = after.fold(index.asScala)(timer => index.tailSet(timer, false).asScala)
+    Future.successful(remaining.iterator.takeWhile(_.moment.toEpochMilli <= window.toEpochMilli).take(pageSize).toSeq)
+  }
+
   override def storeTimer(job: Timer, offset: Option[Offset]): Future[Done] = {
-    timers.put(job.timerId, job)
+    put(job)
     logger.debug(s"Stored timer $job")
     Future.successful(Done)
   }
 
   override def removeTimer(timerId: String, offset: Option[Offset]): Future[Done] = {
-    timers.remove(timerId)
+    synchronized {
+      timers.remove(timerId).foreach(index.remove)
+    }
     logger.debug(s"Removed timer $timerId")
     Future.successful(Done)
   }
 
   override def importTimers(list: Seq[Timer]): Unit = {
-    list.foreach(timer => timers.put(timer.timerId, timer))
+    list.foreach(put)
+  }
+
+  private def put(timer: Timer): Unit = synchronized {
+    timers.put(timer.timerId, timer).foreach(index.remove)
+    index.add(timer)
   }
 }
@@ -41,9 +41,27 @@ class JDBCTimerStore extends TimerStore with JDBCOffsetStorage with CafienneJDBC
 
   override def getTimers(window: Instant): Future[Seq[Timer]] = {
     val query = TableQuery[TimerServiceTable].filter(_.moment <= window)
-    db.run(query.distinct.result).map(records => records.map(record => Timer(record.caseInstanceId, record.timerId, record.moment, record.user)))
+    db.run(query.distinct.result).map(records => records.map(toTimer))
   }
 
+  /**
+    * The database only pages on the moment of the timers, since the order of timer ids depends on the collation of the database,
+    * whereas Timer.ordering compares them as Java strings. Therefore a page ends with all timers of the moment of its last timer,
+    * and may hold a few more timers than the page size. Timers with the same moment as the given timer are filtered with Timer.ordering.
+    */
+  override def getTimers(window: Instant, after: Option[Timer], pageSize: Int): Future[Seq[Timer]] = {
+    val timers = TableQuery[TimerServiceTable].filter(_.moment <= window)
+    val later = after.fold(timers)(last => timers.filter(_.moment > last.moment))
+    val page = for {
+      sameMoment <- after.fold[DBIO[Seq[TimerServiceRecord]]](DBIO.successful(Seq()))(last => timers.filter(_.moment === last.moment).result)
+      lastMoment <- later.sortBy(_.moment).map(_.moment).drop(pageSize - 1).take(1).result.headOption
+      next <- lastMoment.fold(later)(moment => later.filter(_.moment <= moment)).result
+    } yield sameMoment ++ next
+    db.run(page).map(records => records.map(toTimer).filter(timer => after.forall(Timer.ordering.gt(timer, _))).sorted)
+  }
+
+  private def toTimer(record: TimerServiceRecord): Timer = Timer(record.caseInstanceId, record.timerId, record.moment, record.user)
+
   override def storeTimer(job: Timer, offset: Option[Offset]): Future[Done] = {
     logger.debug("Storing JDBC timer " + job.timerId + " for timestamp " + job.moment)
     val record = TimerServiceRecord(timerId = job.timerId, caseInstanceId = job.caseInstanceId, moment = job.moment, tenant = "", user = job.userId)
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2014  Batav B.V.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.cafienne.system.router
+
+import akka.cluster.Cluster
+import akka.cluster.MemberStatus
+import akka.remote.testkit.{MultiNodeConfig, MultiNodeSpec, MultiNodeSpecCallbacks}
+import akka.testkit.ImplicitSender
+import com.typesafe.config.ConfigFactory
+import org.cafienne.actormodel.response.{ActorExistsFailure, ModelResponse}
+import org.cafienne.cmmn.actorapi.command.StartCase
+import org.cafienne.cmmn.actorapi.response.CaseStartedResponse
+import org.cafienne.cmmn.test.TestScript
+import org.cafienne.system.CaseSystem
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.wordspec.AnyWordSpecLike
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+object ShardedRouterConfig extends MultiNodeConfig {
+  // Cafienne reads its own configuration from the default config, so set the routing mode as a system property
+  System.setProperty("cafienne.actor.routing.mode", "sharded")
+  ConfigFactory.invalidateCaches()
+
+  val node1 = role("node1")
+  val node2 = role("node2")
+  val node3 = role("node3")
+
+  commonConfig(ConfigFactory.parseString(
+    """
+      |akka.actor.provider = cluster
+      |akka.remote.artery.canonical.port = 0
+      |akka.cluster.jmx.multi-mbeans-in-same-jvm = on
+      |akka.actor.serialize-messages = off
+      |""".stripMargin).withFallback(ConfigFactory.load()))
+}
+
+class ShardedRouterSpecMultiJvmNode1 extends ShardedRouterSpec
+class ShardedRouterSpecMultiJvmNode2 extends ShardedRouterSpec
+class ShardedRouterSpecMultiJvmNode3 extends ShardedRouterSpec
+
+class ShardedRouterSpec extends MultiNodeSpec(ShardedRouterConfig)
+  with MultiNodeSpecCallbacks
+  with AnyWordSpecLike
+  with Matchers
+  with BeforeAndAfterAll
+  with ImplicitSender {
+
+  import ShardedRouterConfig._
+
+  override def initialParticipants: Int = roles.size
+
+  override def beforeAll(): Unit = multiNodeSpecBeforeAll()
+
+  override def afterAll(): Unit = multiNodeSpecAfterAll()
+
+  private val caseInstanceId = "sharded-router-test-case"
+  private lazy val startCase: StartCase = TestScript.createCaseCommand(TestScript.testUser, caseInstanceId, TestScript.getDefinition("testdefinition/helloworld.xml"))
+
+  private def send(caseSystem: CaseSystem): ModelResponse = {
+    Await.result(caseSystem.gateway.request(startCase), 15.seconds).asInstanceOf[ModelResponse]
+  }
+
+  "A case system in sharded routing mode" must {
+    var caseSystem: CaseSystem = null
+
+    "form a cluster of all nodes" in {
+      Cluster(system).join(node(node1).address)
+      awaitAssert({
+        Cluster(system).state.members.count(_.status == MemberStatus.Up) shouldBe roles.size
+      }, 30.seconds)
+      caseSystem = new CaseSystem(system)
+      enterBarrier("cluster-up")
+    }
+
+    "route commands from any node to the same case instance" in {
+      runOn(node1) {
+        send(caseSystem) shouldBe a[CaseStartedResponse]
+      }
+      enterBarrier("case-started")
+
+      // The case now lives somewhere in the cluster; starting it again from other nodes must hit the same actor
+      runOn(node2, node3) {
+        send(caseSystem) shouldBe a[ActorExistsFailure]
+      }
+      enterBarrier("case-exists")
+    }
+  }
+}
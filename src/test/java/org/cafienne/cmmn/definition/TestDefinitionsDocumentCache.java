@@ -0,0 +1,46 @@
+package org.cafienne.cmmn.definition;
+
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.infrastructure.serialization.DeserializationError;
+import org.cafienne.infrastructure.serialization.Fields;
+import org.cafienne.json.ValueMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TestDefinitionsDocumentCache {
+    private final CaseDefinition definition = TestScript.loadCaseDefinition("testdefinition/helloworld.xml");
+
+    private ValueMap referenceOnly(ValueMap json) {
+        return new ValueMap(Fields.elementId, json.readString(Fields.elementId), Fields.sourceHash, json.readString(Fields.sourceHash));
+    }
+
+    @Test
+    public void testReadSourceReferenceWithEmptyCache() {
+        assertTrue(DefinitionsDocumentCache.storeSource(definition.getDefinitionsDocument()));
+        ValueMap json = referenceOnly(definition.toJSON());
+
+        DefinitionsDocumentCache.clear();
+        assertNull(DefinitionsDocumentCache.get(json.readString(Fields.sourceHash)));
+
+        CaseDefinition restored = CMMNElementDefinition.fromJSON(getClass().getName(), json, CaseDefinition.class);
+        assertEquals(definition.getName(), restored.getName());
+        assertEquals(definition.getDefinitionsDocument().getSource(), restored.getDefinitionsDocument().getSource());
+    }
+
+    @Test
+    public void testReadInlineSourceWithEmptyCache() {
+        ValueMap json = definition.toJSON();
+        assertNotNull(json.readString(Fields.source));
+
+        DefinitionsDocumentCache.clear();
+        CaseDefinition restored = CMMNElementDefinition.fromJSON(getClass().getName(), json, CaseDefinition.class);
+        assertEquals(definition.getName(), restored.getName());
+    }
+
+    @Test(expected = DeserializationError.class)
+    public void testUnknownSourceReference() {
+        DefinitionsDocumentCache.clear();
+        CMMNElementDefinition.fromJSON(getClass().getName(), new ValueMap(Fields.elementId, definition.getId(), Fields.sourceHash, "unknown-hash"), CaseDefinition.class);
+    }
+}
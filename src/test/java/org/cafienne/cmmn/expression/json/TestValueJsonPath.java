@@ -0,0 +1,92 @@
+package org.cafienne.cmmn.expression.json;
+
+import com.jayway.jsonpath.JsonPath;
+import com.jayway.jsonpath.TypeRef;
+import com.jayway.jsonpath.spi.mapper.MappingException;
+import org.cafienne.json.InstantValue;
+import org.cafienne.json.JSONParseFailure;
+import org.cafienne.json.JSONReader;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueMap;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that JsonPath filter expressions work on Value structures, and give the same outcome as on plain json.
+ */
+public class TestValueJsonPath {
+    private final static String json = "{ \"items\": [" +
+            " { \"name\": \"a\", \"x\": 1, \"tags\": [\"red\"], \"detail\": { \"code\": \"X\" } }," +
+            " { \"name\": \"b\", \"x\": 2, \"tags\": [\"red\", \"blue\"], \"detail\": { \"code\": \"Y\" } }," +
+            " { \"name\": \"c\", \"x\": 3.5, \"tags\": [], \"detail\": { \"code\": \"X\" } }" +
+            "] }";
+
+    private static Value<?> read(String path, Object document) {
+        return Value.convert(JsonPath.compile(path).read(document, ExpressionEvaluator.configuration));
+    }
+
+    /**
+     * Reads the path both on the Value and on the plain json, and returns the names of the items found
+     */
+    private static List<Object> names(String path) throws IOException, JSONParseFailure {
+        Value<?> onValue = read(path, JSONReader.parse(json));
+        List<Object> onJson = JsonPath.read(json, path);
+        assertEquals(Value.convert(onJson), onValue);
+        return JsonPath.read(json, path + ".name");
+    }
+
+    @Test
+    public void testNumericFilter() throws IOException, JSONParseFailure {
+        assertEquals(List.of("b", "c"), names("$.items[?(@.x > 1)]"));
+        assertEquals(List.of("a"), names("$.items[?(@.x == 1)]"));
+    }
+
+    @Test
+    public void testStringFilter() throws IOException, JSONParseFailure {
+        assertEquals(List.of("a", "c"), names("$.items[?(@.detail.code == 'X')]"));
+        assertEquals(List.of("a", "c"), names("$.items[?(@.name in ['a', 'c'])]"));
+        assertEquals(List.of("b"), names("$.items[?(@.name =~ /b/)]"));
+    }
+
+    @Test
+    public void testArrayFilter() throws IOException, JSONParseFailure {
+        assertEquals(List.of("a", "b"), names("$.items[?(@.tags contains 'red')]"));
+        assertEquals(List.of("b"), names("$.items[?(@.tags size 2)]"));
+        assertEquals(List.of("c"), names("$.items[?(@.tags empty true)]"));
+        assertEquals(List.of("b"), names("$.items[?('blue' in @.tags)]"));
+    }
+
+    @Test
+    public void testMapOnTypeRef() throws IOException, JSONParseFailure {
+        ValueMap document = JSONReader.parse(json);
+        List<String> tags = JsonPath.using(ExpressionEvaluator.configuration).parse(document).read("$.items[1].tags", new TypeRef<>() {});
+        assertEquals(List.of("red", "blue"), tags);
+        Map<String, Object> detail = JsonPath.using(ExpressionEvaluator.configuration).parse(document).read("$.items[0].detail", new TypeRef<>() {});
+        assertEquals(Map.of("code", "X"), detail);
+        ValueMap detailValue = JsonPath.using(ExpressionEvaluator.configuration).parse(document).read("$.items[0].detail", new TypeRef<>() {});
+        assertEquals(new ValueMap("code", "X"), detailValue);
+    }
+
+    @Test(expected = MappingException.class)
+    public void testMapOnTypeRefWithoutRawClass() throws IOException, JSONParseFailure {
+        ValueMap document = JSONReader.parse(json);
+        new ValueMappingProvider().map(document, new TypeRef<List<String>[]>() {}, ExpressionEvaluator.configuration);
+    }
+
+    @Test
+    public void testFilterOnInstant() {
+        ValueMap item = new ValueMap("name", "a");
+        item.put("when", new InstantValue(Instant.parse("2020-01-01T00:00:00Z")));
+        ValueMap document = new ValueMap();
+        document.withArray("items").add(item);
+
+        Value<?> names = read("$.items[?(@.when == '2020-01-01T00:00:00Z')].name", document);
+        assertEquals(Value.convert(List.of("a")), names);
+    }
+}
@@ -0,0 +1,105 @@
+package org.cafienne.cmmn.expression.xpath;
+
+import org.cafienne.json.JSONReader;
+import org.cafienne.json.StringValue;
+import org.cafienne.json.Value;
+import org.cafienne.json.ValueMap;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.xpath.XPath;
+import javax.xml.xpath.XPathFactory;
+import java.util.Collections;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the DOM that is built from a Value for the evaluation of XPath expressions.
+ */
+public class TestValueDocument {
+
+    private static String evaluate(String expression, Document document) throws Exception {
+        XPath xpath = XPathFactory.newInstance().newXPath();
+        xpath.setNamespaceContext(new NamespaceContext() {
+            @Override
+            public String getNamespaceURI(String prefix) {
+                return "o".equals(prefix) ? "urn:cafienne:test:order" : null;
+            }
+
+            @Override
+            public String getPrefix(String namespaceURI) {
+                return "";
+            }
+
+            @Override
+            public Iterator<String> getPrefixes(String namespaceURI) {
+                return Collections.emptyIterator();
+            }
+        });
+        return xpath.evaluate(expression, document);
+    }
+
+    private static Value<?> parse(String json) throws Exception {
+        return JSONReader.parse(json);
+    }
+
+    @Test
+    public void testMap() throws Exception {
+        Document document = ValueDocument.build("Order", parse("{ 'customer': { 'name': 'John' }, 'amount': 12, 'approved': true, 'remark': null }"));
+        assertEquals("John", evaluate("/Order/customer/name", document));
+        assertEquals("12", evaluate("/Order/amount", document));
+        assertEquals("true", evaluate("/Order/approved = 'true'", document));
+        assertEquals("1", evaluate("count(/Order/remark)", document));
+        assertEquals("", evaluate("/Order/remark", document));
+    }
+
+    @Test
+    public void testArrayInsideMap() throws Exception {
+        Document document = ValueDocument.build("Order", parse("{ 'items': [ { 'name': 'a', 'price': 1 }, { 'name': 'b', 'price': 2 } ] }"));
+        assertEquals("2", evaluate("count(/Order/items)", document));
+        assertEquals("b", evaluate("/Order/items[2]/name", document));
+        assertEquals("3", evaluate("sum(/Order/items/price)", document));
+    }
+
+    @Test
+    public void testArrayAtTopLevel() throws Exception {
+        Document document = ValueDocument.build("Prices", parse("[ 1, 2, 3, [ 4, 5 ] ]"));
+        assertEquals("4", evaluate("count(/Prices/item)", document));
+        assertEquals("2", evaluate("/Prices/item[2]", document));
+        assertEquals("2", evaluate("count(/Prices/item[4]/item)", document));
+    }
+
+    @Test
+    public void testGeneratedElementsHaveNoNamespace() throws Exception {
+        Document document = ValueDocument.build("Order", new ValueMap("amount", 12));
+        assertEquals("Order", evaluate("local-name(/*)", document));
+        assertEquals("", evaluate("namespace-uri(/*)", document));
+        assertEquals("amount", evaluate("local-name(/Order/*)", document));
+    }
+
+    @Test
+    public void testInvalidElementNames() throws Exception {
+        Document document = ValueDocument.build("Order", parse("{ 'first name': 'John', '1st': 'yes', 'o:prefixed': 'no' }"));
+        assertEquals("John", evaluate("/Order/first_name", document));
+        assertEquals("yes", evaluate("/Order/_st", document));
+        assertEquals("no", evaluate("/Order/o_prefixed", document));
+    }
+
+    @Test
+    public void testNamespacedXmlString() throws Exception {
+        String xml = "<ord:Order xmlns:ord=\"urn:cafienne:test:order\"><ord:amount>12</ord:amount><plain>text</plain></ord:Order>";
+        Document document = ValueDocument.build("Order", new StringValue(xml));
+        assertEquals("12", evaluate("/o:Order/o:amount", document));
+        assertEquals("true", evaluate("/o:Order/o:amount = 12", document));
+        assertEquals("text", evaluate("/o:Order/plain", document));
+        assertEquals("", evaluate("/Order/amount", document));
+    }
+
+    @Test
+    public void testPrimitiveValue() throws Exception {
+        Document document = ValueDocument.build("Amount", parse("{ 'value': 12.5 }").asMap().get("value"));
+        assertEquals("12.5", evaluate("/Amount", document));
+    }
+}
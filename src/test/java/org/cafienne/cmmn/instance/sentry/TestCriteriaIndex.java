@@ -0,0 +1,67 @@
+package org.cafienne.cmmn.instance.sentry;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestCriteriaIndex {
+
+    private CriteriaIndex<String> createIndex() {
+        CriteriaIndex<String> index = new CriteriaIndex<>();
+        index.add("first", Arrays.asList("pi_task1", "Task1"));
+        index.add("second", Arrays.asList("pi_task2", "Task2"));
+        index.add("third", Arrays.asList("pi_task1", null));
+        index.add("fourth", Arrays.asList("pi_other", "Task1"));
+        return index;
+    }
+
+    @Test
+    public void testLookupBySourceId() {
+        CriteriaIndex<String> index = createIndex();
+        assertEquals(List.of("first", "third"), index.candidates("pi_task1", null));
+        assertEquals(List.of("second"), index.candidates("pi_task2", null));
+        assertEquals(Collections.emptyList(), index.candidates("pi_unknown", null));
+    }
+
+    @Test
+    public void testLookupBySourceName() {
+        CriteriaIndex<String> index = createIndex();
+        assertEquals(List.of("first", "fourth"), index.candidates("pi_unknown", "Task1"));
+        assertEquals(List.of("second"), index.candidates(null, "Task2"));
+    }
+
+    @Test
+    public void testLookupBySourceIdAndName() {
+        CriteriaIndex<String> index = createIndex();
+        assertEquals(List.of("first", "third", "fourth"), index.candidates("pi_task1", "Task1"));
+    }
+
+    @Test
+    public void testReindexKeepsOrder() {
+        CriteriaIndex<String> index = createIndex();
+        // Re-index the first criterion, as happens after migration of its on parts
+        index.add("first", Arrays.asList("pi_task2", "Task2"));
+        assertEquals(List.of("first", "second"), index.candidates("pi_task2", null));
+        assertEquals(List.of("third"), index.candidates("pi_task1", null));
+        assertEquals(List.of("fourth"), index.candidates(null, "Task1"));
+
+        // Re-index the third criterion to the source of the second one; the order must still be the order of adding
+        index.add("third", Arrays.asList("pi_task2", null));
+        assertEquals(List.of("first", "second", "third"), index.candidates("pi_task2", "Task2"));
+    }
+
+    @Test
+    public void testRemove() {
+        CriteriaIndex<String> index = createIndex();
+        index.remove("first");
+        assertEquals(List.of("third", "fourth"), index.candidates("pi_task1", "Task1"));
+
+        // A removed criterion that is added again gets a new position
+        index.add("first", Arrays.asList("pi_task1"));
+        assertEquals(List.of("third", "first"), index.candidates("pi_task1", null));
+    }
+}
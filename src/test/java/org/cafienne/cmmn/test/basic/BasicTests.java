@@ -23,6 +23,7 @@ import org.junit.runners.Suite.SuiteClasses;
     TestSentry.class,
     TestSentryRef.class,
     TestSimple.class,
+    TestSnapshotRecovery.class,
     TestStages.class,
     TestStageCompletion.class,
     TestTimer.class
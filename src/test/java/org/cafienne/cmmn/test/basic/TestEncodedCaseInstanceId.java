@@ -0,0 +1,39 @@
+package org.cafienne.cmmn.test.basic;
+
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.json.ValueMap;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+import static org.junit.Assert.assertEquals;
+
+public class TestEncodedCaseInstanceId {
+    private final CaseDefinition definitions = loadCaseDefinition("testdefinition/helloworld.xml");
+
+    @Test
+    public void testCaseInstanceIdThatIsNotAValidActorName() {
+        // Contains characters that the router must encode in the name of the case actor
+        String caseInstanceId = "case 1/a:b@c+d,e=f";
+        TestScript testCase = new TestScript("encoded-case-instance-id");
+        ValueMap greeting = new ValueMap("Greeting", new ValueMap("Message", "hello", "To", testUser.id(), "From", testUser.id()));
+        String taskName = "Receive Greeting and Send response";
+
+        AtomicReference<String> liveState = new AtomicReference<>();
+        testCase.addStep(createCaseCommand(testUser, caseInstanceId, definitions, greeting), casePlan -> {
+            casePlan.assertHumanTask(taskName).assertState(State.Active);
+            liveState.set(casePlan.toString());
+        });
+
+        // Recovery must find the events under the unencoded case instance id
+        testCase.addStep(createRecoveryCommand(testUser, caseInstanceId), casePlan -> {
+            assertEquals("State recovered from the journal", liveState.get(), casePlan.toString());
+            casePlan.assertHumanTask(taskName).assertState(State.Active);
+        });
+
+        testCase.runTest();
+    }
+}
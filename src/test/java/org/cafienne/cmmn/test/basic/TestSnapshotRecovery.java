@@ -0,0 +1,75 @@
+package org.cafienne.cmmn.test.basic;
+
+import akka.actor.ActorRef;
+import akka.actor.ActorSystem;
+import akka.pattern.Patterns;
+import akka.persistence.Persistence;
+import akka.persistence.SnapshotProtocol;
+import akka.persistence.SnapshotSelectionCriteria;
+import com.typesafe.config.ConfigFactory;
+import org.cafienne.cmmn.actorapi.command.casefile.UpdateCaseFileItem;
+import org.cafienne.cmmn.actorapi.command.plan.MakePlanItemTransition;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.Path;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.instance.Transition;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.json.ValueMap;
+import org.junit.Test;
+import scala.concurrent.Await;
+import scala.concurrent.duration.Duration;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+import static org.junit.Assert.assertEquals;
+
+public class TestSnapshotRecovery {
+    private final CaseDefinition definitions = loadCaseDefinition("testdefinition/helloworld.xml");
+
+    @Test
+    public void testRecoveryFromSnapshotAndJournal() {
+        String caseInstanceId = "SnapshotRecoveryTest";
+        TestScript testCase = new TestScript("snapshot-recovery");
+        ValueMap greeting = new ValueMap("Greeting", new ValueMap("Message", "hello", "To", testUser.id(), "From", testUser.id()));
+        String taskName = "Receive Greeting and Send response";
+        Path greetingPath = new Path("Greeting");
+
+        testCase.addStep(createCaseCommand(testUser, caseInstanceId, definitions, greeting), casePlan -> casePlan.assertHumanTask(taskName).assertState(State.Active));
+
+        // Generate enough events with the same compaction key to have them compacted in the snapshots
+        for (int i = 0; i < 3; i++) {
+            testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, taskName, Transition.Suspend));
+            testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, taskName, Transition.Resume));
+            testCase.addStep(new UpdateCaseFileItem(testUser, caseInstanceId, new ValueMap("Message", "hello " + i), greetingPath));
+        }
+
+        AtomicReference<String> liveState = new AtomicReference<>();
+        testCase.addStep(createPingCommand(testUser, caseInstanceId, 0), casePlan -> liveState.set(casePlan.toString()));
+
+        // First recovery is from the latest snapshot plus the events after it
+        testCase.addStep(createRecoveryCommand(testUser, caseInstanceId), casePlan -> {
+            assertEquals("State recovered from the snapshot", liveState.get(), casePlan.toString());
+            deleteSnapshots(testCase.getCaseSystem().system(), caseInstanceId);
+        });
+
+        // Second recovery has no snapshots and replays the full journal
+        testCase.addStep(createRecoveryCommand(testUser, caseInstanceId), casePlan -> {
+            assertEquals("State recovered from the journal", liveState.get(), casePlan.toString());
+            casePlan.assertHumanTask(taskName).assertState(State.Active);
+        });
+
+        testCase.runTest();
+    }
+
+    private void deleteSnapshots(ActorSystem system, String persistenceId) {
+        // Talk directly to the configured snapshot store, as the case actor is not running
+        ActorRef snapshotStore = Persistence.get(system).snapshotStoreFor("", ConfigFactory.empty());
+        SnapshotProtocol.DeleteSnapshots deleteAll = new SnapshotProtocol.DeleteSnapshots(persistenceId, SnapshotSelectionCriteria.latest());
+        try {
+            Await.result(Patterns.ask(snapshotStore, deleteAll, 5000), Duration.create(5, "seconds"));
+        } catch (Exception e) {
+            throw new AssertionError("Could not delete the snapshots of " + persistenceId, e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.cafienne.cmmn.test.casefile;
+
+import org.cafienne.cmmn.actorapi.command.StartCase;
+import org.cafienne.cmmn.actorapi.command.casefile.UpdateCaseFileItem;
+import org.cafienne.cmmn.actorapi.event.file.CaseFileItemPropertiesUpdated;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.Path;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.json.ValueMap;
+import org.cafienne.util.Guid;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Runs with cafienne.engine.interpreter.case-file-delta-events enabled (see the test grouping in build.sbt),
+ * so that updates of the case file are stored as events that only hold the changed properties.
+ */
+public class TestCaseFileWithDeltaEvents {
+    private final CaseDefinition definitions = loadCaseDefinition("testdefinition/helloworld.xml");
+    private final Path greetingPath = new Path("Greeting");
+
+    @Test
+    public void testReplayOfDeltaEvents() {
+        String caseInstanceId = new Guid().toString();
+        TestScript testCase = new TestScript("case-file-delta-events");
+
+        ValueMap greeting = new ValueMap("Message", "hello", "To", testUser.id(), "From", testUser.id());
+        StartCase startCase = createCaseCommand(testUser, caseInstanceId, definitions, new ValueMap("Greeting", greeting.cloneValueNode()));
+        testCase.addStep(startCase, casePlan -> casePlan.assertCaseFileItem(greetingPath).assertValue(greeting));
+
+        UpdateCaseFileItem updateMessage = new UpdateCaseFileItem(testUser, caseInstanceId, new ValueMap("Message", "hello again"), greetingPath);
+        testCase.addStep(updateMessage, casePlan -> casePlan.assertCaseFileItem(greetingPath).assertValue(new ValueMap("Message", "hello again", "To", testUser.id(), "From", testUser.id())));
+
+        ValueMap expectedGreeting = new ValueMap("Message", "hello again", "To", "someone else", "From", testUser.id());
+        AtomicReference<String> liveState = new AtomicReference<>();
+        UpdateCaseFileItem updateTo = new UpdateCaseFileItem(testUser, caseInstanceId, new ValueMap("To", "someone else"), greetingPath);
+        testCase.addStep(updateTo, casePlan -> {
+            casePlan.assertCaseFileItem(greetingPath).assertValue(expectedGreeting);
+            testCase.getEventListener().getEvents().filter(caseInstanceId).assertEventType(CaseFileItemPropertiesUpdated.class, 2);
+            liveState.set(casePlan.toString());
+        });
+
+        // Recovery replays the delta events on top of the value the case started with
+        testCase.addStep(createRecoveryCommand(testUser, caseInstanceId), casePlan -> {
+            assertEquals("State recovered from the journal", liveState.get(), casePlan.toString());
+            casePlan.assertCaseFileItem(greetingPath).assertValue(expectedGreeting);
+        });
+
+        testCase.runTest();
+    }
+}
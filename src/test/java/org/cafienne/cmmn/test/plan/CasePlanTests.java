@@ -10,7 +10,8 @@ import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({
-    TestImmediateMilestone.class
+    TestImmediateMilestone.class,
+    TestPlanItemMigration.class
     })
 public class CasePlanTests {
 
@@ -0,0 +1,84 @@
+package org.cafienne.cmmn.test.plan;
+
+import org.cafienne.cmmn.actorapi.command.StartCase;
+import org.cafienne.cmmn.actorapi.command.migration.MigrateDefinition;
+import org.cafienne.cmmn.actorapi.command.plan.MakePlanItemTransition;
+import org.cafienne.cmmn.actorapi.event.migration.PlanItemDropped;
+import org.cafienne.cmmn.actorapi.event.plan.PlanItemCreated;
+import org.cafienne.cmmn.definition.CaseDefinition;
+import org.cafienne.cmmn.instance.State;
+import org.cafienne.cmmn.instance.Transition;
+import org.cafienne.cmmn.test.TestScript;
+import org.cafienne.cmmn.test.assertions.CaseAssertion;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.cafienne.cmmn.test.TestScript.*;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the plan item registry of the case and the sibling index of the stage
+ * follow the plan items when their definition is migrated or when they are dropped.
+ */
+public class TestPlanItemMigration {
+    private final CaseDefinition definitionsV1 = loadCaseDefinition("testdefinition/migration/planitems_v1.xml");
+    private final CaseDefinition definitionsV2 = loadCaseDefinition("testdefinition/migration/planitems_v2.xml");
+
+    private void assertCreatedIndex(CaseAssertion casePlan, String name, int expectedIndex) {
+        List<PlanItemCreated> created = casePlan.getEvents().filter(PlanItemCreated.class).filter((PlanItemCreated e) -> e.getPlanItemName().equals(name)).getEvents();
+        assertEquals("Number of new plan items with name " + name, 1, created.size());
+        assertEquals("Index of the new plan item " + name, expectedIndex, created.get(0).getIndex());
+    }
+
+    @Test
+    public void testMigrateAndDropPlanItems() {
+        String caseInstanceId = "PlanItemMigration";
+        TestScript testCase = new TestScript(caseInstanceId);
+
+        StartCase startCase = createCaseCommand(testUser, caseInstanceId, definitionsV1);
+        testCase.addStep(startCase, casePlan -> {
+            casePlan.print();
+            casePlan.assertPlanItems("Item1").filter(State.Active).assertSize(1);
+            casePlan.assertPlanItems("Item2").filter(State.Active).assertSize(1);
+        });
+
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "Item1", Transition.Complete), casePlan -> {
+            casePlan.print();
+            assertCreatedIndex(casePlan, "Item1", 1);
+        });
+
+        // Item1 gets a new name, Item2 is dropped
+        testCase.addStep(new MigrateDefinition(testUser, caseInstanceId, definitionsV2, null), casePlan -> {
+            casePlan.print();
+            casePlan.getEvents().filter(PlanItemDropped.class).assertSize(1);
+        });
+
+        // The dropped plan item must no longer be found
+        testCase.assertStepFails(new MakePlanItemTransition(testUser, caseInstanceId, "Item2", Transition.Complete));
+
+        // The migrated plan items must be found under their new name, and a repetition continues the index of the siblings
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "Renamed", Transition.Complete), casePlan -> {
+            casePlan.print();
+            assertCreatedIndex(casePlan, "Renamed", 2);
+        });
+
+        // Migrating back brings a new Item2; the dropped Item2 must not count as its sibling
+        testCase.addStep(new MigrateDefinition(testUser, caseInstanceId, definitionsV1, null), casePlan -> {
+            casePlan.print();
+            assertCreatedIndex(casePlan, "Item2", 0);
+        });
+
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "Item2", Transition.Complete), casePlan -> {
+            casePlan.print();
+            assertCreatedIndex(casePlan, "Item2", 1);
+        });
+
+        testCase.addStep(new MakePlanItemTransition(testUser, caseInstanceId, "Item1", Transition.Complete), casePlan -> {
+            casePlan.print();
+            assertCreatedIndex(casePlan, "Item1", 3);
+        });
+
+        testCase.runTest();
+    }
+}
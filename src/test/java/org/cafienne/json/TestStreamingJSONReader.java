@@ -0,0 +1,50 @@
+package org.cafienne.json;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that json fed in small chunks gives the same value as parsing the full content at once.
+ */
+public class TestStreamingJSONReader {
+
+    private static Value<?> parseInChunks(String json, int chunkSize) throws IOException, JSONParseFailure {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        StreamingJSONReader reader = new StreamingJSONReader();
+        for (int i = 0; i < bytes.length; i += chunkSize) {
+            reader.feed(bytes, i, Math.min(bytes.length, i + chunkSize));
+        }
+        return reader.complete();
+    }
+
+    @Test
+    public void testSameValueAsJSONReader() throws IOException, JSONParseFailure {
+        String json = "{ \"Request\": { \"name\": \"ĉafienne\", \"amount\": 12, \"rate\": 1.5, \"approved\": true, \"remark\": null," +
+                " \"items\": [ { 'id': 1 }, { id: 2 }, [], {} ] } // trailing comment\n}";
+        Value<?> expected = JSONReader.parse(json);
+        for (int chunkSize : new int[]{1, 3, 7, 1024}) {
+            assertEquals(expected, parseInChunks(json, chunkSize));
+        }
+    }
+
+    @Test
+    public void testPrimitiveValue() throws IOException, JSONParseFailure {
+        assertEquals(new LongValue(42), parseInChunks("42", 1));
+    }
+
+    @Test
+    public void testEmptyContent() throws IOException, JSONParseFailure {
+        assertNull(parseInChunks("", 1));
+        assertNull(parseInChunks("  \n ", 1));
+    }
+
+    @Test(expected = IOException.class)
+    public void testIncompleteContent() throws IOException, JSONParseFailure {
+        parseInChunks("{ \"items\": [1, 2", 4);
+    }
+}
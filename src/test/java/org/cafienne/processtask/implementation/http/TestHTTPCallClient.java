@@ -0,0 +1,82 @@
+package org.cafienne.processtask.implementation.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.cafienne.infrastructure.Cafienne;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs many calls at the same time against a local stub server, and checks that
+ * all of them get their response, and that the number of concurrent requests on the host stays within the limit.
+ */
+public class TestHTTPCallClient {
+    private final static int NUMBER_OF_CALLS = 100;
+
+    private HttpServer server;
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger maxRunning = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(NUMBER_OF_CALLS));
+        server.createContext("/stub", exchange -> {
+            int current = running.incrementAndGet();
+            maxRunning.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            byte[] body = ("{\"path\":\"" + exchange.getRequestURI().getPath() + "\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream os = exchange.getResponseBody()) {
+                os.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testConcurrentCalls() throws InterruptedException {
+        String host = "http://localhost:" + server.getAddress().getPort();
+        CountDownLatch latch = new CountDownLatch(NUMBER_OF_CALLS);
+        AtomicInteger successes = new AtomicInteger();
+        for (int i = 0; i < NUMBER_OF_CALLS; i++) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(host + "/stub/" + i)).timeout(HTTPCallClient.requestTimeout()).GET().build();
+            HTTPCallClient.send(request, (response, failure) -> {
+                if (failure == null && response.statusCode() == 200 && response.body().startsWith("{\"path\":\"/stub/")) {
+                    successes.incrementAndGet();
+                }
+                latch.countDown();
+            });
+        }
+        assertTrue("All calls must complete", latch.await(30, TimeUnit.SECONDS));
+        assertEquals(NUMBER_OF_CALLS, successes.get());
+        int limit = Cafienne.config().engine().httpCall().maxConnectionsPerHost();
+        assertTrue("At most " + limit + " requests may run in parallel on the host, but found " + maxRunning.get(), maxRunning.get() <= limit);
+        assertEquals(0, HTTPCallClient.load(host));
+    }
+}
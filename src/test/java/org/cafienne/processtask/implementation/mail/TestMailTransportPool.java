@@ -0,0 +1,188 @@
+package org.cafienne.processtask.implementation.mail;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Sends many mails at the same time through the pool to an in-process SMTP stub,
+ * and checks that all mails arrive over no more connections than the size of the pool.
+ */
+public class TestMailTransportPool {
+    private final static int POOL_SIZE = 2;
+    private final static int NUMBER_OF_MAILS = 20;
+
+    private ServerSocket serverSocket;
+    private final ExecutorService serverThreads = Executors.newCachedThreadPool();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicInteger messages = new AtomicInteger();
+
+    @Before
+    public void startStub() throws IOException {
+        serverSocket = new ServerSocket(0);
+        serverThreads.execute(() -> {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    serverThreads.execute(() -> handleConnection(socket));
+                } catch (IOException e) {
+                    // Server socket is closed
+                }
+            }
+        });
+    }
+
+    @After
+    public void stopStub() throws IOException {
+        serverSocket.close();
+        serverThreads.shutdownNow();
+    }
+
+    /**
+     * Minimal SMTP conversation: accepts every command and counts the messages that are sent.
+     */
+    private void handleConnection(Socket socket) {
+        try (socket) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+            reply(out, "220 localhost SMTP stub");
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        // Skip the content of the message
+                    }
+                    messages.incrementAndGet();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else {
+                    reply(out, "250 OK");
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed by the client
+        }
+    }
+
+    private void reply(Writer out, String line) throws IOException {
+        out.write(line + "\r\n");
+        out.flush();
+    }
+
+    private Properties stubProperties() {
+        Properties properties = new Properties();
+        properties.put("mail.smtp.host", "localhost");
+        properties.put("mail.smtp.port", String.valueOf(serverSocket.getLocalPort()));
+        return properties;
+    }
+
+    private void sendMail(MailTransportPool pool, int mailNumber) throws Exception {
+        MimeMessage message = new MimeMessage(pool.getSession());
+        message.setFrom(new InternetAddress("sender@localhost"));
+        message.setRecipient(Message.RecipientType.TO, new InternetAddress("receiver@localhost"));
+        message.setSubject("Mail " + mailNumber);
+        message.setText("Hello " + mailNumber);
+        Address[] recipients = message.getAllRecipients();
+        pool.send(message, recipients);
+    }
+
+    @Test
+    public void testConcurrentMails() throws Exception {
+        MailTransportPool pool = new MailTransportPool(stubProperties(), POOL_SIZE, 60000);
+
+        ExecutorService senders = Executors.newFixedThreadPool(8);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_MAILS; i++) {
+            int mailNumber = i;
+            results.add(senders.submit(() -> {
+                sendMail(pool, mailNumber);
+                return null;
+            }));
+        }
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+        senders.shutdown();
+
+        assertEquals(NUMBER_OF_MAILS, messages.get());
+        assertTrue("Expected at most " + POOL_SIZE + " connections, but found " + connections.get(), connections.get() <= POOL_SIZE);
+    }
+
+    @Test
+    public void testIdleConnectionsAreEvicted() throws Exception {
+        MailTransportPool pool = new MailTransportPool(stubProperties(), POOL_SIZE, 100);
+        sendMail(pool, 1);
+        assertEquals(1, pool.openConnections());
+
+        // Connection is not yet idle for long enough
+        pool.evictIdle();
+        assertEquals(1, pool.openConnections());
+
+        Thread.sleep(200);
+        pool.evictIdle();
+        assertEquals(0, pool.openConnections());
+
+        // Next mail opens a new connection
+        sendMail(pool, 2);
+        assertEquals(2, messages.get());
+        assertEquals(2, connections.get());
+    }
+
+    @Test
+    public void testClosedPoolDoesNotKeepConnections() throws Exception {
+        MailTransportPool pool = new MailTransportPool(stubProperties(), POOL_SIZE, 60000);
+        sendMail(pool, 1);
+        assertEquals(1, pool.openConnections());
+
+        pool.close();
+        assertEquals(0, pool.openConnections());
+
+        // Mails can still be sent, but the connection is closed afterwards
+        sendMail(pool, 2);
+        assertEquals(0, pool.openConnections());
+        assertEquals(2, messages.get());
+    }
+
+    @Test
+    public void testPoolKeyDoesNotContainPassword() {
+        Properties properties = stubProperties();
+        properties.put("authentication.user", "mailer");
+        properties.put("authentication.password", "secret-password");
+
+        String key = MailTransportPool.poolKey(properties);
+        assertFalse(key.contains("secret-password"));
+        assertEquals("smtp://mailer@localhost:" + serverSocket.getLocalPort(), key);
+
+        Properties otherPassword = (Properties) properties.clone();
+        otherPassword.put("authentication.password", "other-password");
+        assertEquals(key, MailTransportPool.poolKey(otherPassword));
+
+        Properties otherUser = (Properties) properties.clone();
+        otherUser.put("authentication.user", "other-mailer");
+        assertNotEquals(key, MailTransportPool.poolKey(otherUser));
+    }
+}
@@ -0,0 +1,36 @@
+package org.cafienne.processtask.implementation.report;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperReport;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks that report templates with the same content are compiled only once.
+ */
+public class TestJasperReportCache {
+
+    private static String template(String name) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<jasperReport xmlns=\"http://jasperreports.sourceforge.net/jasperreports\" " +
+                "xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\" " +
+                "xsi:schemaLocation=\"http://jasperreports.sourceforge.net/jasperreports http://jasperreports.sourceforge.net/xsd/jasperreport.xsd\" " +
+                "name=\"" + name + "\" pageWidth=\"500\" pageHeight=\"842\" columnWidth=\"500\" " +
+                "leftMargin=\"0\" rightMargin=\"0\" topMargin=\"0\" bottomMargin=\"0\" />";
+    }
+
+    @Test
+    public void testCompiledReportIsReused() throws JRException {
+        JasperReport first = JasperReportCache.get(template("CachedReport"));
+        // A new string with the same content must give the same compiled report
+        JasperReport second = JasperReportCache.get(new String(template("CachedReport")));
+        assertSame(first, second);
+
+        JasperReport other = JasperReportCache.get(template("OtherReport"));
+        assertNotSame(first, other);
+        assertEquals("OtherReport", other.getName());
+    }
+}
@@ -0,0 +1,164 @@
+package org.cafienne.util;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class TestSegmentedLRUCache {
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveAScan() {
+        SegmentedLRUCache<String, Integer> cache = new SegmentedLRUCache<>(10);
+        for (int i = 0; i < 5; i++) {
+            cache.put("hot-" + i, i);
+            cache.get("hot-" + i);
+        }
+        // Scan through many entries that are used only once
+        for (int i = 0; i < 100; i++) {
+            cache.put("cold-" + i, i);
+        }
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Integer.valueOf(i), cache.get("hot-" + i));
+        }
+        assertNull(cache.get("cold-0"));
+        assertEquals(10, cache.size());
+        assertEquals(95, cache.statistics().evictions);
+    }
+
+    @Test
+    public void testTimeToLive() {
+        AtomicLong now = new AtomicLong(1000);
+        SegmentedLRUCache<String, String> cache = new SegmentedLRUCache<>(10, Duration.ofSeconds(10), now::get);
+        cache.put("default", "value");
+        cache.put("short", "value", Duration.ofSeconds(1));
+        cache.put("forever", "value", Duration.ZERO);
+
+        now.addAndGet(1000);
+        assertNull(cache.get("short"));
+        assertEquals("value", cache.get("default"));
+
+        now.addAndGet(9000);
+        assertNull(cache.get("default"));
+        assertEquals("value", cache.get("forever"));
+
+        SegmentedLRUCache.Statistics statistics = cache.statistics();
+        assertEquals(2, statistics.hits);
+        assertEquals(2, statistics.misses);
+        assertEquals(2, statistics.expirations);
+    }
+
+    @Test
+    public void testPutIfAbsent() {
+        AtomicLong now = new AtomicLong(1000);
+        SegmentedLRUCache<String, String> cache = new SegmentedLRUCache<>(10, Duration.ofSeconds(10), now::get);
+        assertNull(cache.putIfAbsent("key", "first"));
+        assertEquals("first", cache.putIfAbsent("key", "second"));
+        assertEquals("first", cache.get("key"));
+
+        // An expired entry is replaced
+        now.addAndGet(10000);
+        assertNull(cache.putIfAbsent("key", "third"));
+        assertEquals("third", cache.get("key"));
+    }
+
+    @Test
+    public void testExpiredEntriesArePurgedBeforeLiveEntriesAreEvicted() {
+        AtomicLong now = new AtomicLong(1000);
+        SegmentedLRUCache<String, String> cache = new SegmentedLRUCache<>(10, Duration.ZERO, now::get);
+        for (int i = 0; i < 5; i++) {
+            cache.put("hot-" + i, "value", Duration.ofSeconds(1));
+            cache.get("hot-" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.put("cold-" + i, "value");
+        }
+        now.addAndGet(2000);
+
+        // The expired entries in the protected area make room, instead of the live entries in probation
+        for (int i = 0; i < 3; i++) {
+            cache.put("new-" + i, "value");
+        }
+        assertEquals(10, cache.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("value", cache.get("cold-" + i));
+        }
+        assertEquals(0, cache.statistics().evictions);
+        assertEquals(3, cache.statistics().expirations);
+    }
+
+    @Test
+    public void testExpiredEntriesAreDroppedWhenDemoted() {
+        AtomicLong now = new AtomicLong(1000);
+        SegmentedLRUCache<String, String> cache = new SegmentedLRUCache<>(10, Duration.ZERO, now::get);
+        // Fill the protected area (4/5 of the segment) with entries that expire
+        for (int i = 0; i < 8; i++) {
+            cache.put("hot-" + i, "value", Duration.ofSeconds(1));
+            cache.get("hot-" + i);
+        }
+        now.addAndGet(2000);
+
+        // Promoting another entry demotes the eldest protected entry, which is dropped as it has expired
+        cache.put("live", "value");
+        cache.get("live");
+        assertEquals(8, cache.size());
+        assertEquals(1, cache.statistics().expirations);
+    }
+
+    @Test
+    public void testDisabledCache() {
+        SegmentedLRUCache<String, String> cache = new SegmentedLRUCache<>(0);
+        cache.put("key", "value");
+        assertNull(cache.get("key"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        int maxSize = 1000;
+        int threads = 8;
+        int operations = 200_000;
+        SegmentedLRUCache<Integer, Integer> cache = new SegmentedLRUCache<>(maxSize);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                long gets = 0;
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < operations; i++) {
+                    // Skewed key distribution: half of the operations use 10% of the keys
+                    int key = random.nextBoolean() ? random.nextInt(200) : random.nextInt(5000);
+                    if (random.nextInt(4) == 0) {
+                        cache.put(key, key);
+                    } else {
+                        Integer value = cache.get(key);
+                        gets++;
+                        if (value != null) {
+                            assertEquals(key, value.intValue());
+                        }
+                    }
+                }
+                return gets;
+            }));
+        }
+        start.countDown();
+        long gets = 0;
+        for (Future<Long> result : results) {
+            gets += result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        SegmentedLRUCache.Statistics statistics = cache.statistics();
+        assertTrue("Cache size " + cache.size() + " exceeds " + maxSize, cache.size() <= maxSize);
+        assertEquals(gets, statistics.hits + statistics.misses);
+        assertTrue(statistics.evictions > 0);
+        assertTrue(statistics.hits > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package org.cafienne.actormodel.snapshot
+
+import org.cafienne.actormodel.event.ModelEvent
+import org.cafienne.actormodel.identity.TenantUser
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
+import org.cafienne.cmmn.instance.{PlanItemType, State, Transition}
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.json.ValueMap
+import org.cafienne.querydb.materializer.EventFactory
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import java.time.Instant
+import scala.jdk.CollectionConverters._
+
+class CompactedEventLogTest extends AnyFlatSpec with Matchers {
+  val user: TenantUser = TestIdentityFactory.createTenantUser("test")
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+  val eventFactory = new EventFactory("compacted-case", caseDefinition, user)
+
+  private def greeting(message: String) = eventFactory.createCaseFileEvent("Greeting", new ValueMap("Message", message), CaseFileItemTransition.Update)
+
+  private val created = eventFactory.createCaseFileEvent("Greeting", new ValueMap("Message", "hello"), CaseFileItemTransition.Create)
+  private val update1 = greeting("one")
+  private val update2 = greeting("two")
+  private val update3 = greeting("three")
+  private val taskCreated = eventFactory.createPlanItemCreated("2", PlanItemType.HumanTask, "Task", "1")
+  private val taskStarted = eventFactory.createPlanItemTransitioned("2", PlanItemType.HumanTask, State.Active, State.Available, Transition.Start)
+  private val modified1 = eventFactory.createCaseModified(Instant.now)
+  private val modified2 = eventFactory.createCaseModified(Instant.now)
+  private val modified3 = eventFactory.createCaseModified(Instant.now)
+  private val propertiesUpdated1 = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "four"))
+  private val propertiesUpdated2 = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "five"))
+  private val propertiesUpdated3 = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("From", "admin"))
+
+  private def compact(events: ModelEvent*): Seq[ModelEvent] = {
+    val log = new CompactedEventLog
+    events.foreach(log.add)
+    log.getEvents.asScala.toSeq
+  }
+
+  "CompactedEventLog" should "keep the first and the most recent event with the same compaction key" in {
+    compact(created, update1, update2, update3) shouldBe Seq(created, update1, update3)
+  }
+
+  it should "not let an update replace the creation of a case file item" in {
+    compact(created, update1) shouldBe Seq(created, update1)
+  }
+
+  it should "keep the events in the order of the journal" in {
+    compact(created, modified1, update1, taskCreated, modified2, update2, taskStarted, update3, modified3) shouldBe
+      Seq(created, modified1, update1, taskCreated, taskStarted, update3, modified3)
+  }
+
+  it should "keep events without a compaction key" in {
+    propertiesUpdated1.compactionKey() shouldBe null
+    compact(created, propertiesUpdated1, update1, propertiesUpdated2, update2, propertiesUpdated3, update3) shouldBe
+      Seq(created, propertiesUpdated1, update1, propertiesUpdated2, propertiesUpdated3, update3)
+  }
+
+  it should "continue compacting on top of a restored snapshot" in {
+    val log = new CompactedEventLog
+    compact(created, update1, update2).foreach(log.restore)
+    log.add(update3)
+    log.getEventsSinceLastSnapshot shouldBe 1
+    log.getEvents.asScala shouldBe Seq(created, update1, update3)
+  }
+}
@@ -0,0 +1,45 @@
+package org.cafienne.authentication
+
+import com.nimbusds.jwt.JWTClaimsSet
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+class VerifiedTokenCacheTest extends AnyFlatSpec with Matchers {
+  private val now = System.currentTimeMillis()
+
+  private def user(token: String): AuthenticatedUser = new AuthenticatedUser(token, new JWTClaimsSet.Builder().subject("user-" + token).build())
+
+  "VerifiedTokenCache" should "return the user of a verified token until the token expires" in {
+    var time = now
+    val cache = new VerifiedTokenCache(10, () => time)
+    val verified = user("token")
+    cache.put("token", verified, now + 1000)
+
+    cache.get("token") shouldBe Some(verified)
+    cache.get("other-token") shouldBe None
+    time = now + 1000
+    cache.get("token") shouldBe None
+    cache.size shouldBe 0
+  }
+
+  it should "not cache tokens that have already expired" in {
+    val cache = new VerifiedTokenCache(10, () => now)
+    cache.put("token", user("token"), now)
+    cache.get("token") shouldBe None
+  }
+
+  it should "not exceed its maximum size" in {
+    val cache = new VerifiedTokenCache(10, () => now)
+    (1 to 100).foreach(i => cache.put(s"token-$i", user(s"token-$i"), now + 1000 + i))
+    cache.size should be <= 10
+    // The tokens that were used least recently are removed
+    cache.get("token-100") should not be None
+    cache.get("token-1") shouldBe None
+  }
+
+  it should "not cache anything when it is disabled" in {
+    val cache = new VerifiedTokenCache(0, () => now)
+    cache.put("token", user("token"), now + 1000)
+    cache.get("token") shouldBe None
+  }
+}
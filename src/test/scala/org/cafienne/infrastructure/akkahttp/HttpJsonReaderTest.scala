@@ -0,0 +1,45 @@
+package org.cafienne.infrastructure.akkahttp
+
+import akka.actor.ActorSystem
+import akka.http.scaladsl.model._
+import akka.http.scaladsl.unmarshalling.Unmarshal
+import akka.http.scaladsl.unmarshalling.Unmarshaller.UnsupportedContentTypeException
+import akka.testkit.TestKit
+import org.cafienne.infrastructure.akkahttp.HttpJsonReader._
+import org.cafienne.infrastructure.config.TestConfig
+import org.cafienne.json.{ValueList, ValueMap}
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.concurrent.ScalaFutures
+import org.scalatest.flatspec.AnyFlatSpecLike
+import org.scalatest.matchers.should.Matchers
+import org.scalatest.time.{Seconds, Span}
+
+import scala.concurrent.ExecutionContextExecutor
+
+class HttpJsonReaderTest extends TestKit(ActorSystem("testsystem", TestConfig.config)) with AnyFlatSpecLike with Matchers with ScalaFutures with BeforeAndAfterAll {
+  implicit val executor: ExecutionContextExecutor = system.dispatcher
+  implicit override val patienceConfig: PatienceConfig = PatienceConfig(Span(5, Seconds))
+
+  override def afterAll(): Unit = TestKit.shutdownActorSystem(system)
+
+  private def jsonEntity(json: String): HttpEntity = HttpEntity(ContentTypes.`application/json`, json)
+
+  "HttpJsonReader" should "parse a json body" in {
+    Unmarshal(jsonEntity("{ \"Greeting\": { \"Message\": \"hi\" } }")).to[ValueMap].futureValue shouldBe new ValueMap("Greeting", new ValueMap("Message", "hi"))
+    Unmarshal(jsonEntity("[1, 2]")).to[ValueList].futureValue.size shouldBe 2
+  }
+
+  it should "give null for an empty body" in {
+    Unmarshal(jsonEntity("")).to[ValueMap].futureValue shouldBe null
+  }
+
+  it should "reject json in another charset than UTF-8" in {
+    val latin1Json = ContentType(MediaType.customWithOpenCharset("application", "json"), HttpCharsets.`ISO-8859-1`)
+    val entity = HttpEntity(latin1Json, "{ \"Message\": \"café\" }".getBytes("ISO-8859-1"))
+    Unmarshal(entity).to[ValueMap].failed.futureValue shouldBe a[UnsupportedContentTypeException]
+  }
+
+  it should "reject a body with the wrong json type" in {
+    Unmarshal(jsonEntity("[1, 2]")).to[ValueMap].failed.futureValue shouldBe a[ClassCastException]
+  }
+}
@@ -0,0 +1,63 @@
+package org.cafienne.infrastructure.serialization
+
+import org.cafienne.actormodel.identity.TenantUser
+import org.cafienne.cmmn.actorapi.event.plan.PlanItemTransitioned
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
+import org.cafienne.cmmn.instance.{PlanItemType, State, Transition}
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.json.ValueMap
+import org.cafienne.querydb.materializer.EventFactory
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import java.nio.charset.StandardCharsets
+import java.time.Instant
+
+class SmileSerializationTest extends AnyFlatSpec with Matchers {
+  val user: TenantUser = TestIdentityFactory.createTenantUser("test")
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+  val eventFactory = new EventFactory("smile-case", caseDefinition, user)
+  val smileSerializer = new CafienneSmileSerializer()
+  val jsonSerializer = new CafienneSerializer()
+
+  private def events: Seq[CafienneSerializable] = Seq(
+    eventFactory.createCaseDefinitionApplied(),
+    eventFactory.createCaseModified(Instant.now),
+    eventFactory.createPlanItemCreated("stage-1", PlanItemType.Stage, "Greeting", "smile-case"),
+    eventFactory.createPlanItemTransitioned("task-1", PlanItemType.HumanTask, State.Active, State.Available, Transition.Start),
+    // With a path, the streaming deserializer is used
+    new PlanItemTransitioned(eventFactory.createPlanItemTransitioned("task-1", PlanItemType.HumanTask, State.Completed, State.Active, Transition.Complete)
+      .rawJson().plus(Fields.path, "Greeting/ReceiveGreeting", Fields.stageId, "stage-1")),
+    eventFactory.createCaseFileEvent("Greeting", new ValueMap("Message", "hello", "From", "smile"), CaseFileItemTransition.Create),
+    eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello again"))
+  )
+
+  private def asJson(event: Any): String = new String(SerializationFormat.JSON.toBytes(event.asInstanceOf[CafienneSerializable]), StandardCharsets.UTF_8)
+
+  "CafienneSmileSerializer" should "write events in the Smile format" in {
+    events.foreach(event => {
+      val bytes = smileSerializer.toBinary(event)
+      SerializationFormat.of(bytes) shouldBe SerializationFormat.SMILE
+      bytes.length should be < jsonSerializer.toBinary(event).length
+    })
+  }
+
+  it should "read back the same events it has written" in {
+    events.foreach(event => {
+      val manifest = smileSerializer.manifest(event)
+      val restored = smileSerializer.fromBinary(smileSerializer.toBinary(event), manifest)
+      restored.getClass shouldBe event.getClass
+      asJson(restored) shouldBe asJson(event)
+    })
+  }
+
+  it should "read events written by the json serializer and vice versa" in {
+    events.foreach(event => {
+      val manifest = smileSerializer.manifest(event)
+      asJson(smileSerializer.fromBinary(jsonSerializer.toBinary(event), manifest)) shouldBe asJson(event)
+      asJson(jsonSerializer.fromBinary(smileSerializer.toBinary(event), manifest)) shouldBe asJson(event)
+    })
+  }
+}
@@ -0,0 +1,78 @@
+package org.cafienne.infrastructure.serialization
+
+import com.fasterxml.jackson.core.JsonFactory
+import org.cafienne.actormodel.identity.TenantUser
+import org.cafienne.cmmn.actorapi.event.plan.PlanItemTransitioned
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.{PlanItemType, State, Transition}
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.json.ValueMap
+import org.cafienne.querydb.materializer.EventFactory
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import java.nio.charset.StandardCharsets
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Future}
+import scala.concurrent.ExecutionContext.Implicits.global
+
+class StreamingDeserializationTest extends AnyFlatSpec with Matchers {
+  val user: TenantUser = TestIdentityFactory.createTenantUser("test")
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+  val eventFactory = new EventFactory("streaming-case", caseDefinition, user)
+  val serializer = new CafienneSerializer()
+
+  private def transitionedJson(): ValueMap = {
+    val json = eventFactory.createPlanItemTransitioned("task-1", PlanItemType.HumanTask, State.Active, State.Available, Transition.Start).rawJson()
+    json.plus(Fields.path, "Greeting/ReceiveGreeting", Fields.stageId, "stage-1")
+  }
+
+  private def asJson(event: PlanItemTransitioned): String = new String(SerializationFormat.JSON.toBytes(event), StandardCharsets.UTF_8)
+
+  private def readStreaming(json: ValueMap): PlanItemTransitioned = {
+    val parser = new JsonFactory().createParser(json.toString)
+    try {
+      PlanItemTransitioned.deserialize(parser)
+    } finally {
+      parser.close()
+    }
+  }
+
+  "PlanItemTransitioned" should "be the same when read in streaming mode and from the json tree" in {
+    val event = new PlanItemTransitioned(transitionedJson())
+    val bytes = serializer.toBinary(event)
+    val manifest = serializer.manifest(event)
+
+    val streamed = serializer.fromBinary(bytes, manifest).asInstanceOf[PlanItemTransitioned]
+    val tree = serializer.fromJson(event.rawJson(), manifest).asInstanceOf[PlanItemTransitioned]
+
+    asJson(streamed) shouldBe asJson(tree)
+    streamed.getPlanItemId shouldBe tree.getPlanItemId
+    streamed.getCurrentState shouldBe State.Active
+    streamed.getHistoryState shouldBe State.Available
+    streamed.getTransition shouldBe Transition.Start
+    streamed.getIndex shouldBe tree.getIndex
+    streamed.rawJson() shouldBe tree.rawJson()
+  }
+
+  it should "skip fields it does not know in streaming mode" in {
+    val json = transitionedJson()
+    json.plus("fieldFromTheFuture", new ValueMap("nested", new ValueMap("deeper", "value")))
+    val streamed = readStreaming(json)
+    streamed should not be null
+    asJson(streamed) shouldBe asJson(new PlanItemTransitioned(transitionedJson()))
+  }
+
+  it should "fall back to the json tree for events without a path" in {
+    val json = transitionedJson()
+    json.getValue.remove(Fields.path.toString)
+    readStreaming(json) shouldBe null
+  }
+
+  it should "create the raw json only once when asked from multiple threads" in {
+    val event = readStreaming(transitionedJson())
+    val results = Await.result(Future.sequence((1 to 16).map(_ => Future(event.rawJson()))), 10.seconds)
+    results.foreach(json => json should be theSameInstanceAs results.head)
+  }
+}
@@ -2,7 +2,7 @@ package org.cafienne.querydb.materializer
 
 import org.cafienne.actormodel.identity.TenantUser
 import org.cafienne.cmmn.actorapi.event._
-import org.cafienne.cmmn.actorapi.event.file.{CaseFileItemCreated, CaseFileItemTransitioned}
+import org.cafienne.cmmn.actorapi.event.file.{CaseFileItemCreated, CaseFileItemPropertiesUpdated, CaseFileItemTransitioned}
 import org.cafienne.cmmn.actorapi.event.plan.{PlanItemCreated, PlanItemTransitioned}
 import org.cafienne.cmmn.definition.CaseDefinition
 import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
@@ -93,6 +93,17 @@ class EventFactory(actorId: String, caseDefinition: CaseDefinition, user: Tenant
     new CaseFileItemCreated(json)
   }
 
+  def createCaseFilePropertiesUpdated(path: String, changedProperties: ValueMap, user: TenantUser = user): CaseFileItemPropertiesUpdated = {
+    val json = new ValueMap(
+      Fields.path, path
+      ,Fields.value, changedProperties
+      ,Fields.transition, CaseFileItemTransition.Update.toString
+      ,Fields.index, Integer.valueOf(-1)
+      ,Fields.modelEvent, getModelEvent(user)
+    )
+    new CaseFileItemPropertiesUpdated(json)
+  }
+
   private def getModelEvent(user: TenantUser) : ValueMap = {
     new ValueMap(
       Fields.actorId, actorId
@@ -0,0 +1,106 @@
+package org.cafienne.querydb.materializer
+
+import akka.Done
+import akka.persistence.query.{EventEnvelope, Sequence}
+import org.cafienne.actormodel.event.CommitEvent
+import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
+import org.cafienne.json.Value
+import org.cafienne.system.health.HealthMeasurePoint
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import scala.concurrent.Future
+import scala.concurrent.duration.DurationInt
+
+class OffsetWatermarkTest extends AnyFlatSpec with Matchers {
+
+  class TestBatch(override val persistenceId: String, offset: Long) extends QueryDBEventBatch {
+    addEvent(ModelEventEnvelope(EventEnvelope(Sequence(offset), persistenceId, offset, null, System.currentTimeMillis())))
+
+    override def handleEvent(envelope: ModelEventEnvelope): Future[Done] = Future.successful(Done)
+
+    override def commit(envelope: ModelEventEnvelope, transactionEvent: CommitEvent): Future[Done] = Future.successful(Done)
+  }
+
+  "OffsetWatermark" should "only move beyond batches that have been committed" in {
+    val watermark = new OffsetWatermark(Sequence(0), 4)
+    val first = new TestBatch("case-1", 1)
+    val second = new TestBatch("case-2", 2)
+    val third = new TestBatch("case-3", 3)
+    Seq(first, second, third).foreach(watermark.register)
+
+    // Second and third batch commit before the first one
+    watermark.committableOffset(second) shouldBe Sequence(0)
+    watermark.completed(second)
+    watermark.committableOffset(third) shouldBe Sequence(0)
+    watermark.completed(third)
+    watermark.size shouldBe 3
+
+    // Now the first batch can store the offset of the third one
+    watermark.committableOffset(first) shouldBe Sequence(3)
+    watermark.completed(first)
+    watermark.size shouldBe 0
+  }
+
+  it should "keep batches of the same persistence id in the same partition" in {
+    val watermark = new OffsetWatermark(Sequence(0), 8)
+    watermark.partitionOf("case-1") shouldBe watermark.partitionOf("case-1")
+    (1 to 100).map(i => watermark.partitionOf(s"case-$i")).foreach(partition => partition should (be >= 0 and be < 8))
+  }
+
+  it should "report lag per partition" in {
+    val watermark = new OffsetWatermark(Sequence(0), 2)
+    val batch = new TestBatch("case-1", 1)
+    watermark.register(batch)
+    watermark.lags.map(_.pendingBatches).sum shouldBe 1
+    watermark.completed(batch)
+    val lag = watermark.lags(watermark.partitionOf("case-1"))
+    lag.pendingBatches shouldBe 0
+    lag.committedBatches shouldBe 1
+  }
+
+  it should "expose the lag per partition in the health report and the throughput log" in {
+    val watermark = new OffsetWatermark(Sequence(0), 2)
+    val batch = new TestBatch("case-1", 1)
+    watermark.register(batch)
+
+    val measurePoint = new HealthMeasurePoint("query-db", isCritical = true)
+    measurePoint.addDetail("partitions", () => Value.convert(watermark.lags))
+    val partitions = measurePoint.asJSON().get("partitions").asList()
+    partitions.size shouldBe 2
+    partitions.get(watermark.partitionOf("case-1")).asMap().readLong("pending-batches") shouldBe 1L
+
+    watermark.completed(batch)
+    // The health report reads the current lags
+    measurePoint.asJSON().get("partitions").asList().get(watermark.partitionOf("case-1")).asMap().readLong("committed-batches") shouldBe 1L
+
+    val throughput = new ProjectionThroughput("TestSink", 0.seconds, () => watermark.lags)
+    throughput.lagReport should include("0 pending")
+    new ProjectionThroughput("TestSink", 0.seconds).lagReport shouldBe ""
+  }
+
+  it should "drop pending batches when the source restarts" in {
+    val watermark = new OffsetWatermark(Sequence(0), 4)
+    val first = new TestBatch("case-1", 1)
+    val second = new TestBatch("case-2", 2)
+    Seq(first, second).foreach(watermark.register)
+    watermark.completed(second)
+
+    // Source restarts from the stored offset, and reads both batches again
+    watermark.restart(Sequence(0))
+    watermark.size shouldBe 0
+    watermark.lags.map(_.pendingBatches).sum shouldBe 0
+
+    // Completion of a dropped batch must not move the watermark
+    watermark.completed(first)
+    watermark.size shouldBe 0
+    watermark.committableOffset(first) shouldBe Sequence(0)
+
+    val firstAgain = new TestBatch("case-1", 1)
+    val secondAgain = new TestBatch("case-2", 2)
+    Seq(firstAgain, secondAgain).foreach(watermark.register)
+    watermark.committableOffset(secondAgain) shouldBe Sequence(0)
+    watermark.completed(secondAgain)
+    watermark.committableOffset(firstAgain) shouldBe Sequence(2)
+  }
+}
@@ -0,0 +1,46 @@
+package org.cafienne.querydb.materializer.cases.file
+
+import org.cafienne.json.ValueMap
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+class CaseFileCacheTest extends AnyFlatSpec with Matchers {
+  private val caseFile = new ValueMap("Greeting", new ValueMap("Message", "hello"))
+
+  "A CaseFileCache" should "hand out a case file to the batch that follows the committed batch" in {
+    val cache = new CaseFileCache(10)
+    cache.checkin("case", caseFile, 5)
+    cache.checkout("case", 6) shouldBe Some(caseFile)
+    // It is checked out, so it is no longer available
+    cache.checkout("case", 6) shouldBe None
+  }
+
+  it should "not hand out a case file when events in between were projected elsewhere" in {
+    val cache = new CaseFileCache(10)
+    cache.checkin("case", caseFile, 5)
+    cache.checkout("case", 9) shouldBe None
+    // The stale case file is removed
+    cache.checkout("case", 6) shouldBe None
+  }
+
+  it should "keep the case file valid after batches that did not change it" in {
+    val cache = new CaseFileCache(10)
+    cache.checkin("case", caseFile, 5)
+    cache.skip("case", 6, 8)
+    cache.checkout("case", 9) shouldBe Some(caseFile)
+  }
+
+  it should "not keep the case file valid when a skipped batch does not follow it" in {
+    val cache = new CaseFileCache(10)
+    cache.checkin("case", caseFile, 5)
+    cache.skip("case", 7, 8)
+    cache.checkout("case", 9) shouldBe None
+  }
+
+  it should "not store anything when disabled" in {
+    val cache = new CaseFileCache(0)
+    cache.enabled shouldBe false
+    cache.checkin("case", caseFile, 5)
+    cache.checkout("case", 6) shouldBe None
+  }
+}
@@ -0,0 +1,117 @@
+package org.cafienne.querydb.materializer.cases.file
+
+import org.cafienne.actormodel.identity.TenantUser
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.casefile.CaseFileItemTransition
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.json.{ValueList, ValueMap}
+import org.cafienne.querydb.materializer.EventFactory
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+class CaseFileDeltaEventsTest extends AnyFlatSpec with Matchers {
+  val user: TenantUser = TestIdentityFactory.createTenantUser("test")
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+  val eventFactory = new EventFactory("delta-case", caseDefinition, user)
+
+  private def greeting = new ValueMap("Message", "hi there", "From", "admin", "Details", new ValueMap("Language", "en"))
+
+  "CaseFileItemPropertiesUpdated" should "merge the changed properties into the current value" in {
+    val event = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello", "Details", new ValueMap("Tone", "friendly")))
+    event.getNewValue(greeting) shouldBe new ValueMap("Message", "hello", "From", "admin", "Details", new ValueMap("Language", "en", "Tone", "friendly"))
+  }
+
+  it should "only copy the changed properties" in {
+    val current = greeting
+    val event = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello", "Details", new ValueMap("Tone", "friendly")))
+    val newValue = event.getNewValue(current).asMap()
+    newValue.`with`("Details").plus("Length", "short")
+
+    newValue should not be theSameInstanceAs(current)
+    newValue.get("Details") should not be theSameInstanceAs(current.get("Details"))
+    newValue.get("From") should be theSameInstanceAs current.get("From")
+    current shouldBe greeting
+    event.getValue shouldBe new ValueMap("Message", "hello", "Details", new ValueMap("Tone", "friendly"))
+  }
+
+  it should "not share nodes with the event" in {
+    val event = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Details", new ValueMap("Tone", "friendly"), "To", new ValueMap("Name", "you")))
+    val newValue = event.getNewValue(greeting).asMap()
+    newValue.`with`("To").plus("Email", "you@example.com")
+
+    newValue.get("Details").asMap().get("Tone") should not be theSameInstanceAs(event.getValue.asMap().`with`("Details").get("Tone"))
+    event.getValue shouldBe new ValueMap("Details", new ValueMap("Tone", "friendly"), "To", new ValueMap("Name", "you"))
+  }
+
+  it should "merge changed lists element by element" in {
+    val current = new ValueMap("Tags", new ValueList("a", "b"))
+    val event = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Tags", new ValueList("c")))
+    event.getNewValue(current) shouldBe new ValueMap("Tags", new ValueList("c", "b"))
+    current shouldBe new ValueMap("Tags", new ValueList("a", "b"))
+  }
+
+  it should "return a copy of the changes if there is no current value" in {
+    val event = eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello"))
+    val newValue = event.getNewValue(null)
+    newValue shouldBe new ValueMap("Message", "hello")
+    newValue should not be theSameInstanceAs(event.getValue)
+  }
+
+  "CaseFileMerger" should "apply delta events on top of the full value" in {
+    val caseFile = new ValueMap()
+    CaseFileMerger.merge(eventFactory.createCaseFileEvent("Greeting", greeting, CaseFileItemTransition.Create), caseFile)
+    CaseFileMerger.merge(eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello")), caseFile)
+    CaseFileMerger.merge(eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("From", "user")), caseFile)
+
+    caseFile shouldBe new ValueMap("Greeting", new ValueMap("Message", "hello", "From", "user", "Details", new ValueMap("Language", "en")))
+  }
+
+  it should "apply delta events on array elements" in {
+    val caseFile = new ValueMap()
+    CaseFileMerger.merge(eventFactory.createCaseFileEvent("Greeting[0]", greeting, CaseFileItemTransition.Create, 0), caseFile)
+    CaseFileMerger.merge(eventFactory.createCaseFilePropertiesUpdated("Greeting[0]", new ValueMap("Message", "hello")), caseFile)
+
+    caseFile.withArray("Greeting").get(0) shouldBe new ValueMap("Message", "hello", "From", "admin", "Details", new ValueMap("Language", "en"))
+  }
+
+  "CaseFileEventBuffer" should "ignore events on child paths of an earlier full event" in {
+    val buffer = new CaseFileEventBuffer
+    buffer.addEvent(eventFactory.createCaseFileEvent("Greeting", greeting, CaseFileItemTransition.Replace))
+    buffer.addEvent(eventFactory.createCaseFileEvent("Greeting/Details", new ValueMap("Language", "nl"), CaseFileItemTransition.Replace))
+
+    val caseFile = new ValueMap()
+    buffer.update(caseFile)
+    caseFile shouldBe new ValueMap("Greeting", greeting)
+  }
+
+  it should "not let a delta event override events on child paths" in {
+    val buffer = new CaseFileEventBuffer
+    buffer.addEvent(eventFactory.createCaseFileEvent("Greeting/Details", new ValueMap("Language", "nl"), CaseFileItemTransition.Replace))
+    buffer.addEvent(eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello")))
+
+    val caseFile = new ValueMap("Greeting", greeting)
+    buffer.update(caseFile)
+    caseFile shouldBe new ValueMap("Greeting", new ValueMap("Message", "hello", "From", "admin", "Details", new ValueMap("Language", "nl")))
+  }
+
+  it should "keep events on child paths after a delta event" in {
+    val buffer = new CaseFileEventBuffer
+    buffer.addEvent(eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello")))
+    buffer.addEvent(eventFactory.createCaseFileEvent("Greeting/Details", new ValueMap("Language", "nl"), CaseFileItemTransition.Replace))
+
+    val caseFile = new ValueMap("Greeting", greeting)
+    buffer.update(caseFile)
+    caseFile shouldBe new ValueMap("Greeting", new ValueMap("Message", "hello", "From", "admin", "Details", new ValueMap("Language", "nl")))
+  }
+
+  it should "apply a full event after earlier delta events on the same path" in {
+    val buffer = new CaseFileEventBuffer
+    buffer.addEvent(eventFactory.createCaseFilePropertiesUpdated("Greeting", new ValueMap("Message", "hello")))
+    buffer.addEvent(eventFactory.createCaseFileEvent("Greeting", new ValueMap("Message", "replaced"), CaseFileItemTransition.Replace))
+
+    val caseFile = new ValueMap("Greeting", greeting)
+    buffer.update(caseFile)
+    caseFile.get("Greeting") shouldBe new ValueMap("Message", "replaced")
+  }
+}
@@ -0,0 +1,64 @@
+package org.cafienne.querydb.materializer.slick
+
+import akka.actor.ActorSystem
+import akka.persistence.query.Sequence
+import akka.testkit.TestKit
+import org.cafienne.infrastructure.config.TestConfig
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+import org.cafienne.querydb.schema.QueryDB
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpecLike
+import org.scalatest.matchers.should.Matchers
+import slick.dbio.DBIO
+
+import scala.concurrent.duration._
+import scala.concurrent.{Await, Future}
+import scala.util.Try
+
+class SlickGroupCommitTest extends TestKit(ActorSystem("testsystem", TestConfig.config)) with AnyFlatSpecLike with Matchers with BeforeAndAfterAll {
+
+  override def beforeAll(): Unit = {
+    QueryDB.verifyConnectivity()
+  }
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  private def offset(name: String, value: Long) = Some(OffsetRecord(name, Sequence(value)))
+
+  private def storedOffset(offsetName: String) = Await.result(SlickQueryDB.getOffset(offsetName), 3.seconds)
+
+  private def await(future: Future[_]) = Try(Await.result(future, 3.seconds))
+
+  "SlickGroupCommit" should "store the highest offset of a group, regardless of the order of the batches" in {
+    val groupCommit = new SlickGroupCommit(3, 1.second)
+    val commits = Seq(3L, 5L, 4L).map(value => groupCommit.submit(Seq(), offset("group-offset", value)))
+    commits.map(await).foreach(_.isSuccess shouldBe true)
+    storedOffset("group-offset") shouldBe Sequence(5)
+  }
+
+  it should "commit a group that is not full after the maximum delay" in {
+    val groupCommit = new SlickGroupCommit(3, 20.millis)
+    await(groupCommit.submit(Seq(), offset("delayed-offset", 1))).isSuccess shouldBe true
+    storedOffset("delayed-offset") shouldBe Sequence(1)
+  }
+
+  it should "not fail the other batches of a group when one batch fails" in {
+    val groupCommit = new SlickGroupCommit(3, 1.second)
+    val first = groupCommit.submit(Seq(), offset("isolated-offset-1", 1))
+    val failing = groupCommit.submit(Seq(SingleStatement(DBIO.failed(new IllegalStateException("Failing batch")))), offset("isolated-offset-2", 2))
+    val last = groupCommit.submit(Seq(), offset("isolated-offset-3", 3))
+
+    await(first).isSuccess shouldBe true
+    await(failing).isFailure shouldBe true
+    await(last).isSuccess shouldBe true
+    storedOffset("isolated-offset-1") shouldBe Sequence(1)
+    storedOffset("isolated-offset-3") shouldBe Sequence(3)
+  }
+
+  "The highest offsets" should "be taken per offset name" in {
+    val offsets = Seq(OffsetRecord("a", Sequence(2)), OffsetRecord("b", Sequence(7)), OffsetRecord("a", Sequence(9)), OffsetRecord("a", Sequence(4)))
+    SlickGroupCommit.highestOffsets(offsets).map(record => record.name -> record.asOffset()).toMap shouldBe Map("a" -> Sequence(9), "b" -> Sequence(7))
+  }
+}
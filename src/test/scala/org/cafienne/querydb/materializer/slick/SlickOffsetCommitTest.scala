@@ -0,0 +1,52 @@
+package org.cafienne.querydb.materializer.slick
+
+import akka.actor.ActorSystem
+import akka.persistence.query.Sequence
+import akka.testkit.TestKit
+import org.cafienne.infrastructure.config.TestConfig
+import org.cafienne.infrastructure.cqrs.offset.OffsetRecord
+import org.cafienne.querydb.schema.QueryDB
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpecLike
+import org.scalatest.matchers.should.Matchers
+
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+class SlickOffsetCommitTest extends TestKit(ActorSystem("testsystem", TestConfig.config)) with AnyFlatSpecLike with Matchers with BeforeAndAfterAll {
+
+  override def beforeAll(): Unit = {
+    QueryDB.verifyConnectivity()
+  }
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  private def commitOffset(offsetName: String, offset: Long): Unit = {
+    val transaction = SlickQueryDB.createCaseTransaction(null)
+    transaction.upsert(OffsetRecord(offsetName, Sequence(offset)))
+    Await.result(transaction.commit(), 3.seconds)
+  }
+
+  private def storedOffset(offsetName: String) = Await.result(SlickQueryDB.getOffset(offsetName), 3.seconds)
+
+  "Committing an offset" should "move the stored offset forward" in {
+    commitOffset("forward-offset", 3)
+    commitOffset("forward-offset", 5)
+    storedOffset("forward-offset") shouldBe Sequence(5)
+  }
+
+  it should "not move the stored offset backwards when batches commit out of order" in {
+    // The batch with the higher watermark commits before the batch that was prepared earlier with a lower watermark
+    commitOffset("out-of-order-offset", 7)
+    commitOffset("out-of-order-offset", 4)
+    storedOffset("out-of-order-offset") shouldBe Sequence(7)
+  }
+
+  "An offset record" should "only be before records of the same offset type" in {
+    OffsetRecord("a", Sequence(1)).isBefore(OffsetRecord("a", Sequence(2))) shouldBe true
+    OffsetRecord("a", Sequence(2)).isBefore(OffsetRecord("a", Sequence(1))) shouldBe false
+    OffsetRecord("a", Sequence(2)).isBefore(OffsetRecord("a", akka.persistence.query.NoOffset)) shouldBe false
+  }
+}
@@ -0,0 +1,87 @@
+package org.cafienne.service.akkahttp.cases.history
+
+import akka.NotUsed
+import akka.actor.ActorSystem
+import akka.persistence.query.{EventEnvelope, Sequence}
+import akka.stream.scaladsl.{Sink, Source}
+import org.cafienne.actormodel.event.ModelEvent
+import org.cafienne.actormodel.identity.TenantUser
+import org.cafienne.cmmn.definition.CaseDefinition
+import org.cafienne.cmmn.instance.{PlanItemType, State, Transition}
+import org.cafienne.cmmn.test.TestScript.loadCaseDefinition
+import org.cafienne.identity.TestIdentityFactory
+import org.cafienne.infrastructure.cqrs.ModelEventEnvelope
+import org.cafienne.querydb.materializer.EventFactory
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import java.time.Instant
+import scala.collection.mutable
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationInt
+
+class PlanItemHistoryMergerTest extends AnyFlatSpec with Matchers with BeforeAndAfterAll {
+  implicit val system: ActorSystem = ActorSystem("PlanItemHistoryMergerTest")
+
+  override def afterAll(): Unit = Await.ready(system.terminate(), 5.seconds)
+
+  val user: TenantUser = TestIdentityFactory.createTenantUser("test")
+  val caseDefinition: CaseDefinition = loadCaseDefinition("testdefinition/helloworld.xml")
+  val eventFactory = new EventFactory("history-case", caseDefinition, user)
+
+  private def envelope(sequenceNr: Long, event: ModelEvent): ModelEventEnvelope = {
+    ModelEventEnvelope(EventEnvelope(Sequence(sequenceNr), "history-case", sequenceNr, event, 0L))
+  }
+
+  private val envelopes = Seq(
+    envelope(1, eventFactory.createCaseDefinitionApplied()),
+    envelope(2, eventFactory.createPlanItemCreated("1", PlanItemType.CasePlan, "HelloWorld", "")),
+    envelope(3, eventFactory.createPlanItemCreated("2", PlanItemType.HumanTask, "Task", "1")),
+    envelope(4, eventFactory.createPlanItemTransitioned("1", PlanItemType.CasePlan, State.Active, State.Available, Transition.Start)),
+    envelope(5, eventFactory.createCaseModified(Instant.now)),
+    envelope(6, eventFactory.createPlanItemTransitioned("2", PlanItemType.HumanTask, State.Active, State.Available, Transition.Start))
+  )
+
+  private def history(events: Long => Source[ModelEventEnvelope, NotUsed]): Seq[PlanItemHistory] = {
+    Await.result(PlanItemHistoryMerger.casePlanHistory(events).runWith(Sink.seq), 5.seconds)
+  }
+
+  "casePlanHistory" should "stream the history per plan item with two reads of the events" in {
+    var numberOfReads = 0
+    val histories = history(to => {
+      numberOfReads += 1
+      Source(envelopes.filter(_.sequenceNr <= to))
+    })
+
+    histories.map(_.records.map(_.planItemId)) shouldBe Seq(Seq("1", "1"), Seq("2", "2"))
+    histories.map(_.records.map(_.sequenceNr)) shouldBe Seq(Seq(2L, 4L), Seq(3L, 6L))
+    numberOfReads shouldBe 2 // One read for the last events, and one to build the histories
+  }
+
+  it should "emit the history of a plan item when its last event has passed" in {
+    val reordered = envelopes :+ envelope(7, eventFactory.createPlanItemTransitioned("1", PlanItemType.CasePlan, State.Completed, State.Active, Transition.Complete))
+    val histories = history(to => Source(reordered.filter(_.sequenceNr <= to)))
+
+    histories.map(_.records.map(_.sequenceNr)) shouldBe Seq(Seq(3L, 6L), Seq(2L, 4L, 7L))
+  }
+
+  it should "only read the events that were present during the first read" in {
+    var journal = envelopes
+    val requestedTo = mutable.ArrayBuffer[Long]()
+    val histories = history(to => {
+      requestedTo += to
+      val events = Source(journal.filter(_.sequenceNr <= to))
+      // The case changes after the first read
+      journal = journal :+ envelope(journal.size + 1, eventFactory.createPlanItemTransitioned("2", PlanItemType.HumanTask, State.Completed, State.Active, Transition.Complete))
+      events
+    })
+
+    requestedTo shouldBe Seq(Long.MaxValue, 6L)
+    histories.map(_.records.map(_.sequenceNr)) shouldBe Seq(Seq(2L, 4L), Seq(3L, 6L))
+  }
+
+  it should "be empty when there are no case plan events" in {
+    history(to => Source(envelopes.take(1).filter(_.sequenceNr <= to))) shouldBe Seq()
+  }
+}
@@ -0,0 +1,103 @@
+package org.cafienne.storage.archive
+
+import org.cafienne.json.{ValueList, ValueMap}
+import org.cafienne.storage.StorageUser
+import org.cafienne.storage.actormodel.{ActorMetadata, ActorType}
+import org.cafienne.storage.archival.Archive
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import java.io.{ByteArrayInputStream, ByteArrayOutputStream, IOException}
+
+class ArchiveStreamFormatTest extends AnyFlatSpec with Matchers {
+  private val caseMetadata = ActorMetadata(StorageUser("user", "tenant"), ActorType.Case, "case")
+  private val processMetadata = caseMetadata.processMember("process")
+  private val subCaseMetadata = caseMetadata.caseMember("sub-case")
+
+  private def events(actorId: String, count: Int): ValueList = {
+    val list = new ValueList
+    (1 to count).foreach(nr => list.add(new ValueMap("actorId", actorId, "nr", Integer.valueOf(nr), "text", "line 1\nline 2")))
+    list
+  }
+
+  private val archive = Archive(caseMetadata, events("case", 3), Seq(
+    Archive(processMetadata, events("process", 2)),
+    Archive(subCaseMetadata, events("sub-case", 0))
+  ))
+
+  private def write(archive: Archive): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    ArchiveStreamFormat.write(archive, out)
+    out.toByteArray
+  }
+
+  "ArchiveStreamFormat" should "write one line per archive header and per event" in {
+    new String(write(archive)).split("\n").length shouldBe 3 + 3 + 2
+  }
+
+  it should "read the archive tree back" in {
+    val restored = ArchiveStreamFormat.read(new ByteArrayInputStream(write(archive)))
+
+    restored.metadata.path shouldBe caseMetadata.path
+    restored.events shouldBe archive.events
+    restored.children.map(_.metadata.path) shouldBe Seq(processMetadata.path, subCaseMetadata.path)
+    restored.children.map(_.events) shouldBe archive.children.map(_.events)
+  }
+
+  it should "read the structure of the archive tree without the events" in {
+    val structure = ArchiveStreamFormat.readStructure(new ByteArrayInputStream(write(archive)))
+
+    structure.metadata.path shouldBe caseMetadata.path
+    structure.children.map(_.metadata.path) shouldBe Seq(processMetadata.path, subCaseMetadata.path)
+    (structure +: structure.children).foreach(_.events.size shouldBe 0)
+  }
+
+  private def readNodes(bytes: Array[Byte]): Seq[Archive] = {
+    val nodes = scala.collection.mutable.ListBuffer[Archive]()
+    ArchiveStreamFormat.readNodes(new ByteArrayInputStream(bytes))(nodes += _)
+    nodes.toSeq
+  }
+
+  it should "read the events of all nodes in one pass, depth first" in {
+    val nodes = readNodes(write(archive))
+
+    nodes.map(_.metadata.path) shouldBe Seq(caseMetadata.path, processMetadata.path, subCaseMetadata.path)
+    nodes.map(_.events) shouldBe Seq(archive.events) ++ archive.children.map(_.events)
+    nodes.foreach(_.children shouldBe Seq())
+  }
+
+  it should "fail to read the nodes when a node is missing" in {
+    val bytes = write(archive)
+    // Leave out the last node, i.e. the header of the sub case (which has no events)
+    val withoutLastNode = bytes.take(bytes.lastIndexOf('\n'.toByte, bytes.length - 2) + 1)
+    val nodes = scala.collection.mutable.ListBuffer[Archive]()
+    assertThrows[IOException] {
+      ArchiveStreamFormat.readNodes(new ByteArrayInputStream(withoutLastNode))(nodes += _)
+    }
+    // The nodes before it have been handed over
+    nodes.map(_.metadata.path) shouldBe Seq(caseMetadata.path, processMetadata.path)
+  }
+
+  it should "fail to read the nodes of a corrupt archive" in {
+    val corrupt = new String(write(archive)).replace("\"nr\"", "nr").getBytes
+    assertThrows[IOException] {
+      readNodes(corrupt)
+    }
+  }
+
+  it should "write the same content node by node" in {
+    val out = new ByteArrayOutputStream()
+    ArchiveStreamFormat.write(out)(writer => {
+      writer.writeNode(caseMetadata, archive.events, 2)
+      archive.children.foreach(child => writer.writeNode(child.metadata, child.events, 0))
+    })
+    out.toByteArray shouldBe write(archive)
+  }
+
+  it should "fail on an archive that is not complete" in {
+    val bytes = write(archive)
+    assertThrows[IOException] {
+      ArchiveStreamFormat.read(new ByteArrayInputStream(bytes.take(bytes.lastIndexOf('\n'.toByte, bytes.length - 2) + 1)))
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package org.cafienne.storage.archive.file
+
+import org.cafienne.json.{ValueList, ValueMap}
+import org.cafienne.storage.StorageUser
+import org.cafienne.storage.actormodel.{ActorMetadata, ActorType}
+import org.cafienne.storage.archival.Archive
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import java.nio.charset.StandardCharsets
+import java.nio.file.Files
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Future}
+
+class FileBasedStorageTest extends AnyFlatSpec with Matchers with BeforeAndAfterAll {
+  private val directory = Files.createTempDirectory("archive").toFile
+  private val storage = new FileBasedStorage(directory)
+
+  override def afterAll(): Unit = {
+    directory.listFiles().foreach(_.delete())
+    directory.delete()
+  }
+
+  private def events(actorId: String, count: Int): ValueList = {
+    val list = new ValueList
+    (1 to count).foreach(nr => list.add(new ValueMap("actorId", actorId, "nr", Integer.valueOf(nr))))
+    list
+  }
+
+  private def createArchive(caseId: String): Archive = {
+    val caseMetadata = ActorMetadata(StorageUser("user", "tenant"), ActorType.Case, caseId)
+    Archive(caseMetadata, events(caseId, 3), Seq(
+      Archive(caseMetadata.processMember(s"$caseId-process"), events(s"$caseId-process", 2)),
+      Archive(caseMetadata.caseMember(s"$caseId-sub-case"), events(s"$caseId-sub-case", 1))
+    ))
+  }
+
+  private def await[T](future: Future[T]): T = Await.result(future, 5.seconds)
+
+  private def verify(archive: Archive): Unit = {
+    val metadata = archive.metadata
+    val restored = await(storage.retrieve(metadata))
+    restored.events shouldBe archive.events
+    restored.children.map(_.events) shouldBe archive.children.map(_.events)
+
+    val structure = await(storage.retrieveStructure(metadata))
+    structure.children.map(_.metadata.path) shouldBe archive.children.map(_.metadata.path)
+    (structure +: structure.children).foreach(_.events.size shouldBe 0)
+
+    val nodes = retrieveNodes(metadata)
+    nodes.map(_.metadata.path) shouldBe (archive +: archive.children).map(_.metadata.path)
+    nodes.map(_.events) shouldBe (archive +: archive.children).map(_.events)
+    nodes.foreach(_.children shouldBe Seq())
+  }
+
+  private def retrieveNodes(metadata: ActorMetadata): Seq[Archive] = {
+    val nodes = scala.collection.mutable.ListBuffer[Archive]()
+    await(storage.retrieveNodes(metadata)(nodes += _))
+    nodes.toSeq
+  }
+
+  "FileBasedStorage" should "store and retrieve archives as gzipped ndjson" in {
+    val archive = createArchive("case")
+    await(storage.store(archive))
+
+    storage.getFile(archive.metadata).exists() shouldBe true
+    storage.getLegacyFile(archive.metadata).exists() shouldBe false
+    verify(archive)
+  }
+
+  it should "retrieve archives from the json files of previous versions" in {
+    val archive = createArchive("legacy-case")
+    Files.write(storage.getLegacyFile(archive.metadata).toPath, archive.toString.getBytes(StandardCharsets.UTF_8))
+
+    storage.getFile(archive.metadata).exists() shouldBe false
+    verify(archive)
+  }
+
+  it should "parse a legacy archive only once for its structure and its nodes" in {
+    val archive = createArchive("parsed-legacy-case")
+    val legacyFile = storage.getLegacyFile(archive.metadata)
+    Files.write(legacyFile.toPath, archive.toString.getBytes(StandardCharsets.UTF_8))
+
+    await(storage.retrieveStructure(archive.metadata))
+    // The nodes are taken from the archive parsed for the structure, not from the file
+    Files.write(legacyFile.toPath, "not json".getBytes(StandardCharsets.UTF_8))
+    retrieveNodes(archive.metadata).map(_.events) shouldBe (archive +: archive.children).map(_.events)
+  }
+
+  it should "fail to retrieve the nodes of a corrupt archive" in {
+    val archive = createArchive("corrupt-case")
+    await(storage.store(archive))
+    val file = storage.getFile(archive.metadata)
+    val bytes = Files.readAllBytes(file.toPath)
+    Files.write(file.toPath, bytes.take(bytes.length / 2))
+    assertThrows[Exception] {
+      retrieveNodes(archive.metadata)
+    }
+  }
+
+  it should "fail to retrieve the nodes of an archive that does not exist" in {
+    val metadata = ActorMetadata(StorageUser("user", "tenant"), ActorType.Case, "missing-case")
+    assertThrows[Exception] {
+      retrieveNodes(metadata)
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package org.cafienne.system.router
+
+import akka.actor.{Actor, ActorRef, ActorSystem, Props}
+import akka.dispatch.MessageDispatcher
+import akka.testkit.{ImplicitSender, TestKit}
+import org.cafienne.cmmn.instance.Case
+import org.cafienne.infrastructure.config.TestConfig
+import org.cafienne.processtask.instance.ProcessTaskActor
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpecLike
+import org.scalatest.matchers.should.Matchers
+
+import scala.collection.mutable
+
+class ModelActorDeploymentTest
+  extends TestKit(ActorSystem("testsystem", TestConfig.config))
+    with ImplicitSender
+    with AnyFlatSpecLike
+    with Matchers
+    with BeforeAndAfterAll {
+
+  override def afterAll(): Unit = {
+    TestKit.shutdownActorSystem(system)
+  }
+
+  /**
+    * Creates a router-like parent actor with the given name, and returns the dispatcher on which its child runs
+    */
+  private def deployedDispatcher(routerName: String, actorClass: Class[_]): String = {
+    val childProps = CaseMessageRouter.withDispatcher(Props(new DispatcherReporter), actorClass)
+    val router = system.actorOf(Props(new ChildCreator(childProps)), routerName)
+    router ! "dispatcher"
+    expectMsgType[String]
+  }
+
+  "A process task in the first router partition" should "run on the process task dispatcher" in {
+    deployedDispatcher("process-tasks", classOf[ProcessTaskActor]) shouldBe CaseMessageRouter.PROCESS_TASK_DISPATCHER
+  }
+
+  "A process task in an additional router partition" should "run on the process task dispatcher" in {
+    deployedDispatcher("process-tasks-1", classOf[ProcessTaskActor]) shouldBe CaseMessageRouter.PROCESS_TASK_DISPATCHER
+  }
+
+  "A case in an additional router partition" should "run on the default dispatcher" in {
+    deployedDispatcher("cases-1", classOf[Case]) shouldBe "akka.actor.default-dispatcher"
+  }
+
+  "An additional case router partition" should "take the mailbox of the first partition" in {
+    val props = LocalRouter.props(system, null, mutable.Map(), mutable.Map(), "cases-1", "cases")
+    props.mailbox shouldBe "akka.actor.localrouter-mailbox"
+  }
+
+  "An additional tenant router partition" should "keep the default mailbox" in {
+    val props = LocalRouter.props(system, null, mutable.Map(), mutable.Map(), "tenants-1", "tenants")
+    props.mailbox shouldBe Props.empty.mailbox
+  }
+}
+
+class ChildCreator(childProps: Props) extends Actor {
+  private val child: ActorRef = context.actorOf(childProps, "child")
+
+  override def receive: Receive = {
+    case message => child.forward(message)
+  }
+}
+
+class DispatcherReporter extends Actor {
+  override def receive: Receive = {
+    case _ => sender() ! context.dispatcher.asInstanceOf[MessageDispatcher].id
+  }
+}
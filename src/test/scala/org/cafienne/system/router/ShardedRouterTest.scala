@@ -0,0 +1,37 @@
+package org.cafienne.system.router
+
+import akka.actor.{Address, RootActorPath}
+import org.cafienne.processtask.instance.ProcessTaskActor
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+class ShardedRouterTest extends AnyFlatSpec with Matchers {
+  private val root = RootActorPath(Address("akka", "Cafienne-Case-System", "localhost", 2552))
+
+  "A termination request" should "look up the entity under the shard of its actor id" in {
+    val shard = ShardedRouter.shardId("case-1", 100)
+    val path = ShardedRouter.entityPath(root, "Case", "case-1", 100)
+    path.toStringWithoutAddress shouldBe s"/system/sharding/Case/$shard/case-1"
+  }
+
+  it should "encode actor ids like the shard does" in {
+    val path = ShardedRouter.entityPath(root, "Case", "case 1/a", 100)
+    path.name shouldBe "case+1%2Fa"
+  }
+
+  "An actor id" should "be recovered from the actor name in both local and sharded mode" in {
+    Seq("case-1", "case 1/a", "case:1@tenant+a,b=c", "100%").foreach(actorId => {
+      val shardedName = ShardedRouter.entityPath(root, "Case", actorId, 100).name
+      val localName = CaseMessageRouter.actorName(actorId)
+      localName shouldBe shardedName
+      CaseMessageRouter.actorId(shardedName) shouldBe actorId
+      CaseMessageRouter.actorId(localName) shouldBe actorId
+    })
+  }
+
+  "A termination request" should "default to the case region when the actor type is unknown" in {
+    ShardedRouter.typeName(classOf[ProcessTaskActor].getSimpleName) shouldBe "ProcessTaskActor"
+    ShardedRouter.typeName("") shouldBe "Case"
+    ShardedRouter.typeName(null) shouldBe "Case"
+  }
+}
@@ -0,0 +1,82 @@
+package org.cafienne.timerservice
+
+import akka.actor.ActorSystem
+import org.cafienne.timerservice.persistence.inmemory.InMemoryStore
+import org.scalatest.BeforeAndAfterAll
+import org.scalatest.flatspec.AnyFlatSpec
+import org.scalatest.matchers.should.Matchers
+
+import java.time.Instant
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationInt
+
+class TimingWheelTest extends AnyFlatSpec with Matchers with BeforeAndAfterAll {
+  implicit val system: ActorSystem = ActorSystem("TimingWheelTest")
+
+  private val tick = 100
+  private val start = 1_000_000_000_000L
+
+  override def afterAll(): Unit = {
+    Await.ready(system.terminate(), 10.seconds)
+  }
+
+  private def timer(id: String, moment: Long): Timer = Timer("case", id, Instant.ofEpochMilli(moment), "user")
+
+  "TimingWheel" should "raise timers after their moment and at most one tick late" in {
+    val wheel = new TimingWheel(tick, 8, start)
+    wheel.add(timer("early", start + 50))
+    wheel.add(timer("late", start + 2_000)) // More than one revolution ahead
+    wheel.add(timer("past", start - 5_000))
+
+    wheel.advance(start + 99) shouldBe Seq()
+    wheel.advance(start + 100).map(_.timerId) should contain theSameElementsAs Seq("early", "past")
+    wheel.advance(start + 1_999) shouldBe Seq()
+    wheel.advance(start + 2_100).map(_.timerId) shouldBe Seq("late")
+  }
+
+  it should "not raise removed timers, nor raised timers that are added again" in {
+    val wheel = new TimingWheel(tick, 8, start)
+    wheel.add(timer("removed", start + 50))
+    wheel.add(timer("raised", start + 50))
+    wheel.remove("removed") shouldBe true
+    wheel.advance(start + 100).map(_.timerId) shouldBe Seq("raised")
+
+    // Loading the next window from storage gives the timer again, until it has been removed
+    wheel.add(timer("raised", start + 50)) shouldBe false
+    wheel.advance(start + 200) shouldBe Seq()
+    wheel.remove("raised") shouldBe true
+    wheel.size shouldBe 0
+  }
+
+  it should "schedule 1 million timers streamed from the in-memory store" in {
+    val numberOfTimers = 1_000_000
+    val window = 65 * 60 * 1000
+    val store = new InMemoryStore()
+    // Spread the timers over the window, with many timers on the same moment
+    val moments = (0 until window by 1000).map(offset => Instant.ofEpochMilli(start + offset)).toArray
+    (0 until numberOfTimers).grouped(100_000).foreach(ids => {
+      store.importTimers(ids.map(id => Timer("case", id.toString, moments(id % moments.length), "user")))
+    })
+
+    val wheel = new TimingWheel(tick, 512, start)
+    val loaded = store.streamTimers(Instant.ofEpochMilli(start + window), 1000).runFold(0)((count, timer) => {
+      wheel.add(timer)
+      count + 1
+    })
+    Await.result(loaded, 60.seconds) shouldBe numberOfTimers
+    wheel.size shouldBe numberOfTimers
+
+    var raised = 0
+    (start to start + window + 1000 by 1000).foreach(now => {
+      val timers = wheel.advance(now)
+      timers.foreach(timer => {
+        val moment = timer.moment.toEpochMilli
+        moment should be <= now
+        (now - moment) should be <= (1000L + tick)
+      })
+      raised += timers.size
+    })
+    raised shouldBe numberOfTimers
+    wheel.advance(start + 2 * window) shouldBe Seq()
+  }
+}